@@ -0,0 +1,107 @@
+package org.ek.portfoliobackend.benchmark;
+
+import org.ek.portfoliobackend.PortfolioBackendApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of GET /uploads/** over HTTP for the three ways a file can be served:
+ *  - resource-handler: Spring's ResourceHttpRequestHandler (file.serving.zero-copy=false)
+ *  - zero-copy: ImageServingController with the off-heap cache off, so every request is a sendfile from disk
+ *  - cached: ImageServingController with the default cache, so the file is served from the off-heap cache
+ * Multiply ops/s by the file size for bytes per second.
+ *
+ * Run with:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.include=ImageServingBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ImageServingBenchmark {
+
+    @Param({"resource-handler", "zero-copy", "cached"})
+    private String serving;
+
+    @Param({"64", "1024"})
+    private int fileKilobytes;
+
+    private Path uploadDir;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("portfolio-image-serving-benchmark");
+        String filename = UUID.randomUUID() + ".jpg";
+        byte[] content = new byte[fileKilobytes * 1024];
+        new Random(42).nextBytes(content);
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xD8;
+        Files.write(uploadDir.resolve(filename), content);
+
+        context = new SpringApplicationBuilder(PortfolioBackendApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + serving,
+                        "--file.upload-dir=" + uploadDir + "/",
+                        "--file.sharded-layout=false",
+                        "--file.serving.zero-copy=" + !serving.equals("resource-handler"),
+                        // Without this the zero-copy run would measure cache hits from the second request on
+                        "--file.serving.cache.max-bytes=" + (serving.equals("zero-copy") ? 0 : 67108864));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/uploads/" + filename)).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public int get() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + request.uri() + " returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
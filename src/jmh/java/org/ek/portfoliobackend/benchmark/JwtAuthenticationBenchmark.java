@@ -0,0 +1,79 @@
+package org.ek.portfoliobackend.benchmark;
+
+import org.ek.portfoliobackend.model.User;
+import org.ek.portfoliobackend.security.JwtPrincipal;
+import org.ek.portfoliobackend.security.JwtTokenService;
+import org.ek.portfoliobackend.security.TokenRevocationList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token: signature check, claim parsing, expiry and
+ * revocation lookup, all in memory. validate runs on one thread, validateAllCores on all of them,
+ * next to the cost of issuing a token (done once per login).
+ *
+ * Run with:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.include=JwtAuthenticationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtAuthenticationBenchmark {
+
+    // Revoked tokens in the list, so the lookup is not into an empty map
+    @Param({"0", "10000"})
+    private int revokedTokens;
+
+    private JwtTokenService service;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        TokenRevocationList revocationList = new TokenRevocationList();
+        service = new JwtTokenService("benchmark-secret-key-that-is-32-bytes-long", 3_600_000, 30,
+                JsonMapper.builder().build(), revocationList, Clock.systemUTC());
+        user = new User(1L, "benchmark", "bench@test.dk", "x", "ROLE_ADMIN");
+
+        for (int i = 0; i < revokedTokens; i++) {
+            revocationList.revoke("revoked-" + i, Instant.now().plusSeconds(3600));
+        }
+        token = service.issue(user);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String issue() {
+        return service.issue(user);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public JwtPrincipal validate() {
+        return service.validate(token);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public JwtPrincipal validateAllCores() {
+        return service.validate(token);
+    }
+}
@@ -0,0 +1,69 @@
+package org.ek.portfoliobackend.benchmark;
+
+import org.ek.portfoliobackend.service.impl.PasswordHashingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt hashes per second and time per hash for each cost factor and hashing pool size.
+ * Use it to pick security.password.bcrypt-cost and hash-threads: each step in cost doubles the time,
+ * and the pool size caps how much CPU hashing can take.
+ *
+ * Callers run on all cores, like request threads during a burst of sign-ups, so with a small pool
+ * the time per hash includes the wait for a pool thread.
+ *
+ * Run with:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.include=PasswordHashingBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+
+    @Param({"8", "10", "12"})
+    private int cost;
+
+    // Threads in the hashing pool (security.password.hash-threads)
+    @Param({"1", "2", "4"})
+    private int hashThreads;
+
+    private final AtomicLong passwords = new AtomicLong();
+    private ExecutorService pool;
+    private PasswordHashingServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(hashThreads);
+        service = new PasswordHashingServiceImpl(cost, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public String hash() {
+        return service.hash("password-" + passwords.incrementAndGet());
+    }
+}
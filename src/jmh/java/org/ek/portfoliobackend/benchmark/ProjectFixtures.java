@@ -0,0 +1,72 @@
+package org.ek.portfoliobackend.benchmark;
+
+import org.ek.portfoliobackend.model.CustomerType;
+import org.ek.portfoliobackend.model.Image;
+import org.ek.portfoliobackend.model.ImageType;
+import org.ek.portfoliobackend.model.Project;
+import org.ek.portfoliobackend.model.WorkType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Projects shaped like the ones in production: a title, a paragraph of description and
+ * 2-8 before/after images with dimensions, blurhash and dominant color set.
+ * Built from a fixed seed, so every benchmark run measures the same data.
+ */
+final class ProjectFixtures {
+
+    private static final String DESCRIPTION = "Grundig rens af fliser og fuger med efterfølgende imprægnering. "
+            + "Alger og mos er fjernet, ukrudt i fugerne er børstet op, og der er fejet ny fugesand i. "
+            + "Kunden ønskede en behandling der holder belægningen ren i flere sæsoner.";
+
+    private ProjectFixtures() {
+    }
+
+    static List<Project> projects(int count) {
+        List<Project> projects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            projects.add(project(i));
+        }
+        return projects;
+    }
+
+    static Project project(int index) {
+        Project project = new Project();
+        project.setId((long) index + 1);
+        project.setTitle("Fliserens og imprægnering, indkørsel " + (index + 1));
+        project.setDescription(DESCRIPTION);
+        project.setWorkType(WorkType.values()[index % WorkType.values().length]);
+        project.setCustomerType(CustomerType.values()[index % CustomerType.values().length]);
+        project.setExecutionDate(LocalDate.of(2024, 1, 1).plusDays(index % 365));
+        project.setCreationDate(LocalDate.of(2024, 1, 1).plusDays(index % 365 + 2));
+        project.setLastModified(Instant.parse("2024-06-01T12:00:00Z"));
+        project.setVersion((long) index % 5);
+
+        int imageCount = 2 + index % 7;
+        List<Image> images = new ArrayList<>(imageCount);
+        for (int j = 0; j < imageCount; j++) {
+            images.add(image(project, index * 10L + j, j));
+        }
+        project.setImages(images);
+        return project;
+    }
+
+    static Image image(Project project, long id, int position) {
+        Image image = new Image();
+        image.setId(id + 1);
+        image.setUrl("/uploads/" + Long.toHexString((id + 1) * 0x9E3779B97F4A7C15L) + ".jpg");
+        image.setImageType(position % 2 == 0 ? ImageType.BEFORE : ImageType.AFTER);
+        image.setIsFeatured(position == 1);
+        image.setContentType("image/jpeg");
+        image.setWidth(1920);
+        image.setHeight(1440);
+        image.setBlurhash("LGF5]+Yk^6#M@-5c,1J5@[or[Q6.");
+        image.setDominantColor("#7a8b6c");
+        image.setVersion(0L);
+        image.setProject(project);
+        return image;
+    }
+}
@@ -0,0 +1,78 @@
+package org.ek.portfoliobackend.benchmark;
+
+import org.ek.portfoliobackend.dto.response.ImageResponse;
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.mapper.ProjectMapper;
+import org.ek.portfoliobackend.model.Image;
+import org.ek.portfoliobackend.model.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping done for every project in a GET /api/projects response.
+ * Run with -prof gc (the jmh profile does) to see gc.alloc.rate.norm, the bytes allocated per operation.
+ *
+ * Run with:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.include=ProjectMapperBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProjectMapperBenchmark {
+
+    // Number of projects in the list mapped per operation
+    @Param({"1", "25", "100", "500"})
+    private int projectCount;
+
+    private ProjectMapper mapper;
+    private List<Project> projects;
+    private Image image;
+
+    @Setup
+    public void setUp() {
+        mapper = new ProjectMapper();
+        projects = ProjectFixtures.projects(projectCount);
+        image = projects.getFirst().getImages().getFirst();
+    }
+
+    @Benchmark
+    public void toResponse(Blackhole blackhole) {
+        for (Project project : projects) {
+            blackhole.consume(mapper.toResponse(project));
+        }
+    }
+
+    @Benchmark
+    public void toProjectResponse(Blackhole blackhole) {
+        for (Project project : projects) {
+            blackhole.consume(mapper.toProjectResponse(project));
+        }
+    }
+
+    // The list the controller returns, mapped the way ProjectServiceImpl does it
+    @Benchmark
+    public List<ProjectResponse> toResponseList() {
+        return projects.stream().map(mapper::toResponse).toList();
+    }
+
+    @Benchmark
+    public ImageResponse toImageResponse() {
+        return mapper.toImageResponse(image);
+    }
+}
@@ -0,0 +1,77 @@
+package org.ek.portfoliobackend.benchmark;
+
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.mapper.ProjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the ProjectResponse list returned by GET /api/projects.
+ *  - writeValueAsBytes buffers the whole body, like a response that needs a Content-Length or ETag
+ *  - writeToStream writes straight to an OutputStream, like the HTTP message converter does
+ *  - writeWithTypedWriter reuses an ObjectWriter bound to List<ProjectResponse>, skipping the root type lookup
+ * Run with -prof gc (the jmh profile does) to see gc.alloc.rate.norm, the bytes allocated per operation.
+ *
+ * Run with:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.include=ProjectSerializationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProjectSerializationBenchmark {
+
+    // Number of projects in the serialized list
+    @Param({"1", "25", "100", "500"})
+    private int projectCount;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter listWriter;
+    private List<ProjectResponse> responses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, ProjectResponse.class));
+
+        ProjectMapper mapper = new ProjectMapper();
+        responses = ProjectFixtures.projects(projectCount).stream().map(mapper::toResponse).toList();
+
+        // Fail fast if the fixtures stop serializing, instead of measuring an exception
+        objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public void writeToStream() {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), responses);
+    }
+
+    @Benchmark
+    public void writeWithTypedWriter() {
+        listWriter.writeValue(OutputStream.nullOutputStream(), responses);
+    }
+}
@@ -0,0 +1,89 @@
+package org.ek.portfoliobackend.loadtest;
+
+import org.ek.portfoliobackend.model.CustomerType;
+import org.ek.portfoliobackend.model.Image;
+import org.ek.portfoliobackend.model.ImageType;
+import org.ek.portfoliobackend.model.Project;
+import org.ek.portfoliobackend.model.WorkType;
+import org.ek.portfoliobackend.repository.ProjectRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the database with a synthetic catalog straight through ProjectRepository, so seeding
+ * thousands of projects takes seconds instead of going through image uploads.
+ * Image rows point to files that do not exist; the load test only reads their metadata.
+ */
+class CatalogSeeder {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String[] TITLES = {
+            "Fliserens af indkørsel", "Rens af træterrasse", "Tagrens og algebehandling", "Facaderens af murstensvilla",
+            "Fliserens og fugning af gårdsplads", "Terrasserens og oliebehandling", "Tagrens af eternittag"
+    };
+
+    private static final String DESCRIPTION = "Grundig rens med efterfølgende imprægnering. Alger og mos er fjernet, "
+            + "ukrudt i fugerne er børstet op, og overfladen er behandlet så den holder sig ren i flere sæsoner. ";
+
+    private final ProjectRepository projectRepository;
+    private final Random random = new Random(42);
+
+    CatalogSeeder(ProjectRepository projectRepository) {
+        this.projectRepository = projectRepository;
+    }
+
+    /**
+     * @return the ids of the created projects
+     */
+    List<Long> seed(int projects, int imagesPerProject) {
+        List<Long> ids = new ArrayList<>(projects);
+        List<Project> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < projects; i++) {
+            batch.add(project(i, imagesPerProject));
+            if (batch.size() == BATCH_SIZE || i == projects - 1) {
+                projectRepository.saveAll(batch).forEach(saved -> ids.add(saved.getId()));
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    private Project project(int index, int imageCount) {
+        Project project = new Project();
+        project.setTitle(TITLES[index % TITLES.length] + " " + (index + 1));
+        // Descriptions between one and four paragraphs, like the real catalog
+        project.setDescription(DESCRIPTION.repeat(1 + random.nextInt(4)).trim());
+        project.setWorkType(WorkType.values()[random.nextInt(WorkType.values().length)]);
+        project.setCustomerType(CustomerType.values()[random.nextInt(CustomerType.values().length)]);
+        project.setExecutionDate(LocalDate.of(2022, 1, 1).plusDays(random.nextInt(1000)));
+        project.setCreationDate(project.getExecutionDate().plusDays(random.nextInt(14)));
+        project.setLastModified(Instant.now());
+
+        int before = imageCount / 2;
+        project.setBeforeImageCount(before);
+        project.setAfterImageCount(imageCount - before);
+        for (int i = 0; i < imageCount; i++) {
+            project.getImages().add(image(project, i < before ? ImageType.BEFORE : ImageType.AFTER, i == before));
+        }
+        return project;
+    }
+
+    private Image image(Project project, ImageType imageType, boolean featured) {
+        Image image = new Image();
+        image.setUrl("/uploads/" + Long.toHexString(random.nextLong()) + ".jpg");
+        image.setImageType(imageType);
+        image.setIsFeatured(featured);
+        image.setContentType("image/jpeg");
+        image.setWidth(1920);
+        image.setHeight(1440);
+        image.setBlurhash("LGF5]+Yk^6#M@-5c,1J5@[or[Q6.");
+        image.setDominantColor(String.format("#%06x", random.nextInt(0x1000000)));
+        image.setProject(project);
+        return image;
+    }
+}
@@ -0,0 +1,36 @@
+package org.ek.portfoliobackend.loadtest;
+
+/**
+ * The endpoints the load test drives. The name is what loadtest.mix refers to.
+ */
+enum Endpoint {
+    LIST("list", "GET /api/projects"),
+    GET("get", "GET /api/projects/{id}"),
+    UPLOAD("upload", "POST /api/projects"),
+    DELETE("delete", "DELETE /api/projects/{id}");
+
+    private final String mixName;
+    private final String label;
+
+    Endpoint(String mixName, String label) {
+        this.mixName = mixName;
+        this.label = label;
+    }
+
+    String mixName() {
+        return mixName;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Endpoint fromName(String name) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.mixName.equalsIgnoreCase(name)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint '" + name + "' in loadtest.mix, expected list, get, upload or delete");
+    }
+}
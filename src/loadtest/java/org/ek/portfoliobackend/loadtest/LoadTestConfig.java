@@ -0,0 +1,61 @@
+package org.ek.portfoliobackend.loadtest;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from loadtest.* system properties (set by the loadtest Maven profile).
+ *
+ * @param projects          number of projects in the synthetic catalog
+ * @param imagesPerProject  images per catalog project, half BEFORE and half AFTER
+ * @param rate              requests started per second, independent of how fast responses come back
+ * @param warmupSeconds     seconds of load before measuring starts
+ * @param durationSeconds   seconds of measured load
+ * @param mix               relative weight of each endpoint, e.g. list:60,get:30,upload:5,delete:5
+ * @param reportDir         directory the .hgrm percentile files are written to
+ */
+record LoadTestConfig(int projects,
+                      int imagesPerProject,
+                      int rate,
+                      int warmupSeconds,
+                      int durationSeconds,
+                      Map<Endpoint, Integer> mix,
+                      Path reportDir) {
+
+    static LoadTestConfig fromSystemProperties() {
+        LoadTestConfig config = new LoadTestConfig(
+                Integer.getInteger("loadtest.projects", 500),
+                Integer.getInteger("loadtest.images-per-project", 4),
+                Integer.getInteger("loadtest.rate", 100),
+                Integer.getInteger("loadtest.warmup-seconds", 10),
+                Integer.getInteger("loadtest.duration-seconds", 60),
+                parseMix(System.getProperty("loadtest.mix", "list:60,get:30,upload:5,delete:5")),
+                Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+
+        if (config.projects < 1 || config.imagesPerProject < 2 || config.rate < 1
+                || config.warmupSeconds < 0 || config.durationSeconds < 1) {
+            throw new IllegalArgumentException("Invalid load test settings: " + config);
+        }
+        return config;
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be name:weight, got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights cannot be negative, got '" + entry + "'");
+            }
+            weights.put(Endpoint.fromName(parts[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no endpoint with a positive weight: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,207 @@
+package org.ek.portfoliobackend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.ek.portfoliobackend.PortfolioBackendApplication;
+import org.ek.portfoliobackend.model.User;
+import org.ek.portfoliobackend.repository.ProjectRepository;
+import org.ek.portfoliobackend.security.JwtTokenService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots the application on an in-memory H2 database, seeds a synthetic catalog and drives
+ * GET /api/projects, GET /api/projects/{id}, uploads and deletes at a fixed rate.
+ *
+ * The load is open-loop: request n is started at start + n / rate on its own virtual thread,
+ * whether or not earlier requests have answered. Latency is measured from that intended start,
+ * so a stalled server shows up as queueing in the percentiles instead of as a lower request rate
+ * (no coordinated omission). Requests started during warmup are not recorded.
+ *
+ * Prints latency percentiles and throughput per endpoint, and writes an HdrHistogram .hgrm file
+ * per endpoint to loadtest.report-dir for plotting.
+ *
+ * Not part of the normal build. Run with:
+ *   mvn -Ploadtest test-compile exec:exec@loadtest -Dloadtest.rate=200 -Dloadtest.projects=2000
+ */
+public final class LoadTestRunner {
+
+    // Latencies are recorded in microseconds, up to one minute with 3 significant digits
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadTestConfig config;
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Map<String, LongAdder>> outcomes = new EnumMap<>(Endpoint.class);
+    private final Endpoint[] schedule;
+
+    private LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            outcomes.put(endpoint, new ConcurrentHashMap<>());
+        }
+        this.schedule = config.mix().entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(Endpoint[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Path uploadDir = Files.createTempDirectory("portfolio-loadtest-uploads");
+
+        try (ConfigurableApplicationContext context = start(uploadDir)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            System.out.printf("Seeding %d projects with %d images each%n", config.projects(), config.imagesPerProject());
+            List<Long> catalogIds = new CatalogSeeder(context.getBean(ProjectRepository.class))
+                    .seed(config.projects(), config.imagesPerProject());
+
+            // The JWT filter only checks the signature, so the admin user does not need to exist
+            String token = context.getBean(JwtTokenService.class)
+                    .issue(new User(1L, "loadtest", "loadtest@example.com", "", "ROLE_ADMIN"));
+
+            try (HttpClient client = HttpClient.newHttpClient()) {
+                Workload workload = new Workload(client, URI.create("http://localhost:" + port),
+                        token, context.getBean(ObjectMapper.class), catalogIds);
+                new LoadTestRunner(config).run(workload);
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(uploadDir);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path uploadDir) {
+        return new SpringApplicationBuilder(PortfolioBackendApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest",
+                        "--file.upload-dir=" + uploadDir + "/",
+                        // One client sends everything, the per-client rate limit would reject it
+                        "--rate-limit.enabled=false",
+                        // Request logging, and a warning per shed request, would drown the report and skew the measurement
+                        "--logging.level.root=ERROR");
+    }
+
+    private void run(Workload workload) {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        long maxSendLagNanos = 0;
+
+        System.out.printf("Running %d req/s for %d s warmup and %d s measured, mix %s%n",
+                config.rate(), config.warmupSeconds(), config.durationSeconds(), config.mix());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long n = 0; ; n++) {
+                long intendedStart = start + n * periodNanos;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    maxSendLagNanos = Math.max(maxSendLagNanos, -wait);
+                }
+
+                Endpoint endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                boolean measured = intendedStart >= measureFrom;
+                executor.execute(() -> send(workload, endpoint, intendedStart, measured));
+            }
+        }
+
+        report(maxSendLagNanos);
+    }
+
+    private void send(Workload workload, Endpoint endpoint, long intendedStart, boolean measured) {
+        String outcome;
+        try {
+            outcome = String.valueOf(workload.send(endpoint));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+        }
+
+        if (measured) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+            histograms.get(endpoint).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            outcomes.get(endpoint).computeIfAbsent(outcome, ignored -> new LongAdder()).increment();
+        }
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private void report(long maxSendLagNanos) {
+        System.out.println();
+        System.out.printf("%-26s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "responses");
+
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            printRow(endpoint.label(), histogram, new TreeMap<>(outcomes.get(endpoint)).toString());
+            writePercentiles(endpoint.mixName(), histogram);
+        }
+        printRow("total", total, "");
+        writePercentiles("total", total);
+
+        System.out.printf("%nMax send lag %.1f ms (above a few ms the load generator could not keep the rate)%n",
+                maxSendLagNanos / 1e6);
+        System.out.println("Percentile distributions written to " + config.reportDir().toAbsolutePath());
+    }
+
+    private void printRow(String label, Histogram histogram, String responses) {
+        System.out.printf("%-26s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                label,
+                histogram.getTotalCount(),
+                (double) histogram.getTotalCount() / config.durationSeconds(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                responses);
+    }
+
+    // Values are scaled to milliseconds, the unit HdrHistogram's plotter expects
+    private void writePercentiles(String name, Histogram histogram) {
+        try {
+            Files.createDirectories(config.reportDir());
+            try (PrintStream out = new PrintStream(config.reportDir().resolve(name + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not write percentiles for " + name + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.ek.portfoliobackend.loadtest;
+
+import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
+import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
+import org.ek.portfoliobackend.model.CustomerType;
+import org.ek.portfoliobackend.model.ImageType;
+import org.ek.portfoliobackend.model.WorkType;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends one request to an endpoint, the way the frontend and the admin panel do:
+ *  - list: no filter, workType, customerType or both, sorted either way
+ *  - get: a random catalog project
+ *  - upload: a new project with one BEFORE and one AFTER JPEG
+ *  - delete: a project created by an upload, so the catalog keeps its size. Only when none exist
+ *    yet is a catalog project deleted, taken from the end so get stops picking it
+ */
+class Workload {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String BOUNDARY = "loadtest-boundary";
+    private static final int UPLOAD_VARIANTS = 8;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final String authorization;
+    private final ObjectMapper objectMapper;
+
+    private final List<Long> catalogIds;
+    private final AtomicInteger deletedCatalogProjects = new AtomicInteger();
+    private final Queue<Long> uploadedIds = new ConcurrentLinkedQueue<>();
+
+    // Prebuilt multipart bodies, so building them is not part of the measured latency
+    private final List<byte[]> uploadBodies = new ArrayList<>();
+
+    Workload(HttpClient client, URI baseUri, String token, ObjectMapper objectMapper, List<Long> catalogIds)
+            throws IOException {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.authorization = "Bearer " + token;
+        this.objectMapper = objectMapper;
+        this.catalogIds = catalogIds;
+
+        for (int i = 0; i < UPLOAD_VARIANTS; i++) {
+            uploadBodies.add(uploadBody(i));
+        }
+    }
+
+    /**
+     * @return the HTTP status of the response
+     */
+    int send(Endpoint endpoint) throws IOException, InterruptedException {
+        return switch (endpoint) {
+            case LIST -> list();
+            case GET -> get();
+            case UPLOAD -> upload();
+            case DELETE -> delete();
+        };
+    }
+
+    private int list() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder query = new StringBuilder("?sort=").append(random.nextBoolean() ? "asc" : "desc");
+        int filter = random.nextInt(100);
+        if (filter < 30 || filter >= 85) {
+            query.append("&workType=").append(WorkType.values()[random.nextInt(WorkType.values().length)]);
+        }
+        if (filter >= 70) {
+            query.append("&customerType=").append(CustomerType.values()[random.nextInt(CustomerType.values().length)]);
+        }
+        return discard(request("/api/projects" + query).GET());
+    }
+
+    private int get() throws IOException, InterruptedException {
+        int live = Math.max(1, catalogIds.size() - deletedCatalogProjects.get());
+        Long id = catalogIds.get(ThreadLocalRandom.current().nextInt(live));
+        return discard(request("/api/projects/" + id).GET());
+    }
+
+    private int upload() throws IOException, InterruptedException {
+        byte[] body = uploadBodies.get(ThreadLocalRandom.current().nextInt(uploadBodies.size()));
+        HttpResponse<byte[]> response = client.send(request("/api/projects")
+                        .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        if (response.statusCode() == 201) {
+            uploadedIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+        return response.statusCode();
+    }
+
+    private int delete() throws IOException, InterruptedException {
+        Long id = uploadedIds.poll();
+        if (id == null) {
+            int deleted = deletedCatalogProjects.incrementAndGet();
+            if (deleted >= catalogIds.size()) {
+                throw new IllegalStateException("Every catalog project has been deleted, lower the delete weight");
+            }
+            id = catalogIds.get(catalogIds.size() - deleted);
+        }
+        return discard(request("/api/projects/" + id).DELETE());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Authorization", authorization);
+    }
+
+    private int discard(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private byte[] uploadBody(int variant) throws IOException {
+        CreateProjectRequest data = new CreateProjectRequest();
+        data.setTitle("Load test upload " + variant);
+        data.setDescription("Projekt oprettet af load testen");
+        data.setExecutionDate(LocalDate.of(2024, 5, 1).plusDays(variant));
+        data.setServiceCategory(WorkType.values()[variant % WorkType.values().length]);
+        data.setCustomerType(CustomerType.values()[variant % CustomerType.values().length]);
+
+        List<ImageUploadRequest> metadata = List.of(
+                new ImageUploadRequest(ImageType.BEFORE, false),
+                new ImageUploadRequest(ImageType.AFTER, true));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        part(body, "data", null, "application/json", objectMapper.writeValueAsBytes(data));
+        part(body, "imageMetadata", null, "application/json", objectMapper.writeValueAsBytes(metadata));
+        part(body, "images", "before-" + variant + ".jpg", "image/jpeg", jpeg(variant * 2));
+        part(body, "images", "after-" + variant + ".jpg", "image/jpeg", jpeg(variant * 2 + 1));
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    private static void part(ByteArrayOutputStream body, String name, String filename, String contentType,
+                             byte[] content) throws IOException {
+        String header = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\""
+                + (filename != null ? "; filename=\"" + filename + "\"" : "") + "\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        body.write(header.getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // A 1024x768 gradient, different per seed so uploads are not byte-identical
+    private static byte[] jpeg(int seed) throws IOException {
+        BufferedImage image = new BufferedImage(1024, 768, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, ((x + seed * 31) & 0xFF) << 16 | ((y + seed * 17) & 0xFF) << 8 | ((x ^ y) & 0xFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -2,8 +2,10 @@ package org.ek.portfoliobackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.security.autoconfigure.UserDetailsServiceAutoConfiguration;
 
-@SpringBootApplication
+// Login goes through AuthController and JWTs, so no in-memory user with a generated password
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
 public class PortfolioBackendApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,148 @@
+package org.ek.portfoliobackend.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grænse for samtidige requests der tilpasser sig den målte svartid (gradient-algoritme).
+
+ * To glidende gennemsnit af svartiden holdes: et langt (ca. de sidste 600 requests), der er "normal" svartid,
+ * og et kort (ca. de sidste 10), der er svartiden lige nu. Bliver den korte svartid længere end den lange
+ * gange rttTolerance (fx fordi MySQL er blevet langsom), skrumper grænsen med forholdet mellem dem, dog højst
+ * til det halve pr. måling. Ellers vokser den med kvadratroden af grænsen, så den langsomt finder den
+ * samtidighed hvor svartiden begynder at stige. Grænsen vokser ikke mens under halvdelen af den er i brug,
+ * men den skrumper stadig når svartiden stiger.
+
+ * Requests over grænsen afvises med det samme, så køer ikke hober sig op. Hver request tager en andel af
+ * grænsen: en request med share 0.5 afvises allerede når halvdelen af grænsen er i brug, så billige requests
+ * (share 1.0) kan komme igennem efter dyre er begyndt at blive afvist.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    private final Object lock = new Object();
+    private volatile double limit;
+    private double longRtt;
+    private double shortRtt;
+    private long samples;
+
+    /**
+     * @param initialLimit grænse ved opstart
+     * @param minLimit     laveste grænse, så der altid kan komme requests igennem
+     * @param maxLimit     højeste grænse
+     * @param smoothing    hvor meget en ny beregning flytter grænsen (0-1), lavere er mere stabilt
+     * @param rttTolerance hvor meget længere den korte svartid må være end den lange før grænsen skrumper
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || smoothing <= 0 || smoothing > 1 || rttTolerance < 1) {
+            throw new IllegalArgumentException("Invalid adaptive concurrency limit settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Tag en plads hvis der er plads inden for share af grænsen. Lykkes det, skal release() kaldes bagefter.
+     *
+     * @param share andel af grænsen requesten må bruge (0-1]
+     * @return true hvis requesten må køre, false hvis den skal afvises
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Giv pladsen tilbage og brug svartiden til at justere grænsen.
+     *
+     * @param rttNanos svartid i nanosekunder, eller negativ hvis requesten ikke skal tælle med (fx uploads,
+     *                 hvis svartid mest afhænger af filstørrelsen)
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (rttNanos >= 0) {
+            onSample(rttNanos, inFlightBefore);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public Stats stats() {
+        synchronized (lock) {
+            return new Stats((int) limit, inFlight.get(), longRtt / 1_000_000.0, shortRtt / 1_000_000.0,
+                    admitted.sum(), shed.sum());
+        }
+    }
+
+    private void onSample(long rttNanos, int inFlightAtCompletion) {
+        synchronized (lock) {
+            samples++;
+            if (samples <= WARMUP_SAMPLES) {
+                // Plain average until there are enough samples for the moving averages to mean anything
+                longRtt += (rttNanos - longRtt) / samples;
+                shortRtt = longRtt;
+                return;
+            }
+
+            longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+            shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+
+            // After a long slow period let "normal" follow the recovered latency quickly, instead of over 600 samples
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+
+            double current = limit;
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+            double newLimit = current * gradient + Math.sqrt(current);
+            newLimit = current * (1 - smoothing) + newLimit * smoothing;
+
+            // Only growth needs the limit to be in use, rising latency shrinks it at any load
+            if (newLimit > current && inFlightAtCompletion < current / 2) {
+                return;
+            }
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        }
+    }
+
+    /**
+     * Øjebliksbillede af grænsen.
+     *
+     * @param limit    nuværende grænse
+     * @param inFlight requests der kører lige nu
+     * @param longRttMillis  normal svartid i ms
+     * @param shortRttMillis svartid lige nu i ms
+     * @param admitted requests der har fået en plads siden opstart
+     * @param shed     requests der er afvist siden opstart
+     */
+    public record Stats(int limit, int inFlight, double longRttMillis, double shortRttMillis,
+                        long admitted, long shed) {
+    }
+}
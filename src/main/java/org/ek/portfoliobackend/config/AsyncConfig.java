@@ -0,0 +1,93 @@
+package org.ek.portfoliobackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/*
+Konfiguration af baggrundsarbejde (asynkrone jobs og planlagte opgaver).
+Arbejde der ikke behøver at ske mens klienten venter - f.eks. sletning af filer fra disk - køres her
+i stedet for på request-tråden.
+ */
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Executor for file cleanup after commit.
+     * One worker thread and room for one queued run: many commits in a burst coalesce into
+     * a single run that drains the pending rows in batches. Extra triggers are discarded,
+     * as the queued run (or the periodic sweep) will pick up their rows anyway.
+     */
+    @Bean(name = "fileCleanupExecutor")
+    public ThreadPoolTaskExecutor fileCleanupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("file-cleanup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for storing images from a bulk import in parallel.
+     * When all threads are busy and the queue is full the importing thread stores the image itself,
+     * which also keeps the number of archive entries held in memory bounded.
+     */
+    @Bean(name = "importStorageExecutor")
+    public ThreadPoolTaskExecutor importStorageExecutor(@Value("${file.import.storage-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 2);
+        executor.setThreadNamePrefix("import-storage-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for BCrypt hashing in PasswordHashingServiceImpl.
+     * A few threads keep hashing from taking every core during a burst of sign-ups or logins.
+     * When the queue is full new calls are rejected (503) instead of holding request threads.
+     */
+    @Bean(name = "passwordHashingExecutor")
+    public ThreadPoolTaskExecutor passwordHashingExecutor(@Value("${security.password.hash-threads:2}") int threads,
+                                                          @Value("${security.password.hash-queue:50}") int queue) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queue);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor for image file I/O in LocalFileStorageServiceImpl.storeFileAsync / deleteAsync.
+     * It reads the uploaded parts and runs the completion handlers of the AsynchronousFileChannels,
+     * so the files of one upload are written in parallel instead of one after the other on the request thread.
+     */
+    @Bean(name = "storageIoExecutor", destroyMethod = "shutdown")
+    public ExecutorService storageIoExecutor(@Value("${file.storage.io-threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("storage-io-");
+        executor.initialize();
+        return executor.getThreadPoolExecutor();
+    }
+}
@@ -0,0 +1,103 @@
+package org.ek.portfoliobackend.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead: højst maxConcurrent kald på én gang, og højst maxQueued kald der venter på en plads.
+ * Bruges så én slags arbejde (fx uploads) ikke kan optage alle tråde og DB-forbindelser.
+
+ * Et kald der ikke kan komme i kø, eller som har ventet maxWaitMillis, afvises med det samme,
+ * i stedet for at hobe sig op. Pladserne uddeles fair (først til mølle) blandt de ventende.
+ * Tællerne for gennemførte og afviste kald bruges til metrics.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    /**
+     * @param name          navn i metrics og logs
+     * @param maxConcurrent højeste antal kald der kører på én gang
+     * @param maxQueued     højeste antal kald der venter på en plads
+     * @param maxWaitMillis hvor længe et kald højst venter i køen
+     */
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMillis) {
+        if (maxConcurrent < 1 || maxQueued < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Bulkhead " + name + " needs at least one permit and a non-negative queue");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Få en plads, evt. efter at have ventet i køen. Lykkes det, skal exit() kaldes bagefter.
+     *
+     * @return true hvis kaldet har fået en plads, false hvis det er afvist
+     */
+    public boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            admitted.increment();
+            return true;
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            return false;
+        }
+
+        try {
+            if (permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                admitted.increment();
+                return true;
+            }
+            rejectedTimeout.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Giv pladsen fra et gennemført tryEnter() tilbage.
+     */
+    public void exit() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stats stats() {
+        return new Stats(name, maxConcurrent, maxConcurrent - permits.availablePermits(), maxQueued, queued.get(),
+                admitted.sum(), rejectedQueueFull.sum(), rejectedTimeout.sum());
+    }
+
+    /**
+     * Øjebliksbillede af en bulkhead.
+     *
+     * @param active            kald der kører lige nu
+     * @param queued            kald der venter på en plads lige nu
+     * @param admitted          kald der har fået en plads siden opstart
+     * @param rejectedQueueFull kald afvist fordi køen var fuld
+     * @param rejectedTimeout   kald afvist fordi de ventede for længe i køen
+     */
+    public record Stats(String name, int maxConcurrent, int active, int maxQueued, int queued,
+                        long admitted, long rejectedQueueFull, long rejectedTimeout) {
+    }
+}
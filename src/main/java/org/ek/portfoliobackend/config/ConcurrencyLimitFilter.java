@@ -0,0 +1,116 @@
+package org.ek.portfoliobackend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.exception.custom.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Adaptiv grænse for samtidige requests til /api/**, se AdaptiveConcurrencyLimit.
+
+ * Grænsen følger svartiden på læsninger og almindelige skrivninger (controller, service og database).
+ * Bliver MySQL langsom, falder grænsen, og requests over den afvises med det samme med 503 og Retry-After,
+ * i stedet for at vente i Tomcats kø og gøre svartiden endnu længere.
+
+ * Billige GET requests må bruge hele grænsen, andre skrivninger write-share og uploads kun upload-share af den,
+ * så uploads afvises først når systemet er presset. Uploads (multipart, zip, chunks til /api/uploads/{id} og
+ * afslutningen af chunked uploads) tæller ikke med i svartiden, da den mest afhænger af filstørrelse og
+ * klientens forbindelse.
+
+ * Kører før de andre filtre (også Spring Security), så en afvist request koster så lidt som muligt.
+ * Uploads der kommer igennem her, skal derefter også have plads i UploadBulkheadFilter.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final double writeShare;
+    private final double uploadShare;
+    private final long retryAfterSeconds;
+    private final AdaptiveConcurrencyLimit limit;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public ConcurrencyLimitFilter(@Value("${concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+                                  @Value("${concurrency-limit.min-limit:4}") int minLimit,
+                                  @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+                                  @Value("${concurrency-limit.smoothing:0.2}") double smoothing,
+                                  @Value("${concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                  @Value("${concurrency-limit.write-share:0.8}") double writeShare,
+                                  @Value("${concurrency-limit.upload-share:0.5}") double uploadShare,
+                                  @Value("${concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds,
+                                  @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.enabled = enabled;
+        this.writeShare = writeShare;
+        this.uploadShare = uploadShare;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing, rttTolerance);
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean upload = isUpload(request);
+        double share = isRead(request) ? 1.0 : upload ? uploadShare : writeShare;
+
+        if (!limit.tryAcquire(share)) {
+            log.debug("Shed {} {} at concurrency limit {}", request.getMethod(), request.getRequestURI(), limit.getLimit());
+            exceptionResolver.resolveException(request, response, null, new ServiceUnavailableException(
+                    "Server is busy, try again later", retryAfterSeconds));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.release(upload ? -1 : System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return nuværende grænse, svartider og antal afviste requests siden opstart
+     */
+    public AdaptiveConcurrencyLimit.Stats getStats() {
+        return limit.stats();
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    // Multipart and zip uploads, chunks of a chunked upload, and the calls that turn completed chunked uploads
+    // into images. Their time follows the file size and the client's bandwidth, not how busy the server is
+    private static boolean isUpload(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType != null) {
+            String type = contentType.toLowerCase();
+            if (type.startsWith("multipart/") || type.startsWith("application/zip")
+                    || type.startsWith("application/octet-stream")) {
+                return true;
+            }
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !isRead(request) && (path.equals("/api/uploads/projects") || path.startsWith("/api/uploads/projects/"));
+    }
+}
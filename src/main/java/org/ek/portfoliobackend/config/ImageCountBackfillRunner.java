@@ -0,0 +1,38 @@
+package org.ek.portfoliobackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/*
+Kører db/backfill-image-counts.sql ved opstart, når db.image-count-backfill.enabled=true (slået til i dev).
+Med ddl-auto=update tilføjer Hibernate before_image_count/after_image_count med 0 på alle eksisterende projekter,
+og så fejler sletning og retagging af billeder på tællerne. Scriptet retter kun projekter hvor tællerne ikke passer.
+I prod køres samme script manuelt sammen med ALTER TABLE, se kommentaren i scriptet.
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "db.image-count-backfill.enabled", havingValue = "true")
+public class ImageCountBackfillRunner implements ApplicationRunner {
+
+    static final String SCRIPT = "db/backfill-image-counts.sql";
+
+    private final DataSource dataSource;
+
+    public ImageCountBackfillRunner(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        new ResourceDatabasePopulator(new ClassPathResource(SCRIPT)).execute(dataSource);
+        log.info("Backfilled project image counts from {}", SCRIPT);
+    }
+}
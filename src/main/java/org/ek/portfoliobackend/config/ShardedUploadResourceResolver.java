@@ -0,0 +1,35 @@
+package org.ek.portfoliobackend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.ek.portfoliobackend.service.impl.LocalFileStorageServiceImpl;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/*
+Lader gamle flade URL'er ("/uploads/uuid.jpg") virke efter filen er flyttet til sin shard-mappe ("/uploads/3f/a2/uuid.jpg").
+Findes filen ikke fladt, slås den op i shard-mappen beregnet ud fra filnavnet. Selve opslaget (og sikkerhedstjek)
+overlades til den næste resolver i kæden.
+ */
+
+public class ShardedUploadResourceResolver extends AbstractResourceResolver {
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource != null || requestPath.contains("/")) {
+            return resource;
+        }
+        String shardedPath = LocalFileStorageServiceImpl.shardDirectory(requestPath) + "/" + requestPath;
+        return chain.resolveResource(request, shardedPath, locations);
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+}
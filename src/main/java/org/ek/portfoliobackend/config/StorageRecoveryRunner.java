@@ -0,0 +1,27 @@
+package org.ek.portfoliobackend.config;
+
+import org.ek.portfoliobackend.service.StorageRecoveryService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/*
+Afstemmer filer og database ved opstart ud fra storage-journalen.
+Kun de operationer der ikke blev færdige før sidste nedlukning undersøges, så opstarten ikke skal
+gennemløbe hele upload-mappen eller image-tabellen.
+ */
+
+@Component
+public class StorageRecoveryRunner implements ApplicationRunner {
+
+    private final StorageRecoveryService storageRecoveryService;
+
+    public StorageRecoveryRunner(StorageRecoveryService storageRecoveryService) {
+        this.storageRecoveryService = storageRecoveryService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        storageRecoveryService.reconcile();
+    }
+}
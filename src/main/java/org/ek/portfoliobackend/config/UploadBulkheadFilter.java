@@ -0,0 +1,119 @@
+package org.ek.portfoliobackend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.exception.custom.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Bulkhead for uploads: multipart og zip import via POST/PATCH på /api/projects/**, og chunked uploads i
+ * UploadController (PUT /api/uploads/{id}, POST /api/uploads/projects og PATCH /api/uploads/projects/{id}/images).
+
+ * Uploads holder en Tomcat-tråd og en DB-forbindelse i lang tid, mens de fleste læsninger er hurtige.
+ * Uden en grænse kan et burst af uploads optage hele Hikari-poolen, så GET /api/projects står i kø bag dem.
+ * Derfor får uploads højst max-concurrent pladser og max-queued ventende, og max-concurrent skæres ned til
+ * poolens størrelse minus reserved-connections, så resten af poolen altid er fri til læsninger.
+
+ * Det er et filter og ikke en interceptor, så requesten afvises før multipart-kroppen bliver læst og gemt.
+ * Afviste requests får 503 med Retry-After via GlobalExceptionHandler.
+ */
+@Slf4j
+@Component
+public class UploadBulkheadFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final Bulkhead bulkhead;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public UploadBulkheadFilter(@Value("${file.upload.bulkhead.enabled:true}") boolean enabled,
+                                @Value("${file.upload.bulkhead.max-concurrent:6}") int maxConcurrent,
+                                @Value("${file.upload.bulkhead.max-queued:20}") int maxQueued,
+                                @Value("${file.upload.bulkhead.max-wait-ms:10000}") long maxWaitMillis,
+                                @Value("${file.upload.bulkhead.retry-after-seconds:5}") long retryAfterSeconds,
+                                @Value("${file.upload.bulkhead.reserved-connections:4}") int reservedConnections,
+                                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                                @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        int uploadConnections = Math.max(1, connectionPoolSize - reservedConnections);
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.bulkhead = new Bulkhead("uploads", Math.min(maxConcurrent, uploadConnections), maxQueued, maxWaitMillis);
+        this.exceptionResolver = exceptionResolver;
+
+        if (enabled) {
+            log.info("Upload bulkhead: {} concurrent, {} queued, {} of {} DB connections kept for other requests",
+                    bulkhead.stats().maxConcurrent(), maxQueued, connectionPoolSize - uploadConnections, connectionPoolSize);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (isUnder(path, "/api/uploads")) {
+            // Chunks, and turning completed uploads into images; starting or reading a session is cheap
+            return !("PUT".equals(method)
+                    || (isUnder(path, "/api/uploads/projects") && ("POST".equals(method) || "PATCH".equals(method))));
+        }
+        if (isUnder(path, "/api/projects")) {
+            return !("POST".equals(method) || "PATCH".equals(method)) || !isUpload(request.getContentType());
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+
+        if (!entered) {
+            log.warn("Upload rejected by bulkhead: {}", bulkhead.stats());
+            exceptionResolver.resolveException(request, response, null, new ServiceUnavailableException(
+                    "Too many uploads in progress, try again later", retryAfterSeconds));
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    /**
+     * @return antal aktive og ventende uploads, og hvor mange der er afvist siden opstart
+     */
+    public Bulkhead.Stats getStats() {
+        return bulkhead.stats();
+    }
+
+    private static boolean isUnder(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+
+    private static boolean isUpload(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("multipart/") || type.startsWith("application/zip");
+    }
+}
@@ -0,0 +1,43 @@
+package org.ek.portfoliobackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.service.UploadLayoutMigrationService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+Starter migrering af upload-mappen til sharded layout, når applikationen startes med --migrate-upload-layout
+(fx: java -jar portfolio-backend.jar --migrate-upload-layout).
+Migreringen kører i baggrunden, så applikationen svarer på requests imens.
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
+public class UploadLayoutMigrationRunner implements ApplicationRunner {
+
+    static final String OPTION = "migrate-upload-layout";
+
+    private final UploadLayoutMigrationService uploadLayoutMigrationService;
+
+    public UploadLayoutMigrationRunner(UploadLayoutMigrationService uploadLayoutMigrationService) {
+        this.uploadLayoutMigrationService = uploadLayoutMigrationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        Thread.ofVirtual().name("upload-layout-migration").start(() -> {
+            try {
+                uploadLayoutMigrationService.migrateToShardedLayout();
+            } catch (RuntimeException e) {
+                log.error("Upload layout migration failed", e);
+            }
+        });
+    }
+}
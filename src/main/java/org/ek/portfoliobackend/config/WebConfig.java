@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
 /*
 Konfiguration for at håndtering af statiske filer. I vores tilfælde kun billeder, da frontend har sige eget repo.
@@ -21,6 +22,10 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${file.static-dir}")
     private String staticDir;
 
+    // Når true serveres /uploads/** af ImageServingController (sendfile, Range, ETag) i stedet for her
+    @Value("${file.serving.zero-copy:true}")
+    private boolean zeroCopyServing;
+
         /**
          * Konfigurerer URL mappings for statiske resourcer
 
@@ -43,8 +48,14 @@ public class WebConfig implements WebMvcConfigurer {
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Mapper URL path "/uploads/**" til den fysiske mappe defineret i uploadDir
         // ** betyder "alle undermapper og filer"
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDir);
+        // Uden cache i kæden, da filer slettes og flyttes mens applikationen kører
+        if (!zeroCopyServing) {
+            registry.addResourceHandler("/uploads/**")
+                    .addResourceLocations("file:" + uploadDir)
+                    .resourceChain(false)
+                    .addResolver(new ShardedUploadResourceResolver())
+                    .addResolver(new PathResourceResolver());
+        }
 
         // Mapper URL path "/static/**" til den fysiske static mappe
         registry.addResourceHandler("/static/**")
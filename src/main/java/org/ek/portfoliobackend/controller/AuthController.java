@@ -0,0 +1,42 @@
+package org.ek.portfoliobackend.controller;
+
+import jakarta.validation.Valid;
+import org.ek.portfoliobackend.dto.request.LoginRequest;
+import org.ek.portfoliobackend.dto.response.LoginResponse;
+import org.ek.portfoliobackend.security.JwtPrincipal;
+import org.ek.portfoliobackend.service.AuthService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for logging in and out.
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    private final AuthService authService;
+
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+
+    // Returns a signed token to send as "Authorization: Bearer <token>"
+    @PostMapping("/login")
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+        return ResponseEntity.ok(authService.login(request));
+    }
+
+    // Revokes the token the request was sent with
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal JwtPrincipal principal) {
+        if (principal != null) {
+            authService.logout(principal);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
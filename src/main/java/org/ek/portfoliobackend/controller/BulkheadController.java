@@ -0,0 +1,91 @@
+package org.ek.portfoliobackend.controller;
+
+import org.ek.portfoliobackend.config.AdaptiveConcurrencyLimit;
+import org.ek.portfoliobackend.config.Bulkhead;
+import org.ek.portfoliobackend.config.ConcurrencyLimitFilter;
+import org.ek.portfoliobackend.config.UploadBulkheadFilter;
+import org.ek.portfoliobackend.dto.response.BulkheadStatsResponse;
+import org.ek.portfoliobackend.dto.response.ConcurrencyLimitStatsResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * REST Controller for the metrics of the bulkheads that keep uploads from starving reads:
+ * the upload limit in front of ProjectController and the storage I/O worker pool,
+ * and of the adaptive concurrency limit in front of /api/**.
+ */
+@RestController
+@RequestMapping("/api/bulkheads")
+public class BulkheadController {
+
+    private final UploadBulkheadFilter uploadBulkheadFilter;
+    private final ExecutorService storageIoExecutor;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    public BulkheadController(UploadBulkheadFilter uploadBulkheadFilter,
+                              @Qualifier("storageIoExecutor") ExecutorService storageIoExecutor,
+                              ConcurrencyLimitFilter concurrencyLimitFilter) {
+        this.uploadBulkheadFilter = uploadBulkheadFilter;
+        this.storageIoExecutor = storageIoExecutor;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+    }
+
+    // Active and queued work, and rejections since startup
+    @GetMapping("/stats")
+    public ResponseEntity<List<BulkheadStatsResponse>> getStats() {
+        List<BulkheadStatsResponse> stats = new ArrayList<>();
+        stats.add(toResponse(uploadBulkheadFilter.getStats()));
+        if (storageIoExecutor instanceof ThreadPoolExecutor pool) {
+            stats.add(toResponse(pool));
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    // Current limit, the latencies it is computed from, and requests shed since startup
+    @GetMapping("/concurrency-limit")
+    public ResponseEntity<ConcurrencyLimitStatsResponse> getConcurrencyLimit() {
+        AdaptiveConcurrencyLimit.Stats stats = concurrencyLimitFilter.getStats();
+        ConcurrencyLimitStatsResponse response = new ConcurrencyLimitStatsResponse();
+        response.setLimit(stats.limit());
+        response.setInFlight(stats.inFlight());
+        response.setLongRttMillis(stats.longRttMillis());
+        response.setShortRttMillis(stats.shortRttMillis());
+        response.setAdmitted(stats.admitted());
+        response.setShed(stats.shed());
+        return ResponseEntity.ok(response);
+    }
+
+    private static BulkheadStatsResponse toResponse(Bulkhead.Stats stats) {
+        BulkheadStatsResponse response = new BulkheadStatsResponse();
+        response.setName(stats.name());
+        response.setMaxConcurrent(stats.maxConcurrent());
+        response.setActive(stats.active());
+        response.setMaxQueued(stats.maxQueued());
+        response.setQueued(stats.queued());
+        response.setAdmitted(stats.admitted());
+        response.setRejectedQueueFull(stats.rejectedQueueFull());
+        response.setRejectedTimeout(stats.rejectedTimeout());
+        return response;
+    }
+
+    // The storage pool never rejects, its queue is bounded by the number of uploads the upload bulkhead admits
+    private static BulkheadStatsResponse toResponse(ThreadPoolExecutor pool) {
+        int queued = pool.getQueue().size();
+        BulkheadStatsResponse response = new BulkheadStatsResponse();
+        response.setName("storage-io");
+        response.setMaxConcurrent(pool.getMaximumPoolSize());
+        response.setActive(pool.getActiveCount());
+        response.setMaxQueued(queued + pool.getQueue().remainingCapacity());
+        response.setQueued(queued);
+        response.setAdmitted(pool.getTaskCount());
+        return response;
+    }
+}
@@ -0,0 +1,28 @@
+package org.ek.portfoliobackend.controller;
+
+import org.ek.portfoliobackend.dto.response.ImageCacheStatsResponse;
+import org.ek.portfoliobackend.service.ImageCacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for the metrics of the in-memory image cache used by /uploads/**.
+ */
+@RestController
+@RequestMapping("/api/image-cache")
+public class ImageCacheController {
+
+    private final ImageCacheService imageCacheService;
+
+    public ImageCacheController(ImageCacheService imageCacheService) {
+        this.imageCacheService = imageCacheService;
+    }
+
+    // Hit ratio, bytes served from memory and memory usage since startup
+    @GetMapping("/stats")
+    public ResponseEntity<ImageCacheStatsResponse> getStats() {
+        return ResponseEntity.ok(imageCacheService.getStats());
+    }
+}
@@ -0,0 +1,235 @@
+package org.ek.portfoliobackend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.service.ImageCacheService;
+import org.ek.portfoliobackend.service.ImageServingService;
+import org.ek.portfoliobackend.service.ImageServingService.ServedFile;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves uploaded images from /uploads/** instead of the generic resource handler.
+ *
+ * - Body is sent with sendfile: through Tomcat's sendfile support when available,
+ *   otherwise with FileChannel.transferTo, so the file is never copied through the heap
+ * - Single byte ranges (Range / If-Range) are answered with 206, unsatisfiable ranges with 416
+ * - Strong ETag from the content hash stored on upload, 304 for If-None-Match / If-Modified-Since
+ * - Generated (UUID) filenames never change content, so they are cached as immutable for a year
+ * - Frequently requested files are sent from memory by ImageCacheService instead of the disk
+ * - Images in pack segments (file.storage.backend=pack) are sent from the memory-mapped segment
+ *
+ * Set file.serving.zero-copy=false to go back to the resource handler in WebConfig.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "file.serving.zero-copy", havingValue = "true", matchIfMissing = true)
+public class ImageServingController {
+
+    // Request attributes understood by Tomcat's NIO connector
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "public, no-cache";
+
+    private final ImageServingService imageServingService;
+    private final ImageCacheService imageCacheService;
+
+    public ImageServingController(ImageServingService imageServingService, ImageCacheService imageCacheService) {
+        this.imageServingService = imageServingService;
+        this.imageCacheService = imageCacheService;
+    }
+
+    // GET and HEAD of an uploaded file
+    @GetMapping("/uploads/**")
+    public void serveImage(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String url = UriUtils.decode(request.getRequestURI().substring(request.getContextPath().length()),
+                StandardCharsets.UTF_8);
+        ServedFile file = imageServingService.find(url);
+
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(request, file)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long length = file.size();
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, file)) {
+            ByteRange range = parseRange(rangeHeader, file.size());
+            if (range == ByteRange.UNSATISFIABLE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                return;
+            }
+            if (range != null) {
+                start = range.start();
+                length = range.end() - range.start() + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + range.start() + "-" + range.end() + "/" + file.size());
+            }
+        }
+
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(length);
+
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        writeBody(request, response, file, start, length);
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private void writeBody(HttpServletRequest request, HttpServletResponse response, ServedFile file,
+                           long start, long length) throws IOException {
+        // Pack segments are already memory-mapped by the storage
+        if (file.content() != null) {
+            writeBuffer(response, file.content().slice((int) start, (int) length));
+            return;
+        }
+
+        if (imageCacheService.write(file, start, length, bytes -> writeBuffer(response, bytes))) {
+            return;
+        }
+
+        // Tomcat sends the file with sendfile(2) after the handler returns
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private void writeBuffer(HttpServletResponse response, ByteBuffer buffer) throws IOException {
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * If-None-Match takes precedence over If-Modified-Since (RFC 9110 13.2.2).
+     */
+    private boolean isNotModified(HttpServletRequest request, ServedFile file) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*") || opaqueTag(candidate).equals(opaqueTag(file.etag()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && file.lastModified() / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A Range is only honoured when If-Range is absent or still matches. ETags must match strongly.
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, ServedFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !file.etag().startsWith("W/") && ifRange.equals(file.etag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == file.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse a single byte range. Returns null when the header should be ignored
+     * (malformed or several ranges), in which case the whole file is sent.
+     */
+    static ByteRange parseRange(String header, long size) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (spec.contains(",") || dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return ByteRange.UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                return ByteRange.UNSATISFIABLE;
+            }
+            return end < start ? null : new ByteRange(start, end);
+
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    record ByteRange(long start, long end) {
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
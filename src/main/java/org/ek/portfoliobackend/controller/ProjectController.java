@@ -1,28 +1,40 @@
 package org.ek.portfoliobackend.controller;
 
 import jakarta.validation.Valid;
+import org.ek.portfoliobackend.dto.request.BulkDeleteRequest;
 import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
 import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
 import org.ek.portfoliobackend.dto.request.UpdateImageRequest;
 import org.ek.portfoliobackend.dto.request.UpdateProjectRequest;
+import org.ek.portfoliobackend.dto.response.BulkDeleteResponse;
+import org.ek.portfoliobackend.dto.response.BulkImportResponse;
 import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.exception.custom.PreconditionFailedException;
 import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
 import org.ek.portfoliobackend.model.CustomerType;
 import org.ek.portfoliobackend.model.WorkType;
+import org.ek.portfoliobackend.service.IdempotencyService;
+import org.ek.portfoliobackend.service.ProjectImportService;
 import org.ek.portfoliobackend.service.ProjectService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
  * REST Controller for handling project-related HTTP requests.
  * Provides endpoints for creating, retrieving, updating, and deleting projects.
  *
+ * Project responses carry the project version as a strong ETag ("3"). PUT and PATCH accept it
+ * in If-Match and answer 412 when the project was changed by someone else in the meantime.
+ * Without If-Match the last writer wins, as before.
+ *
  * CORS is configured globally in CorsConfig.
  */
 @Slf4j
@@ -31,9 +43,14 @@ import java.util.List;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final ProjectImportService projectImportService;
+    private final IdempotencyService idempotencyService;
 
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, ProjectImportService projectImportService,
+                             IdempotencyService idempotencyService) {
         this.projectService = projectService;
+        this.projectImportService = projectImportService;
+        this.idempotencyService = idempotencyService;
     }
 
 
@@ -42,7 +59,7 @@ public class ProjectController {
     public ResponseEntity<ProjectResponse> getProjectById(@PathVariable Long id) {
         ProjectResponse response = projectService.getProjectById(id);
         log.info("Fetched project with ID: {}", id);
-        return ResponseEntity.ok(response);
+        return withETag(ResponseEntity.ok(), response);
     }
 
     // Retrieves all projects with optional filtering and sorting, by workType and customerType.
@@ -70,16 +87,21 @@ public class ProjectController {
      * - At least one BEFORE and one AFTER image are included
      * - Image files are valid
      *
+     * A retry with the same Idempotency-Key and content returns the original response
+     * without storing the images again.
+     *
      * @param request Project data (title, description, serviceCategory, customerType, executionDate)
      * @param images List of image files to upload
      * @param imageMetadata Metadata for each image (imageType, isFeatured)
+     * @param idempotencyKey Optional key chosen by the client, the same for all retries of one request
      * @return ResponseEntity with the created project and HTTP 201 status
      */
     @PostMapping(consumes = "multipart/form-data")
     public ResponseEntity<ProjectResponse> createProject(
             @RequestPart("data") CreateProjectRequest request,
             @RequestPart("images") List<MultipartFile> images,
-            @RequestPart("imageMetadata") List<ImageUploadRequest> imageMetadata) {
+            @RequestPart("imageMetadata") List<ImageUploadRequest> imageMetadata,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         log.info("Received request to create project: {}", request.getTitle());
         log.debug("Request details - Images: {}, Metadata entries: {}",
@@ -95,10 +117,34 @@ public class ProjectController {
             throw new IllegalArgumentException(errorMsg);
         }
 
-        ProjectResponse createdProject = projectService.createProject(request, images, imageMetadata);
+        return idempotencyService.execute(idempotencyKey, "POST /api/projects",
+                () -> idempotencyService.fingerprint(images, request, imageMetadata),
+                ProjectResponse.class,
+                () -> {
+                    ProjectResponse createdProject = projectService.createProject(request, images, imageMetadata);
 
-        log.info("Successfully created project with ID: {}", createdProject.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdProject);
+                    log.info("Successfully created project with ID: {}", createdProject.getId());
+                    return ResponseEntity.status(HttpStatus.CREATED).body(createdProject);
+                });
+    }
+
+    /**
+     * Imports many projects at once from a ZIP archive sent as the raw request body.
+     * The archive contains the image files and a manifest.ndjson with one project per line
+     * (see BulkImportManifestEntry). Lines are validated and saved independently.
+     *
+     * @param archive the ZIP archive, streamed from the request body
+     * @return ResponseEntity with a result per manifest line and HTTP 200 status
+     * @throws IllegalArgumentException with BAD_REQUEST if the archive cannot be read or has no manifest
+     */
+    @PostMapping(value = "/import", consumes = "application/zip")
+    public ResponseEntity<BulkImportResponse> importProjects(InputStream archive) {
+        log.info("Received request to bulk import projects");
+
+        BulkImportResponse report = projectImportService.importArchive(archive);
+
+        log.info("Bulk import done - created: {}, failed: {}", report.getCreated(), report.getFailed());
+        return ResponseEntity.ok(report);
     }
 
     /**
@@ -109,16 +155,22 @@ public class ProjectController {
      * @param id Project ID
      * @param images List of image files to upload
      * @param imageMetadata Metadata for each image (imageType, isFeatured)
+     * @param idempotencyKey Optional key chosen by the client, the same for all retries of one request
+     * @param ifMatch Optional ETag of the project version the client has seen
      * @return ResponseEntity with the updated project and HTTP 200 status
      * * @throws ResourceNotFoundException if project with given ID does not exist
      * @throws IllegalArgumentException with BAD_REQUEST if validation fails
+     * @throws PreconditionFailedException with PRECONDITION_FAILED if the project has changed
      * */
     @PatchMapping(value = "/{id}/images", consumes = "multipart/form-data")
     public ResponseEntity<ProjectResponse> uploadProjectImages(
             @PathVariable Long id,
             @RequestPart("images") List<MultipartFile> images,
-            @RequestPart("imageMetadata") List<ImageUploadRequest> imageMetadata) {
+            @RequestPart("imageMetadata") List<ImageUploadRequest> imageMetadata,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Received request to upload images for project ID: {}", id);
+        Long expectedVersion = expectedVersion(ifMatch);
 
         // validate image and metadate list sizes match
         if (images.size() != imageMetadata.size()) {
@@ -130,11 +182,20 @@ public class ProjectController {
             throw new IllegalArgumentException(errorMsg);
         }
 
-        ProjectResponse updatedProject = projectService.addImagesToProject(id, images, imageMetadata);
+        ResponseEntity<ProjectResponse> response = idempotencyService.execute(idempotencyKey,
+                "PATCH /api/projects/" + id + "/images",
+                () -> idempotencyService.fingerprint(images, imageMetadata, ifMatch),
+                ProjectResponse.class,
+                () -> {
+                    ProjectResponse updatedProject =
+                            projectService.addImagesToProject(id, images, imageMetadata, expectedVersion);
 
-        log.info("Successfully uploaded {} images to project ID: {}", images.size(), id);
-        return ResponseEntity.ok(updatedProject);
+                    log.info("Successfully uploaded {} images to project ID: {}", images.size(), id);
+                    return ResponseEntity.ok(updatedProject);
+                });
 
+        // A replayed response only has status and body, so the ETag is taken from the body in both cases
+        return withETag(response);
     }
 
     /**
@@ -144,32 +205,37 @@ public class ProjectController {
      * @param projectId Project ID
      * @param imageId Image ID of image to update
      * @param request Metadata fields to update (imageType, isFeatured)
+     * @param ifMatch Optional ETag of the project version the client has seen
      * @return ResponseEntity with the updated project and HTTP 200 status
      * @throws ResourceNotFoundException if project or image not found
+     * @throws PreconditionFailedException with PRECONDITION_FAILED if the project has changed
      * */
     @PatchMapping("/{projectId}/images/{imageId}")
     public ResponseEntity<ProjectResponse> updateImageMetadata(@PathVariable Long projectId,
                                                        @PathVariable Long imageId,
-                                                       @Valid @RequestBody UpdateImageRequest request) {
+                                                       @Valid @RequestBody UpdateImageRequest request,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Received request to update image metadata for image ID: {} in project ID: {}", imageId, projectId);
 
-        ProjectResponse updatedProject = projectService.updateImageMetadata(projectId, imageId, request);
+        ProjectResponse updatedProject =
+                projectService.updateImageMetadata(projectId, imageId, request, expectedVersion(ifMatch));
 
         log.info("Successfully updated image metadata");
-        return ResponseEntity.ok(updatedProject);
+        return withETag(ResponseEntity.ok(), updatedProject);
     }
 
-    // Updates an existing project's details
+    // Updates an existing project's details, 412 if If-Match names an older version
     @PutMapping("/{id}")
     public ResponseEntity<ProjectResponse> updateProject(@PathVariable Long id,
-                                                        @Valid @RequestBody UpdateProjectRequest request) {
+                                                        @Valid @RequestBody UpdateProjectRequest request,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Received request to update project with ID: {}", id);
         log.debug("Update details - Title: {}, Description: {}", request.getTitle(), request.getDescription());
 
-        ProjectResponse updatedProject = projectService.updateProject(id, request);
+        ProjectResponse updatedProject = projectService.updateProject(id, request, expectedVersion(ifMatch));
 
         log.info("Successfully updated project with ID: {}", id);
-        return ResponseEntity.ok(updatedProject);
+        return withETag(ResponseEntity.ok(), updatedProject);
     }
 
     // Deletes an image from a project by image ID
@@ -194,4 +260,60 @@ public class ProjectController {
         log.info("Successfully deleted project with ID: {}", id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes many projects and all their images at once.
+     * Projects are selected either by a list of ids or by filters (workType, customerType, createdBefore).
+     * Image files are removed from storage asynchronously after the delete has committed.
+     *
+     * @param request ids or filters selecting the projects to delete
+     * @return ResponseEntity with the number of deleted projects and images and HTTP 200 status
+     * @throws IllegalArgumentException with BAD_REQUEST if neither ids nor filters are given
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> deleteProjects(@RequestBody BulkDeleteRequest request) {
+        log.info("Received request to bulk delete projects - ids: {}, workType: {}, customerType: {}, createdBefore: {}",
+                request.getIds() != null ? request.getIds().size() : 0,
+                request.getWorkType(), request.getCustomerType(), request.getCreatedBefore());
+
+        BulkDeleteResponse response = projectService.deleteProjects(request);
+
+        log.info("Successfully deleted {} projects and {} images",
+                response.getProjectsDeleted(), response.getImagesDeleted());
+        return ResponseEntity.ok(response);
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private static ResponseEntity<ProjectResponse> withETag(ResponseEntity<ProjectResponse> response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders());
+        return response.getBody() != null ? withETag(builder, response.getBody()) : builder.build();
+    }
+
+    private static ResponseEntity<ProjectResponse> withETag(ResponseEntity.BodyBuilder builder, ProjectResponse project) {
+        if (project.getVersion() != null) {
+            builder.eTag("\"" + project.getVersion() + "\"");
+        }
+        return builder.body(project);
+    }
+
+    /**
+     * Version named by an If-Match header, or null when the header is absent or "*".
+     * Anything but a single strong ETag from this API can never match, so it fails the precondition.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to 412
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + tag + " matcher ikke projektets nuværende version");
+    }
+}
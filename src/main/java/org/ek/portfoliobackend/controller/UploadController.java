@@ -0,0 +1,112 @@
+package org.ek.portfoliobackend.controller;
+
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.dto.request.CreateProjectFromUploadsRequest;
+import org.ek.portfoliobackend.dto.request.CreateUploadSessionRequest;
+import org.ek.portfoliobackend.dto.request.UploadedImageRequest;
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.dto.response.UploadSessionResponse;
+import org.ek.portfoliobackend.service.ChunkedUploadService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * REST Controller for resumable (chunked) image uploads.
+ *
+ * Flow:
+ * 1. POST /api/uploads                         - start a session per file (filename, size)
+ * 2. PUT  /api/uploads/{uploadId}?offset=N      - send chunks as raw bytes; resend from receivedBytes after a dropped connection
+ * 3. GET  /api/uploads/{uploadId}               - ask how many bytes the server has received
+ * 4. POST /api/uploads/projects                 - create a project from completed uploads
+ *    PATCH /api/uploads/projects/{id}/images    - or add them to an existing project
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    public UploadController(ChunkedUploadService chunkedUploadService) {
+        this.chunkedUploadService = chunkedUploadService;
+    }
+
+    // Starts a new upload session for one file
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(@Valid @RequestBody CreateUploadSessionRequest request) {
+        log.info("Received request to start upload of {} ({} bytes)", request.getFilename(), request.getSize());
+
+        UploadSessionResponse session = chunkedUploadService.createSession(request);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(session);
+    }
+
+    // Writes one chunk of the file at the given offset
+    @PutMapping(value = "/{uploadId}", consumes = "application/octet-stream")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(@PathVariable String uploadId,
+                                                             @RequestParam long offset,
+                                                             InputStream chunk) {
+        log.debug("Received chunk for upload {} at offset {}", uploadId, offset);
+
+        UploadSessionResponse session = chunkedUploadService.appendChunk(uploadId, offset, chunk);
+
+        return ResponseEntity.ok(session);
+    }
+
+    // Returns the current state of a session, so the client knows where to resume
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.getSession(uploadId));
+    }
+
+    // Aborts a session and deletes the received data
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> deleteSession(@PathVariable String uploadId) {
+        log.info("Received request to abort upload {}", uploadId);
+
+        chunkedUploadService.deleteSession(uploadId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Creates a new project from completed upload sessions.
+     * Same validation as POST /api/projects (at least one BEFORE and one AFTER image).
+     *
+     * @param request Project data and, per image, the upload id and metadata (imageType, isFeatured)
+     * @return ResponseEntity with the created project and HTTP 201 status
+     */
+    @PostMapping("/projects")
+    public ResponseEntity<ProjectResponse> createProject(@Valid @RequestBody CreateProjectFromUploadsRequest request) {
+        log.info("Received request to create project from {} uploads: {}",
+                request.getImages().size(), request.getData().getTitle());
+
+        ProjectResponse createdProject = chunkedUploadService.createProject(request);
+
+        log.info("Successfully created project with ID: {} from uploads", createdProject.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdProject);
+    }
+
+    /**
+     * Adds images from completed upload sessions to an existing project.
+     *
+     * @param id Project ID
+     * @param images per image, the upload id and metadata (imageType, isFeatured)
+     * @return ResponseEntity with the updated project and HTTP 200 status
+     */
+    @PatchMapping("/projects/{id}/images")
+    public ResponseEntity<ProjectResponse> addImagesToProject(@PathVariable Long id,
+                                                              @Valid @RequestBody List<UploadedImageRequest> images) {
+        log.info("Received request to add {} uploaded images to project ID: {}", images.size(), id);
+
+        ProjectResponse updatedProject = chunkedUploadService.addImagesToProject(id, images);
+
+        log.info("Successfully added uploaded images to project ID: {}", id);
+        return ResponseEntity.ok(updatedProject);
+    }
+}
@@ -1,24 +1,33 @@
 package org.ek.portfoliobackend.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.ek.portfoliobackend.dto.request.CreateUserRequest;
 import org.ek.portfoliobackend.dto.request.UpdateUserRequest;
+import org.ek.portfoliobackend.dto.response.UserPageResponse;
 import org.ek.portfoliobackend.dto.response.UserResponse;
 import org.ek.portfoliobackend.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.databind.ObjectMapper;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{id}")
@@ -27,12 +36,33 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    // ?page=&size= for numbered pages with totals, ?after=<nextCursor>&size= for cursor paging
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
+    public ResponseEntity<UserPageResponse> getUsers(@RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "50") int size,
+                                                     @RequestParam(required = false) Long after) {
+        UserPageResponse users = after != null
+                ? userService.getUsersAfter(after, size)
+                : userService.getUsers(page, size);
         return ResponseEntity.ok(users);
     }
 
+    // All users as newline-delimited JSON, written while they are read so memory use does not grow with the table
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        userService.exportUsers(user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(@PathVariable Long id, @Valid @RequestBody UpdateUserRequest request) {
         UserResponse response = userService.updateUser(id, request);
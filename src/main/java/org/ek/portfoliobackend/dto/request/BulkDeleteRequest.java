@@ -0,0 +1,60 @@
+package org.ek.portfoliobackend.dto.request;
+
+import org.ek.portfoliobackend.model.CustomerType;
+import org.ek.portfoliobackend.model.WorkType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Selects the projects to delete in a bulk delete.
+ * Either a list of ids, or one or more filters (all given filters must match).
+ */
+public class BulkDeleteRequest {
+
+    private List<Long> ids;
+    private WorkType workType;
+    private CustomerType customerType;
+    private LocalDate createdBefore;
+
+    public BulkDeleteRequest() {}
+
+    public BulkDeleteRequest(List<Long> ids, WorkType workType, CustomerType customerType, LocalDate createdBefore) {
+        this.ids = ids;
+        this.workType = workType;
+        this.customerType = customerType;
+        this.createdBefore = createdBefore;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public WorkType getWorkType() {
+        return workType;
+    }
+
+    public void setWorkType(WorkType workType) {
+        this.workType = workType;
+    }
+
+    public CustomerType getCustomerType() {
+        return customerType;
+    }
+
+    public void setCustomerType(CustomerType customerType) {
+        this.customerType = customerType;
+    }
+
+    public LocalDate getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(LocalDate createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+}
@@ -0,0 +1,23 @@
+package org.ek.portfoliobackend.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Image entry in a bulk import manifest.
+ * Same metadata as ImageUploadRequest plus the name of the image file inside the archive.
+ */
+public class BulkImportImageEntry extends ImageUploadRequest {
+
+    @NotBlank(message = "The image requires a file name in the archive")
+    private String file;
+
+    public BulkImportImageEntry() {}
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+}
@@ -0,0 +1,44 @@
+package org.ek.portfoliobackend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * One line of a bulk import manifest (NDJSON): a project and its images.
+
+ * Eksempel:
+ * {"project": {"title": "Fliserens", "description": "...", "executionDate": "2025-03-04",
+ *              "serviceCategory": "PAVING_CLEANING", "customerType": "PRIVATE_CUSTOMER"},
+ *  "images": [{"file": "før.jpg", "imageType": "BEFORE"}, {"file": "efter.jpg", "imageType": "AFTER", "isFeatured": true}]}
+ */
+public class BulkImportManifestEntry {
+
+    @Valid
+    @NotNull(message = "The manifest entry requires a project")
+    private CreateProjectRequest project;
+
+    @Valid
+    @NotEmpty(message = "At least one image must be provided")
+    private List<BulkImportImageEntry> images;
+
+    public BulkImportManifestEntry() {}
+
+    public CreateProjectRequest getProject() {
+        return project;
+    }
+
+    public void setProject(CreateProjectRequest project) {
+        this.project = project;
+    }
+
+    public List<BulkImportImageEntry> getImages() {
+        return images;
+    }
+
+    public void setImages(List<BulkImportImageEntry> images) {
+        this.images = images;
+    }
+}
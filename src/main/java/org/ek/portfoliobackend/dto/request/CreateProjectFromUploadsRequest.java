@@ -0,0 +1,44 @@
+package org.ek.portfoliobackend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Creates a project from images that were sent through resumable upload sessions.
+ */
+public class CreateProjectFromUploadsRequest {
+
+    @Valid
+    @NotNull(message = "The request requires project data")
+    private CreateProjectRequest data;
+
+    @Valid
+    @NotEmpty(message = "At least one image must be provided")
+    private List<UploadedImageRequest> images;
+
+    public CreateProjectFromUploadsRequest() {}
+
+    public CreateProjectFromUploadsRequest(CreateProjectRequest data, List<UploadedImageRequest> images) {
+        this.data = data;
+        this.images = images;
+    }
+
+    public CreateProjectRequest getData() {
+        return data;
+    }
+
+    public void setData(CreateProjectRequest data) {
+        this.data = data;
+    }
+
+    public List<UploadedImageRequest> getImages() {
+        return images;
+    }
+
+    public void setImages(List<UploadedImageRequest> images) {
+        this.images = images;
+    }
+}
@@ -0,0 +1,36 @@
+package org.ek.portfoliobackend.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+public class CreateUploadSessionRequest {
+
+    @NotBlank(message = "The upload requires a file name")
+    private String filename;
+
+    @Positive(message = "The upload requires a file size larger than 0")
+    private long size;
+
+    public CreateUploadSessionRequest() {}
+
+    public CreateUploadSessionRequest(String filename, long size) {
+        this.filename = filename;
+        this.size = size;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+}
@@ -28,7 +28,7 @@ public class ImageUploadRequest {
     }
 
     public boolean isFeatured() {
-        return isFeatured;
+        return isFeatured != null && isFeatured;
     }
 
     public void setFeatured(boolean featured) {
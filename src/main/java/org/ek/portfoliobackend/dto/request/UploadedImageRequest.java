@@ -0,0 +1,23 @@
+package org.ek.portfoliobackend.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Image metadata for a file that was sent through a resumable upload session.
+ * Same metadata as ImageUploadRequest plus the id of the completed upload.
+ */
+public class UploadedImageRequest extends ImageUploadRequest {
+
+    @NotBlank(message = "The image requires an upload id")
+    private String uploadId;
+
+    public UploadedImageRequest() {}
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+}
@@ -0,0 +1,33 @@
+package org.ek.portfoliobackend.dto.response;
+
+/**
+ * Number of projects and images removed by a bulk delete.
+ */
+public class BulkDeleteResponse {
+
+    private int projectsDeleted;
+    private int imagesDeleted;
+
+    public BulkDeleteResponse() {}
+
+    public BulkDeleteResponse(int projectsDeleted, int imagesDeleted) {
+        this.projectsDeleted = projectsDeleted;
+        this.imagesDeleted = imagesDeleted;
+    }
+
+    public int getProjectsDeleted() {
+        return projectsDeleted;
+    }
+
+    public void setProjectsDeleted(int projectsDeleted) {
+        this.projectsDeleted = projectsDeleted;
+    }
+
+    public int getImagesDeleted() {
+        return imagesDeleted;
+    }
+
+    public void setImagesDeleted(int imagesDeleted) {
+        this.imagesDeleted = imagesDeleted;
+    }
+}
@@ -0,0 +1,57 @@
+package org.ek.portfoliobackend.dto.response;
+
+import java.util.List;
+
+/**
+ * Report returned from a bulk project import, with one result per manifest line.
+ */
+public class BulkImportResponse {
+
+    private int total;
+    private int created;
+    private int failed;
+    private List<BulkImportRowResult> rows;
+
+    public BulkImportResponse() {}
+
+    public BulkImportResponse(List<BulkImportRowResult> rows) {
+        this.rows = rows;
+        this.total = rows.size();
+        this.created = (int) rows.stream()
+                .filter(row -> row.getStatus() == BulkImportRowResult.Status.CREATED)
+                .count();
+        this.failed = total - created;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BulkImportRowResult> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<BulkImportRowResult> rows) {
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,66 @@
+package org.ek.portfoliobackend.dto.response;
+
+/**
+ * Result for a single manifest line of a bulk import.
+ */
+public class BulkImportRowResult {
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    private int line;
+    private Status status;
+    private Long projectId;
+    private String message;
+
+    public BulkImportRowResult() {}
+
+    public BulkImportRowResult(int line, Status status, Long projectId, String message) {
+        this.line = line;
+        this.status = status;
+        this.projectId = projectId;
+        this.message = message;
+    }
+
+    public static BulkImportRowResult created(int line, Long projectId) {
+        return new BulkImportRowResult(line, Status.CREATED, projectId, null);
+    }
+
+    public static BulkImportRowResult failed(int line, String message) {
+        return new BulkImportRowResult(line, Status.FAILED, null, message);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
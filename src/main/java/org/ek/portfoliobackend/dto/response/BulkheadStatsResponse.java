@@ -0,0 +1,82 @@
+package org.ek.portfoliobackend.dto.response;
+
+/**
+ * Queue depth and rejections of one bulkhead (a bounded group of requests or a worker pool) since startup.
+ */
+public class BulkheadStatsResponse {
+
+    private String name;
+    private int maxConcurrent;
+    private int active;
+    private int maxQueued;
+    private int queued;
+    private long admitted;
+    private long rejectedQueueFull;
+    private long rejectedTimeout;
+
+    public BulkheadStatsResponse() {}
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public void setAdmitted(long admitted) {
+        this.admitted = admitted;
+    }
+
+    public long getRejectedQueueFull() {
+        return rejectedQueueFull;
+    }
+
+    public void setRejectedQueueFull(long rejectedQueueFull) {
+        this.rejectedQueueFull = rejectedQueueFull;
+    }
+
+    public long getRejectedTimeout() {
+        return rejectedTimeout;
+    }
+
+    public void setRejectedTimeout(long rejectedTimeout) {
+        this.rejectedTimeout = rejectedTimeout;
+    }
+}
@@ -0,0 +1,64 @@
+package org.ek.portfoliobackend.dto.response;
+
+/**
+ * Current adaptive concurrency limit for /api/**, the latencies it is based on and how many requests were shed.
+ */
+public class ConcurrencyLimitStatsResponse {
+
+    private int limit;
+    private int inFlight;
+    private double longRttMillis;
+    private double shortRttMillis;
+    private long admitted;
+    private long shed;
+
+    public ConcurrencyLimitStatsResponse() {}
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public double getLongRttMillis() {
+        return longRttMillis;
+    }
+
+    public void setLongRttMillis(double longRttMillis) {
+        this.longRttMillis = longRttMillis;
+    }
+
+    public double getShortRttMillis() {
+        return shortRttMillis;
+    }
+
+    public void setShortRttMillis(double shortRttMillis) {
+        this.shortRttMillis = shortRttMillis;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public void setAdmitted(long admitted) {
+        this.admitted = admitted;
+    }
+
+    public long getShed() {
+        return shed;
+    }
+
+    public void setShed(long shed) {
+        this.shed = shed;
+    }
+}
@@ -0,0 +1,109 @@
+package org.ek.portfoliobackend.dto.response;
+
+/**
+ * Statistics for the in-memory image cache since startup.
+ */
+public class ImageCacheStatsResponse {
+
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long bytesServedFromMemory;
+    private long admissions;
+    private long rejections;
+    private long evictions;
+    private long invalidations;
+    private int entries;
+    private long usedBytes;
+    private long maxBytes;
+
+    public ImageCacheStatsResponse() {}
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+
+    public long getBytesServedFromMemory() {
+        return bytesServedFromMemory;
+    }
+
+    public void setBytesServedFromMemory(long bytesServedFromMemory) {
+        this.bytesServedFromMemory = bytesServedFromMemory;
+    }
+
+    public long getAdmissions() {
+        return admissions;
+    }
+
+    public void setAdmissions(long admissions) {
+        this.admissions = admissions;
+    }
+
+    public long getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(long rejections) {
+        this.rejections = rejections;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public void setEntries(int entries) {
+        this.entries = entries;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public void setUsedBytes(long usedBytes) {
+        this.usedBytes = usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+}
@@ -10,6 +10,11 @@ public class ImageResponse {
     private String url;
     private ImageType imageType;
     private boolean isFeatured;
+    private String contentType;
+    private Integer width;
+    private Integer height;
+    private String blurhash;
+    private String dominantColor;
 
     public ImageResponse(){}
 
@@ -52,6 +57,46 @@ public class ImageResponse {
         isFeatured = featured;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public String getBlurhash() {
+        return blurhash;
+    }
+
+    public void setBlurhash(String blurhash) {
+        this.blurhash = blurhash;
+    }
+
+    public String getDominantColor() {
+        return dominantColor;
+    }
+
+    public void setDominantColor(String dominantColor) {
+        this.dominantColor = dominantColor;
+    }
+
 
 
 }
@@ -0,0 +1,55 @@
+package org.ek.portfoliobackend.dto.response;
+
+/**
+ * Result of a single run of the orphan file collector.
+ */
+public class OrphanCleanupReport {
+
+    private long filesScanned;
+    private long filesQuarantined;
+    private long filesPurged;
+    private long bytesReclaimed;
+    private boolean limitReached;
+
+    public OrphanCleanupReport() {}
+
+    public long getFilesScanned() {
+        return filesScanned;
+    }
+
+    public void setFilesScanned(long filesScanned) {
+        this.filesScanned = filesScanned;
+    }
+
+    public long getFilesQuarantined() {
+        return filesQuarantined;
+    }
+
+    public void setFilesQuarantined(long filesQuarantined) {
+        this.filesQuarantined = filesQuarantined;
+    }
+
+    public long getFilesPurged() {
+        return filesPurged;
+    }
+
+    public void setFilesPurged(long filesPurged) {
+        this.filesPurged = filesPurged;
+    }
+
+    public long getBytesReclaimed() {
+        return bytesReclaimed;
+    }
+
+    public void setBytesReclaimed(long bytesReclaimed) {
+        this.bytesReclaimed = bytesReclaimed;
+    }
+
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    public void setLimitReached(boolean limitReached) {
+        this.limitReached = limitReached;
+    }
+}
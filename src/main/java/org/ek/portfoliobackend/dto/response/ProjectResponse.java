@@ -18,6 +18,7 @@ public class ProjectResponse {
     private LocalDate creationDate;
     private WorkType workType;
     private CustomerType customerType;
+    private Long version;
     private List<ImageResponse> images;
 
     public ProjectResponse(Long id, String title, String description, LocalDate executionDate, LocalDate creationDate, WorkType workType, CustomerType customerType, List<ImageResponse> images) {
@@ -89,6 +90,14 @@ public class ProjectResponse {
         this.customerType = customerType;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<ImageResponse> getImages() {
         return images;
     }
@@ -0,0 +1,64 @@
+package org.ek.portfoliobackend.dto.response;
+
+/**
+ * State of a resumable upload session.
+ * A client that lost its connection continues by sending the bytes from receivedBytes onwards.
+ */
+public class UploadSessionResponse {
+
+    private String uploadId;
+    private String filename;
+    private long size;
+    private long receivedBytes;
+    private boolean complete;
+
+    public UploadSessionResponse() {}
+
+    public UploadSessionResponse(String uploadId, String filename, long size, long receivedBytes) {
+        this.uploadId = uploadId;
+        this.filename = filename;
+        this.size = size;
+        this.receivedBytes = receivedBytes;
+        this.complete = receivedBytes == size;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -0,0 +1,69 @@
+package org.ek.portfoliobackend.dto.response;
+
+import java.util.List;
+
+/**
+ * One page of users.
+ * Page listing (?page=) fills page, totalElements and totalPages.
+ * Cursor listing (?after=) skips the count query and fills nextCursor instead,
+ * which is null on the last page.
+ */
+public class UserPageResponse {
+
+    private List<UserResponse> content;
+    private int size;
+    private Integer page;
+    private Long totalElements;
+    private Integer totalPages;
+    private Long nextCursor;
+
+    public UserPageResponse() {}
+
+    public List<UserResponse> getContent() {
+        return content;
+    }
+
+    public void setContent(List<UserResponse> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,10 +1,17 @@
 package org.ek.portfoliobackend.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.ek.portfoliobackend.exception.custom.IdempotencyConflictException;
+import org.ek.portfoliobackend.exception.custom.InvalidCredentialsException;
+import org.ek.portfoliobackend.exception.custom.PreconditionFailedException;
 import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.ek.portfoliobackend.exception.custom.ServiceUnavailableException;
+import org.ek.portfoliobackend.exception.custom.TooManyRequestsException;
 import org.ek.portfoliobackend.exception.custom.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -86,6 +93,149 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Håndterer IdempotencyConflictException når en Idempotency-Key ikke kan genbruges.
+
+     * @param ex Exception med besked og status (409 under behandling, 422 anden request)
+     * @param request HTTP request for at få path information
+     * @return ResponseEntity med ErrorResponse og HTTP 409 eller 422 status
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(
+            IdempotencyConflictException ex, HttpServletRequest request) {
+
+        logger.warn("Idempotency conflict: {} - Path: {}", ex.getMessage(), request.getRequestURI());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getStatus().value(),
+                ex.getStatus().getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return new ResponseEntity<>(errorResponse, ex.getStatus());
+    }
+
+    /**
+     * Håndterer TooManyRequestsException når klienten har brugt sin kvote af skrivende requests.
+     * Retry-After fortæller klienten hvor mange sekunder den skal vente.
+
+     * @param ex Exception med antal sekunder til næste request kan tillades
+     * @param request HTTP request for at få path information
+     * @return ResponseEntity med ErrorResponse, Retry-After header og HTTP 429 status
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(
+            TooManyRequestsException ex, HttpServletRequest request) {
+
+        logger.warn("Rate limit exceeded: {} {} - retry after {}s",
+                request.getMethod(), request.getRequestURI(), ex.getRetryAfterSeconds());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Håndterer ServiceUnavailableException når en bulkhead er fuld, fx ved for mange samtidige uploads.
+
+     * @param ex Exception med besked og antal sekunder klienten bør vente
+     * @param request HTTP request for at få path information
+     * @return ResponseEntity med ErrorResponse, Retry-After header og HTTP 503 status
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, HttpServletRequest request) {
+
+        logger.warn("Request rejected: {} - Path: {}", ex.getMessage(), request.getRequestURI());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Håndterer InvalidCredentialsException når login fejler.
+
+     * @param ex Exception med en besked der ikke afslører om brugeren findes
+     * @param request HTTP request for at få path information
+     * @return ResponseEntity med ErrorResponse og HTTP 401 status
+     */
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCredentialsException(
+            InvalidCredentialsException ex, HttpServletRequest request) {
+
+        logger.warn("Login failed - Path: {}", request.getRequestURI());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.UNAUTHORIZED.value(),
+                "Unauthorized",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Håndterer PreconditionFailedException når If-Match ikke matcher ressourcens nuværende version.
+
+     * @param ex Exception med besked om nuværende og forventet version
+     * @param request HTTP request for at få path information
+     * @return ResponseEntity med ErrorResponse og HTTP 412 status
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+            PreconditionFailedException ex, HttpServletRequest request) {
+
+        logger.warn("Precondition failed: {} - Path: {}", ex.getMessage(), request.getRequestURI());
+
+        return preconditionFailed(ex.getMessage(), request);
+    }
+
+    /**
+     * Håndterer OptimisticLockingFailureException når en anden har gemt en ny version af
+     * ressourcen mellem læsning og skrivning (@Version kolonnen matchede ikke ved UPDATE).
+
+     * @param ex Exception fra JPA/Hibernate
+     * @param request HTTP request for at få path information
+     * @return ResponseEntity med ErrorResponse og HTTP 412 status
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, HttpServletRequest request) {
+
+        logger.warn("Concurrent modification: {} - Path: {}", ex.getMessage(), request.getRequestURI());
+
+        return preconditionFailed("Ressourcen blev ændret af en anden samtidig. Hent den igen og prøv på ny",
+                request);
+    }
+
+    private ResponseEntity<ErrorResponse> preconditionFailed(String message, HttpServletRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "Precondition Failed",
+                message,
+                request.getRequestURI()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
     /**
      * Håndterer MethodArgumentNotValidException - Bean Validation fejl fra @Valid annotation.
      * Samler alle feltspecifikke valideringsfejl og returnerer dem i en struktureret format.
@@ -0,0 +1,44 @@
+package org.ek.portfoliobackend.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception der kastes når en Idempotency-Key ikke kan bruges til requesten.
+ * Resulterer i HTTP 409 Conflict hvis den første request med nøglen stadig behandles,
+ * og HTTP 422 Unprocessable Content hvis nøglen er brugt til en anden request.
+ */
+
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private IdempotencyConflictException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Den første request med nøglen er endnu ikke færdig.
+
+     * @param key Idempotency-Key fra requesten
+     */
+    public static IdempotencyConflictException inProgress(String key) {
+        return new IdempotencyConflictException(
+                String.format("Request med Idempotency-Key '%s' er stadig under behandling", key), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Nøglen er allerede brugt til en request med andet indhold eller til et andet endpoint.
+
+     * @param key Idempotency-Key fra requesten
+     */
+    public static IdempotencyConflictException mismatch(String key) {
+        return new IdempotencyConflictException(
+                String.format("Idempotency-Key '%s' er allerede brugt til en anden request", key),
+                HttpStatus.UNPROCESSABLE_CONTENT);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,14 @@
+package org.ek.portfoliobackend.exception.custom;
+
+/**
+ * Exception der kastes når login fejler, fordi brugernavnet ikke findes eller adgangskoden er forkert.
+ * Beskeden siger ikke hvilken af delene der var forkert.
+ * Resulterer i HTTP 401 Unauthorized response.
+ */
+
+public class InvalidCredentialsException extends RuntimeException {
+
+    public InvalidCredentialsException() {
+        super("Invalid username or password");
+    }
+}
@@ -0,0 +1,33 @@
+package org.ek.portfoliobackend.exception.custom;
+
+/**
+ * Exception der kastes når If-Match ikke matcher den nuværende version af en ressource,
+ * dvs. ressourcen er ændret af en anden siden klienten hentede den.
+ * Resulterer i HTTP 412 Precondition Failed response.
+ */
+
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Constructor med custom fejlbesked.
+
+     * @param message Custom fejlbesked
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor med resource navn, ID og versioner.
+     * Genererer besked i format: "Project med id 42 er ændret (version 5, forventet 4)"
+
+     * @param resourceName Navn på ressourcen (f.eks. "Project")
+     * @param id ID på ressourcen
+     * @param expectedVersion Versionen fra If-Match
+     * @param currentVersion Versionen i databasen
+     */
+    public PreconditionFailedException(String resourceName, Long id, Long expectedVersion, Long currentVersion) {
+        super(String.format("%s med id %d er ændret (version %d, forventet %d)",
+                resourceName, id, currentVersion, expectedVersion));
+    }
+}
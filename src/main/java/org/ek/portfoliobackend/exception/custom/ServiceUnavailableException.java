@@ -0,0 +1,25 @@
+package org.ek.portfoliobackend.exception.custom;
+
+/**
+ * Exception der kastes når serveren ikke kan tage imod flere requests af en bestemt slags lige nu,
+ * fx når alle pladser og hele køen til uploads er optaget.
+ * Resulterer i HTTP 503 Service Unavailable response med en Retry-After header.
+ */
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param message Fejlbesked til klienten
+     * @param retryAfterSeconds antal sekunder klienten bør vente før den prøver igen
+     */
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
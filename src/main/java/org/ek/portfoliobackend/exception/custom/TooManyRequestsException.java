@@ -0,0 +1,23 @@
+package org.ek.portfoliobackend.exception.custom;
+
+/**
+ * Exception der kastes når en klient har brugt sin kvote af skrivende requests.
+ * Resulterer i HTTP 429 Too Many Requests response med en Retry-After header.
+ */
+
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterSeconds antal sekunder før klienten igen har tokens nok til requesten
+     */
+    public TooManyRequestsException(long retryAfterSeconds) {
+        super(String.format("For mange requests. Prøv igen om %d sekunder", retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -6,10 +6,13 @@ import org.ek.portfoliobackend.dto.request.UpdateProjectRequest;
 import org.ek.portfoliobackend.dto.response.ImageResponse;
 import org.ek.portfoliobackend.dto.response.ProjectResponse;
 import org.ek.portfoliobackend.model.*;
+import org.ek.portfoliobackend.service.ImagePlaceholderService.Placeholder;
+import org.ek.portfoliobackend.service.ImageProbeService.ImageInfo;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.stream.Collectors;
 
@@ -31,6 +34,7 @@ public class ProjectMapper {
         project.setWorkType(request.getServiceCategory());
         project.setCustomerType(request.getCustomerType());
         project.setCreationDate(LocalDate.now());
+        project.setLastModified(Instant.now());
 
         return project;
     }
@@ -55,6 +59,35 @@ public class ProjectMapper {
         return image;
     }
 
+    /**
+     * Sætter content type og dimensioner fundet i filens header på en Image entity.
+     *
+     * @param image Image entity der skal opdateres
+     * @param info Resultatet af ImageProbeService, ignoreres hvis null
+     */
+    public void applyImageInfo(Image image, ImageInfo info) {
+        if (info == null) {
+            return;
+        }
+        image.setContentType(info.contentType());
+        image.setWidth(info.width());
+        image.setHeight(info.height());
+    }
+
+    /**
+     * Sætter blurhash og dominerende farve beregnet ved upload på en Image entity.
+     *
+     * @param image Image entity der skal opdateres
+     * @param placeholder Resultatet af ImagePlaceholderService, ignoreres hvis null
+     */
+    public void applyPlaceholder(Image image, Placeholder placeholder) {
+        if (placeholder == null) {
+            return;
+        }
+        image.setBlurhash(placeholder.blurhash());
+        image.setDominantColor(placeholder.dominantColor());
+    }
+
 
     // Konverterer project til responseDTO
 
@@ -68,6 +101,7 @@ public class ProjectMapper {
         response.setCreationDate(project.getCreationDate());
         response.setWorkType(project.getWorkType());
         response.setCustomerType(project.getCustomerType());
+        response.setVersion(project.getVersion());
 
         // Map alle billeder
         List<ImageResponse> imageDtos = project.getImages()
@@ -142,6 +176,7 @@ public class ProjectMapper {
         response.setExecutionDate(project.getExecutionDate());
         response.setWorkType(project.getWorkType());
         response.setCustomerType(project.getCustomerType());
+        response.setVersion(project.getVersion());
 
         // Map images if present
         if (project.getImages() != null && !project.getImages().isEmpty()) {
@@ -167,6 +202,11 @@ public class ProjectMapper {
         response.setUrl(image.getUrl());
         response.setImageType(image.getImageType());
         response.setIsFeatured(image.getIsFeatured());
+        response.setContentType(image.getContentType());
+        response.setWidth(image.getWidth());
+        response.setHeight(image.getHeight());
+        response.setBlurhash(image.getBlurhash());
+        response.setDominantColor(image.getDominantColor());
         return response;
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 
 
 @Entity
+@Table(indexes = @Index(name = "idx_image_url", columnList = "url"))
 public class Image {
 
     @Id
@@ -18,6 +19,28 @@ public class Image {
 
     private boolean isFeatured;
 
+    // Detected from the file header on upload, null for images stored before probing was added
+    private String contentType;
+
+    private Integer width;
+
+    private Integer height;
+
+    // Hex encoded SHA-256 of the stored file, served as strong ETag
+    @Column(length = 64)
+    private String contentHash;
+
+    // Placeholder shown while the image loads, null when the format could not be decoded on upload
+    @Column(length = 32)
+    private String blurhash;
+
+    // Most common color as "#rrggbb"
+    @Column(length = 7)
+    private String dominantColor;
+
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "project_id")
     private Project project;
@@ -64,6 +87,62 @@ public class Image {
         isFeatured = featured;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getBlurhash() {
+        return blurhash;
+    }
+
+    public void setBlurhash(String blurhash) {
+        this.blurhash = blurhash;
+    }
+
+    public String getDominantColor() {
+        return dominantColor;
+    }
+
+    public void setDominantColor(String dominantColor) {
+        this.dominantColor = dominantColor;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Project getProject() {
         return project;
     }
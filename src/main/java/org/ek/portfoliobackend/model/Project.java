@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
@@ -33,6 +34,22 @@ public class Project {
 
     private LocalDate creationDate;
 
+    // Incremented on every change to the project or its images, served as ETag
+    @Version
+    private Long version;
+
+    // Set on every write, so changes to images alone also increment the version
+    private Instant lastModified;
+
+    // Number of images per type, so "at least one BEFORE and one AFTER image" is checked without loading
+    // the images. Maintained by ProjectRepository.changeImageCounts; not updatable from the entity,
+    // so flushing a Project read before a concurrent change cannot overwrite them.
+    @Column(nullable = false, updatable = false)
+    private int beforeImageCount;
+
+    @Column(nullable = false, updatable = false)
+    private int afterImageCount;
+
     @JsonManagedReference // Stopper recursion
     @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Image> images = new ArrayList<>();
@@ -57,6 +74,15 @@ public class Project {
         image.setProject(this);
     }
 
+    // Counts an image of a project that is not inserted yet; saved projects use ProjectRepository.changeImageCounts
+    public void countImage(ImageType imageType) {
+        if (imageType == ImageType.BEFORE) {
+            beforeImageCount++;
+        } else if (imageType == ImageType.AFTER) {
+            afterImageCount++;
+        }
+    }
+
     public void removeImage(Image image) {
         images.remove(image);
         image.setProject(null);
@@ -118,6 +144,38 @@ public class Project {
         this.creationDate = creationDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public int getBeforeImageCount() {
+        return beforeImageCount;
+    }
+
+    public void setBeforeImageCount(int beforeImageCount) {
+        this.beforeImageCount = beforeImageCount;
+    }
+
+    public int getAfterImageCount() {
+        return afterImageCount;
+    }
+
+    public void setAfterImageCount(int afterImageCount) {
+        this.afterImageCount = afterImageCount;
+    }
+
     public List<Image> getImages() {
         return images;
     }
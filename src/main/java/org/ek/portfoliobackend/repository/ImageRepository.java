@@ -3,9 +3,14 @@ package org.ek.portfoliobackend.repository;
 import org.ek.portfoliobackend.model.Image;
 import org.ek.portfoliobackend.model.ImageType;
 import org.ek.portfoliobackend.model.Project;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -37,4 +42,38 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
 
     // Find images by project and type
     List<Image> findByProjectIdAndImageType(Long projectId, ImageType imageType);
-}
\ No newline at end of file
+
+    // Whether any image references the file (used by storage recovery)
+    boolean existsByUrl(String url);
+
+    // Find image urls in id order after the given id (keyset paging, only id and url are loaded)
+    @Query("SELECT i.id AS id, i.url AS url FROM Image i WHERE i.id > :afterId ORDER BY i.id")
+    List<ImageUrlView> findUrlsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Find the urls of all images belonging to the given projects
+    @Query("SELECT i.url FROM Image i WHERE i.project.id IN :projectIds")
+    List<String> findUrlsByProjectIdIn(@Param("projectIds") Collection<Long> projectIds);
+
+    // Delete all images belonging to the given projects in a single statement
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Image i WHERE i.project.id IN :projectIds")
+    int deleteByProjectIdIn(@Param("projectIds") Collection<Long> projectIds);
+
+    // Find content hash and type stored for a file url (used when the file is served)
+    @Query("SELECT i.contentHash AS contentHash, i.contentType AS contentType FROM Image i WHERE i.url = :url")
+    List<ImageFileView> findFileViewsByUrl(@Param("url") String url, Pageable pageable);
+
+    // Projection with only the columns needed to know which files are referenced
+    interface ImageUrlView {
+        Long getId();
+
+        String getUrl();
+    }
+
+    // Projection with the columns needed to serve a file without opening it
+    interface ImageFileView {
+        String getContentHash();
+
+        String getContentType();
+    }
+}
@@ -0,0 +1,16 @@
+package org.ek.portfoliobackend.repository;
+
+import org.ek.portfoliobackend.model.PendingFileDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingFileDeletionRepository extends JpaRepository<PendingFileDeletion, Long> {
+
+    // Find the oldest deletions that are due for an attempt, one batch at a time
+    List<PendingFileDeletion> findByNextAttemptAtLessThanEqualOrderByIdAsc(LocalDateTime now, Pageable pageable);
+}
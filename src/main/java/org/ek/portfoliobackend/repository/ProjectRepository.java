@@ -5,9 +5,13 @@ import org.ek.portfoliobackend.model.Project;
 import org.ek.portfoliobackend.model.WorkType;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -45,4 +49,34 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
 
     // Find projects by both workType and customerType with dynamic sorting
     List<Project> findByWorkTypeAndCustomerType(WorkType workType, CustomerType customerType, Sort sort);
-}
\ No newline at end of file
+
+    // Find ids of projects matching the given filters, null filters are ignored
+    @Query("SELECT p.id FROM Project p WHERE (:workType IS NULL OR p.workType = :workType) "
+            + "AND (:customerType IS NULL OR p.customerType = :customerType) "
+            + "AND (:createdBefore IS NULL OR p.creationDate < :createdBefore)")
+    List<Long> findIdsByFilters(@Param("workType") WorkType workType,
+                                @Param("customerType") CustomerType customerType,
+                                @Param("createdBefore") LocalDate createdBefore);
+
+    // Delete the given projects in a single statement (their images must be deleted first)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Project p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Changes the per-type image counters in one statement, only if the project keeps at least one
+     * BEFORE and one AFTER image. Negative deltas are checked against the current row, so concurrent
+     * deletes cannot both remove the last image of a type.
+     *
+     * @return 1 if the counters were changed, 0 if the change would break the rule or the project does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.beforeImageCount = p.beforeImageCount + :beforeDelta, "
+            + "p.afterImageCount = p.afterImageCount + :afterDelta "
+            + "WHERE p.id = :id "
+            + "AND (:beforeDelta >= 0 OR p.beforeImageCount + :beforeDelta >= 1) "
+            + "AND (:afterDelta >= 0 OR p.afterImageCount + :afterDelta >= 1)")
+    int changeImageCounts(@Param("id") Long id,
+                          @Param("beforeDelta") int beforeDelta,
+                          @Param("afterDelta") int afterDelta);
+}
@@ -1,9 +1,14 @@
 package org.ek.portfoliobackend.repository;
 
 import org.ek.portfoliobackend.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +21,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // Find a page of users for listing (the password hash is never loaded)
+    @Query(value = "SELECT u.id AS id, u.username AS username, u.email AS email, u.role AS role FROM User u",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryView> findSummaries(Pageable pageable);
+
+    // Find users in id order after the given id (keyset paging, the password hash is never loaded)
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.role AS role " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummaryView> findSummariesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Projection with the columns shown when listing users
+    interface UserSummaryView {
+        Long getId();
+
+        String getUsername();
+
+        String getEmail();
+
+        String getRole();
+    }
 }
@@ -0,0 +1,53 @@
+package org.ek.portfoliobackend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Læser "Authorization: Bearer <token>", validerer tokenet med JwtTokenService og sætter brugeren
+ * i SecurityContext med rollen fra tokenet.
+
+ * Et manglende eller ugyldigt token giver ingen fejl her: requesten fortsætter som anonym, og SecurityConfig
+ * afgør om endpointet kræver login (401) eller en bestemt rolle (403).
+ * Oprettes i SecurityConfig og ikke som @Component, så den kun kører i Spring Securitys filterkæde.
+ */
+@Slf4j
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenService jwtTokenService;
+
+    public JwtAuthenticationFilter(JwtTokenService jwtTokenService) {
+        this.jwtTokenService = jwtTokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            try {
+                JwtPrincipal principal = jwtTokenService.validate(header.substring(BEARER_PREFIX.length()).trim());
+                UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                        principal, null, List.of(new SimpleGrantedAuthority(principal.role())));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (AuthenticationException e) {
+                log.debug("Rejected bearer token on {}: {}", request.getRequestURI(), e.getMessage());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,23 @@
+package org.ek.portfoliobackend.security;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * Den indloggede bruger, som den står i et gyldigt JWT. Bygges kun ud fra tokenets claims,
+ * så der ikke skal slås op i databasen pr. request.
+ *
+ * @param userId    brugerens id (claim "uid")
+ * @param username  brugernavn (claim "sub")
+ * @param role      rolle, fx "ROLE_ADMIN" (claim "role")
+ * @param tokenId   tokenets id (claim "jti"), bruges til at tilbagekalde det
+ * @param expiresAt hvornår tokenet udløber (claim "exp")
+ */
+public record JwtPrincipal(Long userId, String username, String role, String tokenId, Instant expiresAt)
+        implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,172 @@
+package org.ek.portfoliobackend.security;
+
+import org.ek.portfoliobackend.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Udsteder og validerer JWT'er signeret med HMAC-SHA256 (HS256) og jwt.secret.
+
+ * Validering sker udelukkende i hukommelsen: signaturen tjekkes med en Mac pr. tråd der allerede har nøglen,
+ * udløb tjekkes med jwt.clock-skew-seconds tolerance, og tilbagekaldte tokens slås op i TokenRevocationList.
+ * Bruger og rolle tages fra tokenets claims, så der er ingen databaseopslag pr. request.
+
+ * Kun tokens med præcis den header vi selv udsteder accepteres, så "alg": "none" og andre algoritmer afvises.
+ */
+@Component
+public class JwtTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final Duration expiration;
+    private final Duration clockSkew;
+    private final ObjectMapper objectMapper;
+    private final TokenRevocationList revocationList;
+    private final Clock clock;
+
+    @Autowired
+    public JwtTokenService(@Value("${jwt.secret}") String secret,
+                           @Value("${jwt.expiration:86400000}") long expirationMillis,
+                           @Value("${jwt.clock-skew-seconds:30}") long clockSkewSeconds,
+                           ObjectMapper objectMapper,
+                           TokenRevocationList revocationList) {
+        this(secret, expirationMillis, clockSkewSeconds, objectMapper, revocationList, Clock.systemUTC());
+    }
+
+    public JwtTokenService(String secret, long expirationMillis, long clockSkewSeconds,
+                           ObjectMapper objectMapper, TokenRevocationList revocationList, Clock clock) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("jwt.secret must be at least " + MIN_SECRET_BYTES + " bytes for HS256");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.expiration = Duration.ofMillis(expirationMillis);
+        this.clockSkew = Duration.ofSeconds(clockSkewSeconds);
+        this.objectMapper = objectMapper;
+        this.revocationList = revocationList;
+        this.clock = clock;
+    }
+
+    /**
+     * Udsted et token til en bruger.
+     *
+     * @param user brugeren der er logget ind
+     * @return det signerede token
+     */
+    public String issue(User user) {
+        Instant now = clock.instant();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.getUsername());
+        claims.put("uid", user.getId());
+        claims.put("role", user.getRole());
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(expiration).getEpochSecond());
+
+        String unsigned = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        return unsigned + "." + ENCODER.encodeToString(sign(unsigned));
+    }
+
+    /**
+     * Valider et token og læs brugeren fra dets claims.
+     *
+     * @param token tokenet fra Authorization headeren
+     * @return brugeren tokenet er udstedt til
+     * @throws BadCredentialsException hvis tokenet er ugyldigt, udløbet eller tilbagekaldt
+     */
+    public JwtPrincipal validate(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot || !HEADER.equals(token.substring(0, firstDot))) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        byte[] signature;
+        byte[] payload;
+        try {
+            signature = DECODER.decode(token.substring(lastDot + 1));
+            payload = DECODER.decode(token.substring(firstDot + 1, lastDot));
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Malformed token");
+        }
+        if (!MessageDigest.isEqual(signature, sign(token.substring(0, lastDot)))) {
+            throw new BadCredentialsException("Invalid token signature");
+        }
+
+        JsonNode claims;
+        try {
+            claims = objectMapper.readTree(payload);
+        } catch (JacksonException e) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        Instant now = clock.instant();
+        Instant expiresAt = Instant.ofEpochSecond(claims.path("exp").asLong());
+        Instant issuedAt = Instant.ofEpochSecond(claims.path("iat").asLong());
+        if (expiresAt.plus(clockSkew).isBefore(now) || issuedAt.minus(clockSkew).isAfter(now)) {
+            throw new BadCredentialsException("Token expired");
+        }
+
+        String tokenId = claims.path("jti").asString();
+        if (revocationList.isRevoked(tokenId)) {
+            throw new BadCredentialsException("Token revoked");
+        }
+
+        return new JwtPrincipal(claims.path("uid").asLong(), claims.path("sub").asString(),
+                claims.path("role").asString(), tokenId, expiresAt);
+    }
+
+    /**
+     * Tilbagekald et token, så det afvises selv om det ikke er udløbet.
+     */
+    public void revoke(JwtPrincipal principal) {
+        revocationList.revoke(principal.tokenId(), principal.expiresAt().plus(clockSkew));
+    }
+
+    public long getExpirationSeconds() {
+        return expiration.toSeconds();
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private byte[] sign(String unsigned) {
+        return macs.get().doFinal(unsigned.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
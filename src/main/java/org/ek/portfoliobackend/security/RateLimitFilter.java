@@ -0,0 +1,114 @@
+package org.ek.portfoliobackend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.exception.custom.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.security.autoconfigure.web.servlet.SecurityFilterProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Begrænser skrivende requests (POST, PUT, PATCH, DELETE) på /api/projects/** og /api/users/** pr. klient
+ * med en TokenBucketRateLimiter.
+
+ * Klienten er den indloggede bruger, ellers klientens IP (request.getRemoteAddr(), så X-Forwarded-For kun
+ * bruges når server.forward-headers-strategy er sat bag en proxy man stoler på).
+ * Multipart uploads koster rate-limit.upload-cost tokens, da de belaster disk og database mest.
+
+ * Det er et filter og ikke en interceptor, så en afvist upload aldrig når DispatcherServlet og multipart-kroppen
+ * ikke bliver læst og gemt på disk. Det ligger lige efter Spring Securitys filterkæde (spring.security.filter.order,
+ * default -100), så JWT-brugeren er sat i SecurityContext, og før UploadBulkheadFilter, så en afvist upload ikke
+ * optager en plads i bulkhead.
+ * Er kvoten brugt, laves TooManyRequestsException til 429 med Retry-After via GlobalExceptionHandler.
+ */
+@Slf4j
+@Component
+@Order(SecurityFilterProperties.DEFAULT_FILTER_ORDER + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final boolean enabled;
+    private final int uploadCost;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public RateLimitFilter(@Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.capacity:20}") int capacity,
+                           @Value("${rate-limit.refill-per-second:2}") double refillPerSecond,
+                           @Value("${rate-limit.upload-cost:5}") int uploadCost,
+                           @Value("${rate-limit.max-clients:100000}") int maxClients,
+                           @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.enabled = enabled;
+        this.uploadCost = uploadCost;
+        this.rateLimiter = new TokenBucketRateLimiter(capacity, refillPerSecond, maxClients, System::nanoTime);
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !WRITE_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(isUnder(path, "/api/projects") || isUnder(path, "/api/users"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(clientKey(request), isUpload(request) ? uploadCost : 1);
+        if (waitNanos > 0) {
+            // Round up, a client retrying after Retry-After must not be rejected again
+            long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            exceptionResolver.resolveException(request, response, null, new TooManyRequestsException(retryAfterSeconds));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Remove the buckets of clients that have been idle long enough to be full again.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleClients() {
+        int evicted = rateLimiter.evictIdle();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets, {} left", evicted, rateLimiter.size());
+        }
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private static boolean isUnder(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static boolean isUpload(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/");
+    }
+}
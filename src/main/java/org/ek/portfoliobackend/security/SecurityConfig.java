@@ -2,24 +2,42 @@ package org.ek.portfoliobackend.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
- * TEMPORARY: Permits all requests for testing purposes.
- * TODO: Implement proper authentication before production deployment.
+ * Stateless JWT authentication.
+ * Clients log in on POST /api/auth/login and send the token as "Authorization: Bearer <token>".
+ * The public site only reads, so GET on projects and images is open; everything else needs a token,
+ * and user administration needs ROLE_ADMIN.
  */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtTokenService jwtTokenService) throws Exception {
         http
-                .csrf(csrf -> csrf.disable()) // Disable CSRF for REST API testing
+                .csrf(csrf -> csrf.disable()) // No cookies, the token is sent in a header
+                .httpBasic(basic -> basic.disable())
+                .formLogin(form -> form.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenService), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
-                        .anyRequest().permitAll() // Allow all requests without authentication
+                        .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/projects", "/api/projects/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/api/projects", "/api/projects/**").permitAll()
+                        .requestMatchers("/uploads/**", "/static/**", "/error").permitAll()
+                        .requestMatchers("/api/users", "/api/users/**").hasRole("ADMIN")
+                        .anyRequest().authenticated()
                 );
 
         return http.build();
@@ -0,0 +1,105 @@
+package org.ek.portfoliobackend.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per klient-nøgle (bruger eller IP), uden låse.
+
+ * Hver bucket er én AtomicLong med det tidspunkt (System.nanoTime) hvor bucketen igen er fuld
+ * ("theoretical arrival time" fra GCRA, som opfører sig præcis som en token bucket).
+ * En request der koster n tokens flytter tidspunktet n * (1 / refillPerSecond) frem, og afvises
+ * hvis tidspunktet dermed ligger mere end capacity tokens ude i fremtiden. Opdateringen er én compareAndSet.
+
+ * En bucket hvis tidspunkt er passeret er fuld og kan fjernes uden at ændre adfærd, så evictIdle()
+ * holder hukommelsen nede. Er der maxClients buckets, deler nye klienter én overflow-bucket
+ * indtil næste oprydning, så et angreb fra mange adresser ikke kan fylde hukommelsen.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflowBucket;
+
+    /**
+     * @param capacity        tokens en fuld bucket indeholder, dvs. hvor mange requests en klient kan sende i et burst
+     * @param refillPerSecond tokens der kommer tilbage i bucketen pr. sekund
+     * @param maxClients      højeste antal buckets der holdes i hukommelsen
+     * @param nanoClock       ur i nanosekunder (System::nanoTime, eller et fast ur i tests)
+     */
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxClients, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond <= 0 || maxClients < 1) {
+            throw new IllegalArgumentException("Rate limit capacity, refill rate and max clients must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (NANOS_PER_SECOND / refillPerSecond));
+        this.burstNanos = capacity * nanosPerToken;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        this.overflowBucket = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Tag tokens fra klientens bucket.
+     *
+     * @param key    klientens nøgle
+     * @param tokens hvad requesten koster, højst capacity
+     * @return 0 hvis requesten er tilladt, ellers antal nanosekunder til der er tokens nok
+     */
+    public long tryAcquire(String key, int tokens) {
+        long now = nanoClock.getAsLong();
+        long cost = Math.min(tokens, capacity) * nanosPerToken;
+        AtomicLong bucket = bucketFor(key, now);
+
+        while (true) {
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + cost;
+            long wait = newFullAt - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Fjern buckets der er fulde igen. De opfører sig som en ny bucket, så intet går tabt.
+     *
+     * @return antal fjernede buckets
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    /**
+     * @return antal klienter der har en bucket i hukommelsen
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketFor(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            return overflowBucket;
+        }
+        return buckets.computeIfAbsent(key, ignored -> new AtomicLong(now));
+    }
+}
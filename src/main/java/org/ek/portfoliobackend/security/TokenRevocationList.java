@@ -0,0 +1,50 @@
+package org.ek.portfoliobackend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tilbagekaldte tokens (fx efter logout), holdt i hukommelsen indtil de alligevel er udløbet.
+
+ * Listen indeholder kun tokens der er tilbagekaldt inden for jwt.expiration, så den forbliver lille,
+ * og et opslag er ét get i en ConcurrentHashMap. Den deles ikke mellem flere instanser af applikationen
+ * og tømmes ved genstart.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    // Token id -> when the token expires anyway
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        revoked.put(tokenId, expiresAt);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Fjern tokens der er udløbet, de afvises alligevel.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-sweep-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        int purged = before - revoked.size();
+        if (purged > 0) {
+            log.debug("Purged {} expired revoked tokens, {} left", purged, revoked.size());
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
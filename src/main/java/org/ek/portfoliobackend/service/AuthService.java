@@ -0,0 +1,28 @@
+package org.ek.portfoliobackend.service;
+
+import org.ek.portfoliobackend.dto.request.LoginRequest;
+import org.ek.portfoliobackend.dto.response.LoginResponse;
+import org.ek.portfoliobackend.security.JwtPrincipal;
+
+/**
+ * Service interface for logging in and out with JWT access tokens.
+ */
+public interface AuthService {
+
+    /**
+     * Check the username and password and issue a signed token.
+     * A stored password hash with an outdated BCrypt cost is upgraded here.
+     *
+     * @param request username and password
+     * @return the token and the user it was issued to
+     * @throws org.ek.portfoliobackend.exception.custom.InvalidCredentialsException if the login is wrong
+     */
+    LoginResponse login(LoginRequest request);
+
+    /**
+     * Revoke the token the current request was authenticated with.
+     *
+     * @param principal the user from the token
+     */
+    void logout(JwtPrincipal principal);
+}
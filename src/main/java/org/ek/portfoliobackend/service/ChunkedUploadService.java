@@ -0,0 +1,36 @@
+package org.ek.portfoliobackend.service;
+
+import org.ek.portfoliobackend.dto.request.CreateProjectFromUploadsRequest;
+import org.ek.portfoliobackend.dto.request.CreateUploadSessionRequest;
+import org.ek.portfoliobackend.dto.request.UploadedImageRequest;
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.dto.response.UploadSessionResponse;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Service interface for resumable uploads.
+ * A file is sent in chunks to an upload session; when all sessions are complete they are
+ * finalized into a project, so a dropped connection only costs the chunk in flight.
+ */
+public interface ChunkedUploadService {
+
+    //start a new upload session for one file
+    UploadSessionResponse createSession(CreateUploadSessionRequest request);
+
+    //write a chunk at the given offset, returns the new state of the session
+    UploadSessionResponse appendChunk(String uploadId, long offset, InputStream data);
+
+    //get the current state of a session (used by clients to know where to resume)
+    UploadSessionResponse getSession(String uploadId);
+
+    //abort a session and delete its data
+    void deleteSession(String uploadId);
+
+    //create a project from completed upload sessions
+    ProjectResponse createProject(CreateProjectFromUploadsRequest request);
+
+    //add images from completed upload sessions to an existing project
+    ProjectResponse addImagesToProject(Long projectId, List<UploadedImageRequest> images);
+}
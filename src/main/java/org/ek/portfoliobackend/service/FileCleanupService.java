@@ -0,0 +1,32 @@
+package org.ek.portfoliobackend.service;
+
+import java.util.Collection;
+
+/**
+ * Service interface for deferred removal of stored files.
+ * Deletions are recorded in the caller's transaction and executed asynchronously
+ * after the transaction commits, so a rollback never leaves files already deleted.
+ */
+public interface FileCleanupService {
+
+    /**
+     * Record a file for deletion once the current transaction commits
+     *
+     * @param url the URL/path of the file to delete
+     */
+    void scheduleDeletion(String url);
+
+    /**
+     * Record several files for deletion once the current transaction commits
+     *
+     * @param urls the URLs/paths of the files to delete
+     */
+    void scheduleDeletions(Collection<String> urls);
+
+    /**
+     * Execute all pending deletions that are due, in batches
+     *
+     * @return the number of files that were removed from storage
+     */
+    int processPendingDeletions();
+}
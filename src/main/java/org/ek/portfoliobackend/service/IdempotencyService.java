@@ -0,0 +1,41 @@
+package org.ek.portfoliobackend.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Service interface for making retried requests safe with an Idempotency-Key header.
+ * The first request with a key is processed and its response stored, later requests
+ * with the same key and content get the stored response without being processed again.
+ * Keys are scoped to the authenticated user, so two users can pick the same key.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Run the action once per idempotency key.
+     *
+     * @param idempotencyKey the Idempotency-Key header, or null to simply run the action
+     * @param operation      method and path, so a key cannot be reused across endpoints
+     * @param fingerprint    computes a hash of the request, only called when a key is given
+     * @param responseType   type of the response body, used to read a stored response back
+     * @param action         processes the request
+     * @return the response of the action, or the stored response of an earlier request with the key
+     * @throws IllegalArgumentException if the key is blank or longer than 200 characters
+     * @throws org.ek.portfoliobackend.exception.custom.IdempotencyConflictException if the first request with the key
+     *         is still being processed, or the key was used for a different request
+     */
+    <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Supplier<String> fingerprint,
+                                  Class<T> responseType, Supplier<ResponseEntity<T>> action);
+
+    /**
+     * Hash the parts and files of a request.
+     *
+     * @param files uploaded files, hashed by name and content
+     * @param parts other request parts, hashed by their JSON form
+     * @return hex encoded SHA-256
+     */
+    String fingerprint(List<MultipartFile> files, Object... parts);
+}
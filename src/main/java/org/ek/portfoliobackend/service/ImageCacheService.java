@@ -0,0 +1,53 @@
+package org.ek.portfoliobackend.service;
+
+import org.ek.portfoliobackend.dto.response.ImageCacheStatsResponse;
+import org.ek.portfoliobackend.service.ImageServingService.ServedFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Service interface for keeping the most requested image files in memory,
+ * so popular images are served without reading the disk.
+ */
+public interface ImageCacheService {
+
+    /**
+     * Write a byte range of a file from the cache. Every call counts as an access of the file,
+     * and a file that is requested often enough is loaded into the cache by this call.
+     * The range is passed to the writer as one or more read-only buffers, in order. The buffers are only
+     * valid while the writer runs; afterwards their memory may be reused for another file.
+     *
+     * @param file   the file being served
+     * @param start  first byte of the range
+     * @param length number of bytes in the range
+     * @param writer receives the bytes of the range
+     * @return true if the range was written from the cache, false if the file is not cached and nothing was written
+     * @throws IOException if the writer fails
+     */
+    boolean write(ServedFile file, long start, long length, RangeWriter writer) throws IOException;
+
+    /**
+     * Remove a file from the cache, e.g. because it has been deleted.
+     *
+     * @param path location of the file on disk
+     */
+    void invalidate(Path path);
+
+    /**
+     * Hit ratio, memory usage and bytes served from memory since startup.
+     *
+     * @return current cache statistics
+     */
+    ImageCacheStatsResponse getStats();
+
+    /**
+     * Receives the cached bytes of a range, e.g. by writing them to the response.
+     */
+    @FunctionalInterface
+    interface RangeWriter {
+
+        void write(ByteBuffer bytes) throws IOException;
+    }
+}
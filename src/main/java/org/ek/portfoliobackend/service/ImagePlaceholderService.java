@@ -0,0 +1,28 @@
+package org.ek.portfoliobackend.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Service interface for computing the placeholder shown while an image loads.
+ * Computed once when the image is uploaded and stored on the Image, so clients
+ * can render it from the project response without another request.
+ */
+public interface ImagePlaceholderService {
+
+    /**
+     * Compute the blurhash and dominant color of an uploaded image.
+     *
+     * @param file the uploaded image, already accepted by ImageProbeService
+     * @return the placeholder, or null if the format cannot be decoded here (e.g. WebP or HEIC)
+     */
+    Placeholder compute(MultipartFile file);
+
+    /**
+     * Placeholder for an image.
+     *
+     * @param blurhash      blurhash string (https://blurha.sh) of the image
+     * @param dominantColor most common color as "#rrggbb"
+     */
+    record Placeholder(String blurhash, String dominantColor) {
+    }
+}
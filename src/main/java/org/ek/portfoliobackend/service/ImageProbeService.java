@@ -0,0 +1,42 @@
+package org.ek.portfoliobackend.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for detecting the format and dimensions of an uploaded image.
+ * Only the file header is read, so the image is never decoded.
+ */
+public interface ImageProbeService {
+
+    /**
+     * Detect format and dimensions from the first bytes of a stream.
+     * The stream is read past the header and is not closed, callers that need the bytes again must mark/reset it.
+     *
+     * @param in stream positioned at the start of the file
+     * @return detected content type, file extension and dimensions
+     * @throws IllegalArgumentException if the data is not a supported image or exceeds the pixel limit
+     */
+    ImageInfo probe(InputStream in);
+
+    /**
+     * Detect format and dimensions of an uploaded file.
+     *
+     * @param file the uploaded file
+     * @return detected content type, file extension and dimensions
+     * @throws IllegalArgumentException if the file is not a supported image or exceeds the pixel limit
+     */
+    ImageInfo probe(MultipartFile file);
+
+    /**
+     * Result of probing an image header.
+     *
+     * @param contentType detected MIME type, e.g. "image/jpeg"
+     * @param extension   file extension matching the detected format, e.g. ".jpg"
+     * @param width       width in pixels
+     * @param height      height in pixels
+     */
+    record ImageInfo(String contentType, String extension, int width, int height) {
+    }
+}
@@ -0,0 +1,40 @@
+package org.ek.portfoliobackend.service;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Service interface for looking up stored image files before they are served over HTTP.
+ * Everything needed for the response headers comes from file attributes and the Image row,
+ * so the file itself is only opened to send the body.
+ */
+public interface ImageServingService {
+
+    /**
+     * Find the file behind an upload URL.
+     *
+     * @param url the requested URL, e.g. "/uploads/3f/a2/uuid.jpg"
+     * @return the file and the metadata for its response headers
+     * @throws org.ek.portfoliobackend.exception.custom.ResourceNotFoundException if no file exists for the URL
+     */
+    ServedFile find(String url);
+
+    /**
+     * A file ready to be served.
+     *
+     * @param path         location on disk
+     * @param size         size in bytes
+     * @param lastModified last modified time in epoch milliseconds
+     * @param contentType  MIME type
+     * @param etag         quoted ETag, strong when the content hash is stored, otherwise weak
+     * @param immutable    true if the content behind the URL never changes and may be cached permanently
+     * @param content      the bytes when the storage keeps them memory-mapped, otherwise null and the body is read from path
+     */
+    record ServedFile(Path path, long size, long lastModified, String contentType, String etag, boolean immutable,
+                      ByteBuffer content) {
+
+        public ServedFile(Path path, long size, long lastModified, String contentType, String etag, boolean immutable) {
+            this(path, size, lastModified, contentType, etag, immutable, null);
+        }
+    }
+}
@@ -2,6 +2,10 @@ package org.ek.portfoliobackend.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service interface for handling file storage operations.
  * Abstracts the underlying storage implementation (local filesystem, cloud storage, etc.)
@@ -15,7 +19,34 @@ public interface ImageStorageService {
      * @return the URL/path where the file was stored
      * @throws RuntimeException if the file cannot be stored
      */
-    String store(MultipartFile file);
+    default String store(MultipartFile file) {
+        return storeFile(file).url();
+    }
+
+    /**
+     * Store an uploaded file and return its URL together with a hash of the stored content
+     *
+     * @param file the file to store
+     * @return the URL/path where the file was stored and the SHA-256 of its content
+     * @throws RuntimeException if the file cannot be stored
+     */
+    StoredFile storeFile(MultipartFile file);
+
+    /**
+     * Store an uploaded file without blocking the caller, so several files can be stored at once.
+     * The default stores the file on the calling thread and returns a completed future.
+     *
+     * @param file the file to store
+     * @return future with the URL/path and content hash, completed exceptionally with the same
+     *         exceptions storeFile throws
+     */
+    default CompletableFuture<StoredFile> storeFileAsync(MultipartFile file) {
+        try {
+            return CompletableFuture.completedFuture(storeFile(file));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
     /**
      * Delete a file by its URL/path
@@ -24,4 +55,49 @@ public interface ImageStorageService {
      * @throws RuntimeException if the file cannot be deleted
      */
     void delete(String url);
-}
\ No newline at end of file
+
+    /**
+     * Delete a file without blocking the caller.
+     * The default deletes the file on the calling thread and returns a completed future.
+     *
+     * @param url the URL/path of the file to delete
+     * @return future completed when the file is gone, or exceptionally with the same exceptions delete throws
+     */
+    default CompletableFuture<Void> deleteAsync(String url) {
+        try {
+            delete(url);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Find the stored bytes behind a URL, so they can be served
+     *
+     * @param url the URL/path of the file
+     * @return the stored content, or null if nothing is stored for the URL
+     * @throws SecurityException if the URL points outside the storage
+     */
+    StoredContent locate(String url);
+
+    /**
+     * Result of storing a file.
+     *
+     * @param url         the URL/path where the file was stored
+     * @param contentHash hex encoded SHA-256 of the stored bytes, used as strong ETag when the file is served
+     */
+    record StoredFile(String url, String contentHash) {
+    }
+
+    /**
+     * Location of stored bytes.
+     *
+     * @param path         file holding the bytes
+     * @param size         number of bytes
+     * @param lastModified time the bytes were stored, in epoch milliseconds
+     * @param content      the bytes when they are already mapped into memory, otherwise null and the whole file is read
+     */
+    record StoredContent(Path path, long size, long lastModified, ByteBuffer content) {
+    }
+}
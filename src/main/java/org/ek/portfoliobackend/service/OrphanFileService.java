@@ -0,0 +1,18 @@
+package org.ek.portfoliobackend.service;
+
+import org.ek.portfoliobackend.dto.response.OrphanCleanupReport;
+
+/**
+ * Service interface for garbage collecting files in the upload directory
+ * that are no longer referenced by any Image.
+ */
+public interface OrphanFileService {
+
+    /**
+     * Move unreferenced upload files to quarantine and purge quarantined files
+     * whose retention period has expired
+     *
+     * @return a report of scanned, quarantined and purged files and reclaimed bytes
+     */
+    OrphanCleanupReport collectOrphans();
+}
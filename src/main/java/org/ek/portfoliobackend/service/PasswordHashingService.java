@@ -0,0 +1,37 @@
+package org.ek.portfoliobackend.service;
+
+/**
+ * Service interface for hashing and verifying passwords with BCrypt.
+ * Hashing is CPU heavy (around 100 ms at cost 10), so it runs on a small dedicated pool
+ * instead of on the request threads. When the pool and its queue are full the call fails
+ * fast with ServiceUnavailableException instead of piling up.
+ */
+public interface PasswordHashingService {
+
+    /**
+     * Hash a password with the configured cost factor.
+     *
+     * @param rawPassword the password as entered by the user
+     * @return the BCrypt hash to store
+     */
+    String hash(String rawPassword);
+
+    /**
+     * Check a password against a stored hash, and re-hash it if the hash was made with a lower cost
+     * than the one configured now. The caller stores the new hash, so users are upgraded as they log in.
+     *
+     * @param rawPassword   the password as entered by the user
+     * @param encodedHash   the stored hash
+     * @return whether the password matches, and the new hash if it should replace the stored one
+     */
+    Verification verify(String rawPassword, String encodedHash);
+
+    /**
+     * Result of verifying a password.
+     *
+     * @param matches      true if the password matches the stored hash
+     * @param upgradedHash new hash with the current cost, or null if the stored hash is up to date or did not match
+     */
+    record Verification(boolean matches, String upgradedHash) {
+    }
+}
@@ -0,0 +1,21 @@
+package org.ek.portfoliobackend.service;
+
+import org.ek.portfoliobackend.dto.response.BulkImportResponse;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for importing many projects at once from a ZIP archive.
+ * The archive contains the image files and a manifest.ndjson with one project per line.
+ */
+public interface ProjectImportService {
+
+    /**
+     * Import all projects described in the archive manifest
+     *
+     * @param archive stream with the ZIP archive, read once from start to end
+     * @return a report with one result per manifest line
+     * @throws IllegalArgumentException if the archive is not a valid ZIP or has no manifest
+     */
+    BulkImportResponse importArchive(InputStream archive);
+}
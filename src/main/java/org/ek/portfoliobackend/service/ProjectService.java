@@ -1,9 +1,11 @@
 package org.ek.portfoliobackend.service;
 
+import org.ek.portfoliobackend.dto.request.BulkDeleteRequest;
 import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
 import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
 import org.ek.portfoliobackend.dto.request.UpdateImageRequest;
 import org.ek.portfoliobackend.dto.request.UpdateProjectRequest;
+import org.ek.portfoliobackend.dto.response.BulkDeleteResponse;
 import org.ek.portfoliobackend.dto.response.ProjectResponse;
 import org.ek.portfoliobackend.model.CustomerType;
 import org.ek.portfoliobackend.model.WorkType;
@@ -20,8 +22,8 @@ public interface ProjectService {
                                   List<MultipartFile> images,
                                   List<ImageUploadRequest> imageMetadata);
 
-    //update existing project
-    ProjectResponse updateProject(Long id, UpdateProjectRequest request);
+    //update existing project, expectedVersion from If-Match (null = no check)
+    ProjectResponse updateProject(Long id, UpdateProjectRequest request, Long expectedVersion);
 
    // ImageResponse updateImage(Long imageId, UpdateImageRequest request);
 
@@ -34,6 +36,9 @@ public interface ProjectService {
     //delete project by id
     void deleteProject(Long id);
 
+    //delete many projects and their images, by ids or by filters
+    BulkDeleteResponse deleteProjects(BulkDeleteRequest request);
+
     //get projects by work type
     List<ProjectResponse> getProjectsByWorkType(WorkType workType);
 
@@ -50,11 +55,12 @@ public interface ProjectService {
     List<ProjectResponse> getAllProjectsOrderedByDate(String sortDirection);
 
 
-    //add images to existing project
-    ProjectResponse addImagesToProject(Long projectId, List<MultipartFile> images, List<ImageUploadRequest> imageMetadata);
+    //add images to existing project, expectedVersion from If-Match (null = no check)
+    ProjectResponse addImagesToProject(Long projectId, List<MultipartFile> images, List<ImageUploadRequest> imageMetadata,
+                                       Long expectedVersion);
 
-    //update image metadata for existing image in project
-    ProjectResponse updateImageMetadata(Long projectId, Long imageId, UpdateImageRequest request);
+    //update image metadata for existing image in project, expectedVersion from If-Match (null = no check)
+    ProjectResponse updateImageMetadata(Long projectId, Long imageId, UpdateImageRequest request, Long expectedVersion);
 
     //remove image from project
     ProjectResponse deleteImageFromProject(Long projectId, Long imageId);
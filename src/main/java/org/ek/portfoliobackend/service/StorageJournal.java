@@ -0,0 +1,64 @@
+package org.ek.portfoliobackend.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for the write-ahead journal of stored files.
+ * The storage logs an intent before it writes a file, and the service that references the file
+ * logs whether the reference was committed. After a crash only the intents without an outcome
+ * have to be checked against the database, instead of scanning the whole upload directory.
+ */
+public interface StorageJournal {
+
+    /**
+     * Log that a file is about to be written. The intent is on disk when this returns;
+     * concurrent callers share one fsync.
+     *
+     * @param url the URL/path the file will be stored under
+     * @throws RuntimeException if the journal cannot be written
+     */
+    void logIntent(String url);
+
+    /**
+     * Log the outcome of the files once the current transaction completes: committed when it commits,
+     * unresolved when it rolls back. Without a transaction the files are committed right away.
+     *
+     * @param urls the URLs/paths referenced by the transaction
+     */
+    void commitAfterTransaction(Collection<String> urls);
+
+    /**
+     * Log that the database now owns the files (they are referenced, or scheduled for deletion)
+     *
+     * @param urls the URLs/paths of the files
+     */
+    void commit(Collection<String> urls);
+
+    /**
+     * Log that the files were removed again and no longer need recovery
+     *
+     * @param urls the URLs/paths of the files
+     */
+    void abort(Collection<String> urls);
+
+    /**
+     * Mark files whose request failed, so recovery removes them unless something references them
+     *
+     * @param urls the URLs/paths of the files
+     */
+    void abandon(Collection<String> urls);
+
+    /**
+     * Intents that will not be completed by a request: found in the journal at startup, or abandoned
+     *
+     * @return the URLs/paths to reconcile against the database
+     */
+    List<String> unresolvedIntents();
+
+    /**
+     * Rewrite the journal with only the intents that have no outcome yet, so it stays small
+     * and recovery only reads the incomplete tail
+     */
+    void checkpoint();
+}
@@ -0,0 +1,16 @@
+package org.ek.portfoliobackend.service;
+
+/**
+ * Service interface for reconciling stored files with the database after a crash or a failed request.
+ * Works from the unresolved intents in the StorageJournal, not from a scan of the storage.
+ */
+public interface StorageRecoveryService {
+
+    /**
+     * Commit the unresolved intents whose file is referenced by an Image,
+     * and delete and abort the rest
+     *
+     * @return the number of files that were removed from storage
+     */
+    int reconcile();
+}
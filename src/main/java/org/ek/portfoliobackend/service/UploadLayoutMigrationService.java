@@ -0,0 +1,16 @@
+package org.ek.portfoliobackend.service;
+
+/**
+ * Service interface for moving files from the flat upload directory into the sharded layout.
+ * Runs while the application is serving requests: files are moved one at a time with an atomic move,
+ * and flat URLs keep resolving to the new location, so no database update is needed.
+ */
+public interface UploadLayoutMigrationService {
+
+    /**
+     * Move all files lying directly in the upload directory into their shard directories, in batches.
+     *
+     * @return number of files moved
+     */
+    int migrateToShardedLayout();
+}
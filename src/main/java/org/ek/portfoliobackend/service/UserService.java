@@ -2,9 +2,10 @@ package org.ek.portfoliobackend.service;
 
 import org.ek.portfoliobackend.dto.request.CreateUserRequest;
 import org.ek.portfoliobackend.dto.request.UpdateUserRequest;
+import org.ek.portfoliobackend.dto.response.UserPageResponse;
 import org.ek.portfoliobackend.dto.response.UserResponse;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -14,8 +15,14 @@ public interface UserService {
     //get user by id
     UserResponse getUserById(Long id);
 
-    //get all users
-    List<UserResponse> getAllUsers();
+    //get one page of users ordered by id, with totals
+    UserPageResponse getUsers(int page, int size);
+
+    //get the users after the given id (cursor from the previous page), without counting all users
+    UserPageResponse getUsersAfter(Long afterId, int size);
+
+    //pass every user to the consumer in id order, reading a batch at a time so memory use stays constant
+    void exportUsers(Consumer<UserResponse> consumer);
 
     //update existing user
     UserResponse updateUser(Long id, UpdateUserRequest request);
@@ -0,0 +1,65 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.dto.request.LoginRequest;
+import org.ek.portfoliobackend.dto.response.LoginResponse;
+import org.ek.portfoliobackend.exception.custom.InvalidCredentialsException;
+import org.ek.portfoliobackend.model.User;
+import org.ek.portfoliobackend.repository.UserRepository;
+import org.ek.portfoliobackend.security.JwtPrincipal;
+import org.ek.portfoliobackend.security.JwtTokenService;
+import org.ek.portfoliobackend.service.AuthService;
+import org.ek.portfoliobackend.service.PasswordHashingService;
+import org.ek.portfoliobackend.service.PasswordHashingService.Verification;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of AuthService.
+ * Login is the only place the user is read from the database; every later request is
+ * authenticated from the token alone by JwtAuthenticationFilter.
+ */
+@Slf4j
+@Service
+public class AuthServiceImpl implements AuthService {
+
+    // BCrypt hash of a random value, checked for unknown usernames so they take as long as a wrong password
+    private static final String UNKNOWN_USER_HASH = "$2a$10$DUAnmxy27ln7qkMWbYuWaO5ZJUG12KsFVuQVbEbqo5IiJWOZbpxOW";
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final JwtTokenService jwtTokenService;
+
+    public AuthServiceImpl(UserRepository userRepository,
+                           PasswordHashingService passwordHashingService,
+                           JwtTokenService jwtTokenService) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtTokenService = jwtTokenService;
+    }
+
+    @Override
+    public LoginResponse login(LoginRequest request) {
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        Verification verification = passwordHashingService.verify(
+                request.getPassword(), user != null ? user.getPassword() : UNKNOWN_USER_HASH);
+
+        if (user == null || !verification.matches()) {
+            throw new InvalidCredentialsException();
+        }
+
+        // Stored hash was made with a lower BCrypt cost than configured now
+        if (verification.upgradedHash() != null) {
+            user.setPassword(verification.upgradedHash());
+            userRepository.save(user);
+            log.info("Upgraded password hash for user {}", user.getId());
+        }
+
+        String token = jwtTokenService.issue(user);
+        return new LoginResponse(token, jwtTokenService.getExpirationSeconds(), user.getUsername(), user.getRole());
+    }
+
+    @Override
+    public void logout(JwtPrincipal principal) {
+        jwtTokenService.revoke(principal);
+    }
+}
@@ -0,0 +1,320 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.dto.request.CreateProjectFromUploadsRequest;
+import org.ek.portfoliobackend.dto.request.CreateUploadSessionRequest;
+import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
+import org.ek.portfoliobackend.dto.request.UploadedImageRequest;
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.dto.response.UploadSessionResponse;
+import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.ek.portfoliobackend.service.ChunkedUploadService;
+import org.ek.portfoliobackend.service.ProjectService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Implementering af ChunkedUploadService der gemmer upload-sessioner på lokal disk.
+
+ * Hver session består af to filer i file.chunked.dir:
+ *  - {uploadId}.part    - de modtagne bytes, altid sammenhængende fra offset 0
+ *  - {uploadId}.session - filnavn og forventet størrelse
+ * Antal modtagne bytes er derfor blot størrelsen af .part filen, og overlever en genstart.
+
+ * Mappen ligger bevidst udenfor file.upload-dir, så halve filer hverken kan hentes via /uploads/**
+ * eller bliver set som forældreløse af OrphanFileService.
+ */
+@Slf4j
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String SESSION_SUFFIX = ".session";
+
+    private final ProjectService projectService;
+    private final Path sessionPath;
+    private final long maxFileBytes;
+    private final Duration sessionTtl;
+
+    // FileLock gælder hele JVM'en, så samtidige chunks til samme upload i denne proces serialiseres her.
+    // Ellers kaster channel.lock() OverlappingFileLockException, fx når en klient prøver igen mens første request skriver.
+    private final ConcurrentHashMap<String, ChunkWriteLock> writeLocks = new ConcurrentHashMap<>();
+
+    public ChunkedUploadServiceImpl(ProjectService projectService,
+                                    @Value("${file.chunked.dir:./upload-sessions}") String sessionDir,
+                                    @Value("${file.chunked.max-file-bytes:10485760}") long maxFileBytes,
+                                    @Value("${file.chunked.session-ttl-hours:24}") long sessionTtlHours) {
+        this.projectService = projectService;
+        this.sessionPath = Paths.get(sessionDir).toAbsolutePath().normalize();
+        this.maxFileBytes = maxFileBytes;
+        this.sessionTtl = Duration.ofHours(sessionTtlHours);
+        try {
+            Files.createDirectories(this.sessionPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload session directory: " + sessionDir, e);
+        }
+    }
+
+    @Override
+    public UploadSessionResponse createSession(CreateUploadSessionRequest request) {
+        if (request.getSize() > maxFileBytes) {
+            throw new IllegalArgumentException("File exceeds maximum size of " + maxFileBytes + " bytes");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Properties session = new Properties();
+        session.setProperty("filename", request.getFilename());
+        session.setProperty("size", Long.toString(request.getSize()));
+
+        try {
+            Files.createFile(partFile(uploadId));
+            try (Writer writer = Files.newBufferedWriter(sessionFile(uploadId), StandardCharsets.UTF_8)) {
+                session.store(writer, null);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload session", e);
+        }
+
+        return new UploadSessionResponse(uploadId, request.getFilename(), request.getSize(), 0);
+    }
+
+    @Override
+    public UploadSessionResponse appendChunk(String uploadId, long offset, InputStream data) {
+        UploadSessionResponse session = getSession(uploadId);
+
+        if (offset < 0 || offset > session.getReceivedBytes()) {
+            throw new IllegalArgumentException(String.format(
+                    "Chunk offset %d is invalid, upload has received %d bytes", offset, session.getReceivedBytes()));
+        }
+
+        ChunkWriteLock writeLock = acquireWriteLock(uploadId);
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+
+            // Re-read after taking the lock, another request may have written in between
+            long received = channel.size();
+            if (offset > received) {
+                throw new IllegalArgumentException(String.format(
+                        "Chunk offset %d is invalid, upload has received %d bytes", offset, received));
+            }
+
+            long position = offset;
+            ReadableByteChannel source = Channels.newChannel(data);
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (position + buffer.remaining() > session.getSize()) {
+                    // Keep what was there before this chunk and reject the rest
+                    channel.truncate(received);
+                    throw new IllegalArgumentException("Chunk exceeds the declared file size of " + session.getSize() + " bytes");
+                }
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+
+            session.setReceivedBytes(channel.size());
+            session.setComplete(session.getReceivedBytes() == session.getSize());
+            return session;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write chunk for upload " + uploadId, e);
+        } finally {
+            releaseWriteLock(uploadId, writeLock);
+        }
+    }
+
+    @Override
+    public UploadSessionResponse getSession(String uploadId) {
+        Path sessionFile = sessionFile(uploadId);
+        if (!Files.exists(sessionFile)) {
+            throw new ResourceNotFoundException("Upload", uploadId);
+        }
+
+        Properties session = new Properties();
+        try (Reader reader = Files.newBufferedReader(sessionFile, StandardCharsets.UTF_8)) {
+            session.load(reader);
+            return new UploadSessionResponse(
+                    uploadId,
+                    session.getProperty("filename"),
+                    Long.parseLong(session.getProperty("size")),
+                    Files.size(partFile(uploadId))
+            );
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read upload session " + uploadId, e);
+        }
+    }
+
+    @Override
+    public void deleteSession(String uploadId) {
+        try {
+            Files.deleteIfExists(partFile(uploadId));
+            Files.deleteIfExists(sessionFile(uploadId));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not delete upload session " + uploadId, e);
+        }
+    }
+
+    @Override
+    public ProjectResponse createProject(CreateProjectFromUploadsRequest request) {
+        List<MultipartFile> files = completedFiles(request.getImages());
+
+        ProjectResponse response = projectService.createProject(
+                request.getData(), files, new ArrayList<ImageUploadRequest>(request.getImages()));
+
+        deleteSessions(request.getImages());
+        return response;
+    }
+
+    @Override
+    public ProjectResponse addImagesToProject(Long projectId, List<UploadedImageRequest> images) {
+        List<MultipartFile> files = completedFiles(images);
+
+        ProjectResponse response = projectService.addImagesToProject(
+                projectId, files, new ArrayList<ImageUploadRequest>(images), null);
+
+        deleteSessions(images);
+        return response;
+    }
+
+    /**
+     * Remove sessions that have not received a chunk within the session TTL.
+     */
+    @Scheduled(fixedDelayString = "${file.chunked.cleanup-interval-ms:3600000}")
+    public void deleteExpiredSessions() {
+        Instant cutoff = Instant.now().minus(sessionTtl);
+
+        try (Stream<Path> paths = Files.list(sessionPath)) {
+            Iterator<Path> iterator = paths.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                String name = path.getFileName().toString();
+                if (name.endsWith(PART_SUFFIX)
+                        && Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                    String uploadId = name.substring(0, name.length() - PART_SUFFIX.length());
+                    deleteSession(uploadId);
+                    log.debug("Deleted expired upload session {}", uploadId);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not clean up expired upload sessions: {}", e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Turn completed sessions into MultipartFiles read directly from the assembled .part files.
+     */
+    private List<MultipartFile> completedFiles(List<UploadedImageRequest> images) {
+        if (images == null || images.isEmpty()) {
+            throw new IllegalArgumentException("At least one image must be provided");
+        }
+
+        List<MultipartFile> files = new ArrayList<>();
+        for (UploadedImageRequest image : images) {
+            UploadSessionResponse session = getSession(image.getUploadId());
+            if (!session.isComplete()) {
+                throw new IllegalArgumentException(String.format(
+                        "Upload %s is not complete (%d of %d bytes received)",
+                        session.getUploadId(), session.getReceivedBytes(), session.getSize()));
+            }
+            files.add(new PathMultipartFile(partFile(image.getUploadId()), session.getFilename(),
+                    contentTypeOf(session.getFilename())));
+        }
+        return files;
+    }
+
+    private void deleteSessions(List<UploadedImageRequest> images) {
+        for (UploadedImageRequest image : images) {
+            try {
+                deleteSession(image.getUploadId());
+            } catch (RuntimeException e) {
+                // Expired-session cleanup will remove it later
+                log.warn("Could not delete finalized upload session {}: {}", image.getUploadId(), e.getMessage());
+            }
+        }
+    }
+
+    private Path partFile(String uploadId) {
+        return sessionPath.resolve(validUploadId(uploadId) + PART_SUFFIX);
+    }
+
+    private Path sessionFile(String uploadId) {
+        return sessionPath.resolve(validUploadId(uploadId) + SESSION_SUFFIX);
+    }
+
+    // Upload ids are always UUIDs we generated, which also rules out path traversal
+    private String validUploadId(String uploadId) {
+        try {
+            String normalized = UUID.fromString(uploadId).toString();
+            if (normalized.equalsIgnoreCase(uploadId)) {
+                return normalized;
+            }
+        } catch (IllegalArgumentException | NullPointerException ignored) {
+            // handled below
+        }
+        throw new ResourceNotFoundException("Upload", uploadId);
+    }
+
+    private ChunkWriteLock acquireWriteLock(String uploadId) {
+        ChunkWriteLock lock = writeLocks.compute(validUploadId(uploadId), (id, existing) -> {
+            ChunkWriteLock current = existing != null ? existing : new ChunkWriteLock();
+            current.users++;
+            return current;
+        });
+        lock.lock();
+        return lock;
+    }
+
+    // The last user removes the lock, so the map only holds uploads with a chunk being written
+    private void releaseWriteLock(String uploadId, ChunkWriteLock lock) {
+        lock.unlock();
+        writeLocks.computeIfPresent(validUploadId(uploadId), (id, current) -> --current.users == 0 ? null : current);
+    }
+
+    /**
+     * Lock for one upload's chunk writes. users is only changed inside writeLocks.compute, which serializes it.
+     */
+    private static final class ChunkWriteLock extends ReentrantLock {
+        private int users;
+    }
+
+    private String contentTypeOf(String filename) {
+        return MediaTypeFactory.getMediaType(filename)
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+}
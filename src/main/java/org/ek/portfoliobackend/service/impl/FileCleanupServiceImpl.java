@@ -0,0 +1,195 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.model.PendingFileDeletion;
+import org.ek.portfoliobackend.repository.PendingFileDeletionRepository;
+import org.ek.portfoliobackend.service.FileCleanupService;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementering af FileCleanupService.
+ * Sletninger gemmes som PendingFileDeletion rækker i samme transaktion som sletningen af Image rækkerne,
+ * og udføres af en baggrundstråd efter commit. Fejlede sletninger forsøges igen med stigende ventetid.
+ */
+@Slf4j
+@Service
+public class FileCleanupServiceImpl implements FileCleanupService {
+
+    private final PendingFileDeletionRepository pendingFileDeletionRepository;
+    private final ImageStorageService imageStorageService;
+    private final TaskExecutor fileCleanupExecutor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+
+    public FileCleanupServiceImpl(PendingFileDeletionRepository pendingFileDeletionRepository,
+                                  ImageStorageService imageStorageService,
+                                  @Qualifier("fileCleanupExecutor") TaskExecutor fileCleanupExecutor,
+                                  @Value("${file.cleanup.batch-size:50}") int batchSize,
+                                  @Value("${file.cleanup.max-attempts:5}") int maxAttempts,
+                                  @Value("${file.cleanup.retry-delay-ms:30000}") long retryDelayMs) {
+        this.pendingFileDeletionRepository = pendingFileDeletionRepository;
+        this.imageStorageService = imageStorageService;
+        this.fileCleanupExecutor = fileCleanupExecutor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    @Override
+    public void scheduleDeletion(String url) {
+        scheduleDeletions(List.of(url));
+    }
+
+    @Override
+    public void scheduleDeletions(Collection<String> urls) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingFileDeletion> pending = new ArrayList<>();
+        for (String url : urls) {
+            if (url != null && !url.isBlank()) {
+                pending.add(new PendingFileDeletion(url, now));
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        pendingFileDeletionRepository.saveAll(pending);
+
+        // Start the worker once the surrounding transaction has committed.
+        // Without a transaction the rows are already committed, so start right away.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    triggerWorker();
+                }
+            });
+        } else {
+            triggerWorker();
+        }
+    }
+
+    @Override
+    public int processPendingDeletions() {
+        int deleted = 0;
+
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<PendingFileDeletion> batch = pendingFileDeletionRepository
+                    .findByNextAttemptAtLessThanEqualOrderByIdAsc(now, PageRequest.of(0, batchSize));
+
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<Long> finishedIds = new ArrayList<>();
+            List<PendingFileDeletion> retries = new ArrayList<>();
+
+            for (PendingFileDeletion pendingDeletion : batch) {
+                try {
+                    imageStorageService.delete(pendingDeletion.getUrl());
+                    finishedIds.add(pendingDeletion.getId());
+                    deleted++;
+                } catch (Exception e) {
+                    if (registerFailure(pendingDeletion, e, now)) {
+                        retries.add(pendingDeletion);
+                    } else {
+                        finishedIds.add(pendingDeletion.getId());
+                    }
+                }
+            }
+
+            if (!finishedIds.isEmpty()) {
+                pendingFileDeletionRepository.deleteAllByIdInBatch(finishedIds);
+            }
+            if (!retries.isEmpty()) {
+                pendingFileDeletionRepository.saveAll(retries);
+            }
+
+            // A short batch means nothing else is due right now
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            log.debug("Removed {} files from storage", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Periodic sweep that picks up retries and any rows whose after-commit trigger was lost
+     * (e.g. the application stopped before the worker ran).
+     */
+    @Scheduled(fixedDelayString = "${file.cleanup.sweep-interval-ms:60000}",
+            initialDelayString = "${file.cleanup.sweep-interval-ms:60000}")
+    public void sweep() {
+        triggerWorker();
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private void triggerWorker() {
+        try {
+            fileCleanupExecutor.execute(this::runWorker);
+        } catch (Exception e) {
+            // The periodic sweep will pick the rows up instead
+            log.warn("Could not start file cleanup worker: {}", e.getMessage());
+        }
+    }
+
+    private void runWorker() {
+        try {
+            processPendingDeletions();
+        } catch (Exception e) {
+            log.error("File cleanup run failed", e);
+        }
+    }
+
+    /**
+     * Record a failed attempt and schedule the next one with exponential backoff.
+     *
+     * @return true if the deletion should be retried, false if it has been given up
+     */
+    private boolean registerFailure(PendingFileDeletion pendingDeletion, Exception e, LocalDateTime now) {
+        int attempts = pendingDeletion.getAttempts() + 1;
+
+        if (attempts >= maxAttempts) {
+            log.error("Giving up deleting file {} after {} attempts: {}",
+                    pendingDeletion.getUrl(), attempts, e.getMessage());
+            return false;
+        }
+
+        long delayMs = retryDelayMs * (1L << Math.min(attempts - 1, 16));
+        pendingDeletion.setAttempts(attempts);
+        pendingDeletion.setNextAttemptAt(now.plusNanos(delayMs * 1_000_000));
+        pendingDeletion.setLastError(truncate(e.getMessage()));
+
+        log.warn("Failed to delete file {} (attempt {}), retrying in {} ms: {}",
+                pendingDeletion.getUrl(), attempts, delayMs, e.getMessage());
+        return true;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+        return message.substring(0, 1000);
+    }
+}
@@ -0,0 +1,341 @@
+package org.ek.portfoliobackend.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Implementering af StorageJournal som en append-only fil i file.journal.dir.
+ * Hver linje er én post: type (I = intent, C = commit, A = abort), URL og en CRC32 af de to,
+ * fx "I /uploads/3f/a2/uuid.jpg 8c1f2e4a". En halvt skrevet sidste linje efter et crash ignoreres.
+
+ * Intents fsync'es før logIntent returnerer. Tråde der venter samtidig deles om én fsync (group commit),
+ * så mange billeder i samme upload ikke giver én fsync hver. Commit og abort fsync'es ikke selv:
+ * mistes de, afgør recovery udfaldet ud fra databasen i stedet.
+
+ * checkpoint() skriver journalen om med kun de intents der endnu ikke har et udfald, og udskifter
+ * filen atomisk. Ved opstart læses journalen derfor kun fra sidste checkpoint.
+ */
+@Slf4j
+@Service
+public class FileStorageJournalImpl implements StorageJournal {
+
+    static final String JOURNAL_FILE = "storage.journal";
+
+    private static final char INTENT = 'I';
+    private static final char COMMIT = 'C';
+    private static final char ABORT = 'A';
+
+    private final Path journalPath;
+
+    // Held while records are appended and while the channel is swapped by a checkpoint
+    private final Object appendLock = new Object();
+
+    // Held by the thread doing an fsync, the others wait and are usually covered by it
+    private final Object syncLock = new Object();
+
+    // Guarded by appendLock
+    private FileChannel channel;
+    private long appendedRecords;
+    private long recordsAtCheckpoint;
+    private final Set<String> openIntents = new HashSet<>();
+    private final Set<String> unresolvedIntents = new LinkedHashSet<>();
+
+    // Guarded by syncLock
+    private long syncedRecords;
+
+    /**
+     * Åbner journalen og læser de intents der ikke fik et udfald før sidste nedlukning.
+     *
+     * @param journalDir mappen journalen gemmes i (standard: ./storage-journal)
+     * @throws RuntimeException hvis journalen ikke kan læses eller oprettes
+     */
+    public FileStorageJournalImpl(@Value("${file.journal.dir:./storage-journal}") String journalDir) {
+        Path dir = Paths.get(journalDir).toAbsolutePath().normalize();
+        this.journalPath = dir.resolve(JOURNAL_FILE);
+        try {
+            Files.createDirectories(dir);
+            replay();
+            // Start from a clean file, so new records are never appended after a torn line
+            rewrite();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open storage journal: " + journalPath, e);
+        }
+
+        if (!unresolvedIntents.isEmpty()) {
+            log.warn("Storage journal has {} incomplete operations from the last run", unresolvedIntents.size());
+        }
+    }
+
+    @Override
+    public void logIntent(String url) {
+        long record;
+        synchronized (appendLock) {
+            append(INTENT, url);
+            openIntents.add(url);
+            record = appendedRecords;
+        }
+        awaitDurable(record);
+    }
+
+    @Override
+    public void commitAfterTransaction(Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(urls);
+            return;
+        }
+
+        List<String> copy = List.copyOf(urls);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    commit(copy);
+                } else {
+                    abandon(copy);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void commit(Collection<String> urls) {
+        complete(COMMIT, urls);
+    }
+
+    @Override
+    public void abort(Collection<String> urls) {
+        complete(ABORT, urls);
+    }
+
+    @Override
+    public void abandon(Collection<String> urls) {
+        synchronized (appendLock) {
+            for (String url : urls) {
+                if (openIntents.remove(url)) {
+                    unresolvedIntents.add(url);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<String> unresolvedIntents() {
+        synchronized (appendLock) {
+            return new ArrayList<>(unresolvedIntents);
+        }
+    }
+
+    @Override
+    public void checkpoint() {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                if (appendedRecords == recordsAtCheckpoint) {
+                    return;
+                }
+                try {
+                    rewrite();
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not checkpoint storage journal: " + journalPath, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.warn("Could not checkpoint storage journal on shutdown", e);
+        }
+        synchronized (appendLock) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close storage journal", e);
+            }
+        }
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Read the journal from the last checkpoint. Intents without a commit or abort become unresolved.
+     * Reading stops at the first line that is torn or fails its checksum.
+     */
+    private void replay() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+
+        List<String> lines = List.of(new String(Files.readAllBytes(journalPath), StandardCharsets.UTF_8).split("\n", -1));
+        // The part after the last newline is either empty or a torn record
+        for (int i = 0; i < lines.size() - 1; i++) {
+            Record record = parse(lines.get(i));
+            if (record == null) {
+                log.warn("Storage journal is damaged at line {}, ignoring the rest", i + 1);
+                break;
+            }
+            if (record.type() == INTENT) {
+                unresolvedIntents.add(record.url());
+            } else {
+                unresolvedIntents.remove(record.url());
+            }
+        }
+    }
+
+    /**
+     * Write the intents without an outcome to a new file and replace the journal with it.
+     * Caller must hold syncLock and appendLock (or be the constructor).
+     */
+    private void rewrite() throws IOException {
+        Path tempPath = journalPath.resolveSibling(JOURNAL_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tempPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (String url : unresolvedIntents) {
+                write(out, INTENT, url);
+            }
+            for (String url : openIntents) {
+                write(out, INTENT, url);
+            }
+            out.force(true);
+        }
+        Files.move(tempPath, journalPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        recordsAtCheckpoint = appendedRecords;
+        syncedRecords = appendedRecords;
+    }
+
+    private void complete(char type, Collection<String> urls) {
+        synchronized (appendLock) {
+            for (String url : urls) {
+                // Only files with an intent in the journal need an outcome
+                if (openIntents.remove(url) | unresolvedIntents.remove(url)) {
+                    append(type, url);
+                }
+            }
+        }
+    }
+
+    /**
+     * Caller must hold appendLock.
+     */
+    private void append(char type, String url) {
+        try {
+            write(channel, type, url);
+            appendedRecords++;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write to storage journal: " + journalPath, e);
+        }
+    }
+
+    /**
+     * Wait until the given record is on disk. The first waiting thread fsyncs everything appended so far;
+     * threads that were waiting for the lock meanwhile find their record already covered.
+     */
+    private void awaitDurable(long record) {
+        synchronized (syncLock) {
+            if (syncedRecords >= record) {
+                return;
+            }
+
+            long appended;
+            FileChannel target;
+            synchronized (appendLock) {
+                appended = appendedRecords;
+                target = channel;
+            }
+            try {
+                target.force(false);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not sync storage journal: " + journalPath, e);
+            }
+            syncedRecords = appended;
+        }
+    }
+
+    /**
+     * Make the rename of the journal durable. Not supported on every platform, where it is skipped.
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(journalPath.getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("Could not sync journal directory: {}", e.getMessage());
+        }
+    }
+
+    private static void write(FileChannel out, char type, String url) throws IOException {
+        String body = type + " " + url;
+        String line = body + " " + Long.toHexString(checksum(body)) + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * @return the record, or null if the line is not a complete record
+     */
+    private static Record parse(String line) {
+        int lastSpace = line.lastIndexOf(' ');
+        if (lastSpace < 3 || line.charAt(1) != ' ') {
+            return null;
+        }
+
+        String body = line.substring(0, lastSpace);
+        try {
+            if (Long.parseLong(line.substring(lastSpace + 1), 16) != checksum(body)) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        char type = body.charAt(0);
+        if (type != INTENT && type != COMMIT && type != ABORT) {
+            return null;
+        }
+        return new Record(type, body.substring(2));
+    }
+
+    private static long checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private record Record(char type, String url) {
+    }
+}
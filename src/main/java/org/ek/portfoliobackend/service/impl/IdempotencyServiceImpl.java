@@ -0,0 +1,206 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.exception.custom.IdempotencyConflictException;
+import org.ek.portfoliobackend.model.IdempotencyRecord;
+import org.ek.portfoliobackend.repository.IdempotencyRecordRepository;
+import org.ek.portfoliobackend.security.JwtPrincipal;
+import org.ek.portfoliobackend.service.IdempotencyService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Implementering af IdempotencyService der gemmer nøgler og svar i idempotency_record tabellen.
+
+ * - Nøglen gemmes med brugerens id foran, så to brugere der vælger samme nøgle ikke deler svar. Klientens
+ *   nøgle må derfor højst være 200 tegn, så den gemte nøgle kan være i kolonnen på 255.
+ * - Nøglen indsættes som IN_PROGRESS før requesten behandles. Primærnøglen sikrer at kun én af to samtidige
+ *   requests med samme nøgle behandles, den anden får 409.
+ * - Et vellykket svar gemmes som JSON og genbruges i idempotency.ttl-hours. Et genbrugt svar har headeren
+ *   Idempotent-Replayed: true.
+ * - Fejler behandlingen, slettes nøglen, så klienten kan prøve igen med samme nøgle.
+ * - En IN_PROGRESS nøgle ældre end idempotency.in-progress-timeout-seconds anses for forladt (fx genstart
+ *   under behandling) og må overtages.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${idempotency.in-progress-timeout-seconds:300}") long inProgressTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inProgressTimeout = Duration.ofSeconds(inProgressTimeoutSeconds);
+    }
+
+    @Override
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Supplier<String> fingerprint,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String storedKey = ownerScope() + ":" + idempotencyKey;
+        String requestHash = fingerprint.get();
+        IdempotencyRecord existing = reserve(storedKey, idempotencyKey, operation, requestHash);
+        if (existing != null) {
+            return replay(existing, idempotencyKey, operation, requestHash, responseType);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Nothing was created, so the client may retry with the same key
+            idempotencyRecordRepository.deleteById(storedKey);
+            throw e;
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            idempotencyRecordRepository.deleteById(storedKey);
+            return response;
+        }
+
+        IdempotencyRecord record = idempotencyRecordRepository.findById(storedKey)
+                .orElseGet(() -> new IdempotencyRecord(storedKey, operation, requestHash,
+                        LocalDateTime.now(), LocalDateTime.now().plus(ttl)));
+        record.setStatus(IdempotencyRecord.Status.COMPLETED);
+        record.setResponseStatus(response.getStatusCode().value());
+        record.setResponseBody(objectMapper.writeValueAsString(response.getBody()));
+        idempotencyRecordRepository.save(record);
+
+        return response;
+    }
+
+    @Override
+    public String fingerprint(List<MultipartFile> files, Object... parts) {
+        MessageDigest digest = sha256();
+        for (Object part : parts) {
+            digest.update(objectMapper.writeValueAsBytes(part));
+            digest.update((byte) 0);
+        }
+        for (MultipartFile file : files) {
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Could not read file: " + name, e);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Runs every hour by default
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Prefix for the stored key, so keys only have to be unique per user.
+     */
+    private static String ownerScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return "user-" + principal.userId();
+        }
+        return "anonymous";
+    }
+
+    /**
+     * Insert the key as IN_PROGRESS.
+     *
+     * @param key       the stored key, scoped to the user
+     * @param clientKey the key as sent by the client, used in log and error messages
+     * @return null if this request now owns the key, otherwise the record of the request that does
+     */
+    private IdempotencyRecord reserve(String key, String clientKey, String operation, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(key).orElse(null);
+        if (existing != null) {
+            boolean expired = existing.getExpiresAt().isBefore(now);
+            boolean abandoned = existing.getStatus() == IdempotencyRecord.Status.IN_PROGRESS
+                    && existing.getCreatedAt().plus(inProgressTimeout).isBefore(now);
+            if (!expired && !abandoned) {
+                return existing;
+            }
+            log.debug("Reusing {} idempotency key {}", expired ? "expired" : "abandoned", clientKey);
+            idempotencyRecordRepository.delete(existing);
+        }
+
+        try {
+            idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(key, operation, requestHash, now, now.plus(ttl)));
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key inserted it first
+            return idempotencyRecordRepository.findById(key).orElseThrow(() -> IdempotencyConflictException.inProgress(clientKey));
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record, String clientKey, String operation,
+                                         String requestHash, Class<T> responseType) {
+        if (!record.getOperation().equals(operation) || !record.getRequestHash().equals(requestHash)) {
+            throw IdempotencyConflictException.mismatch(clientKey);
+        }
+        if (record.getStatus() != IdempotencyRecord.Status.COMPLETED) {
+            throw IdempotencyConflictException.inProgress(clientKey);
+        }
+
+        log.info("Replaying stored response for idempotency key {}", clientKey);
+        T body = objectMapper.readValue(record.getResponseBody(), responseType);
+        return ResponseEntity.status(record.getResponseStatus())
+                .header(REPLAYED_HEADER, "true")
+                .body(body);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
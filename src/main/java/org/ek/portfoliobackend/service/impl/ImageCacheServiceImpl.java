@@ -0,0 +1,425 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.dto.response.ImageCacheStatsResponse;
+import org.ek.portfoliobackend.service.ImageCacheService;
+import org.ek.portfoliobackend.service.ImageServingService.ServedFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementering af ImageCacheService med en fast off-heap arena.
+
+ * - Ved første optagelse allokeres file.serving.cache.max-bytes direkte hukommelse én gang, delt i blokke
+ *   af file.serving.cache.block-bytes. En fil gemmes i så mange blokke som den fylder, og blokke fra fjernede
+ *   filer genbruges. Cachen bruger derfor aldrig mere end max-bytes off-heap, uanset hvor meget den skifter ud,
+ *   og der efterlades ingen buffere til GC. -XX:MaxDirectMemorySize skal være max-bytes plus plads til
+ *   Tomcat og NIO's egne buffere. Kan arenaen ikke allokeres, slås cachen fra i stedet for at fejle requests.
+ * - En fil der er ved at blive sendt er låst (pins), så dens blokke først genbruges når den er sendt færdig.
+ * - Adgange tælles i en lille count-min sketch der halveres løbende, så gamle populære billeder glemmes.
+ * - En fil optages først når den er hentet file.serving.cache.min-frequency gange, og der kun gives plads
+ *   ved at smide mindre brugte filer ud (LRU-rækkefølge, men en offer må ikke være hentet oftere end den nye fil).
+ *   Et enkelt gennemløb af mange forskellige billeder kan derfor ikke tømme cachen for de populære.
+ * - En fil i cachen bruges kun hvis størrelse og ændringstid stadig passer med filen på disken.
+ */
+@Slf4j
+@Service
+public class ImageCacheServiceImpl implements ImageCacheService {
+
+    private static final int SKETCH_WIDTH = 1 << 14;
+
+    // Largest direct buffer the arena is allocated in, the blocks are slices of these
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final int minFrequency;
+    private final int blockBytes;
+    private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH);
+
+    // Adgangs-rækkefølge: første entry er den mindst nyligt brugte. Alt herunder er beskyttet af this
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private ByteBuffer[] blocks;
+    private int[] freeBlocks;
+    private int freeCount;
+    private boolean disabled;
+    private long usedBytes;
+    private long admissions;
+    private long rejections;
+    private long evictions;
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    public ImageCacheServiceImpl(@Value("${file.serving.cache.max-bytes:67108864}") long maxBytes,
+                                 @Value("${file.serving.cache.max-entry-bytes:5242880}") long maxEntryBytes,
+                                 @Value("${file.serving.cache.min-frequency:2}") int minFrequency,
+                                 @Value("${file.serving.cache.block-bytes:65536}") int blockBytes) {
+        if (blockBytes < 1) {
+            throw new IllegalArgumentException("file.serving.cache.block-bytes must be positive");
+        }
+        this.maxBytes = Math.max(0, maxBytes);
+        this.blockBytes = (int) Math.max(1, Math.min(blockBytes, this.maxBytes));
+        this.maxEntryBytes = Math.min(maxEntryBytes, Integer.MAX_VALUE);
+        this.minFrequency = minFrequency;
+    }
+
+    @Override
+    public boolean write(ServedFile file, long start, long length, RangeWriter writer) throws IOException {
+        if (maxBytes < blockBytes) {
+            return false;
+        }
+
+        Path key = file.path();
+        int frequency = sketch.increment(key);
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && !entry.matches(file)) {
+                // Filen er ændret eller erstattet siden den blev læst
+                removeEntry(key);
+                invalidations++;
+                entry = null;
+            }
+            if (entry != null) {
+                entry.pins++;
+            }
+        }
+
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = admit(file, frequency);
+            if (entry == null) {
+                return false;
+            }
+        }
+
+        try {
+            writeRange(entry, start, length, writer);
+            bytesServed.add(length);
+            return true;
+        } finally {
+            unpin(entry);
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(Path path) {
+        if (removeEntry(path)) {
+            invalidations++;
+        }
+    }
+
+    @Override
+    public ImageCacheStatsResponse getStats() {
+        ImageCacheStatsResponse stats = new ImageCacheStatsResponse();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setHitRatio(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount));
+        stats.setBytesServedFromMemory(bytesServed.sum());
+        stats.setMaxBytes(maxBytes);
+
+        synchronized (this) {
+            stats.setAdmissions(admissions);
+            stats.setRejections(rejections);
+            stats.setEvictions(evictions);
+            stats.setInvalidations(invalidations);
+            stats.setEntries(entries.size());
+            stats.setUsedBytes(usedBytes);
+        }
+        return stats;
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Load the file into the cache if it is requested often enough and room can be made for it.
+     * Blocks are reserved under the lock, the file is read into them outside it,
+     * so other requests are not blocked by the disk.
+     *
+     * @return the new entry, pinned for the caller, or null if the file was not admitted
+     */
+    private Entry admit(ServedFile file, int frequency) {
+        long size = file.size();
+        if (frequency < minFrequency || size == 0 || size > maxEntryBytes) {
+            return null;
+        }
+        int needed = (int) ((size + blockBytes - 1) / blockBytes);
+
+        int[] reserved;
+        synchronized (this) {
+            if (!allocateArena() || needed > blocks.length) {
+                return null;
+            }
+            List<Path> victims = victims(needed, frequency);
+            if (victims == null) {
+                rejections++;
+                return null;
+            }
+            for (Path victim : victims) {
+                removeEntry(victim);
+                evictions++;
+            }
+            reserved = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                reserved[i] = freeBlocks[--freeCount];
+            }
+        }
+
+        if (!load(file, reserved)) {
+            synchronized (this) {
+                releaseBlocks(reserved);
+            }
+            return null;
+        }
+
+        synchronized (this) {
+            Entry existing = entries.get(file.path());
+            if (existing != null && existing.matches(file)) {
+                // Another request loaded it in the meantime
+                releaseBlocks(reserved);
+                existing.pins++;
+                return existing;
+            }
+            removeEntry(file.path());
+
+            Entry entry = new Entry(reserved, size, file.lastModified());
+            entry.pins = 1;
+            entries.put(file.path(), entry);
+            usedBytes += size;
+            admissions++;
+            log.debug("Cached {} ({} bytes in {} blocks)", file.path().getFileName(), size, needed);
+            return entry;
+        }
+    }
+
+    /**
+     * Least recently used entries that must go to free enough blocks for a new file,
+     * or null if one of them is requested at least as often as the new file.
+     * Entries being sent are skipped, their blocks would not be free yet.
+     */
+    private List<Path> victims(int needed, int frequency) {
+        List<Path> victims = new ArrayList<>();
+        int free = freeCount;
+        Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+
+        while (free < needed) {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Map.Entry<Path, Entry> candidate = iterator.next();
+            if (sketch.frequency(candidate.getKey()) >= frequency) {
+                return null;
+            }
+            if (candidate.getValue().pins > 0) {
+                continue;
+            }
+            victims.add(candidate.getKey());
+            free += candidate.getValue().blocks().length;
+        }
+        return victims;
+    }
+
+    /**
+     * Allocate the arena on first use.
+     *
+     * @return false if the arena could not be allocated and the cache is disabled
+     */
+    private boolean allocateArena() {
+        if (blocks != null || disabled) {
+            return !disabled;
+        }
+
+        int blockCount = (int) Math.min(maxBytes / blockBytes, Integer.MAX_VALUE);
+        long chunkBlocks = Math.max(1, MAX_CHUNK_BYTES / blockBytes);
+        ByteBuffer[] arena = new ByteBuffer[blockCount];
+        try {
+            for (int first = 0; first < blockCount; first += (int) chunkBlocks) {
+                int count = (int) Math.min(chunkBlocks, blockCount - first);
+                ByteBuffer chunk = ByteBuffer.allocateDirect(count * blockBytes);
+                for (int i = 0; i < count; i++) {
+                    arena[first + i] = chunk.slice(i * blockBytes, blockBytes);
+                }
+            }
+        } catch (OutOfMemoryError e) {
+            disabled = true;
+            log.error("Image cache disabled, could not allocate {} bytes of direct memory. "
+                    + "Raise -XX:MaxDirectMemorySize or lower file.serving.cache.max-bytes: {}", maxBytes, e.getMessage());
+            return false;
+        }
+
+        blocks = arena;
+        freeBlocks = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            freeBlocks[i] = blockCount - 1 - i;
+        }
+        freeCount = blockCount;
+        log.info("Image cache arena allocated: {} blocks of {} bytes", blockCount, blockBytes);
+        return true;
+    }
+
+    private boolean removeEntry(Path path) {
+        Entry removed = entries.remove(path);
+        if (removed == null) {
+            return false;
+        }
+        usedBytes -= removed.size();
+        removed.removed = true;
+        if (removed.pins == 0) {
+            releaseBlocks(removed.blocks());
+        }
+        return true;
+    }
+
+    private synchronized void unpin(Entry entry) {
+        entry.pins--;
+        if (entry.pins == 0 && entry.removed) {
+            // Removed while it was being sent, the blocks are free now
+            releaseBlocks(entry.blocks());
+        }
+    }
+
+    private void releaseBlocks(int[] released) {
+        for (int block : released) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+
+    private boolean load(ServedFile file, int[] target) {
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            long remaining = file.size();
+            for (int block : target) {
+                ByteBuffer buffer = blocks[block].duplicate().clear().limit((int) Math.min(blockBytes, remaining));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        // File was truncated after it was looked up
+                        return false;
+                    }
+                }
+                remaining -= buffer.limit();
+            }
+        } catch (IOException e) {
+            log.warn("Could not load {} into the image cache: {}", file.path().getFileName(), e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private void writeRange(Entry entry, long start, long length, RangeWriter writer) throws IOException {
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            int offset = (int) (position % blockBytes);
+            int count = (int) Math.min(blockBytes - offset, end - position);
+            ByteBuffer block = blocks[entry.blocks()[(int) (position / blockBytes)]];
+            writer.write(block.slice(offset, count).asReadOnlyBuffer());
+            position += count;
+        }
+    }
+
+    /**
+     * A cached file. The blocks hold the content in order, the last one only partly filled.
+     * pins and removed are guarded by the cache.
+     */
+    private static final class Entry {
+
+        private final int[] blocks;
+        private final long size;
+        private final long lastModified;
+        private int pins;
+        private boolean removed;
+
+        Entry(int[] blocks, long size, long lastModified) {
+            this.blocks = blocks;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        int[] blocks() {
+            return blocks;
+        }
+
+        long size() {
+            return size;
+        }
+
+        boolean matches(ServedFile file) {
+            return size == file.size() && lastModified == file.lastModified();
+        }
+    }
+
+    /**
+     * Count-min sketch of access frequencies with 4 rows and counters capped at 15.
+     * All counters are halved after 10 increments per column, so the counts follow recent traffic.
+     */
+    private static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+        private final int[] counts;
+        private final int width;
+        private final int resetThreshold;
+        private int additions;
+
+        FrequencySketch(int width) {
+            this.width = width;
+            this.counts = new int[DEPTH * width];
+            this.resetThreshold = width * 10;
+        }
+
+        synchronized int increment(Object key) {
+            int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (counts[index] < MAX_COUNT) {
+                    counts[index]++;
+                }
+                frequency = Math.min(frequency, counts[index]);
+            }
+            if (++additions >= resetThreshold) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] >>>= 1;
+                }
+                additions /= 2;
+            }
+            return frequency;
+        }
+
+        synchronized int frequency(Object key) {
+            int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, counts[index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int mixed = hash * SEEDS[row];
+            mixed ^= mixed >>> 16;
+            return row * width + (mixed & (width - 1));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.service.ImagePlaceholderService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Implementering af ImagePlaceholderService med ImageIO (JPEG og PNG).
+
+ * Billedet afkodes med source subsampling, så der højst holdes ca. 64 pixels i hver retning i hukommelsen,
+ * uanset billedets størrelse. Ud fra de pixels beregnes:
+ *  - en blurhash med 4 x 3 komponenter (28 tegn), som klienten tegner som et sløret billede
+ *  - den dominerende farve: pixels grupperes i 4096 farvespande, og gennemsnittet af den største spand bruges
+
+ * Formater ImageIO ikke kan afkode (WebP, HEIC) får ingen placeholder. Billedet er allerede godkendt af
+ * ImageProbeService, så en fejl her afviser aldrig en upload.
+ */
+@Slf4j
+@Service
+public class ImagePlaceholderServiceImpl implements ImagePlaceholderService {
+
+    private static final int COMPONENTS_X = 4;
+    private static final int COMPONENTS_Y = 3;
+
+    // Longest side of the decoded image the placeholder is computed from
+    private static final int SAMPLE_SIZE = 64;
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    @Override
+    public Placeholder compute(MultipartFile file) {
+        BufferedImage sample;
+        try (InputStream in = file.getInputStream()) {
+            sample = decodeSample(in);
+        } catch (IOException | RuntimeException e) {
+            log.debug("No placeholder for {}: {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+
+        if (sample == null) {
+            return null;
+        }
+
+        int width = sample.getWidth();
+        int height = sample.getHeight();
+        int[] pixels = sample.getRGB(0, 0, width, height, null, 0, width);
+        return new Placeholder(blurhash(pixels, width, height), dominantColor(pixels));
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Decode every n-th pixel, so the result is at most SAMPLE_SIZE pixels on its longest side.
+     *
+     * @return the decoded sample, or null if no ImageIO reader supports the format
+     */
+    BufferedImage decodeSample(InputStream in) throws IOException {
+        try (ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Round up, otherwise a side up to 2 * SAMPLE_SIZE - 1 is decoded in full
+                int step = Math.max(1, (longestSide + SAMPLE_SIZE - 1) / SAMPLE_SIZE);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Blurhash encoding as described on https://github.com/woltapp/blurhash.
+     */
+    private static String blurhash(int[] pixels, int width, int height) {
+        double[][] factors = new double[COMPONENTS_X * COMPONENTS_Y][];
+        for (int j = 0; j < COMPONENTS_Y; j++) {
+            for (int i = 0; i < COMPONENTS_X; i++) {
+                factors[j * COMPONENTS_X + i] = basisFactor(pixels, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (COMPONENTS_X - 1) + (COMPONENTS_Y - 1) * 9, 1);
+
+        double maximumValue = 0;
+        for (int k = 1; k < factors.length; k++) {
+            for (double value : factors[k]) {
+                maximumValue = Math.max(maximumValue, Math.abs(value));
+            }
+        }
+        int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(maximumValue * 166 - 0.5)));
+        maximumValue = (quantisedMaximum + 1) / 166.0;
+        encode83(hash, quantisedMaximum, 1);
+
+        double[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            int value = quantiseAc(ac[0], maximumValue) * 19 * 19
+                    + quantiseAc(ac[1], maximumValue) * 19
+                    + quantiseAc(ac[2], maximumValue);
+            encode83(hash, value, 2);
+        }
+        return hash.toString();
+    }
+
+    private static double[] basisFactor(int[] pixels, int width, int height, int i, int j) {
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        for (int y = 0; y < height; y++) {
+            double basisY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = Math.cos(Math.PI * i * x / width) * basisY;
+                int rgb = pixels[y * width + x];
+                r += basis * srgbToLinear((rgb >> 16) & 0xFF);
+                g += basis * srgbToLinear((rgb >> 8) & 0xFF);
+                b += basis * srgbToLinear(rgb & 0xFF);
+            }
+        }
+
+        double scale = (i == 0 && j == 0 ? 1.0 : 2.0) / (width * height);
+        return new double[]{r * scale, g * scale, b * scale};
+    }
+
+    private static int quantiseAc(double value, double maximumValue) {
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(value / maximumValue)), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        if (v <= 0.0031308) {
+            return (int) (v * 12.92 * 255 + 0.5);
+        }
+        return (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder out, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (int) (value / Math.pow(83, length - i)) % 83;
+            out.append(BASE83.charAt(digit));
+        }
+    }
+
+    /**
+     * Average color of the most common 4-bit-per-channel bucket. Mostly transparent pixels are skipped.
+     */
+    private static String dominantColor(int[] pixels) {
+        int[] counts = new int[4096];
+        long[][] sums = new long[4096][3];
+        for (int argb : pixels) {
+            if ((argb >>> 24) < 128) {
+                continue;
+            }
+            int r = (argb >> 16) & 0xFF;
+            int g = (argb >> 8) & 0xFF;
+            int b = argb & 0xFF;
+            int bucket = (r >> 4) << 8 | (g >> 4) << 4 | (b >> 4);
+            counts[bucket]++;
+            sums[bucket][0] += r;
+            sums[bucket][1] += g;
+            sums[bucket][2] += b;
+        }
+
+        int best = 0;
+        for (int bucket = 1; bucket < counts.length; bucket++) {
+            if (counts[bucket] > counts[best]) {
+                best = bucket;
+            }
+        }
+        if (counts[best] == 0) {
+            return null;
+        }
+
+        long count = counts[best];
+        return String.format("#%02x%02x%02x", sums[best][0] / count, sums[best][1] / count, sums[best][2] / count);
+    }
+}
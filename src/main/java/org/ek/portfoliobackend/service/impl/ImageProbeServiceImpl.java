@@ -0,0 +1,365 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.service.ImageProbeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementering af ImageProbeService der genkender JPEG, PNG, WebP og HEIC ud fra filens header.
+
+ * Der læses kun så mange bytes som formatet kræver for at finde dimensionerne (PNG og WebP under 32 bytes,
+ * JPEG indtil første SOF-segment, HEIC indtil meta-boksen), og aldrig mere end file.image.max-header-bytes.
+ * Billeder med flere pixels end file.image.max-pixels afvises, så dekomprimeringsbomber aldrig gemmes.
+ */
+@Service
+public class ImageProbeServiceImpl implements ImageProbeService {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final Set<String> HEIC_BRANDS = Set.of("heic", "heix", "heim", "heis", "hevc", "hevx");
+
+    private final long maxPixels;
+    private final int maxHeaderBytes;
+
+    public ImageProbeServiceImpl(@Value("${file.image.max-pixels:100000000}") long maxPixels,
+                                 @Value("${file.image.max-header-bytes:262144}") int maxHeaderBytes) {
+        this.maxPixels = maxPixels;
+        this.maxHeaderBytes = maxHeaderBytes;
+    }
+
+    @Override
+    public ImageInfo probe(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return probe(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read image: " + file.getOriginalFilename(), e);
+        }
+    }
+
+    @Override
+    public ImageInfo probe(InputStream in) {
+        HeaderReader reader = new HeaderReader(in, maxHeaderBytes);
+        try {
+            byte[] head = reader.peek(12);
+
+            if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+                return probeJpeg(reader);
+            }
+            if (head.length >= 8 && Arrays.equals(Arrays.copyOf(head, 8), PNG_SIGNATURE)) {
+                return probePng(reader);
+            }
+            if (head.length == 12 && ascii(head, 0).equals("RIFF") && ascii(head, 8).equals("WEBP")) {
+                return probeWebp(reader);
+            }
+            if (head.length == 12 && ascii(head, 4).equals("ftyp")) {
+                return probeHeic(reader);
+            }
+            throw new IllegalArgumentException("Unsupported image format, only JPEG, PNG, WebP and HEIC are allowed");
+
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Image header is truncated");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read image header: " + e.getMessage(), e);
+        }
+    }
+
+    // ------------------------------------------------ FORMATS --------------------------------------------------------
+
+    private ImageInfo probeJpeg(HeaderReader reader) throws IOException {
+        reader.skip(2); // SOI
+
+        while (true) {
+            if (reader.readU8() != 0xFF) {
+                throw new IllegalArgumentException("Corrupt JPEG header");
+            }
+            int marker = reader.readU8();
+            while (marker == 0xFF) {
+                marker = reader.readU8(); // fill bytes
+            }
+
+            // Markers without a length field
+            if (marker == 0x01 || marker == 0xD8 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                throw new IllegalArgumentException("JPEG has no frame header");
+            }
+
+            int length = reader.readU16();
+            if (length < 2) {
+                throw new IllegalArgumentException("Corrupt JPEG header");
+            }
+
+            // SOF0-SOF15, except DHT (C4), JPG (C8) and DAC (CC)
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                reader.skip(1); // sample precision
+                int height = reader.readU16();
+                int width = reader.readU16();
+                return info("image/jpeg", ".jpg", width, height);
+            }
+
+            reader.skip(length - 2);
+        }
+    }
+
+    private ImageInfo probePng(HeaderReader reader) throws IOException {
+        reader.skip(PNG_SIGNATURE.length + 4); // signature + chunk length
+        if (!reader.readAscii(4).equals("IHDR")) {
+            throw new IllegalArgumentException("Corrupt PNG header");
+        }
+        long width = reader.readU32();
+        long height = reader.readU32();
+        return info("image/png", ".png", width, height);
+    }
+
+    private ImageInfo probeWebp(HeaderReader reader) throws IOException {
+        reader.skip(12); // RIFF, size, WEBP
+        String chunk = reader.readAscii(4);
+        reader.skip(4); // chunk size
+
+        switch (chunk) {
+            case "VP8 " -> {
+                reader.skip(3); // frame tag
+                if (reader.readU8() != 0x9D || reader.readU8() != 0x01 || reader.readU8() != 0x2A) {
+                    throw new IllegalArgumentException("Corrupt WebP header");
+                }
+                int width = reader.readU16LE() & 0x3FFF;
+                int height = reader.readU16LE() & 0x3FFF;
+                return info("image/webp", ".webp", width, height);
+            }
+            case "VP8L" -> {
+                if (reader.readU8() != 0x2F) {
+                    throw new IllegalArgumentException("Corrupt WebP header");
+                }
+                long bits = reader.readU32LE();
+                return info("image/webp", ".webp", (bits & 0x3FFF) + 1, ((bits >> 14) & 0x3FFF) + 1);
+            }
+            case "VP8X" -> {
+                reader.skip(4); // flags
+                long width = reader.readU24LE() + 1;
+                long height = reader.readU24LE() + 1;
+                return info("image/webp", ".webp", width, height);
+            }
+            default -> throw new IllegalArgumentException("Corrupt WebP header");
+        }
+    }
+
+    /**
+     * HEIC is an ISO base media file. The dimensions are stored in 'ispe' properties inside meta/iprp/ipco.
+     * The largest one belongs to the primary image, the others are thumbnails or grid tiles.
+     */
+    private ImageInfo probeHeic(HeaderReader reader) throws IOException {
+        long ftypSize = reader.readU32();
+        reader.skip(4); // 'ftyp'
+        if (ftypSize < 16) {
+            throw new IllegalArgumentException("Corrupt HEIC header");
+        }
+        ByteBuffer ftyp = ByteBuffer.wrap(reader.readBytes((int) Math.min(ftypSize - 8, maxHeaderBytes)));
+        if (!hasHeicBrand(ftyp)) {
+            throw new IllegalArgumentException("Unsupported image format, only JPEG, PNG, WebP and HEIC are allowed");
+        }
+
+        while (true) {
+            long size = reader.readU32();
+            String type = reader.readAscii(4);
+            int headerSize = 8;
+            if (size == 1) {
+                size = reader.readU64();
+                headerSize = 16;
+            }
+            if (size == 0 || size < headerSize) {
+                break; // box runs to end of file or is corrupt, meta was not found
+            }
+
+            if (type.equals("meta")) {
+                ByteBuffer meta = ByteBuffer.wrap(reader.readBytes((int) Math.min(size - headerSize, maxHeaderBytes)));
+                meta.position(4); // version + flags
+                return heicDimensions(meta);
+            }
+            reader.skip(size - headerSize);
+        }
+        throw new IllegalArgumentException("HEIC file has no image properties");
+    }
+
+    private boolean hasHeicBrand(ByteBuffer ftyp) {
+        // major brand, minor version, compatible brands
+        if (HEIC_BRANDS.contains(ascii(ftyp, 0))) {
+            return true;
+        }
+        for (int offset = 8; offset + 4 <= ftyp.limit(); offset += 4) {
+            if (HEIC_BRANDS.contains(ascii(ftyp, offset))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ImageInfo heicDimensions(ByteBuffer meta) {
+        long width = 0;
+        long height = 0;
+        for (ByteBuffer iprp : childBoxes(meta, "iprp")) {
+            for (ByteBuffer ipco : childBoxes(iprp, "ipco")) {
+                for (ByteBuffer ispe : childBoxes(ipco, "ispe")) {
+                    if (ispe.remaining() < 12) {
+                        continue;
+                    }
+                    long w = Integer.toUnsignedLong(ispe.getInt(ispe.position() + 4));
+                    long h = Integer.toUnsignedLong(ispe.getInt(ispe.position() + 8));
+                    if (w * h > width * height) {
+                        width = w;
+                        height = h;
+                    }
+                }
+            }
+        }
+        if (width == 0) {
+            throw new IllegalArgumentException("HEIC file has no image properties");
+        }
+        return info("image/heic", ".heic", width, height);
+    }
+
+    /**
+     * Contents of all direct child boxes of the given type.
+     */
+    private List<ByteBuffer> childBoxes(ByteBuffer parent, String type) {
+        List<ByteBuffer> boxes = new ArrayList<>();
+        int offset = parent.position();
+        while (offset + 8 <= parent.limit()) {
+            long size = Integer.toUnsignedLong(parent.getInt(offset));
+            String boxType = ascii(parent, offset + 4);
+            int headerSize = 8;
+            if (size == 1 && offset + 16 <= parent.limit()) {
+                size = parent.getLong(offset + 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = parent.limit() - offset;
+            }
+            if (size < headerSize || offset + size > parent.limit()) {
+                break;
+            }
+            if (boxType.equals(type)) {
+                boxes.add(parent.slice(offset + headerSize, (int) size - headerSize));
+            }
+            offset += (int) size;
+        }
+        return boxes;
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private ImageInfo info(String contentType, String extension, long width, long height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image has invalid dimensions " + width + "x" + height);
+        }
+        if (width > Integer.MAX_VALUE || height > Integer.MAX_VALUE || width * height > maxPixels) {
+            throw new IllegalArgumentException(String.format(
+                    "Image dimensions %dx%d exceed the maximum of %d pixels", width, height, maxPixels));
+        }
+        return new ImageInfo(contentType, extension, (int) width, (int) height);
+    }
+
+    private static String ascii(byte[] bytes, int offset) {
+        return new String(bytes, offset, 4, StandardCharsets.US_ASCII);
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset) {
+        byte[] bytes = new byte[4];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads big- and little-endian fields from a stream and refuses to read past the header limit.
+     */
+    private static final class HeaderReader {
+
+        private final InputStream in;
+        private final int limit;
+        private long position;
+
+        private HeaderReader(InputStream in, int limit) {
+            // Own buffer, so a mark set by the caller on the given stream is left untouched
+            this.in = new BufferedInputStream(in);
+            this.limit = limit;
+        }
+
+        byte[] peek(int n) throws IOException {
+            in.mark(n);
+            byte[] bytes = in.readNBytes(n);
+            in.reset();
+            return bytes;
+        }
+
+        int readU8() throws IOException {
+            ensureWithinLimit(1);
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            position++;
+            return b;
+        }
+
+        int readU16() throws IOException {
+            return (readU8() << 8) | readU8();
+        }
+
+        long readU32() throws IOException {
+            return ((long) readU16() << 16) | readU16();
+        }
+
+        long readU64() throws IOException {
+            return (readU32() << 32) | readU32();
+        }
+
+        int readU16LE() throws IOException {
+            return readU8() | (readU8() << 8);
+        }
+
+        long readU24LE() throws IOException {
+            return readU8() | (readU8() << 8) | ((long) readU8() << 16);
+        }
+
+        long readU32LE() throws IOException {
+            return readU24LE() | ((long) readU8() << 24);
+        }
+
+        String readAscii(int n) throws IOException {
+            return new String(readBytes(n), StandardCharsets.US_ASCII);
+        }
+
+        byte[] readBytes(int n) throws IOException {
+            ensureWithinLimit(n);
+            byte[] bytes = in.readNBytes(n);
+            if (bytes.length < n) {
+                throw new EOFException();
+            }
+            position += n;
+            return bytes;
+        }
+
+        void skip(long n) throws IOException {
+            ensureWithinLimit(n);
+            in.skipNBytes(n);
+            position += n;
+        }
+
+        private void ensureWithinLimit(long n) {
+            if (position + n > limit) {
+                throw new IllegalArgumentException(
+                        "Image dimensions were not found within the first " + limit + " bytes");
+            }
+        }
+    }
+}
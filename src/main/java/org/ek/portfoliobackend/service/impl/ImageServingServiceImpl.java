@@ -0,0 +1,99 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.ek.portfoliobackend.repository.ImageRepository;
+import org.ek.portfoliobackend.service.ImageServingService;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementering af ImageServingService for alle ImageStorageService backends.
+ * Selve filen findes via ImageStorageService.locate(), resten af svaret er fælles.
+
+ * Content hash og content type slås op i image-tabellen og holdes i en LRU cache på
+ * file.serving.metadata-cache-size URL'er, så en GET normalt kun koster et stat() af filen.
+ * Cachen skal ikke invalideres ved sletning: filen findes ikke længere og giver 404 før cachen bruges,
+ * og genererede filnavne genbruges aldrig.
+ */
+@Service
+public class ImageServingServiceImpl implements ImageServingService {
+
+    private final ImageStorageService imageStorageService;
+    private final ImageRepository imageRepository;
+    private final Map<String, FileMetadata> metadataCache;
+
+    public ImageServingServiceImpl(ImageStorageService imageStorageService,
+                                   ImageRepository imageRepository,
+                                   @Value("${file.serving.metadata-cache-size:10000}") int metadataCacheSize) {
+        this.imageStorageService = imageStorageService;
+        this.imageRepository = imageRepository;
+        this.metadataCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FileMetadata> eldest) {
+                return size() > metadataCacheSize;
+            }
+        });
+    }
+
+    @Override
+    public ServedFile find(String url) {
+        ImageStorageService.StoredContent stored;
+        try {
+            stored = imageStorageService.locate(url);
+        } catch (SecurityException e) {
+            throw new ResourceNotFoundException("File", url);
+        }
+        if (stored == null) {
+            throw new ResourceNotFoundException("File", url);
+        }
+
+        String filename = url.substring(url.lastIndexOf('/') + 1);
+        long size = stored.size();
+        long lastModified = stored.lastModified();
+        FileMetadata metadata = metadata(url);
+
+        String etag = metadata.contentHash() != null
+                ? "\"" + metadata.contentHash() + "\""
+                // Files stored before hashing was added, or placed by hand
+                : "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        String contentType = metadata.contentType() != null
+                ? metadata.contentType()
+                : MediaTypeFactory.getMediaType(filename).map(MediaType::toString).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        return new ServedFile(stored.path(), size, lastModified, contentType, etag,
+                LocalFileStorageServiceImpl.isGeneratedFilename(filename), stored.content());
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private FileMetadata metadata(String url) {
+        FileMetadata cached = metadataCache.get(url);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<ImageRepository.ImageFileView> views = imageRepository.findFileViewsByUrl(url, PageRequest.of(0, 1));
+        if (views.isEmpty()) {
+            // Not cached: the image row of a fresh upload may not be committed yet
+            return FileMetadata.NONE;
+        }
+
+        FileMetadata metadata = new FileMetadata(views.get(0).getContentHash(), views.get(0).getContentType());
+        metadataCache.put(url, metadata);
+        return metadata;
+    }
+
+    private record FileMetadata(String contentHash, String contentType) {
+        private static final FileMetadata NONE = new FileMetadata(null, null);
+    }
+}
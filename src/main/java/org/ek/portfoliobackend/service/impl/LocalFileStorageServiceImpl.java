@@ -1,39 +1,107 @@
 package org.ek.portfoliobackend.service.impl;
 
+import org.ek.portfoliobackend.service.ImageCacheService;
+import org.ek.portfoliobackend.service.ImageProbeService;
 import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.StorageJournal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
 
 /**
  * Implementering af ImageStorageService der gemmer filer lokalt på filsystemet.
  * Filer gemmes med UUID-baserede unikke filnavne for at undgå konflikter.
+ * Filens header undersøges før der skrives noget til disken, og extension bestemmes af det fundne format.
  * Upload-mappen konfigureres via file.upload-dir property i application.properties.
+
+ * Med file.sharded-layout=true gemmes nye filer i to niveauer af undermapper ud fra en hash af filnavnet
+ * (fx "/uploads/3f/a2/uuid.jpg"), så ingen mappe får mere end nogle få filer selv ved mange billeder.
+ * Gamle flade URL'er ("/uploads/uuid.jpg") virker fortsat, også efter filen er flyttet af
+ * UploadLayoutMigrationService, da resolve() og /uploads/** falder tilbage til shard-mappen.
+
+ * storeFileAsync og deleteAsync kører på storageIoExecutor, og filen skrives med en AsynchronousFileChannel,
+ * så billederne i én upload skrives samtidigt i stedet for efter hinanden på request-tråden.
+
+ * Bruges når file.storage.backend=local (standard). Alternativet er PackFileStorageServiceImpl.
  */
+@Slf4j
 @Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
 public class LocalFileStorageServiceImpl implements ImageStorageService {
 
+    private static final String URL_PREFIX = "/uploads/";
+
+    // Size of the chunks read from the upload and written with the asynchronous channel
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
     /**
      * Den absolutte sti til upload-mappen hvor filer gemmes.
      */
     private final Path uploadPath;
 
+    /**
+     * Om nye filer gemmes i hash-baserede undermapper i stedet for direkte i upload-mappen.
+     */
+    private final boolean shardedLayout;
+
+    private final ImageProbeService imageProbeService;
+
+    private final ImageCacheService imageCacheService;
+
+    private final ExecutorService storageIoExecutor;
+
+    private final StorageJournal storageJournal;
+
     /**
      * Opretter en ny LocalFileStorageServiceImpl med den angivne upload-mappe.
      * Mappen oprettes automatisk hvis den ikke eksisterer.
      *
      * @param uploadDir stien til upload-mappen (standard: ./uploads)
+     * @param shardedLayout om nye filer gemmes i undermapper (standard: false)
+     * @param imageProbeService bruges til at afvise filer der ikke er billeder
+     * @param imageCacheService får besked når en fil slettes, så den ikke længere serveres fra hukommelsen
+     * @param storageIoExecutor tråde til storeFileAsync og deleteAsync
+     * @param storageJournal får en intent for hver fil før den skrives, så et crash ikke efterlader ukendte filer
      * @throws RuntimeException hvis upload-mappen ikke kan oprettes
      */
-    public LocalFileStorageServiceImpl(@Value("${file.upload-dir:./uploads}") String uploadDir) {
+    public LocalFileStorageServiceImpl(@Value("${file.upload-dir:./uploads}") String uploadDir,
+                                       @Value("${file.sharded-layout:false}") boolean shardedLayout,
+                                       ImageProbeService imageProbeService,
+                                       ImageCacheService imageCacheService,
+                                       @Qualifier("storageIoExecutor") ExecutorService storageIoExecutor,
+                                       StorageJournal storageJournal) {
         this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.shardedLayout = shardedLayout;
+        this.imageProbeService = imageProbeService;
+        this.imageCacheService = imageCacheService;
+        this.storageIoExecutor = storageIoExecutor;
+        this.storageJournal = storageJournal;
         try {
             Files.createDirectories(this.uploadPath);
         } catch (IOException e) {
@@ -43,45 +111,80 @@ public class LocalFileStorageServiceImpl implements ImageStorageService {
 
     /**
      * Gemmer en uploaded fil til filsystemet med et unikt UUID-baseret filnavn.
-     * Filens originale extension bevares.
+     * Extension bestemmes ud fra filens indhold (JPEG, PNG, WebP eller HEIC), ikke det originale filnavn.
+     * SHA-256 af indholdet beregnes mens filen kopieres, så den ikke skal læses igen.
      *
      * @param file filen der skal gemmes (må ikke være tom)
-     * @return den relative URL til den gemte fil (fx "/uploads/uuid.jpg")
-     * @throws IllegalArgumentException hvis filen er tom
+     * @return den relative URL til den gemte fil (fx "/uploads/uuid.jpg" eller "/uploads/3f/a2/uuid.jpg") og dens hash
+     * @throws IllegalArgumentException hvis filen er tom, ikke er et understøttet billede eller er for stor i pixels
      * @throws SecurityException hvis der forsøges at gemme en fil udenfor upload-mappen
      * @throws RuntimeException hvis filen ikke kan gemmes
      */
     @Override
-    public String store(MultipartFile file) {
+    public StoredFile storeFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Cannot store empty file");
         }
 
+        Destination destination = null;
         try {
-            // Generér unikt filnavn for at undgå konflikter
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : "";
-            String filename = UUID.randomUUID() + extension;
-
-            // Bestem destinationen for filen
-            Path destinationFile = this.uploadPath.resolve(filename).normalize();
-
-            // Sikkerhedstjek: Sørg for at filen gemmes indenfor upload-mappen
-            if (!destinationFile.getParent().equals(this.uploadPath)) {
-                throw new SecurityException("Cannot store file outside upload directory");
-            }
+            destination = prepareDestination(file);
 
             // Kopiér fil til destination
-            Files.copy(file.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            MessageDigest digest = sha256();
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(new DigestInputStream(in, digest), destination.path(), StandardCopyOption.REPLACE_EXISTING);
+            }
 
             // Returnér den relative URL/sti
-            return "/uploads/" + filename;
+            return new StoredFile(destination.url(), HexFormat.of().formatHex(digest.digest()));
 
         } catch (IOException e) {
+            discardFailedStore(destination);
             throw new RuntimeException("Failed to store file: " + file.getOriginalFilename(), e);
+        } catch (RuntimeException e) {
+            discardFailedStore(destination);
+            throw e;
+        }
+    }
+
+    /**
+     * Gemmer en uploaded fil uden at blokere kalderen.
+     * Headeren undersøges og filen læses på storageIoExecutor, og bytes skrives med en AsynchronousFileChannel
+     * i blokke på 64 KB. Fejler kopieringen, slettes den halvt skrevne fil.
+     *
+     * @param file filen der skal gemmes (må ikke være tom)
+     * @return future med URL og hash, eller fejlet med samme exceptions som storeFile
+     */
+    @Override
+    public CompletableFuture<StoredFile> storeFileAsync(MultipartFile file) {
+        if (file.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Cannot store empty file"));
         }
+
+        CompletableFuture<StoredFile> result = new CompletableFuture<>();
+        storageIoExecutor.execute(() -> {
+            InputStream in = null;
+            Destination destination = null;
+            try {
+                destination = prepareDestination(file);
+                in = file.getInputStream();
+                AsynchronousFileChannel channel = AsynchronousFileChannel.open(destination.path(),
+                        Set.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING),
+                        storageIoExecutor);
+                new AsyncCopy(in, channel, destination, file.getOriginalFilename(), result).readNext();
+            } catch (IOException e) {
+                closeQuietly(in);
+                discardFailedStore(destination);
+                result.completeExceptionally(
+                        new RuntimeException("Failed to store file: " + file.getOriginalFilename(), e));
+            } catch (RuntimeException e) {
+                closeQuietly(in);
+                discardFailedStore(destination);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
     }
 
     /**
@@ -99,28 +202,274 @@ public class LocalFileStorageServiceImpl implements ImageStorageService {
             return;
         }
 
-        // Udtræk filnavn fra URL'en
-        int lastSlash = url.lastIndexOf('/');
-        String filename = (lastSlash >= 0) ? url.substring(lastSlash + 1) : url;
-
-        // Hvis filnavn er tomt → gør ingenting
-        if (filename == null || filename.isBlank()) {
+        // Find filen, uanset om den ligger fladt eller i en shard-mappe
+        Path filePath = resolve(url);
+        if (filePath == null) {
             return;
         }
 
+        try {
+            // Slet filen hvis den findes
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete file: " + url, e);
+        } finally {
+            // Fjern den fra hukommelsen, også hvis sletningen fejler
+            imageCacheService.invalidate(filePath);
+        }
+    }
+
+    /**
+     * Sletter en fil på storageIoExecutor uden at blokere kalderen.
+     *
+     * @param url URL'en til filen der skal slettes
+     * @return future der afsluttes når filen er væk, eller fejler med samme exceptions som delete
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(String url) {
+        return CompletableFuture.runAsync(() -> delete(url), storageIoExecutor);
+    }
+
+    /**
+     * Finder filen bag en URL, så den kan serveres direkte fra disken.
+     *
+     * @param url URL'en til filen (fx "/uploads/uuid.jpg" eller "/uploads/3f/a2/uuid.jpg")
+     * @return filen, dens størrelse og ændringstid, eller null hvis den ikke findes
+     * @throws SecurityException hvis URL'en peger udenfor upload-mappen
+     */
+    @Override
+    public StoredContent locate(String url) {
+        Path filePath = resolve(url);
+        if (filePath == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return new StoredContent(filePath, attributes.size(), attributes.lastModifiedTime().toMillis(), null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finder den fysiske sti til en fil ud fra dens URL.
+     * URL'er under /uploads/ må indeholde shard-mapper, andre URL'er reduceres til filnavnet.
+     * En flad URL hvis fil er flyttet til sin shard-mappe, peger på shard-mappen.
+     *
+     * @param url URL'en til filen (fx "/uploads/uuid.jpg" eller "/uploads/3f/a2/uuid.jpg")
+     * @return stien til filen (findes ikke nødvendigvis), eller null hvis URL'en ikke indeholder et filnavn
+     * @throws SecurityException hvis URL'en peger udenfor upload-mappen
+     */
+    public Path resolve(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+
+        int prefixIndex = url.indexOf(URL_PREFIX);
+        String relativePath = prefixIndex >= 0
+                ? url.substring(prefixIndex + URL_PREFIX.length())
+                : url.substring(url.lastIndexOf('/') + 1);
+
+        if (relativePath.isBlank() || relativePath.endsWith("/")) {
+            return null;
+        }
+
         // Byg den fulde sti inde i upload-mappen
-        Path filePath = uploadPath.resolve(filename).normalize();
+        Path filePath = uploadPath.resolve(relativePath).normalize();
 
-        // Sikkerhedstjek: Må ikke slette udenfor uploadPath
-        if (!filePath.startsWith(uploadPath)) {
-            throw new SecurityException("Cannot delete file outside upload directory");
+        // Sikkerhedstjek: Må ikke pege udenfor uploadPath
+        if (!filePath.startsWith(uploadPath) || filePath.equals(uploadPath)) {
+            throw new SecurityException("Cannot access file outside upload directory");
         }
 
+        // Flad URL til en fil der er migreret til sin shard-mappe
+        if (!relativePath.contains("/") && !Files.exists(filePath)) {
+            Path shardedPath = uploadPath.resolve(shardDirectory(relativePath)).resolve(relativePath);
+            if (Files.exists(shardedPath)) {
+                return shardedPath;
+            }
+        }
+        return filePath;
+    }
+
+    /**
+     * Beregner shard-mapperne for et filnavn: to niveauer ud fra CRC32 af navnet (fx "3f/a2").
+     * Giver 65.536 mapper med jævn fordeling, og kan beregnes ud fra en flad URL uden opslag.
+     *
+     * @param filename filnavnet uden mapper
+     * @return den relative shard-mappe
+     */
+    public static String shardDirectory(String filename) {
+        CRC32 crc = new CRC32();
+        crc.update(filename.getBytes(StandardCharsets.UTF_8));
+        long hash = crc.getValue();
+        return String.format("%02x/%02x", (hash >>> 24) & 0xFF, (hash >>> 16) & 0xFF);
+    }
+
+    /**
+     * Om filnavnet er genereret af store(). Sådanne filer overskrives aldrig,
+     * så indholdet bag deres URL kan caches permanent.
+     *
+     * @param filename filnavnet uden mapper
+     * @return true hvis navnet er et UUID med extension
+     */
+    public static boolean isGeneratedFilename(String filename) {
+        int dot = filename.indexOf('.');
+        String name = dot >= 0 ? filename.substring(0, dot) : filename;
+        if (name.length() != 36) {
+            return false;
+        }
         try {
-            // Slet filen hvis den findes
-            Files.deleteIfExists(filePath);
+            return UUID.fromString(name).toString().equalsIgnoreCase(name);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Undersøger headeren fra sin egen stream, så kopieringen bagefter læser en ny stream.
+     * En mark/reset på kopiens stream ville holde hele filen i BufferedInputStreams buffer.
+     * Vælger et unikt filnavn med extension efter det fundne format og opretter dets mappe.
+     * Filens intent skrives til StorageJournal før filen oprettes.
+     *
+     * @param file den uploadede fil
+     * @return URL og sti for den nye fil
+     * @throws IllegalArgumentException hvis filen ikke er et understøttet billede
+     * @throws SecurityException hvis stien ender udenfor upload-mappen
+     */
+    private Destination prepareDestination(MultipartFile file) throws IOException {
+        ImageProbeService.ImageInfo info;
+        try (InputStream header = file.getInputStream()) {
+            info = imageProbeService.probe(header);
+        }
+
+        // Generér unikt filnavn for at undgå konflikter
+        String filename = UUID.randomUUID() + info.extension();
+        String relativePath = shardedLayout ? shardDirectory(filename) + "/" + filename : filename;
+
+        // Bestem destinationen for filen
+        Path destinationFile = this.uploadPath.resolve(relativePath).normalize();
+
+        // Sikkerhedstjek: Sørg for at filen gemmes indenfor upload-mappen
+        if (!destinationFile.startsWith(this.uploadPath)) {
+            throw new SecurityException("Cannot store file outside upload directory");
+        }
+        Files.createDirectories(destinationFile.getParent());
+
+        String url = URL_PREFIX + relativePath;
+        storageJournal.logIntent(url);
+        return new Destination(url, destinationFile);
+    }
+
+    private record Destination(String url, Path path) {
+    }
+
+    /**
+     * Rydder op efter en fejlet skrivning: den halve fil slettes og dens intent afsluttes i journalen.
+     * Kan filen ikke slettes, markeres den som forladt, så recovery fjerner den uden at vente på en genstart.
+     *
+     * @param destination filen der blev skrevet til, eller null hvis fejlen kom før intent blev logget
+     */
+    private void discardFailedStore(Destination destination) {
+        if (destination == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(destination.path());
+            storageJournal.abort(List.of(destination.url()));
         } catch (IOException e) {
-            throw new RuntimeException("Failed to delete file: " + url, e);
+            log.warn("Could not remove partially written file {}", destination.path(), e);
+            storageJournal.abandon(List.of(destination.url()));
+        }
+    }
+
+    /**
+     * Kopierer en upload til en AsynchronousFileChannel: en blok læses fra streamen, og når skrivningen
+     * af den er færdig, læses den næste. Completion handleren kører på storageIoExecutor.
+     */
+    private final class AsyncCopy implements CompletionHandler<Integer, Void> {
+
+        private final InputStream in;
+        private final AsynchronousFileChannel channel;
+        private final Destination destination;
+        private final String originalFilename;
+        private final CompletableFuture<StoredFile> result;
+        private final MessageDigest digest = sha256();
+        private final byte[] chunk = new byte[COPY_BUFFER_BYTES];
+        private ByteBuffer buffer;
+        private long position;
+
+        private AsyncCopy(InputStream in, AsynchronousFileChannel channel, Destination destination,
+                          String originalFilename, CompletableFuture<StoredFile> result) {
+            this.in = in;
+            this.channel = channel;
+            this.destination = destination;
+            this.originalFilename = originalFilename;
+            this.result = result;
+        }
+
+        void readNext() {
+            try {
+                int read = in.readNBytes(chunk, 0, chunk.length);
+                if (read == 0) {
+                    close();
+                    result.complete(new StoredFile(destination.url(), HexFormat.of().formatHex(digest.digest())));
+                    return;
+                }
+                digest.update(chunk, 0, read);
+                buffer = ByteBuffer.wrap(chunk, 0, read);
+                channel.write(buffer, position, null, this);
+            } catch (IOException | RuntimeException e) {
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void completed(Integer written, Void attachment) {
+            position += written;
+            if (buffer.hasRemaining()) {
+                channel.write(buffer, position, null, this);
+            } else {
+                readNext();
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, Void attachment) {
+            close();
+            discardFailedStore(destination);
+            result.completeExceptionally(new RuntimeException("Failed to store file: " + originalFilename, e));
+        }
+
+        private void close() {
+            closeQuietly(in);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close {}", destination.path(), e);
+            }
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException e) {
+            // Only the upload's temporary file or memory buffer, nothing to recover
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
@@ -0,0 +1,278 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.dto.response.OrphanCleanupReport;
+import org.ek.portfoliobackend.repository.ImageRepository;
+import org.ek.portfoliobackend.service.OrphanFileService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Implementering af OrphanFileService for LocalFileStorageServiceImpl.
+ * Finder filer i upload-mappen som ingen Image.url refererer til, flytter dem i karantæne,
+ * og sletter dem endeligt når karantæne-perioden er udløbet.
+
+ * Kun filer med det UUID-baserede navneformat som store() genererer kommer i betragtning,
+ * og kun når de er ældre end file.gc.min-age-hours, så uploads der endnu ikke er committed
+ * aldrig bliver ramt.
+ */
+@Slf4j
+@Service
+public class OrphanFileServiceImpl implements OrphanFileService {
+
+    private static final Pattern GENERATED_FILENAME = Pattern.compile(
+            "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}(\\.[^/\\\\]*)?$");
+
+    private static final int URL_PAGE_SIZE = 1000;
+
+    private final ImageRepository imageRepository;
+    private final Path uploadPath;
+    private final Path quarantinePath;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final Duration quarantineRetention;
+    private final int maxFilesPerSecond;
+    private final int maxQuarantinePerRun;
+
+    public OrphanFileServiceImpl(ImageRepository imageRepository,
+                                 @Value("${file.upload-dir:./uploads}") String uploadDir,
+                                 @Value("${file.gc.quarantine-dir:./uploads-quarantine}") String quarantineDir,
+                                 @Value("${file.gc.enabled:true}") boolean enabled,
+                                 @Value("${file.gc.min-age-hours:24}") long minAgeHours,
+                                 @Value("${file.gc.quarantine-retention-hours:168}") long quarantineRetentionHours,
+                                 @Value("${file.gc.max-files-per-second:500}") int maxFilesPerSecond,
+                                 @Value("${file.gc.max-quarantine-per-run:10000}") int maxQuarantinePerRun) {
+        this.imageRepository = imageRepository;
+        this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.quarantinePath = Paths.get(quarantineDir).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.minAge = Duration.ofHours(minAgeHours);
+        this.quarantineRetention = Duration.ofHours(quarantineRetentionHours);
+        this.maxFilesPerSecond = maxFilesPerSecond;
+        this.maxQuarantinePerRun = maxQuarantinePerRun;
+    }
+
+    // Runs at night by default, where upload traffic is lowest
+    @Scheduled(cron = "${file.gc.cron:0 30 3 * * *}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collectOrphans();
+        } catch (Exception e) {
+            log.error("Orphan file collection failed", e);
+        }
+    }
+
+    @Override
+    public OrphanCleanupReport collectOrphans() {
+        OrphanCleanupReport report = new OrphanCleanupReport();
+        Instant now = Instant.now();
+
+        // Purge first, so files quarantined in this run always get their full retention period
+        purgeExpiredQuarantine(now, report);
+
+        if (Files.isDirectory(uploadPath)) {
+            ReferencedFiles referenced = loadReferencedFiles();
+            quarantineOrphans(referenced, now, report);
+        }
+
+        log.info("Orphan file collection done - scanned: {}, quarantined: {}, purged: {}, reclaimed bytes: {}{}",
+                report.getFilesScanned(), report.getFilesQuarantined(), report.getFilesPurged(),
+                report.getBytesReclaimed(), report.isLimitReached() ? " (limit reached)" : "");
+        return report;
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Stream all image urls from the database page by page and keep only a compact key per file.
+     */
+    private ReferencedFiles loadReferencedFiles() {
+        ReferencedFiles referenced = new ReferencedFiles();
+        long afterId = 0L;
+
+        while (true) {
+            List<ImageRepository.ImageUrlView> page =
+                    imageRepository.findUrlsAfterId(afterId, PageRequest.of(0, URL_PAGE_SIZE));
+
+            for (ImageRepository.ImageUrlView view : page) {
+                referenced.add(filenameOf(view.getUrl()));
+                afterId = view.getId();
+            }
+
+            if (page.size() < URL_PAGE_SIZE) {
+                break;
+            }
+        }
+
+        referenced.seal();
+        return referenced;
+    }
+
+    private void quarantineOrphans(ReferencedFiles referenced, Instant now, OrphanCleanupReport report) {
+        Instant cutoff = now.minus(minAge);
+        Pacer pacer = new Pacer(maxFilesPerSecond);
+
+        try (Stream<Path> paths = Files.walk(uploadPath)) {
+            Iterator<Path> iterator = paths.iterator();
+
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+
+                if (path.startsWith(quarantinePath) || !GENERATED_FILENAME.matcher(path.getFileName().toString()).matches()) {
+                    continue;
+                }
+
+                pacer.acquire();
+
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                report.setFilesScanned(report.getFilesScanned() + 1);
+
+                if (referenced.contains(path.getFileName().toString())
+                        || attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+
+                if (report.getFilesQuarantined() >= maxQuarantinePerRun) {
+                    report.setLimitReached(true);
+                    break;
+                }
+
+                moveToQuarantine(path, now);
+                report.setFilesQuarantined(report.getFilesQuarantined() + 1);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Orphan scan of {} stopped early: {}", uploadPath, e.getMessage());
+        }
+    }
+
+    private void moveToQuarantine(Path path, Instant now) throws IOException {
+        Files.createDirectories(quarantinePath);
+        Path target = quarantinePath.resolve(path.getFileName().toString());
+        Files.move(path, target, StandardCopyOption.REPLACE_EXISTING);
+
+        // Retention is counted from the time the file entered quarantine
+        Files.setLastModifiedTime(target, FileTime.from(now));
+        log.debug("Quarantined orphan file {}", path);
+    }
+
+    private void purgeExpiredQuarantine(Instant now, OrphanCleanupReport report) {
+        if (!Files.isDirectory(quarantinePath)) {
+            return;
+        }
+
+        Instant cutoff = now.minus(quarantineRetention);
+
+        try (Stream<Path> paths = Files.list(quarantinePath)) {
+            Iterator<Path> iterator = paths.iterator();
+
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+                if (!attributes.isRegularFile() || attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+
+                if (Files.deleteIfExists(path)) {
+                    report.setFilesPurged(report.getFilesPurged() + 1);
+                    report.setBytesReclaimed(report.getBytesReclaimed() + attributes.size());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Purge of quarantine {} stopped early: {}", quarantinePath, e.getMessage());
+        }
+    }
+
+    private static String filenameOf(String url) {
+        if (url == null) {
+            return "";
+        }
+        int lastSlash = url.lastIndexOf('/');
+        return (lastSlash >= 0) ? url.substring(lastSlash + 1) : url;
+    }
+
+    /**
+     * Compact set of referenced generated filenames.
+     * Each UUID is folded to a single long (8 bytes per image) and kept in a sorted array.
+     * A collision can only make an orphan look referenced, never the other way around.
+     */
+    static final class ReferencedFiles {
+
+        private long[] keys = new long[1024];
+        private int size;
+
+        void add(String filename) {
+            if (!GENERATED_FILENAME.matcher(filename).matches()) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = keyOf(filename);
+        }
+
+        void seal() {
+            keys = Arrays.copyOf(keys, size);
+            Arrays.sort(keys);
+        }
+
+        boolean contains(String filename) {
+            return Arrays.binarySearch(keys, keyOf(filename)) >= 0;
+        }
+
+        private static long keyOf(String filename) {
+            UUID uuid = UUID.fromString(filename.substring(0, 36));
+            return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        }
+    }
+
+    /**
+     * Simple pacer that spaces filesystem operations evenly to stay below a rate.
+     */
+    private static final class Pacer {
+
+        private final long intervalNanos;
+        private long nextSlot = System.nanoTime();
+
+        Pacer(int permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? 1_000_000_000L / permitsPerSecond : 0L;
+        }
+
+        void acquire() {
+            if (intervalNanos == 0L) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (nextSlot > now) {
+                LockSupport.parkNanos(nextSlot - now);
+            }
+            nextSlot = Math.max(nextSlot, now) + intervalNanos;
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package org.ek.portfoliobackend.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.service.ImageProbeService;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Implementering af ImageStorageService der samler billeder i store segment-filer i stedet for én fil pr. billede.
+ * Bruges når file.storage.backend=pack.
+
+ * - Hvert billede tilføjes som en record (header + bytes) i enden af det aktive segment i file.pack.dir.
+ *   Når segmentet er større end file.pack.segment-bytes, startes et nyt.
+ * - Indekset (id → segment, offset, længde) ligger i hukommelsen og genopbygges ved opstart ved at læse
+ *   segmenterne igennem. En halvt skrevet record i enden af et segment (nedbrud under skrivning) skæres væk.
+ * - Læsning sker fra memory-mappede segmenter, så en GET hverken åbner eller lukker en fil.
+ *   Det aktive segment mappes i vinduer der fordobles (fra 1 MB op til file.pack.segment-bytes), og filen
+ *   forlænges med nuller til vinduets størrelse. Nye billeder læses derfor fra den eksisterende mapping i stedet
+ *   for at mappe hele segmentet igen. Når segmentet afsluttes eller lukkes, skæres den ubrugte ende væk.
+ * - Sletning tilføjer en tombstone-record. Segmenter hvor under file.pack.compaction-threshold af indholdet
+ *   stadig er i brug, komprimeres i baggrunden: levende billeder kopieres til det aktive segment og filen slettes.
+
+ * URL'er har formen "/uploads/pack/{uuid}.jpg". Filer fra LocalFileStorageServiceImpl kan ikke læses af denne
+ * backend og omvendt, og /uploads/** skal serveres af ImageServingController (file.serving.zero-copy=true).
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "pack")
+public class PackFileStorageServiceImpl implements ImageStorageService {
+
+    static final String URL_PREFIX = "/uploads/pack/";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".pack";
+
+    // Record header: magic, type, id, timestamp, data length, CRC32 of the data
+    private static final int MAGIC = 0x50414B31; // "PAK1"
+    static final int HEADER_BYTES = 4 + 1 + 16 + 8 + 4 + 4;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    // Slices of a mapped segment are addressed with int offsets
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    // First mapping of the active segment, doubled each time a read goes past it
+    static final long MIN_WINDOW_BYTES = 1L << 20;
+
+    private final Path packPath;
+    private final long segmentBytes;
+    private final double compactionThreshold;
+    private final ImageProbeService imageProbeService;
+    private final StorageJournal storageJournal;
+
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Location> index = new ConcurrentHashMap<>();
+
+    // All appends (images, tombstones and compaction copies) are written under this lock
+    private final Object writeLock = new Object();
+    private Segment active;
+
+    /**
+     * Opretter en ny PackFileStorageServiceImpl og genopbygger indekset ud fra eksisterende segmenter.
+     *
+     * @param packDir mappen med segment-filer (standard: ./packs)
+     * @param segmentBytes størrelsen hvor et nyt segment påbegyndes (højst 1 GB)
+     * @param compactionThreshold andel levende bytes hvorunder et segment komprimeres
+     * @param imageProbeService bruges til at afvise filer der ikke er billeder
+     * @param storageJournal får en intent for hvert billede før det tilføjes
+     * @throws RuntimeException hvis mappen eller segmenterne ikke kan åbnes
+     */
+    public PackFileStorageServiceImpl(@Value("${file.pack.dir:./packs}") String packDir,
+                                      @Value("${file.pack.segment-bytes:268435456}") long segmentBytes,
+                                      @Value("${file.pack.compaction-threshold:0.5}") double compactionThreshold,
+                                      ImageProbeService imageProbeService,
+                                      StorageJournal storageJournal) {
+        this.packPath = Paths.get(packDir).toAbsolutePath().normalize();
+        this.segmentBytes = Math.min(segmentBytes, MAX_SEGMENT_BYTES);
+        this.compactionThreshold = compactionThreshold;
+        this.imageProbeService = imageProbeService;
+        this.storageJournal = storageJournal;
+        try {
+            Files.createDirectories(this.packPath);
+            recover();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open pack directory: " + packDir, e);
+        }
+    }
+
+    /**
+     * Tilføjer billedet til det aktive segment.
+     * Filen læses ind i hukommelsen først (højst spring.servlet.multipart.max-file-size),
+     * så skrive-låsen kun holdes mens bytes skrives.
+     *
+     * @param file filen der skal gemmes (må ikke være tom)
+     * @return URL'en til billedet (fx "/uploads/pack/uuid.jpg") og SHA-256 af indholdet
+     * @throws IllegalArgumentException hvis filen er tom eller ikke er et understøttet billede
+     * @throws RuntimeException hvis filen ikke kan gemmes
+     */
+    @Override
+    public StoredFile storeFile(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Cannot store empty file");
+        }
+
+        byte[] bytes;
+        try {
+            bytes = file.getBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + file.getOriginalFilename(), e);
+        }
+        ImageProbeService.ImageInfo info = imageProbeService.probe(new ByteArrayInputStream(bytes));
+
+        UUID id = UUID.randomUUID();
+        String url = URL_PREFIX + id + info.extension();
+        storageJournal.logIntent(url);
+        try {
+            synchronized (writeLock) {
+                Location location = append(PUT, id, System.currentTimeMillis(), ByteBuffer.wrap(bytes));
+                index.put(id, location);
+                location.segment().liveBytes.addAndGet(location.recordBytes());
+            }
+        } catch (IOException e) {
+            // Nothing was indexed, so no image exists under the URL and its intent can be closed
+            storageJournal.abort(List.of(url));
+            throw new RuntimeException("Failed to store file: " + file.getOriginalFilename(), e);
+        }
+
+        return new StoredFile(url, HexFormat.of().formatHex(sha256().digest(bytes)));
+    }
+
+    /**
+     * Markerer billedet som slettet med en tombstone. Pladsen frigives når segmentet komprimeres.
+     * Håndterer gracefully hvis URL er null, tom, eller billedet ikke findes.
+     *
+     * @param url URL'en til billedet (fx "/uploads/pack/uuid.jpg")
+     * @throws RuntimeException hvis tombstonen ikke kan skrives
+     */
+    @Override
+    public void delete(String url) {
+        UUID id = idOf(url);
+        if (id == null) {
+            return;
+        }
+
+        try {
+            synchronized (writeLock) {
+                Location location = index.get(id);
+                if (location == null) {
+                    return;
+                }
+                // The tombstone names the segment of the deleted image, so compaction knows when it can be dropped
+                append(DELETE, id, System.currentTimeMillis(), ByteBuffer.allocate(4).putInt(0, location.segment().id));
+                index.remove(id);
+                location.segment().liveBytes.addAndGet(-location.recordBytes());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete file: " + url, e);
+        }
+    }
+
+    /**
+     * Finder billedet i sit memory-mappede segment.
+     *
+     * @param url URL'en til billedet (fx "/uploads/pack/uuid.jpg")
+     * @return segmentet, billedets størrelse og tidspunkt, og dets bytes, eller null hvis det ikke findes
+     */
+    @Override
+    public StoredContent locate(String url) {
+        UUID id = idOf(url);
+        Location location = id != null ? index.get(id) : null;
+        if (location == null) {
+            return null;
+        }
+        try {
+            ByteBuffer content = location.segment().slice(location.offset(), location.length());
+            return new StoredContent(location.segment().path, location.length(), location.timestamp(), content);
+        } catch (IOException e) {
+            log.warn("Could not map pack segment {}: {}", location.segment().path.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Runs every 10 minutes by default
+    @Scheduled(fixedDelayString = "${file.pack.compaction-interval-ms:600000}")
+    public void scheduledCompaction() {
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("Pack segment compaction failed", e);
+        }
+    }
+
+    /**
+     * Komprimerer alle afsluttede segmenter hvor andelen af levende bytes er under file.pack.compaction-threshold.
+     *
+     * @return antal komprimerede segmenter
+     * @throws IOException hvis et segment ikke kan læses eller skrives
+     */
+    public synchronized int compact() throws IOException {
+        int compacted = 0;
+        for (Segment segment : List.copyOf(segments.values())) {
+            synchronized (writeLock) {
+                if (segment == active) {
+                    continue;
+                }
+            }
+            if (segment.size > 0 && (double) segment.liveBytes.get() / segment.size >= compactionThreshold) {
+                continue;
+            }
+            compactSegment(segment);
+            compacted++;
+        }
+        return compacted;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Segment segment : segments.values()) {
+            try {
+                // Cut off the zeros the active segment was grown with, so the file ends at its last record
+                segment.seal();
+                segment.channel.force(true);
+                segment.channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close pack segment {}: {}", segment.path.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Rebuild the index from all segments, oldest first, so later records win.
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(packPath)) {
+            files = paths.filter(path -> segmentId(path) > 0).sorted().toList();
+        }
+
+        for (Path file : files) {
+            Segment segment = new Segment(segmentId(file), file);
+            segments.put(segment.id, segment);
+
+            long fileSize = segment.channel.size();
+            MappedByteBuffer mapped = segment.map(fileSize);
+            long end = scan(mapped, fileSize, (type, id, timestamp, offset, length) -> {
+                Location location = new Location(segment, offset, length, timestamp);
+                Location previous = type == PUT ? index.put(id, location) : index.remove(id);
+                if (type == PUT) {
+                    segment.liveBytes.addAndGet(location.recordBytes());
+                }
+                if (previous != null) {
+                    previous.segment().liveBytes.addAndGet(-previous.recordBytes());
+                }
+            });
+
+            if (end < fileSize) {
+                if (end + 4 <= fileSize && mapped.getInt((int) end) == 0) {
+                    // Not closed cleanly while it was the active segment
+                    log.info("Pack segment {} has {} bytes of unused mapped space after offset {}, truncating",
+                            file.getFileName(), fileSize - end, end);
+                } else {
+                    log.warn("Pack segment {} has {} bytes of incomplete records after offset {}, truncating",
+                            file.getFileName(), fileSize - end, end);
+                }
+                segment.truncate(end);
+            }
+            segment.size = end;
+        }
+
+        active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+        active.growTo = segmentBytes;
+        log.info("Opened {} pack segments with {} images", segments.size(), index.size());
+    }
+
+    /**
+     * Copy the live images to the active segment, then delete the segment file.
+     * Tombstones are copied too while the segment holding the deleted image still exists,
+     * otherwise that image would come back on recovery.
+     */
+    private void compactSegment(Segment segment) throws IOException {
+        long[] moved = new long[2];
+
+        scan(segment.map(segment.size), segment.size, (type, id, timestamp, offset, length) -> {
+            synchronized (writeLock) {
+                if (type == PUT) {
+                    Location current = index.get(id);
+                    if (current != null && current.segment() == segment && current.offset() == offset) {
+                        Location copy = append(PUT, id, timestamp, segment.slice(offset, length));
+                        index.put(id, copy);
+                        copy.segment().liveBytes.addAndGet(copy.recordBytes());
+                        segment.liveBytes.addAndGet(-copy.recordBytes());
+                        moved[0]++;
+                        moved[1] += length;
+                    }
+                } else if (length == 4) {
+                    ByteBuffer tombstone = segment.slice(offset, length);
+                    int deletedSegment = tombstone.getInt(0);
+                    if (deletedSegment != segment.id && segments.containsKey(deletedSegment)) {
+                        append(DELETE, id, timestamp, tombstone);
+                    }
+                }
+            }
+        });
+
+        segments.remove(segment.id);
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+        log.info("Compacted pack segment {}: moved {} images ({} bytes), reclaimed {} bytes",
+                segment.path.getFileName(), moved[0], moved[1], segment.size - moved[1]);
+    }
+
+    /**
+     * Append one record to the active segment. Data is written before the header,
+     * so a crash in between leaves bytes that recovery does not recognise as a record.
+     * Caller must hold writeLock.
+     */
+    private Location append(byte type, UUID id, long timestamp, ByteBuffer data) throws IOException {
+        if (active.size >= segmentBytes) {
+            active.seal();
+            active.channel.force(true);
+            active = createSegment(active.id + 1);
+            active.growTo = segmentBytes;
+        }
+
+        Segment segment = active;
+        int length = data.remaining();
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .put(type)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(timestamp)
+                .putInt(length)
+                .putInt((int) crc.getValue())
+                .flip();
+
+        long position = segment.size;
+        try {
+            writeFully(segment.channel, data.duplicate(), position + HEADER_BYTES);
+            writeFully(segment.channel, header, position);
+        } catch (IOException e) {
+            // Remove the partial record, the next append would overwrite it anyway
+            segment.truncate(position);
+            throw e;
+        }
+        segment.size = position + HEADER_BYTES + length;
+        return new Location(segment, position + HEADER_BYTES, length, timestamp);
+    }
+
+    /**
+     * Visit all complete records in a mapped segment.
+     *
+     * @return the offset after the last complete record
+     */
+    private static long scan(ByteBuffer mapped, long size, RecordVisitor visitor) throws IOException {
+        long position = 0;
+        while (position + HEADER_BYTES <= size) {
+            ByteBuffer header = mapped.slice((int) position, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                break;
+            }
+            byte type = header.get();
+            UUID id = new UUID(header.getLong(), header.getLong());
+            long timestamp = header.getLong();
+            int length = header.getInt();
+            int checksum = header.getInt();
+
+            long offset = position + HEADER_BYTES;
+            if ((type != PUT && type != DELETE) || length < 0 || offset + length > size) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice((int) offset, length));
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            visitor.visit(type, id, timestamp, offset, length);
+            position = offset + length;
+        }
+        return position;
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment segment = new Segment(id, packPath.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static int segmentId(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // The id is the filename without extension, e.g. "/uploads/pack/uuid.jpg"
+    private static UUID idOf(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String filename = url.substring(url.lastIndexOf('/') + 1);
+        int dot = filename.indexOf('.');
+        String name = dot >= 0 ? filename.substring(0, dot) : filename;
+        try {
+            UUID id = UUID.fromString(name);
+            return id.toString().equalsIgnoreCase(name) ? id : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Antal billeder i indekset. Nyttig til testing.
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Antal gange et segment er blevet memory-mappet. Nyttig til testing.
+     */
+    int mappings() {
+        return segments.values().stream().mapToInt(segment -> segment.mappings).sum();
+    }
+
+    /**
+     * Segment-filerne i rækkefølge. Nyttig til testing.
+     */
+    List<Path> segmentFiles() {
+        List<Path> files = new ArrayList<>();
+        segments.values().forEach(segment -> files.add(segment.path));
+        return files;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(byte type, UUID id, long timestamp, long offset, int length) throws IOException;
+    }
+
+    private record Location(Segment segment, long offset, int length, long timestamp) {
+
+        // Live bytes include the header, so a segment of deleted images and tombstones counts as empty
+        long recordBytes() {
+            return HEADER_BYTES + length;
+        }
+    }
+
+    private static final class Segment {
+
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final AtomicLong liveBytes = new AtomicLong();
+
+        // End of the last complete record, written under writeLock
+        volatile long size;
+        // Largest window the active segment is mapped in, 0 once the segment no longer grows
+        volatile long growTo;
+        private volatile MappedByteBuffer mapping;
+        private int mappings;
+
+        Segment(int id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Read-only view of a range of the segment. The active segment grows,
+         * so it is mapped again when a range past the current mapping is requested.
+         */
+        ByteBuffer slice(long offset, int length) throws IOException {
+            return map(offset + length).slice((int) offset, length);
+        }
+
+        // A mapping that is gone must not keep the file longer than its records
+        synchronized void truncate(long end) throws IOException {
+            channel.truncate(end);
+            mapping = null;
+        }
+
+        // Stop growing and cut the file at the last record. Readers of the old mapping stay within records
+        synchronized void seal() throws IOException {
+            if (growTo > 0) {
+                growTo = 0;
+                truncate(size);
+            }
+        }
+
+        /**
+         * Mapping covering at least end. A finished segment is mapped as a whole. The active segment is mapped
+         * in a window twice as large as the previous one, so most new records are already covered.
+         * Mapping past the end of the file grows it with zeros (the channel is writable).
+         */
+        MappedByteBuffer map(long end) throws IOException {
+            MappedByteBuffer current = mapping;
+            if (current != null && current.capacity() >= end) {
+                return current;
+            }
+            synchronized (this) {
+                if (mapping == null || mapping.capacity() < end) {
+                    long capacity = channel.size();
+                    if (growTo > 0) {
+                        long previous = mapping != null ? mapping.capacity() : 0;
+                        long window = Math.min(Math.max(previous * 2, MIN_WINDOW_BYTES), growTo);
+                        capacity = Math.max(end, window);
+                    }
+                    mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+                    mappings++;
+                }
+                return mapping;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.exception.custom.ServiceUnavailableException;
+import org.ek.portfoliobackend.service.PasswordHashingService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Implementering af PasswordHashingService med BCryptPasswordEncoder.
+
+ * Selve hashingen køres på passwordHashingExecutor (se AsyncConfig), der har et fast antal tråde og en
+ * begrænset kø. Et burst af oprettelser eller logins bruger derfor højst de tråde af CPU'en, mens
+ * request-trådene venter uden at bruge CPU. Er køen fuld, afvises kaldet med 503.
+
+ * Omkostningen (security.password.bcrypt-cost) gemmes i selve hashen, så gamle hashes med lavere omkostning
+ * stadig kan verificeres, og verify() laver en ny hash når en bruger med en gammel hash logger ind.
+ */
+@Slf4j
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+    private final BCryptPasswordEncoder encoder;
+    private final Executor hashingExecutor;
+
+    public PasswordHashingServiceImpl(@Value("${security.password.bcrypt-cost:10}") int cost,
+                                      @Qualifier("passwordHashingExecutor") Executor hashingExecutor) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return onHashingPool(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public Verification verify(String rawPassword, String encodedHash) {
+        return onHashingPool(() -> {
+            if (encodedHash == null || !encoder.matches(rawPassword, encodedHash)) {
+                return new Verification(false, null);
+            }
+            if (encoder.upgradeEncoding(encodedHash)) {
+                log.debug("Upgrading password hash to the configured BCrypt cost");
+                return new Verification(true, encoder.encode(rawPassword));
+            }
+            return new Verification(true, null);
+        });
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    private <T> T onHashingPool(Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(task, hashingExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many password operations in progress, try again later", 1);
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.ek.portfoliobackend.service.impl;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.dto.request.BulkImportImageEntry;
+import org.ek.portfoliobackend.dto.request.BulkImportManifestEntry;
+import org.ek.portfoliobackend.dto.response.BulkImportResponse;
+import org.ek.portfoliobackend.dto.response.BulkImportRowResult;
+import org.ek.portfoliobackend.mapper.ProjectMapper;
+import org.ek.portfoliobackend.model.Image;
+import org.ek.portfoliobackend.model.ImageType;
+import org.ek.portfoliobackend.model.Project;
+import org.ek.portfoliobackend.repository.ProjectRepository;
+import org.ek.portfoliobackend.service.FileCleanupService;
+import org.ek.portfoliobackend.service.ImagePlaceholderService;
+import org.ek.portfoliobackend.service.ImagePlaceholderService.Placeholder;
+import org.ek.portfoliobackend.service.ImageProbeService;
+import org.ek.portfoliobackend.service.ImageProbeService.ImageInfo;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.ProjectImportService;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Implementering af ProjectImportService.
+
+ * Flow:
+ *  1. Arkivet læses som en stream, én entry ad gangen. Billeder gemmes, og deres placeholder beregnes, parallelt
+ *     via importStorageExecutor mens resten af arkivet læses, og manifestet parses linje for linje.
+ *  2. Hver manifest-linje valideres (projektfelter, billedfiler, mindst ét BEFORE og ét AFTER billede).
+ *  3. Gyldige linjer gemmes i transaktioner af file.import.batch-size projekter.
+ *     Fejler en batch, gemmes dens linjer enkeltvis så kun de fejlende linjer afvises.
+ *  4. Gemte filer som ingen oprettet projekt bruger, overgives til FileCleanupService.
+ *     Derefter committes alle filernes intents i StorageJournal, da databasen nu afgør hvad der sker med dem.
+ *     Stopper importen før, fjerner StorageRecoveryService ved næste opstart de filer intet Image bruger.
+ */
+@Slf4j
+@Service
+public class ProjectImportServiceImpl implements ProjectImportService {
+
+    static final String MANIFEST_NAME = "manifest.ndjson";
+
+    private final ProjectRepository projectRepository;
+    private final ImageStorageService imageStorageService;
+    private final ImageProbeService imageProbeService;
+    private final ImagePlaceholderService imagePlaceholderService;
+    private final FileCleanupService fileCleanupService;
+    private final StorageJournal storageJournal;
+    private final ProjectMapper projectMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor importStorageExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long maxEntryBytes;
+
+    public ProjectImportServiceImpl(ProjectRepository projectRepository,
+                                    ImageStorageService imageStorageService,
+                                    ImageProbeService imageProbeService,
+                                    ImagePlaceholderService imagePlaceholderService,
+                                    FileCleanupService fileCleanupService,
+                                    StorageJournal storageJournal,
+                                    ProjectMapper projectMapper,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    @Qualifier("importStorageExecutor") AsyncTaskExecutor importStorageExecutor,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${file.import.batch-size:100}") int batchSize,
+                                    @Value("${file.import.max-entry-bytes:10485760}") long maxEntryBytes) {
+        this.projectRepository = projectRepository;
+        this.imageStorageService = imageStorageService;
+        this.imageProbeService = imageProbeService;
+        this.imagePlaceholderService = imagePlaceholderService;
+        this.fileCleanupService = fileCleanupService;
+        this.storageJournal = storageJournal;
+        this.projectMapper = projectMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importStorageExecutor = importStorageExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    @Override
+    public BulkImportResponse importArchive(InputStream archive) {
+        List<ManifestRow> rows = null;
+        Map<String, Future<String>> storedFiles = new HashMap<>();
+        Map<String, String> rejectedFiles = new HashMap<>();
+        Map<String, ImageInfo> imageInfos = new ConcurrentHashMap<>();
+        Map<String, String> contentHashes = new ConcurrentHashMap<>();
+        Map<String, Placeholder> placeholders = new ConcurrentHashMap<>();
+
+        // 1. Stream the archive: store images in parallel, parse the manifest
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+
+                String name = entry.getName();
+                if (name.equals(MANIFEST_NAME) || name.endsWith("/" + MANIFEST_NAME)) {
+                    rows = parseManifest(zip);
+                    continue;
+                }
+
+                // A second entry with the same name would make the manifest ambiguous, and replacing the
+                // first Future would leave its stored file outside cleanup. Both stay rejected instead.
+                if (storedFiles.containsKey(name) || rejectedFiles.containsKey(name)) {
+                    rejectedFiles.put(name, "Archive contains more than one file named '" + name + "'");
+                    continue;
+                }
+
+                byte[] content = zip.readNBytes((int) Math.min(maxEntryBytes + 1, Integer.MAX_VALUE - 8));
+                if (content.length > maxEntryBytes) {
+                    rejectedFiles.put(name, "File exceeds maximum size of " + maxEntryBytes + " bytes");
+                    continue;
+                }
+
+                MultipartFile file = new ByteArrayMultipartFile(name, contentTypeOf(name), content);
+                storedFiles.put(name, importStorageExecutor.submit(() -> {
+                    imageInfos.put(name, imageProbeService.probe(file));
+                    ImageStorageService.StoredFile storedFile = imageStorageService.storeFile(file);
+                    contentHashes.put(name, storedFile.contentHash());
+                    Placeholder placeholder = imagePlaceholderService.compute(file);
+                    if (placeholder != null) {
+                        placeholders.put(name, placeholder);
+                    }
+                    return storedFile.url();
+                }));
+            }
+        } catch (IOException e) {
+            Collection<String> stored = waitForStoredFiles(storedFiles, rejectedFiles).values();
+            fileCleanupService.scheduleDeletions(stored);
+            storageJournal.commit(stored);
+            throw new IllegalArgumentException("Could not read import archive: " + e.getMessage(), e);
+        }
+
+        Map<String, String> urls = waitForStoredFiles(storedFiles, rejectedFiles);
+
+        if (rows == null) {
+            fileCleanupService.scheduleDeletions(urls.values());
+            storageJournal.commit(urls.values());
+            throw new IllegalArgumentException("Import archive must contain a " + MANIFEST_NAME);
+        }
+
+        // 2. Validate each manifest line
+        BulkImportRowResult[] results = new BulkImportRowResult[rows.size()];
+        List<ManifestRow> validRows = new ArrayList<>();
+        // Each stored file may back only one image, deleting it would otherwise leave the other image dangling
+        Set<String> claimedFiles = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ManifestRow row = rows.get(i);
+            String error = row.parseError != null ? row.parseError : validateRow(row.entry, urls, rejectedFiles, claimedFiles);
+            if (error != null) {
+                results[i] = BulkImportRowResult.failed(row.line, error);
+            } else {
+                row.index = i;
+                validRows.add(row);
+            }
+        }
+
+        // 3. Persist valid lines in batched transactions
+        Set<String> usedUrls = new HashSet<>();
+        for (int from = 0; from < validRows.size(); from += batchSize) {
+            List<ManifestRow> batch = validRows.subList(from, Math.min(from + batchSize, validRows.size()));
+            persistBatch(batch, urls, imageInfos, contentHashes, placeholders, results, usedUrls);
+        }
+
+        // 4. Files that no created project references are removed again
+        List<String> unusedUrls = urls.values().stream()
+                .filter(url -> !usedUrls.contains(url))
+                .toList();
+        fileCleanupService.scheduleDeletions(unusedUrls);
+        storageJournal.commit(urls.values());
+
+        BulkImportResponse response = new BulkImportResponse(Arrays.asList(results));
+        log.info("Bulk import finished - lines: {}, created: {}, failed: {}",
+                response.getTotal(), response.getCreated(), response.getFailed());
+        return response;
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Parse the NDJSON manifest. Lines that cannot be parsed become failed rows instead of aborting the import.
+     */
+    private List<ManifestRow> parseManifest(InputStream manifest) throws IOException {
+        List<ManifestRow> rows = new ArrayList<>();
+        // Do not close the reader, it would close the surrounding ZipInputStream
+        BufferedReader reader = new BufferedReader(new InputStreamReader(manifest, StandardCharsets.UTF_8));
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                rows.add(new ManifestRow(lineNumber, objectMapper.readValue(line, BulkImportManifestEntry.class), null));
+            } catch (RuntimeException e) {
+                rows.add(new ManifestRow(lineNumber, null, "Invalid manifest line: " + e.getMessage()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Wait for all parallel stores to finish.
+     *
+     * @return map of archive entry name to stored URL, failed entries are added to rejectedFiles
+     */
+    private Map<String, String> waitForStoredFiles(Map<String, Future<String>> storedFiles,
+                                                   Map<String, String> rejectedFiles) {
+        Map<String, String> urls = new HashMap<>();
+        for (Map.Entry<String, Future<String>> stored : storedFiles.entrySet()) {
+            try {
+                urls.put(stored.getKey(), stored.getValue().get());
+            } catch (ExecutionException e) {
+                rejectedFiles.put(stored.getKey(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedFiles.put(stored.getKey(), "Import was interrupted");
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Validate a manifest line. The files of a valid line are added to claimedFiles,
+     * so a later line (or the same line) referencing one of them again is rejected.
+     *
+     * @return error message for the line, or null if it is valid
+     */
+    private String validateRow(BulkImportManifestEntry entry, Map<String, String> urls, Map<String, String> rejectedFiles,
+                               Set<String> claimedFiles) {
+        Set<ConstraintViolation<BulkImportManifestEntry>> violations = validator.validate(entry);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        boolean hasBeforeImage = false;
+        boolean hasAfterImage = false;
+        Set<String> rowFiles = new HashSet<>();
+        for (BulkImportImageEntry image : entry.getImages()) {
+            if (!rowFiles.add(image.getFile())) {
+                return "Image '" + image.getFile() + "' is used more than once in this line";
+            }
+            if (claimedFiles.contains(image.getFile())) {
+                return "Image '" + image.getFile() + "' is already used by another line";
+            }
+            if (rejectedFiles.containsKey(image.getFile())) {
+                return "Image '" + image.getFile() + "' could not be stored: " + rejectedFiles.get(image.getFile());
+            }
+            if (!urls.containsKey(image.getFile())) {
+                return "Image '" + image.getFile() + "' was not found in the archive";
+            }
+            hasBeforeImage |= image.getImageType() == ImageType.BEFORE;
+            hasAfterImage |= image.getImageType() == ImageType.AFTER;
+        }
+
+        if (!hasBeforeImage) {
+            return "At least one BEFORE image must be provided";
+        }
+        if (!hasAfterImage) {
+            return "At least one AFTER image must be provided";
+        }
+        claimedFiles.addAll(rowFiles);
+        return null;
+    }
+
+    private void persistBatch(List<ManifestRow> batch, Map<String, String> urls, Map<String, ImageInfo> imageInfos,
+                              Map<String, String> contentHashes, Map<String, Placeholder> placeholders,
+                              BulkImportRowResult[] results, Set<String> usedUrls) {
+        try {
+            List<Project> saved = transactionTemplate.execute(status ->
+                    projectRepository.saveAll(batch.stream().map(row -> toProject(row.entry, urls, imageInfos, contentHashes, placeholders)).toList()));
+
+            for (int i = 0; i < batch.size(); i++) {
+                markCreated(batch.get(i), saved.get(i), urls, results, usedUrls);
+            }
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                ManifestRow row = batch.get(0);
+                results[row.index] = BulkImportRowResult.failed(row.line, "Could not save project: " + batchFailure.getMessage());
+                return;
+            }
+
+            // Find the failing lines by saving the batch one line at a time
+            log.warn("Bulk import batch of {} lines failed, retrying line by line: {}", batch.size(), batchFailure.getMessage());
+            for (ManifestRow row : batch) {
+                persistBatch(List.of(row), urls, imageInfos, contentHashes, placeholders, results, usedUrls);
+            }
+        }
+    }
+
+    private Project toProject(BulkImportManifestEntry entry, Map<String, String> urls,
+                              Map<String, ImageInfo> imageInfos, Map<String, String> contentHashes,
+                              Map<String, Placeholder> placeholders) {
+        Project project = projectMapper.toProjectEntity(entry.getProject());
+        for (BulkImportImageEntry image : entry.getImages()) {
+            Image entity = projectMapper.toImage(
+                    urls.get(image.getFile()),
+                    image.getImageType(),
+                    image.isFeatured(),
+                    project
+            );
+            projectMapper.applyImageInfo(entity, imageInfos.get(image.getFile()));
+            projectMapper.applyPlaceholder(entity, placeholders.get(image.getFile()));
+            entity.setContentHash(contentHashes.get(image.getFile()));
+            project.getImages().add(entity);
+            project.countImage(image.getImageType());
+        }
+        return project;
+    }
+
+    private void markCreated(ManifestRow row, Project project, Map<String, String> urls,
+                             BulkImportRowResult[] results, Set<String> usedUrls) {
+        results[row.index] = BulkImportRowResult.created(row.line, project.getId());
+        for (BulkImportImageEntry image : row.entry.getImages()) {
+            usedUrls.add(urls.get(image.getFile()));
+        }
+    }
+
+    private String contentTypeOf(String name) {
+        return MediaTypeFactory.getMediaType(name)
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    /**
+     * A parsed manifest line with its line number, or the reason it could not be parsed.
+     */
+    private static final class ManifestRow {
+        private final int line;
+        private final BulkImportManifestEntry entry;
+        private final String parseError;
+        private int index;
+
+        private ManifestRow(int line, BulkImportManifestEntry entry, String parseError) {
+            this.line = line;
+            this.entry = entry;
+            this.parseError = parseError;
+        }
+    }
+}
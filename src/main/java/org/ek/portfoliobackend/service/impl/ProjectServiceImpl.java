@@ -1,9 +1,12 @@
 package org.ek.portfoliobackend.service.impl;
 
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.dto.request.BulkDeleteRequest;
 import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
 import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
 import org.ek.portfoliobackend.dto.request.UpdateImageRequest;
 import org.ek.portfoliobackend.dto.request.UpdateProjectRequest;
+import org.ek.portfoliobackend.dto.response.BulkDeleteResponse;
 import org.ek.portfoliobackend.dto.response.ImageResponse;
 import org.ek.portfoliobackend.dto.response.ProjectResponse;
 import org.ek.portfoliobackend.mapper.ProjectMapper;
@@ -14,36 +17,64 @@ import org.ek.portfoliobackend.model.Project;
 import org.ek.portfoliobackend.model.WorkType;
 import org.ek.portfoliobackend.repository.ImageRepository;
 import org.ek.portfoliobackend.repository.ProjectRepository;
+import org.ek.portfoliobackend.service.FileCleanupService;
+import org.ek.portfoliobackend.service.ImagePlaceholderService;
+import org.ek.portfoliobackend.service.ImagePlaceholderService.Placeholder;
+import org.ek.portfoliobackend.service.ImageProbeService;
+import org.ek.portfoliobackend.service.ImageProbeService.ImageInfo;
 import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.ImageStorageService.StoredFile;
 import org.ek.portfoliobackend.service.ProjectService;
+import org.ek.portfoliobackend.service.StorageJournal;
 import org.hibernate.annotations.NotFound;
 import org.springframework.boot.context.config.ConfigDataResourceNotFoundException;
+import org.ek.portfoliobackend.exception.custom.PreconditionFailedException;
 import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+@Slf4j
 @Service
 public class ProjectServiceImpl implements ProjectService {
 
+    // Max number of ids in one IN (...) list for bulk statements
+    private static final int BULK_DELETE_CHUNK_SIZE = 500;
+
     private final ProjectRepository projectRepository;
     private final ImageRepository imageRepository;
     private final ImageStorageService imageStorageService;
     private final ProjectMapper projectMapper;
+    private final FileCleanupService fileCleanupService;
+    private final ImageProbeService imageProbeService;
+    private final StorageJournal storageJournal;
+    private final ImagePlaceholderService imagePlaceholderService;
 
     public ProjectServiceImpl(ProjectRepository projectRepository,
                               ImageRepository imageRepository,
                               ImageStorageService imageStorageService,
-                              ProjectMapper projectMapper) {
+                              ProjectMapper projectMapper,
+                              FileCleanupService fileCleanupService,
+                              ImageProbeService imageProbeService,
+                              StorageJournal storageJournal,
+                              ImagePlaceholderService imagePlaceholderService) {
         this.projectRepository = projectRepository;
         this.imageRepository = imageRepository;
         this.imageStorageService = imageStorageService;
         this.projectMapper = projectMapper;
+        this.fileCleanupService = fileCleanupService;
+        this.imageProbeService = imageProbeService;
+        this.storageJournal = storageJournal;
+        this.imagePlaceholderService = imagePlaceholderService;
     }
 
     @Override
@@ -58,29 +89,42 @@ public class ProjectServiceImpl implements ProjectService {
         // Validate that at least one BEFORE and one AFTER image is provided
         validateImageTypes(imageMetadata);
 
-        // Create project entity from request
-        Project project = projectMapper.toProjectEntity(request);
+        // Reject non-images before anything is saved
+        List<ImageInfo> imageInfos = probeImages(images);
 
-        // Save project first to get the ID for image references
-        project = projectRepository.save(project);
+        // Start storing all files at once, their I/O overlaps each other and the project insert
+        List<CompletableFuture<StoredFile>> storing = startStoring(images);
 
         // Process and store images
         List<Image> savedImages = new ArrayList<>();
         try {
+            // Decode the placeholders while the files are written
+            List<Placeholder> placeholders = computePlaceholders(images);
+
+            // Create project entity from request
+            Project project = projectMapper.toProjectEntity(request);
+            for (ImageUploadRequest metadata : imageMetadata) {
+                project.countImage(metadata.getImageType());
+            }
+
+            // Save project first to get the ID for image references
+            project = projectRepository.save(project);
+
+            List<StoredFile> storedFiles = awaitStored(storing);
             for (int i = 0; i < images.size(); i++) {
-                MultipartFile imageFile = images.get(i);
                 ImageUploadRequest metadata = imageMetadata.get(i);
-
-                // Store the image file and get the URL
-                String imageUrl = imageStorageService.store(imageFile);
+                StoredFile storedFile = storedFiles.get(i);
 
                 // Create image entity
                 Image image = projectMapper.toImage(
-                        imageUrl,
+                        storedFile.url(),
                         metadata.getImageType(),
                         metadata.isFeatured(),
                         project
                 );
+                projectMapper.applyImageInfo(image, imageInfos.get(i));
+                projectMapper.applyPlaceholder(image, placeholders.get(i));
+                image.setContentHash(storedFile.contentHash());
 
                 // Save image entity
                 Image savedImage = imageRepository.save(image);
@@ -94,14 +138,8 @@ public class ProjectServiceImpl implements ProjectService {
             return projectMapper.toResponse(project);
 
         } catch (Exception e) {
-            // If any image storage fails, clean up already stored images
-            for (Image savedImage : savedImages) {
-                try {
-                    imageStorageService.delete(savedImage.getUrl());
-                } catch (Exception cleanupException) {
-                    // Log cleanup failure but don't throw
-                }
-            }
+            // If any image storage fails, clean up the images that were stored
+            discardStored(storing);
             throw new RuntimeException("Failed to store images: " + e.getMessage(), e);
         }
     }
@@ -109,18 +147,19 @@ public class ProjectServiceImpl implements ProjectService {
     // Update project
     @Override
     @Transactional
-    public ProjectResponse updateProject(Long id, UpdateProjectRequest request) {
+    public ProjectResponse updateProject(Long id, UpdateProjectRequest request, Long expectedVersion) {
 
         Project project = findProjectById(id);
+        checkVersion(project, expectedVersion);
 
         // Update project fields with mapper
         projectMapper.updateProjectEntity(request, project);
 
         // Save updated project
-        Project updatedProject = projectRepository.save(project);
+        saveVersioned(project);
 
         // return response DTO
-        return projectMapper.toResponse(updatedProject);
+        return projectMapper.toResponse(project);
     }
 
 //    // Update image
@@ -165,49 +204,63 @@ public class ProjectServiceImpl implements ProjectService {
     @Transactional
     public ProjectResponse addImagesToProject(Long projectId,
                                               List<MultipartFile> images,
-                                              List<ImageUploadRequest> imageMetadata) {
+                                              List<ImageUploadRequest> imageMetadata,
+                                              Long expectedVersion) {
         // Validate inputs
         validateInputs(images, imageMetadata);
+        List<ImageInfo> imageInfos = probeImages(images);
         // Find existing project
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+        checkVersion(project, expectedVersion);
 
-        // store and create new image entities
+        // store all files at once and create new image entities
+        List<CompletableFuture<StoredFile>> storing = startStoring(images);
         List<Image> newImages = new ArrayList<>();
+        int beforeAdded = 0;
+        int afterAdded = 0;
         try {
+            List<Placeholder> placeholders = computePlaceholders(images);
+            List<StoredFile> storedFiles = awaitStored(storing);
             for (int i = 0; i < images.size(); i++) {
-                MultipartFile imageFile = images.get(i);
                 ImageUploadRequest metadata = imageMetadata.get(i);
-
-                // Store the image file and get the URL
-                String imageUrl = imageStorageService.store(imageFile);
+                StoredFile storedFile = storedFiles.get(i);
 
                 // Create image entity
                 Image image = projectMapper.toImage(
-                        imageUrl,
+                        storedFile.url(),
                         metadata.getImageType(),
                         metadata.isFeatured(),
                         project
                 );
+                projectMapper.applyImageInfo(image, imageInfos.get(i));
+                projectMapper.applyPlaceholder(image, placeholders.get(i));
+                image.setContentHash(storedFile.contentHash());
 
                 // Save image entity
                 Image savedImage = imageRepository.save(image);
                 newImages.add(savedImage);
+
+                if (metadata.getImageType() == ImageType.BEFORE) {
+                    beforeAdded++;
+                } else if (metadata.getImageType() == ImageType.AFTER) {
+                    afterAdded++;
+                }
             }
 
             // Add new images to project
+            projectRepository.changeImageCounts(projectId, beforeAdded, afterAdded);
             project.getImages().addAll(newImages);
+            saveVersioned(project);
 
             // convert to response DTO
             return projectMapper.toResponse(project);
         } catch (Exception e) {
             // Cleanup stored images on failure
-            for (Image savedImage : newImages) {
-                try {
-                    imageStorageService.delete(savedImage.getUrl());
-                } catch (Exception cleanupException) {
-                    // Log cleanup failure but don't throw
-                }
+            discardStored(storing);
+            // A concurrent edit is reported as such, not as a storage failure
+            if (e instanceof OptimisticLockingFailureException conflict) {
+                throw conflict;
             }
             throw new RuntimeException("Failed to store images: " + e.getMessage(), e);
         }
@@ -215,10 +268,12 @@ public class ProjectServiceImpl implements ProjectService {
 
     @Override
     @Transactional
-    public ProjectResponse updateImageMetadata(Long projectId, Long imageId, UpdateImageRequest request) {
+    public ProjectResponse updateImageMetadata(Long projectId, Long imageId, UpdateImageRequest request,
+                                               Long expectedVersion) {
         // Verify project exists
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+        checkVersion(project, expectedVersion);
 
         // Find the image within the project
         Image image = imageRepository.findById(imageId)
@@ -229,11 +284,22 @@ public class ProjectServiceImpl implements ProjectService {
             throw new IllegalArgumentException("Image does not belong to the specified project");
         }
 
+        // A retag moves the image between the counters, refused if it is the last of its type
+        ImageType currentType = image.getImageType();
+        if (request.getImageType() != null && currentType != null && request.getImageType() != currentType) {
+            int beforeDelta = currentType == ImageType.BEFORE ? -1 : 1;
+            if (projectRepository.changeImageCounts(projectId, beforeDelta, -beforeDelta) == 0) {
+                throw new IllegalArgumentException("Cannot change the type of the last " + currentType
+                        + " image of the project");
+            }
+        }
+
         // Update image metadata using mapper
         projectMapper.updateImageEntity(request, image);
 
         // Save updated image
         imageRepository.save(image);
+        saveVersioned(project);
 
         // Return updated project
         return projectMapper.toResponse(project);
@@ -255,18 +321,16 @@ public class ProjectServiceImpl implements ProjectService {
             throw new IllegalArgumentException("Image does not belong to the specified project");
         }
 
-        validateImageDeletion(project, image);
+        // Checked and counted in one statement, so concurrent deletes cannot remove the last image of a type
+        removeFromImageCounts(projectId, image.getImageType());
 
-        // delete physical file from storage
-        try {
-            imageStorageService.delete(image.getUrl());
-        } catch (Exception e) {
-
-        }
+        // physical file is removed from storage after commit
+        fileCleanupService.scheduleDeletion(image.getUrl());
 
         // remove image from project and delete from db
         project.getImages().remove(image);
         imageRepository.delete(image);
+        saveVersioned(project);
 
         return projectMapper.toResponse(project);
     }
@@ -277,14 +341,10 @@ public class ProjectServiceImpl implements ProjectService {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", id));
 
-        // Delete image files from storage
-        for (Image image : project.getImages()) {
-            try {
-                imageStorageService.delete(image.getUrl());
-            } catch (Exception e) {
-                // Log but don't fail
-            }
-        }
+        // Image files are removed from storage after commit
+        fileCleanupService.scheduleDeletions(
+                project.getImages().stream().map(Image::getUrl).toList()
+        );
 
         // Delete image records from db
         imageRepository.deleteAll(project.getImages());
@@ -293,6 +353,30 @@ public class ProjectServiceImpl implements ProjectService {
         projectRepository.delete(project);
     }
 
+    @Override
+    @Transactional
+    public BulkDeleteResponse deleteProjects(BulkDeleteRequest request) {
+
+        List<Long> projectIds = resolveBulkDeleteIds(request);
+
+        int projectsDeleted = 0;
+        int imagesDeleted = 0;
+
+        // Set-based statements per chunk: select urls, delete images, delete projects
+        for (int from = 0; from < projectIds.size(); from += BULK_DELETE_CHUNK_SIZE) {
+            List<Long> chunk = projectIds.subList(from, Math.min(from + BULK_DELETE_CHUNK_SIZE, projectIds.size()));
+
+            List<String> urls = imageRepository.findUrlsByProjectIdIn(chunk);
+            imagesDeleted += imageRepository.deleteByProjectIdIn(chunk);
+            projectsDeleted += projectRepository.deleteByIdIn(chunk);
+
+            // Image files are removed from storage after commit
+            fileCleanupService.scheduleDeletions(urls);
+        }
+
+        return new BulkDeleteResponse(projectsDeleted, imagesDeleted);
+    }
+
     // TODO: Er dette noget vi skal bruge til noget, ellers skal den vel slettes? :) Kan ikke se noget task på den.
     @Override
     public List<ProjectResponse> getProjectsByDateRange(LocalDate startDate, LocalDate endDate) {
@@ -335,6 +419,29 @@ public class ProjectServiceImpl implements ProjectService {
         }
     }
 
+    /**
+     * Read format and dimensions from each file header. Throws IllegalArgumentException for non-images,
+     * so the request fails with 400 before the project or any file is written.
+     */
+    private List<ImageInfo> probeImages(List<MultipartFile> images) {
+        List<ImageInfo> imageInfos = new ArrayList<>(images.size());
+        for (MultipartFile image : images) {
+            imageInfos.add(imageProbeService.probe(image));
+        }
+        return imageInfos;
+    }
+
+    /**
+     * Compute the placeholder of every image, null for formats that cannot be decoded
+     */
+    private List<Placeholder> computePlaceholders(List<MultipartFile> images) {
+        List<Placeholder> placeholders = new ArrayList<>(images.size());
+        for (MultipartFile image : images) {
+            placeholders.add(imagePlaceholderService.compute(image));
+        }
+        return placeholders;
+    }
+
     /**
      * Validate that at least one BEFORE and one AFTER image is included
      */
@@ -372,6 +479,74 @@ public class ProjectServiceImpl implements ProjectService {
                 .orElseThrow(() -> new ResourceNotFoundException("Project", id));
     }
 
+    // --- Helpers for storing images ---
+
+    /**
+     * Start storing every file without waiting, so the storage can write them in parallel
+     */
+    private List<CompletableFuture<StoredFile>> startStoring(List<MultipartFile> images) {
+        return images.stream()
+                .map(imageStorageService::storeFileAsync)
+                .toList();
+    }
+
+    /**
+     * Wait until every file is stored, in the order they were started.
+     * Throws the failure of the first file that could not be stored.
+     * The journal intents of the files are completed when the surrounding transaction does.
+     */
+    private List<StoredFile> awaitStored(List<CompletableFuture<StoredFile>> storing) {
+        try {
+            CompletableFuture.allOf(storing.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        List<StoredFile> storedFiles = storing.stream().map(CompletableFuture::join).toList();
+        storageJournal.commitAfterTransaction(storedFiles.stream().map(StoredFile::url).toList());
+        return storedFiles;
+    }
+
+    /**
+     * Delete the files that were (or will be) stored, without waiting for the storage
+     */
+    private void discardStored(List<CompletableFuture<StoredFile>> storing) {
+        for (CompletableFuture<StoredFile> future : storing) {
+            future.thenAccept(storedFile -> imageStorageService.deleteAsync(storedFile.url())
+                    .whenComplete((ignored, cleanupException) -> {
+                        if (cleanupException == null) {
+                            storageJournal.abort(List.of(storedFile.url()));
+                        } else {
+                            // Log cleanup failure but don't throw, storage recovery removes it later
+                            log.warn("Could not remove stored file {}", storedFile.url(), cleanupException);
+                            storageJournal.abandon(List.of(storedFile.url()));
+                        }
+                    }));
+        }
+    }
+
+    /**
+     * Fail fast when the client edited an older version than the one stored (If-Match).
+     * A change committed between this check and the flush is caught by the version column.
+     */
+    private void checkVersion(Project project, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(project.getVersion())) {
+            throw new PreconditionFailedException("Project", project.getId(), expectedVersion, project.getVersion());
+        }
+    }
+
+    /**
+     * Marks the project as changed and flushes, so the version is incremented by a conditional
+     * UPDATE ... WHERE version = ? now and the response carries the new version (ETag).
+     * Image changes count as project changes, since the project representation includes its images.
+     */
+    private void saveVersioned(Project project) {
+        project.setLastModified(Instant.now());
+        projectRepository.saveAndFlush(project);
+    }
+
     // --- Helper for update image ---
 
     private Image findImageById(Long imageId) {
@@ -386,7 +561,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         // If URL changes, delete the old one
         if (request.getUrl() != null && !request.getUrl().equals(image.getUrl())) {
-            imageStorageService.delete(image.getUrl());
+            fileCleanupService.scheduleDeletion(image.getUrl());
         }
 
     }
@@ -396,11 +571,37 @@ public class ProjectServiceImpl implements ProjectService {
 
         for (Image image : project.getImages()) {
             if (image.getUrl() != null) {
-                imageStorageService.delete(image.getUrl());
+                fileCleanupService.scheduleDeletion(image.getUrl());
             }
         }
     }
 
+    // --- Helper for bulk delete ---
+
+    private List<Long> resolveBulkDeleteIds(BulkDeleteRequest request) {
+
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean hasFilter = request.getWorkType() != null
+                || request.getCustomerType() != null
+                || request.getCreatedBefore() != null;
+
+        if (hasIds && hasFilter) {
+            throw new IllegalArgumentException("Bulk delete takes either ids or filters, not both");
+        }
+
+        if (hasIds) {
+            return request.getIds().stream().distinct().toList();
+        }
+
+        // Without ids at least one filter is required, so an empty request never deletes everything
+        if (!hasFilter) {
+            throw new IllegalArgumentException("Bulk delete requires ids or at least one filter");
+        }
+
+        return projectRepository.findIdsByFilters(
+                request.getWorkType(), request.getCustomerType(), request.getCreatedBefore());
+    }
+
     // --- Helper for sort by date ---
     private Sort sortByDate(String sortDirection) {
 
@@ -419,24 +620,16 @@ public class ProjectServiceImpl implements ProjectService {
     }
 
     /**
-     * Validate that deleting the image will not violate business rules
+     * Remove one image from the project's counters, refused if it is the last BEFORE or AFTER image
      */
-    private void validateImageDeletion(Project project, Image imageToDelete) {
-        long beforeCount = project.getImages().stream()
-                .filter(img -> img.getImageType() == ImageType.BEFORE)
-                .filter(img -> !img.getId().equals(imageToDelete.getId()))
-                .count();
-
-        long afterCount = project.getImages().stream()
-                .filter(img -> img.getImageType() == ImageType.AFTER)
-                .filter(img -> !img.getId().equals(imageToDelete.getId()))
-                .count();
-
-        if (beforeCount < 1) {
-            throw new IllegalArgumentException("Cannot delete the last BEFORE image of the project");
+    private void removeFromImageCounts(Long projectId, ImageType imageType) {
+        if (imageType == null) {
+            return;
         }
-        if (afterCount < 1) {
-            throw new IllegalArgumentException("Cannot delete the last AFTER image of the project");
+        int beforeDelta = imageType == ImageType.BEFORE ? -1 : 0;
+        int afterDelta = imageType == ImageType.AFTER ? -1 : 0;
+        if (projectRepository.changeImageCounts(projectId, beforeDelta, afterDelta) == 0) {
+            throw new IllegalArgumentException("Cannot delete the last " + imageType + " image of the project");
         }
     }
 
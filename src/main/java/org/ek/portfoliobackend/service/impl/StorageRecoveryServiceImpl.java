@@ -0,0 +1,76 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.repository.ImageRepository;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.ek.portfoliobackend.service.StorageRecoveryService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementering af StorageRecoveryService.
+ * Kører ved opstart (StorageRecoveryRunner) for intents fra før et crash, og periodisk for filer fra
+ * requests der fejlede. For hver intent slås URL'en op i databasen: findes der et Image, er filen i brug
+ * og intent'en committes, ellers slettes filen. Fejler sletningen, forsøges den igen ved næste kørsel.
+ */
+@Slf4j
+@Service
+public class StorageRecoveryServiceImpl implements StorageRecoveryService {
+
+    private final StorageJournal storageJournal;
+    private final ImageRepository imageRepository;
+    private final ImageStorageService imageStorageService;
+
+    public StorageRecoveryServiceImpl(StorageJournal storageJournal,
+                                      ImageRepository imageRepository,
+                                      ImageStorageService imageStorageService) {
+        this.storageJournal = storageJournal;
+        this.imageRepository = imageRepository;
+        this.imageStorageService = imageStorageService;
+    }
+
+    @Override
+    public int reconcile() {
+        List<String> referenced = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        for (String url : storageJournal.unresolvedIntents()) {
+            if (imageRepository.existsByUrl(url)) {
+                referenced.add(url);
+                continue;
+            }
+            try {
+                imageStorageService.delete(url);
+                removed.add(url);
+            } catch (RuntimeException e) {
+                log.warn("Could not remove unreferenced file {}, retrying later: {}", url, e.getMessage());
+            }
+        }
+
+        storageJournal.commit(referenced);
+        storageJournal.abort(removed);
+        storageJournal.checkpoint();
+
+        if (!referenced.isEmpty() || !removed.isEmpty()) {
+            log.info("Storage recovery finished - kept: {}, removed: {}", referenced.size(), removed.size());
+        }
+        return removed.size();
+    }
+
+    /**
+     * Periodic run that removes the files of failed requests and keeps the journal small.
+     */
+    @Scheduled(fixedDelayString = "${file.journal.checkpoint-interval-ms:60000}",
+            initialDelayString = "${file.journal.checkpoint-interval-ms:60000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Storage recovery failed", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.ek.portfoliobackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ek.portfoliobackend.service.UploadLayoutMigrationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Implementering af UploadLayoutMigrationService for LocalFileStorageServiceImpl.
+
+ * Flytter filer fra roden af upload-mappen til deres shard-mappe i batches af file.migration.batch-size,
+ * med en pause mellem hver batch så disken ikke bliver mættet mens applikationen kører.
+ * Hver fil flyttes atomisk, så en samtidig GET enten finder den flade eller den nye placering.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
+public class UploadLayoutMigrationServiceImpl implements UploadLayoutMigrationService {
+
+    private final Path uploadPath;
+    private final int batchSize;
+    private final long pauseMs;
+
+    public UploadLayoutMigrationServiceImpl(LocalFileStorageServiceImpl localFileStorageService,
+                                            @Value("${file.migration.batch-size:500}") int batchSize,
+                                            @Value("${file.migration.pause-ms:100}") long pauseMs) {
+        this.uploadPath = localFileStorageService.getUploadPath();
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Override
+    public int migrateToShardedLayout() {
+        log.info("Starting migration of {} to sharded layout", uploadPath);
+
+        int moved = 0;
+        Set<Path> failed = new HashSet<>();
+
+        while (true) {
+            List<Path> batch = nextBatch(failed);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            for (Path file : batch) {
+                try {
+                    moveToShard(file);
+                    moved++;
+                } catch (IOException e) {
+                    // Left in place, flat URLs still work for it
+                    failed.add(file);
+                    log.warn("Could not move {} to sharded layout: {}", file.getFileName(), e.getMessage());
+                }
+            }
+
+            log.debug("Upload layout migration: {} files moved so far", moved);
+            if (!pause()) {
+                break;
+            }
+        }
+
+        log.info("Upload layout migration finished - moved: {}, failed: {}", moved, failed.size());
+        return moved;
+    }
+
+    // ------------------------------------------------ HELPER METHODS -------------------------------------------------
+
+    /**
+     * Next files lying directly in the upload directory. Listed again for each batch,
+     * so memory stays bounded and files uploaded during the migration are picked up too.
+     */
+    private List<Path> nextBatch(Set<Path> failed) {
+        try (Stream<Path> files = Files.list(uploadPath)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .filter(file -> !failed.contains(file))
+                    .limit(batchSize)
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list upload directory: " + uploadPath, e);
+        }
+    }
+
+    private void moveToShard(Path file) throws IOException {
+        String filename = file.getFileName().toString();
+        Path target = uploadPath.resolve(LocalFileStorageServiceImpl.shardDirectory(filename)).resolve(filename);
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Upload layout migration interrupted");
+            return false;
+        }
+    }
+}
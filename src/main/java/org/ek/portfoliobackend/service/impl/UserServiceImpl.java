@@ -1,46 +1,57 @@
 package org.ek.portfoliobackend.service.impl;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.ek.portfoliobackend.dto.request.CreateUserRequest;
 import org.ek.portfoliobackend.dto.request.UpdateUserRequest;
+import org.ek.portfoliobackend.dto.response.UserPageResponse;
 import org.ek.portfoliobackend.dto.response.UserResponse;
 import org.ek.portfoliobackend.model.User;
 import org.ek.portfoliobackend.repository.UserRepository;
+import org.ek.portfoliobackend.repository.UserRepository.UserSummaryView;
+import org.ek.portfoliobackend.service.PasswordHashingService;
 import org.ek.portfoliobackend.service.UserService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class UserServiceImpl implements UserService {
 
+    // Largest page a client can ask for
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Users read per query while exporting
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, PasswordHashingService passwordHashingService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHashingService = passwordHashingService;
     }
 
     @Override
     public UserResponse createUser(CreateUserRequest request) {
-    // check if username or email already exists
-    if (userRepository.existsByUsername(request.getUsername())) {
-        throw new IllegalArgumentException("Username already exists");
-    }
-    if (userRepository.existsByEmail(request.getEmail())) {
-        throw new IllegalArgumentException("Email already exists");
-    }
-
     // create new user with hashed password
     User user = new User();
     user.setUsername(request.getUsername());
     user.setEmail(request.getEmail());
-    user.setPassword(passwordEncoder.encode(request.getPassword()));
+    user.setPassword(passwordHashingService.hash(request.getPassword()));
     user.setRole(request.getRole());
 
-    User savedUser = userRepository.save(user);
-    return mapToResponse(savedUser);
+    // single INSERT, the unique constraints reject an existing username or email (also under concurrent requests)
+    try {
+        User savedUser = userRepository.saveAndFlush(user);
+        return mapToResponse(savedUser);
+    } catch (DataIntegrityViolationException e) {
+        throw duplicateUser(e, request.getUsername(), request.getEmail());
+    }
     }
 
     @Override
@@ -51,10 +62,50 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .toList();
+    public UserPageResponse getUsers(int page, int size) {
+        int pageSize = clampPageSize(size);
+        Page<UserSummaryView> result = userRepository.findSummaries(
+                PageRequest.of(Math.max(0, page), pageSize, Sort.by("id")));
+
+        UserPageResponse response = new UserPageResponse();
+        response.setContent(result.getContent().stream().map(this::mapToResponse).toList());
+        response.setSize(pageSize);
+        response.setPage(result.getNumber());
+        response.setTotalElements(result.getTotalElements());
+        response.setTotalPages(result.getTotalPages());
+        return response;
+    }
+
+    @Override
+    public UserPageResponse getUsersAfter(Long afterId, int size) {
+        int pageSize = clampPageSize(size);
+        // one extra row tells whether there is a next page, without a count query
+        List<UserSummaryView> rows = userRepository.findSummariesAfterId(
+                afterId != null ? afterId : 0L, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<UserResponse> content = rows.stream().limit(pageSize).map(this::mapToResponse).toList();
+
+        UserPageResponse response = new UserPageResponse();
+        response.setContent(content);
+        response.setSize(pageSize);
+        response.setNextCursor(hasMore ? content.get(content.size() - 1).getId() : null);
+        return response;
+    }
+
+    @Override
+    public void exportUsers(Consumer<UserResponse> consumer) {
+        long afterId = 0L;
+        while (true) {
+            List<UserSummaryView> batch = userRepository.findSummariesAfterId(
+                    afterId, PageRequest.of(0, EXPORT_BATCH_SIZE));
+            for (UserSummaryView row : batch) {
+                consumer.accept(mapToResponse(row));
+            }
+            if (batch.size() < EXPORT_BATCH_SIZE) {
+                return;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
     }
 
     @Override
@@ -64,32 +115,36 @@ public class UserServiceImpl implements UserService {
 
         // update fields if present:
         // username
+        String changedUsername = null;
         if (request.getUsername() != null && !request.getUsername().isEmpty()) {
-            if (!user.getUsername().equals(request.getUsername()) &&
-                userRepository.existsByUsername(request.getUsername())) {
-                throw new IllegalArgumentException("Username already exists");
+            if (!user.getUsername().equals(request.getUsername())) {
+                changedUsername = request.getUsername();
             }
             user.setUsername(request.getUsername());
         }
         // email
+        String changedEmail = null;
         if (request.getEmail() != null && !request.getEmail().isEmpty()) {
-            if (!user.getEmail().equals(request.getEmail()) &&
-                userRepository.existsByEmail(request.getEmail())) {
-                throw new IllegalArgumentException("Email already exists");
+            if (!user.getEmail().equals(request.getEmail())) {
+                changedEmail = request.getEmail();
             }
             user.setEmail(request.getEmail());
         }
         // password
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.hash(request.getPassword()));
         }
         // role
         if (request.getRole() != null && !request.getRole().isEmpty()) {
             user.setRole(request.getRole());
         }
-        // save updated user
-        User updatedUser = userRepository.save(user);
-        return mapToResponse(updatedUser);
+        // save updated user, the unique constraints reject a username or email another user has
+        try {
+            User updatedUser = userRepository.saveAndFlush(user);
+            return mapToResponse(updatedUser);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUser(e, changedUsername, changedEmail);
+        }
     }
 
     @Override
@@ -100,6 +155,53 @@ public class UserServiceImpl implements UserService {
     userRepository.deleteById(id);
     }
 
+    /**
+     * Turn a unique constraint violation into the "already exists" error for the value that caused it.
+     * Uses the constraint name, and only if that is unknown (e.g. generated names in an older schema)
+     * asks the database, so the normal path is still a single round trip.
+     *
+     * @param username the new username, or null if it was not changed
+     * @param email    the new email, or null if it was not changed
+     */
+    private RuntimeException duplicateUser(DataIntegrityViolationException e, String username, String email) {
+        String constraint = constraintName(e);
+        if (constraint.contains(User.USERNAME_CONSTRAINT)) {
+            return new IllegalArgumentException("Username already exists");
+        }
+        if (constraint.contains(User.EMAIL_CONSTRAINT)) {
+            return new IllegalArgumentException("Email already exists");
+        }
+        if (username != null && userRepository.existsByUsername(username)) {
+            return new IllegalArgumentException("Username already exists");
+        }
+        if (email != null && userRepository.existsByEmail(email)) {
+            return new IllegalArgumentException("Email already exists");
+        }
+        return e;
+    }
+
+    private static String constraintName(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase();
+            }
+        }
+        return "";
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private UserResponse mapToResponse(UserSummaryView user) {
+        return new UserResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getRole()
+        );
+    }
+
     private UserResponse mapToResponse(User user) {
         return new UserResponse(
                 user.getId(),
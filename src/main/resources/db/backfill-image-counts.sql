@@ -0,0 +1,14 @@
+-- Sætter project.before_image_count og after_image_count ud fra image-tabellen, for de projekter hvor de ikke passer.
+-- Kan køres igen og igen; projekter med korrekte tællere røres ikke.
+--
+-- Dev (ddl-auto=update): køres ved opstart af ImageCountBackfillRunner (db.image-count-backfill.enabled=true),
+-- efter Hibernate har tilføjet kolonnerne med 0 på alle eksisterende rækker.
+-- Prod (ddl-auto=validate): tilføj kolonnerne og kør scriptet før deploy:
+--   ALTER TABLE project
+--       ADD COLUMN before_image_count INT NOT NULL DEFAULT 0,
+--       ADD COLUMN after_image_count INT NOT NULL DEFAULT 0;
+UPDATE project p
+SET before_image_count = (SELECT COUNT(*) FROM image i WHERE i.project_id = p.id AND i.image_type = 'BEFORE'),
+    after_image_count  = (SELECT COUNT(*) FROM image i WHERE i.project_id = p.id AND i.image_type = 'AFTER')
+WHERE p.before_image_count <> (SELECT COUNT(*) FROM image i WHERE i.project_id = p.id AND i.image_type = 'BEFORE')
+   OR p.after_image_count <> (SELECT COUNT(*) FROM image i WHERE i.project_id = p.id AND i.image_type = 'AFTER');
@@ -1,8 +1,12 @@
 INSERT INTO users(email, password, role, username) VALUES
-    ('dev@example.com','devpassword', 'user', 'Dev Bruger');
+    -- password: devpassword
+    ('dev@example.com','$2a$10$Xd8N5.y9XS3/ZzGW2f7ebOLzPteKcS9gRdhqYPGoJ3zMet/oH/N8K', 'ROLE_ADMIN', 'Dev Bruger');
 
-INSERT INTO project(title, description, execution_date, work_type, customer_type, creation_date)
-VALUES ('Dev projekt', 'Beskrivelse', '2025-03-04', 'PAVING_CLEANING', 'PRIVATE_CUSTOMER', '2025-01-01');
+-- before_image_count/after_image_count skal passe med image-rækkerne nedenfor
+INSERT INTO project(title, description, execution_date, work_type, customer_type, creation_date,
+                    before_image_count, after_image_count)
+VALUES ('Dev projekt', 'Beskrivelse', '2025-03-04', 'PAVING_CLEANING', 'PRIVATE_CUSTOMER', '2025-01-01', 1, 1);
 
 INSERT INTO image(url, image_type, is_featured, project_id)
-VALUES ('https://example.com/dev.jpg', 'BEFORE', false, 1);
\ No newline at end of file
+VALUES ('https://example.com/dev.jpg', 'BEFORE', false, 1),
+       ('https://example.com/dev-after.jpg', 'AFTER', true, 1);
@@ -0,0 +1,118 @@
+package org.ek.portfoliobackend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimit to verify shedding by share and how the limit follows latency.
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = 10_000_000L;
+    private static final long SLOW = 100_000_000L;
+
+    @Test
+    @DisplayName("tryAcquire - low share is shed while full share still gets through")
+    void tryAcquire_WithLowShare_ShedsBeforeFullShare() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 0.2, 1.5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(0.5));
+        }
+
+        // Act
+        boolean upload = limit.tryAcquire(0.5);
+        boolean read = limit.tryAcquire(1.0);
+
+        // Assert
+        assertFalse(upload);
+        assertTrue(read);
+        assertEquals(6, limit.stats().inFlight());
+        assertEquals(1, limit.stats().shed());
+    }
+
+    @Test
+    @DisplayName("release - limit shrinks when latency rises under load")
+    void release_WhenLatencyRises_ShrinksLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 0.2, 1.5);
+        fillUp(limit);
+        runAtFullLoad(limit, FAST, 50);
+        int before = limit.getLimit();
+
+        // Act
+        runAtFullLoad(limit, SLOW, 50);
+
+        // Assert
+        assertTrue(limit.getLimit() < before, "limit " + limit.getLimit() + " should be below " + before);
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    @Test
+    @DisplayName("release - limit grows while latency is stable under load")
+    void release_WhenLatencyIsStable_GrowsLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 0.2, 1.5);
+        fillUp(limit);
+
+        // Act
+        runAtFullLoad(limit, FAST, 50);
+
+        // Assert
+        assertTrue(limit.getLimit() > 20);
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    @DisplayName("release - limit does not grow while less than half of it is in use")
+    void release_WhenMostlyIdle_KeepsLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 0.2, 1.5);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+            limit.release(FAST);
+        }
+
+        // Assert
+        assertEquals(20, limit.getLimit());
+        assertEquals(0, limit.stats().inFlight());
+    }
+
+    @Test
+    @DisplayName("release - limit still shrinks when latency rises while most of it is idle")
+    void release_WhenLatencyRisesWhileMostlyIdle_ShrinksLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 0.2, 1.5);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+            limit.release(FAST);
+        }
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+            limit.release(SLOW);
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() < 20, "limit " + limit.getLimit() + " should be below 20");
+    }
+
+    private static void fillUp(AdaptiveConcurrencyLimit limit) {
+        while (limit.tryAcquire(1.0)) {
+            // take every slot
+        }
+    }
+
+    // Complete one request and start the next, so the limit stays fully used
+    private static void runAtFullLoad(AdaptiveConcurrencyLimit limit, long rttNanos, int requests) {
+        for (int i = 0; i < requests; i++) {
+            limit.release(rttNanos);
+            fillUp(limit);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.ek.portfoliobackend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Bulkhead to verify that it admits, queues and rejects calls as configured.
+ */
+class BulkheadTest {
+
+    @Test
+    @DisplayName("tryEnter - calls above the limit with no queue are rejected")
+    void tryEnter_AboveLimitWithoutQueue_Rejects() throws Exception {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("test", 2, 0, 1000);
+
+        // Act
+        boolean first = bulkhead.tryEnter();
+        boolean second = bulkhead.tryEnter();
+        boolean third = bulkhead.tryEnter();
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        Bulkhead.Stats stats = bulkhead.stats();
+        assertEquals(2, stats.active());
+        assertEquals(2, stats.admitted());
+        assertEquals(1, stats.rejectedQueueFull());
+    }
+
+    @Test
+    @DisplayName("tryEnter - queued call gets the slot when it is released")
+    void tryEnter_WhenSlotIsReleased_AdmitsQueuedCall() throws Exception {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 10_000);
+        assertTrue(bulkhead.tryEnter());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Act
+            Future<Boolean> queued = executor.submit(bulkhead::tryEnter);
+            waitUntilQueued(bulkhead, 1);
+            boolean rejected = bulkhead.tryEnter();
+            bulkhead.exit();
+
+            // Assert
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+            assertFalse(rejected);
+            assertEquals(0, bulkhead.stats().queued());
+            assertEquals(1, bulkhead.stats().rejectedQueueFull());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("tryEnter - call waiting longer than max wait is rejected")
+    void tryEnter_WhenWaitTimesOut_Rejects() throws Exception {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 10);
+        assertTrue(bulkhead.tryEnter());
+
+        // Act
+        boolean entered = bulkhead.tryEnter();
+
+        // Assert
+        assertFalse(entered);
+        assertEquals(1, bulkhead.stats().rejectedTimeout());
+        assertEquals(0, bulkhead.stats().queued());
+    }
+
+    @Test
+    @DisplayName("exit - released slot can be used again")
+    void exit_AfterEnter_FreesSlot() throws Exception {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, 0);
+        assertTrue(bulkhead.tryEnter());
+
+        // Act
+        bulkhead.exit();
+
+        // Assert
+        assertEquals(0, bulkhead.stats().active());
+        assertTrue(bulkhead.tryEnter());
+    }
+
+    private static void waitUntilQueued(Bulkhead bulkhead, int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && bulkhead.stats().queued() < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, bulkhead.stats().queued());
+    }
+}
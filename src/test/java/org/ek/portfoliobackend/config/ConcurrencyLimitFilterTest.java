@@ -0,0 +1,91 @@
+package org.ek.portfoliobackend.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ek.portfoliobackend.exception.custom.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ConcurrencyLimitFilter to verify which requests count as uploads.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitFilterTest {
+
+    @Mock
+    private HandlerExceptionResolver exceptionResolver;
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // Limit 2: uploads (share 0.5) get one slot, other writes (share 1.0) two
+        filter = new ConcurrencyLimitFilter(true, 2, 1, 2, 0.2, 1.5, 1.0, 0.5, 3, exceptionResolver);
+    }
+
+    @Test
+    @DisplayName("doFilter - chunk PUTs and chunked upload completion are not sampled for latency")
+    void doFilter_WithChunkedUploadRequests_DoesNotSampleLatency() throws Exception {
+        // Act
+        filter.doFilter(chunk("/api/uploads/6f1c2a52-7a42-4d7e-9d0a-3b1a2c3d4e5f"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(json("POST", "/api/uploads/projects"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(json("PATCH", "/api/uploads/projects/1/images"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        assertEquals(3, filter.getStats().admitted());
+        assertEquals(0.0, filter.getStats().longRttMillis());
+    }
+
+    @Test
+    @DisplayName("doFilter - a chunk PUT only gets the upload share of the limit")
+    void doFilter_WhenUploadShareIsUsed_RejectsChunk() throws Exception {
+        // Arrange
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        MockFilterChain secondChain = new MockFilterChain();
+        MockFilterChain firstChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                try {
+                    filter.doFilter(chunk("/api/uploads/6f1c2a52-7a42-4d7e-9d0a-3b1a2c3d4e5f"), rejectedResponse, secondChain);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        // Act
+        filter.doFilter(chunk("/api/uploads/0b6d7f0e-3c1a-4d1e-8f2a-1a2b3c4d5e6f"), new MockHttpServletResponse(), firstChain);
+
+        // Assert
+        assertNull(secondChain.getRequest());
+        verify(exceptionResolver).resolveException(any(), eq(rejectedResponse), isNull(), any(ServiceUnavailableException.class));
+        assertEquals(0, filter.getStats().inFlight());
+    }
+
+    private static MockHttpServletRequest chunk(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", uri);
+        request.setContentType("application/octet-stream");
+        request.setContent(new byte[]{1, 2, 3});
+        return request;
+    }
+
+    private static MockHttpServletRequest json(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContentType("application/json");
+        return request;
+    }
+}
@@ -0,0 +1,155 @@
+package org.ek.portfoliobackend.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ek.portfoliobackend.exception.custom.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UploadBulkheadFilter to verify which requests are limited and how rejections are reported.
+ */
+@ExtendWith(MockitoExtension.class)
+class UploadBulkheadFilterTest {
+
+    @Mock
+    private HandlerExceptionResolver exceptionResolver;
+
+    private UploadBulkheadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // One upload slot: 10 connections minus 9 reserved, no queue
+        filter = new UploadBulkheadFilter(true, 6, 0, 0, 7, 9, 10, exceptionResolver);
+    }
+
+    @Test
+    @DisplayName("constructor - concurrency is capped by the reserved DB connections")
+    void constructor_WithReservedConnections_CapsConcurrency() {
+        // Assert
+        assertEquals(1, filter.getStats().maxConcurrent());
+    }
+
+    @Test
+    @DisplayName("doFilter - upload while another upload holds the only slot is rejected with 503")
+    void doFilter_WhenBulkheadIsFull_RejectsUpload() throws Exception {
+        // Arrange
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        MockFilterChain secondChain = new MockFilterChain();
+        MockFilterChain firstChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req,
+                                   HttpServletResponse res) {
+                try {
+                    filter.doFilter(upload("POST", "/api/projects"), rejectedResponse, secondChain);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        // Act
+        filter.doFilter(upload("PATCH", "/api/projects/1/images"), new MockHttpServletResponse(), firstChain);
+
+        // Assert
+        assertNull(secondChain.getRequest());
+        ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+        verify(exceptionResolver).resolveException(any(), eq(rejectedResponse), isNull(), captor.capture());
+        ServiceUnavailableException exception = assertInstanceOf(ServiceUnavailableException.class, captor.getValue());
+        assertEquals(7, exception.getRetryAfterSeconds());
+        assertEquals(1, filter.getStats().rejectedQueueFull());
+        assertEquals(0, filter.getStats().active());
+    }
+
+    @Test
+    @DisplayName("doFilter - reads pass while the upload slot is taken")
+    void doFilter_WhenBulkheadIsFull_LetsReadsThrough() throws Exception {
+        // Arrange
+        AtomicBoolean readServed = new AtomicBoolean();
+        MockFilterChain firstChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req,
+                                   HttpServletResponse res) {
+                try {
+                    MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/projects");
+                    MockFilterChain readChain = new MockFilterChain();
+                    filter.doFilter(read, new MockHttpServletResponse(), readChain);
+                    readServed.set(readChain.getRequest() != null);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        // Act
+        filter.doFilter(upload("POST", "/api/projects"), new MockHttpServletResponse(), firstChain);
+
+        // Assert
+        assertTrue(readServed.get());
+        verifyNoInteractions(exceptionResolver);
+        assertEquals(1, filter.getStats().admitted());
+    }
+
+    @Test
+    @DisplayName("doFilter - chunked upload requests share the bulkhead, starting a session does not")
+    void doFilter_WithChunkedUploads_UsesBulkhead() throws Exception {
+        // Arrange
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        MockFilterChain chunkChain = new MockFilterChain();
+        MockFilterChain completeChain = new MockFilterChain();
+        MockFilterChain sessionChain = new MockFilterChain();
+        MockFilterChain firstChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req,
+                                   HttpServletResponse res) {
+                try {
+                    MockHttpServletRequest chunk = new MockHttpServletRequest("PUT", "/api/uploads/abc");
+                    chunk.setContentType("application/octet-stream");
+                    filter.doFilter(chunk, rejectedResponse, chunkChain);
+                    MockHttpServletRequest complete = new MockHttpServletRequest("PATCH", "/app/api/uploads/projects/1/images");
+                    complete.setContextPath("/app");
+                    complete.setContentType("application/json");
+                    filter.doFilter(complete, new MockHttpServletResponse(), completeChain);
+                    MockHttpServletRequest session = new MockHttpServletRequest("POST", "/api/uploads");
+                    session.setContentType("application/json");
+                    filter.doFilter(session, new MockHttpServletResponse(), sessionChain);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        // Act
+        filter.doFilter(upload("POST", "/api/uploads/projects"), new MockHttpServletResponse(), firstChain);
+
+        // Assert
+        assertNull(chunkChain.getRequest());
+        assertNull(completeChain.getRequest());
+        assertNotNull(sessionChain.getRequest());
+        verify(exceptionResolver, times(2)).resolveException(any(), any(), isNull(), any(ServiceUnavailableException.class));
+        assertEquals(2, filter.getStats().rejectedQueueFull());
+    }
+
+    private static MockHttpServletRequest upload(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContentType("multipart/form-data; boundary=test");
+        return request;
+    }
+}
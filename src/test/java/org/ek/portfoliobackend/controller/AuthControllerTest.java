@@ -0,0 +1,73 @@
+package org.ek.portfoliobackend.controller;
+
+import tools.jackson.databind.ObjectMapper;
+import org.ek.portfoliobackend.dto.request.LoginRequest;
+import org.ek.portfoliobackend.dto.response.LoginResponse;
+import org.ek.portfoliobackend.exception.GlobalExceptionHandler;
+import org.ek.portfoliobackend.exception.custom.InvalidCredentialsException;
+import org.ek.portfoliobackend.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AuthController.class)
+@Import(GlobalExceptionHandler.class)
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    void login_shouldReturnToken() throws Exception {
+        // Arrange
+        when(authService.login(any(LoginRequest.class)))
+                .thenReturn(new LoginResponse("signed.token.value", 3600, "admin", "ROLE_ADMIN"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("admin", "password123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("signed.token.value"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresInSeconds").value(3600));
+    }
+
+    @Test
+    void login_shouldReturn401_whenCredentialsAreWrong() throws Exception {
+        // Arrange
+        when(authService.login(any(LoginRequest.class))).thenThrow(new InvalidCredentialsException());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("admin", "wrong"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid username or password"));
+    }
+
+    @Test
+    void login_shouldReturn400_whenPasswordIsMissing() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"admin\"}"))
+                .andExpect(status().isBadRequest());
+    }
+}
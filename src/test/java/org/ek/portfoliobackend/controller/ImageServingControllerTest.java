@@ -0,0 +1,187 @@
+package org.ek.portfoliobackend.controller;
+
+import org.ek.portfoliobackend.exception.GlobalExceptionHandler;
+import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.ek.portfoliobackend.service.ImageCacheService;
+import org.ek.portfoliobackend.service.ImageServingService;
+import org.ek.portfoliobackend.service.ImageServingService.ServedFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for ImageServingController (conditional requests, ranges and cache headers).
+ */
+@WebMvcTest(controllers = ImageServingController.class)
+@Import(GlobalExceptionHandler.class)
+class ImageServingControllerTest {
+
+    private static final String URL = "/uploads/3f/a2/6f1c1d2e-0000-4000-8000-000000000000.jpg";
+    private static final String ETAG = "\"9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08\"";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ImageServingService imageServingService;
+
+    @MockitoBean
+    private ImageCacheService imageCacheService;
+
+    private ServedFile servedFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("image.jpg"), "0123456789");
+        servedFile = new ServedFile(file, 10, 1_700_000_000_000L, "image/jpeg", ETAG, true);
+    }
+
+    @Test
+    @DisplayName("GET /uploads/** - Returns file with ETag and immutable cache headers")
+    void serveImage_ReturnsBodyAndCacheHeaders() throws Exception {
+        // Arrange
+        when(imageServingService.find(URL)).thenReturn(servedFile);
+
+        // Act & Assert
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().contentType("image/jpeg"));
+    }
+
+    @Test
+    @DisplayName("GET /uploads/** - Cached range is sent from memory")
+    void serveImage_WhenCached_SendsBytesFromCache() throws Exception {
+        // Arrange - cache content differs from the file, so the response shows where the bytes came from
+        when(imageServingService.find(URL)).thenReturn(servedFile);
+        // The cache hands the range over one block at a time
+        when(imageCacheService.write(eq(servedFile), eq(2L), eq(4L), any())).thenAnswer(invocation -> {
+            ImageCacheService.RangeWriter writer = invocation.getArgument(3);
+            writer.write(ByteBuffer.wrap("cached".getBytes(StandardCharsets.US_ASCII), 1, 2).slice());
+            writer.write(ByteBuffer.wrap("cached".getBytes(StandardCharsets.US_ASCII), 3, 2).slice());
+            return true;
+        });
+
+        // Act & Assert
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("ache"));
+        verify(imageCacheService).write(eq(servedFile), eq(2L), eq(4L), any());
+    }
+
+    @Test
+    @DisplayName("GET /uploads/** - Matching If-None-Match returns 304 without body")
+    void serveImage_WithMatchingEtag_ReturnsNotModified() throws Exception {
+        // Arrange
+        when(imageServingService.find(URL)).thenReturn(servedFile);
+
+        // Act & Assert
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /uploads/** - Range returns 206 with the requested bytes")
+    void serveImage_WithRange_ReturnsPartialContent() throws Exception {
+        // Arrange
+        when(imageServingService.find(URL)).thenReturn(servedFile);
+
+        // Act & Assert
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    @DisplayName("GET /uploads/** - Range with outdated If-Range returns the whole file")
+    void serveImage_WithStaleIfRange_ReturnsWholeFile() throws Exception {
+        // Arrange
+        when(imageServingService.find(URL)).thenReturn(servedFile);
+
+        // Act & Assert
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    @DisplayName("GET /uploads/** - Range past the end returns 416")
+    void serveImage_WithUnsatisfiableRange_ReturnsRangeNotSatisfiable() throws Exception {
+        // Arrange
+        when(imageServingService.find(URL)).thenReturn(servedFile);
+
+        // Act & Assert
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    @DisplayName("HEAD /uploads/** - Returns headers only")
+    void serveImage_Head_ReturnsHeadersOnly() throws Exception {
+        // Arrange
+        when(imageServingService.find(URL)).thenReturn(servedFile);
+
+        // Act & Assert
+        mockMvc.perform(head(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /uploads/** - Missing file returns 404")
+    void serveImage_MissingFile_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(imageServingService.find(URL)).thenThrow(new ResourceNotFoundException("File", URL));
+
+        // Act & Assert
+        mockMvc.perform(get(URL))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("parseRange - malformed and multiple ranges are ignored")
+    void parseRange_IgnoresUnsupportedHeaders() {
+        assertNull(ImageServingController.parseRange("bytes=0-1,4-5", 10));
+        assertNull(ImageServingController.parseRange("items=0-1", 10));
+        assertNull(ImageServingController.parseRange("bytes=5-2", 10));
+        assertEquals(new ImageServingController.ByteRange(5, 9), ImageServingController.parseRange("bytes=5-100", 10));
+    }
+}
@@ -7,12 +7,20 @@ import org.springframework.context.annotation.Import;
 import tools.jackson.databind.ObjectMapper;
 import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
 import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
+import org.ek.portfoliobackend.dto.response.BulkDeleteResponse;
+import org.ek.portfoliobackend.dto.response.BulkImportResponse;
+import org.ek.portfoliobackend.dto.response.BulkImportRowResult;
 import org.ek.portfoliobackend.dto.response.ImageResponse;
 import org.ek.portfoliobackend.dto.response.ProjectResponse;
 import org.ek.portfoliobackend.model.CustomerType;
 import org.ek.portfoliobackend.model.ImageType;
+import org.ek.portfoliobackend.model.Project;
 import org.ek.portfoliobackend.model.WorkType;
+import org.ek.portfoliobackend.exception.custom.IdempotencyConflictException;
+import org.ek.portfoliobackend.service.IdempotencyService;
+import org.ek.portfoliobackend.service.ProjectImportService;
 import org.ek.portfoliobackend.service.ProjectService;
+import org.ek.portfoliobackend.exception.custom.PreconditionFailedException;
 import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,13 +28,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
@@ -52,6 +64,12 @@ class ProjectControllerTest {
     @MockitoBean
     private ProjectService projectService;
 
+    @MockitoBean
+    private ProjectImportService projectImportService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
 
     private CreateProjectRequest validRequest;
     private MockMultipartFile beforeImage;
@@ -61,6 +79,10 @@ class ProjectControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Without a stored response the idempotency service simply runs the request
+        when(idempotencyService.execute(any(), anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+
         // Setup valid request data
         validRequest = new CreateProjectRequest(
                 "Test Facade Cleaning Project",
@@ -132,6 +154,25 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$.customerType").value("BUSINESS_CUSTOMER"));
     }
 
+    @Test
+    @DisplayName("GET /api/projects/{id} - Version is sent as ETag and If-None-Match gives 304")
+    void getProjectById_WithMatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        // Arrange
+        ProjectResponse response = new ProjectResponse();
+        response.setId(1L);
+        response.setVersion(2L);
+
+        when(projectService.getProjectById(1L)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/projects/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        mockMvc.perform(get("/api/projects/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("GET /api/projects/{id} - Not Found")
     void getProjectById_WithInvalidId_ReturnsNotFound() throws Exception {
@@ -235,6 +276,31 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$.images.length()").value(2));
     }
 
+    @Test
+    @DisplayName("POST /api/projects - Idempotency-Key is passed on and conflicts are reported")
+    void createProject_WithIdempotencyKey_UsesKey() throws Exception {
+        // Arrange
+        when(idempotencyService.execute(eq("retry-1"), eq("POST /api/projects"), any(), eq(ProjectResponse.class), any()))
+                .thenThrow(IdempotencyConflictException.inProgress("retry-1"));
+
+        MockMultipartFile requestPart = new MockMultipartFile("data", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(validRequest));
+        MockMultipartFile metadataPart = new MockMultipartFile("imageMetadata", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(validMetadata));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/projects")
+                        .file(requestPart)
+                        .file(beforeImage)
+                        .file(afterImage)
+                        .file(metadataPart)
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isConflict());
+
+        verify(projectService, never()).createProject(any(), anyList(), anyList());
+    }
+
     @Test
     @DisplayName("POST /api/projects - Validation error when images and metadata count mismatch")
     void createProject_WithMismatchedImageAndMetadata_ReturnsBadRequest() throws Exception {
@@ -457,7 +523,7 @@ class ProjectControllerTest {
         response.setCustomerType(CustomerType.PRIVATE_CUSTOMER);
         response.setExecutionDate(LocalDate.of(2025, 10, 31));
 
-        when(projectService.updateProject(eq(1L), any(UpdateProjectRequest.class)))
+        when(projectService.updateProject(eq(1L), any(UpdateProjectRequest.class), isNull()))
                 .thenReturn(response);
 
         // Act & Assert
@@ -485,7 +551,7 @@ class ProjectControllerTest {
         response.setDescription("OG Description");
         response.setWorkType(WorkType.FACADE_CLEANING);
 
-        when(projectService.updateProject(eq(1L), any(UpdateProjectRequest.class)))
+        when(projectService.updateProject(eq(1L), any(UpdateProjectRequest.class), isNull()))
                 .thenReturn(response);
 
         // Act & Assert
@@ -504,7 +570,7 @@ class ProjectControllerTest {
         UpdateProjectRequest request = new UpdateProjectRequest();
         request.setTitle("Updated Title");
 
-        when(projectService.updateProject(eq(999L), any(UpdateProjectRequest.class)))
+        when(projectService.updateProject(eq(999L), any(UpdateProjectRequest.class), isNull()))
                 .thenThrow(new ResourceNotFoundException("Project", 999L));
 
         // Act & Assert
@@ -514,6 +580,83 @@ class ProjectControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("PUT /api/projects/{id} - If-Match version is passed on and the new version returned as ETag")
+    void updateProject_WithIfMatch_ReturnsNewETag() throws Exception {
+        // Arrange
+        UpdateProjectRequest request = new UpdateProjectRequest();
+        request.setTitle("Updated Title");
+
+        ProjectResponse response = new ProjectResponse();
+        response.setId(1L);
+        response.setVersion(4L);
+
+        when(projectService.updateProject(eq(1L), any(UpdateProjectRequest.class), eq(3L)))
+                .thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/projects/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    @DisplayName("PUT /api/projects/{id} - Stale If-Match returns 412")
+    void updateProject_WithStaleIfMatch_ReturnsPreconditionFailed() throws Exception {
+        // Arrange
+        UpdateProjectRequest request = new UpdateProjectRequest();
+        request.setTitle("Updated Title");
+
+        when(projectService.updateProject(eq(1L), any(UpdateProjectRequest.class), eq(3L)))
+                .thenThrow(new PreconditionFailedException("Project", 1L, 3L, 4L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/projects/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Project med id 1 er ændret (version 4, forventet 3)"));
+    }
+
+    @Test
+    @DisplayName("PUT /api/projects/{id} - Concurrent commit detected by @Version returns 412")
+    void updateProject_WhenOptimisticLockFails_ReturnsPreconditionFailed() throws Exception {
+        // Arrange
+        UpdateProjectRequest request = new UpdateProjectRequest();
+        request.setTitle("Updated Title");
+
+        when(projectService.updateProject(eq(1L), any(UpdateProjectRequest.class), isNull()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Project.class, 1L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/projects/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/projects/{projectId}/images/{imageId} - Weak or malformed If-Match never matches")
+    void updateImageMetadata_WithWeakIfMatch_ReturnsPreconditionFailed() throws Exception {
+        // Arrange
+        UpdateImageRequest request = new UpdateImageRequest();
+        request.setImageType(ImageType.AFTER);
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/projects/1/images/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(projectService, never()).updateImageMetadata(any(), any(), any(), any());
+    }
+
     @Test
     @DisplayName("PATCH /api/projects/{id}/images - Success")
     void uploadProjectImages_WithValidData_ReturnsOk() throws Exception {
@@ -529,7 +672,7 @@ class ProjectControllerTest {
         ProjectResponse response = new ProjectResponse();
         response.setId(1L);
 
-        when(projectService.addImagesToProject(eq(1L), anyList(), anyList()))
+        when(projectService.addImagesToProject(eq(1L), anyList(), anyList(), isNull()))
                 .thenReturn(response);
 
         MockMultipartFile metadataPart = new MockMultipartFile(
@@ -550,6 +693,83 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    @DisplayName("PATCH /api/projects/{id}/images - Replayed response still carries the ETag")
+    void uploadProjectImages_WhenReplayed_ReturnsETag() throws Exception {
+        // Arrange - the stored response has only status and body, as IdempotencyServiceImpl replays it
+        ProjectResponse stored = new ProjectResponse();
+        stored.setId(1L);
+        stored.setVersion(4L);
+        when(idempotencyService.execute(eq("retry-2"), eq("PATCH /api/projects/1/images"), any(),
+                eq(ProjectResponse.class), any()))
+                .thenReturn(ResponseEntity.ok().header("Idempotent-Replayed", "true").body(stored));
+
+        MockMultipartFile image = new MockMultipartFile(
+                "images", "image.jpg", MediaType.IMAGE_JPEG_VALUE, "image content".getBytes()
+        );
+        MockMultipartFile metadataPart = new MockMultipartFile(
+                "imageMetadata", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(List.of(new ImageUploadRequest(ImageType.BEFORE, false)))
+        );
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/projects/1/images")
+                        .file(image)
+                        .file(metadataPart)
+                        .header("Idempotency-Key", "retry-2")
+                        .with(request -> {
+                            request.setMethod("PATCH");
+                            return request;
+                        })
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(projectService, never()).addImagesToProject(any(), anyList(), anyList(), any());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/projects/{id}/images - If-Match is part of the idempotency fingerprint")
+    void uploadProjectImages_WithIfMatch_FingerprintsIfMatch() throws Exception {
+        // Arrange - compute the fingerprint as IdempotencyServiceImpl does when a key is given
+        when(idempotencyService.execute(eq("retry-3"), eq("PATCH /api/projects/1/images"), any(),
+                eq(ProjectResponse.class), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Supplier<?>>getArgument(2).get();
+                    return invocation.<Supplier<?>>getArgument(4).get();
+                });
+        ProjectResponse updated = new ProjectResponse();
+        updated.setId(1L);
+        updated.setVersion(4L);
+        when(projectService.addImagesToProject(eq(1L), anyList(), anyList(), eq(3L))).thenReturn(updated);
+
+        MockMultipartFile image = new MockMultipartFile(
+                "images", "image.jpg", MediaType.IMAGE_JPEG_VALUE, "image content".getBytes()
+        );
+        MockMultipartFile metadataPart = new MockMultipartFile(
+                "imageMetadata", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(List.of(new ImageUploadRequest(ImageType.BEFORE, false)))
+        );
+
+        // Act
+        mockMvc.perform(multipart("/api/projects/1/images")
+                        .file(image)
+                        .file(metadataPart)
+                        .header("Idempotency-Key", "retry-3")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .with(request -> {
+                            request.setMethod("PATCH");
+                            return request;
+                        })
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk());
+
+        // Assert - a retry against another version is a different request
+        verify(idempotencyService).fingerprint(anyList(), anyList(), eq("\"3\""));
+    }
+
     @Test
     @DisplayName("PATCH /api/projects/{id}/images - Not Found")
     void uploadProjectImages_ProjectNotFound_ReturnsNotFound() throws Exception {
@@ -562,7 +782,7 @@ class ProjectControllerTest {
                 new ImageUploadRequest(ImageType.BEFORE, false)
         );
 
-        when(projectService.addImagesToProject(eq(999L), anyList(), anyList()))
+        when(projectService.addImagesToProject(eq(999L), anyList(), anyList(), isNull()))
                 .thenThrow(new ResourceNotFoundException("Project", 999L));
 
         MockMultipartFile metadataPart = new MockMultipartFile(
@@ -593,7 +813,7 @@ class ProjectControllerTest {
         ProjectResponse response = new ProjectResponse();
         response.setId(1L);
 
-        when(projectService.updateImageMetadata(eq(1L), eq(1L), any(UpdateImageRequest.class)))
+        when(projectService.updateImageMetadata(eq(1L), eq(1L), any(UpdateImageRequest.class), isNull()))
                 .thenReturn(response);
 
         // Act & Assert
@@ -611,7 +831,7 @@ class ProjectControllerTest {
         UpdateImageRequest request = new UpdateImageRequest();
         request.setImageType(ImageType.AFTER);
 
-        when(projectService.updateImageMetadata(eq(1L), eq(999L), any(UpdateImageRequest.class)))
+        when(projectService.updateImageMetadata(eq(1L), eq(999L), any(UpdateImageRequest.class), isNull()))
                 .thenThrow(new ResourceNotFoundException("Image", 999L));
 
         // Act & Assert
@@ -675,4 +895,61 @@ class ProjectControllerTest {
 
         verify(projectService).deleteProject(999L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /api/projects/import - Returns per-line report")
+    void importProjects_WithArchive_ReturnsReport() throws Exception {
+        // Arrange
+        BulkImportResponse report = new BulkImportResponse(List.of(
+                BulkImportRowResult.created(1, 10L),
+                BulkImportRowResult.failed(2, "At least one AFTER image must be provided")
+        ));
+        when(projectImportService.importArchive(any())).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/projects/import")
+                        .contentType("application/zip")
+                        .content(new byte[]{0x50, 0x4B, 0x05, 0x06}))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.rows[0].projectId").value(10))
+                .andExpect(jsonPath("$.rows[1].status").value("FAILED"));
+
+        verify(projectImportService).importArchive(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/projects/import - Missing manifest returns Bad Request")
+    void importProjects_WithoutManifest_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(projectImportService.importArchive(any()))
+                .thenThrow(new IllegalArgumentException("Import archive must contain a manifest.ndjson"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/projects/import")
+                        .contentType("application/zip")
+                        .content(new byte[]{0x50, 0x4B, 0x05, 0x06}))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/projects/bulk-delete - Success")
+    void deleteProjects_WithFilter_ReturnsCounts() throws Exception {
+        // Arrange
+        when(projectService.deleteProjects(any())).thenReturn(new BulkDeleteResponse(3, 7));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/projects/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"workType\":\"ROOF_CLEANING\",\"createdBefore\":\"2024-01-01\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.projectsDeleted").value(3))
+                .andExpect(jsonPath("$.imagesDeleted").value(7));
+
+        verify(projectService).deleteProjects(argThat(request ->
+                request.getWorkType() == WorkType.ROOF_CLEANING
+                        && LocalDate.of(2024, 1, 1).equals(request.getCreatedBefore())));
+    }
+}
@@ -0,0 +1,112 @@
+package org.ek.portfoliobackend.controller;
+
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.dto.response.UploadSessionResponse;
+import org.ek.portfoliobackend.exception.GlobalExceptionHandler;
+import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.ek.portfoliobackend.service.ChunkedUploadService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for UploadController endpoints (resumable uploads).
+ */
+@WebMvcTest(controllers = UploadController.class)
+@Import(GlobalExceptionHandler.class)
+class UploadControllerTest {
+
+    private static final String UPLOAD_ID = "6f1c1d2e-0000-4000-8000-000000000000";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ChunkedUploadService chunkedUploadService;
+
+    @Test
+    @DisplayName("POST /api/uploads - Creates session")
+    void createSession_WithValidRequest_ReturnsCreated() throws Exception {
+        // Arrange
+        when(chunkedUploadService.createSession(any()))
+                .thenReturn(new UploadSessionResponse(UPLOAD_ID, "before.jpg", 100, 0));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"before.jpg\",\"size\":100}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.uploadId").value(UPLOAD_ID))
+                .andExpect(jsonPath("$.receivedBytes").value(0));
+    }
+
+    @Test
+    @DisplayName("POST /api/uploads - Missing filename returns Bad Request")
+    void createSession_WithoutFilename_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/uploads")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"size\":100}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("PUT /api/uploads/{id} - Writes chunk at offset")
+    void uploadChunk_WithOffset_ReturnsProgress() throws Exception {
+        // Arrange
+        when(chunkedUploadService.appendChunk(eq(UPLOAD_ID), eq(50L), any()))
+                .thenReturn(new UploadSessionResponse(UPLOAD_ID, "before.jpg", 100, 100));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/uploads/" + UPLOAD_ID)
+                        .param("offset", "50")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[50]))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedBytes").value(100))
+                .andExpect(jsonPath("$.complete").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/uploads/{id} - Unknown session returns Not Found")
+    void getSession_Unknown_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(chunkedUploadService.getSession(UPLOAD_ID)).thenThrow(new ResourceNotFoundException("Upload", UPLOAD_ID));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/uploads/" + UPLOAD_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("POST /api/uploads/projects - Creates project from uploads")
+    void createProject_FromUploads_ReturnsCreated() throws Exception {
+        // Arrange
+        ProjectResponse response = new ProjectResponse();
+        response.setId(7L);
+        when(chunkedUploadService.createProject(any())).thenReturn(response);
+
+        String body = "{\"data\":{\"title\":\"Tagrens\",\"description\":\"Algebehandling\",\"executionDate\":\"2025-02-10\","
+                + "\"serviceCategory\":\"ROOF_CLEANING\",\"customerType\":\"BUSINESS_CUSTOMER\"},"
+                + "\"images\":[{\"uploadId\":\"" + UPLOAD_ID + "\",\"imageType\":\"BEFORE\"}]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/api/uploads/projects")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7));
+
+        verify(chunkedUploadService).createProject(any());
+    }
+}
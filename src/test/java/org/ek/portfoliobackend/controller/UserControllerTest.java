@@ -3,6 +3,7 @@ package org.ek.portfoliobackend.controller;
 import tools.jackson.databind.ObjectMapper;
 import org.ek.portfoliobackend.dto.request.CreateUserRequest;
 import org.ek.portfoliobackend.dto.request.UpdateUserRequest;
+import org.ek.portfoliobackend.dto.response.UserPageResponse;
 import org.ek.portfoliobackend.dto.response.UserResponse;
 import org.ek.portfoliobackend.service.UserService;
 import org.junit.jupiter.api.Test;
@@ -13,11 +14,17 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -73,18 +80,65 @@ class UserControllerTest {
     }
 
     @Test
-    void getAllUsers_shouldReturn200() throws Exception {
+    void getUsers_shouldReturnPage() throws Exception {
         // Arrange
         UserResponse user1 = new UserResponse(1L, "admin", "admin@test.dk", "ROLE_ADMIN");
         UserResponse user2 = new UserResponse(2L, "sales", "sales@test.dk", "ROLE_SALES");
+        UserPageResponse page = new UserPageResponse();
+        page.setContent(Arrays.asList(user1, user2));
+        page.setSize(2);
+        page.setPage(0);
+        page.setTotalElements(2L);
+        page.setTotalPages(1);
 
-        when(userService.getAllUsers()).thenReturn(Arrays.asList(user1, user2));
+        when(userService.getUsers(0, 2)).thenReturn(page);
 
         // Act & Assert
-        mockMvc.perform(get("/api/users"))
+        mockMvc.perform(get("/api/users").param("size", "2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].username").value("admin"))
-                .andExpect(jsonPath("$[1].username").value("sales"));
+                .andExpect(jsonPath("$.content[0].username").value("admin"))
+                .andExpect(jsonPath("$.content[1].username").value("sales"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    void getUsers_withCursor_shouldUseCursorPaging() throws Exception {
+        // Arrange
+        UserPageResponse page = new UserPageResponse();
+        page.setContent(List.of(new UserResponse(3L, "sales", "sales@test.dk", "ROLE_SALES")));
+        page.setSize(50);
+        page.setNextCursor(3L);
+
+        when(userService.getUsersAfter(2L, 50)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users").param("after", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.nextCursor").value(3));
+    }
+
+    @Test
+    void exportUsers_shouldWriteOneJsonLinePerUser() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new UserResponse(1L, "admin", "admin@test.dk", "ROLE_ADMIN"));
+            consumer.accept(new UserResponse(2L, "sales", "sales@test.dk", "ROLE_SALES"));
+            return null;
+        }).when(userService).exportUsers(any());
+
+        // Act
+        String body = mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("sales", objectMapper.readTree(lines[1]).path("username").asString());
+        assertFalse(body.contains("password"));
     }
 
     @Test
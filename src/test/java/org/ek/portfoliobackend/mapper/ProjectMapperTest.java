@@ -3,7 +3,9 @@ package org.ek.portfoliobackend.mapper;
 import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
 import org.ek.portfoliobackend.dto.request.UpdateImageRequest;
 import org.ek.portfoliobackend.dto.request.UpdateProjectRequest;
+import org.ek.portfoliobackend.dto.response.ImageResponse;
 import org.ek.portfoliobackend.model.*;
+import org.ek.portfoliobackend.service.ImagePlaceholderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -201,7 +203,20 @@ class ProjectMapperTest {
         assertThat(image.getIsFeatured()).isTrue();
     }
 
-    }
-
+    @Test
+    @DisplayName("Should copy placeholder to image and response")
+    void applyPlaceholder_shouldBeIncludedInImageResponse() {
+        // Arrange
+        Image image = new Image();
+        ImagePlaceholderService.Placeholder placeholder =
+                new ImagePlaceholderService.Placeholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj", "#a0b1c2");
 
+        // Act
+        projectMapper.applyPlaceholder(image, placeholder);
+        ImageResponse response = projectMapper.toImageResponse(image);
 
+        // Assert
+        assertThat(response.getBlurhash()).isEqualTo("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+        assertThat(response.getDominantColor()).isEqualTo("#a0b1c2");
+    }
+}
@@ -1,18 +1,23 @@
 package org.ek.portfoliobackend.repository;
 
+import jakarta.persistence.EntityManager;
+import org.ek.portfoliobackend.config.ImageCountBackfillRunner;
 import org.ek.portfoliobackend.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -23,6 +28,15 @@ class ProjectRepositoryTest {
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
     @BeforeEach
     void setUp() {
         projectRepository.deleteAll();
@@ -94,6 +108,104 @@ class ProjectRepositoryTest {
         assertThat(projectRepository.findById(id)).isEmpty();
     }
 
+    @Test
+    @DisplayName("Should find ids by filters and bulk delete projects with their images")
+    void testFindIdsByFiltersAndBulkDelete() {
+        Project old = createAndSaveProject("Old", LocalDate.now().minusYears(2));
+        Project recent = createAndSaveProject("Recent", LocalDate.now());
+        Image image = new Image(null, "/uploads/old.jpg", ImageType.BEFORE, false, old);
+        old.getImages().add(image);
+        projectRepository.save(old);
+
+        List<Long> ids = projectRepository.findIdsByFilters(WorkType.FACADE_CLEANING, null, LocalDate.now().minusYears(1));
+        assertThat(ids).containsExactly(old.getId());
+
+        assertThat(imageRepository.findUrlsByProjectIdIn(ids)).containsExactly("/uploads/old.jpg");
+        assertThat(imageRepository.deleteByProjectIdIn(ids)).isEqualTo(1);
+        assertThat(projectRepository.deleteByIdIn(ids)).isEqualTo(1);
+
+        assertThat(projectRepository.findById(old.getId())).isEmpty();
+        assertThat(projectRepository.findById(recent.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should increment version on update and reject a stale copy")
+    void testVersionIsIncrementedAndCheckedOnUpdate() {
+        Project project = createAndSaveProject("Versioned", LocalDate.now());
+        projectRepository.flush();
+        Long initialVersion = project.getVersion();
+
+        project.setTitle("Edited");
+        projectRepository.saveAndFlush(project);
+        assertThat(project.getVersion()).isEqualTo(initialVersion + 1);
+
+        // Another editor still holding the first version
+        Project stale = new Project();
+        stale.setId(project.getId());
+        stale.setVersion(initialVersion);
+        stale.setTitle("Stale edit");
+
+        assertThatThrownBy(() -> projectRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Should change image counters only while one BEFORE and one AFTER image remain")
+    void testChangeImageCountsKeepsOneImageOfEachType() {
+        Project project = new Project();
+        project.setTitle("Counted");
+        project.countImage(ImageType.BEFORE);
+        project.countImage(ImageType.BEFORE);
+        project.countImage(ImageType.AFTER);
+        Long id = projectRepository.saveAndFlush(project).getId();
+
+        assertThat(projectRepository.changeImageCounts(id, -1, 0)).isEqualTo(1);
+        assertThat(projectRepository.changeImageCounts(id, -1, 0)).isZero();
+        assertThat(projectRepository.changeImageCounts(id, 0, -1)).isZero();
+        assertThat(projectRepository.changeImageCounts(id, 1, 2)).isEqualTo(1);
+        assertThat(projectRepository.changeImageCounts(id, -1, 1)).isEqualTo(1);
+        assertThat(projectRepository.changeImageCounts(id, -1, 1)).isZero();
+
+        // The counters are not written by a flush of the (stale) entity
+        project.setTitle("Renamed");
+        projectRepository.saveAndFlush(project);
+        entityManager.clear();
+
+        Project reloaded = projectRepository.findById(id).orElseThrow();
+        assertThat(reloaded.getBeforeImageCount()).isEqualTo(1);
+        assertThat(reloaded.getAfterImageCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should backfill image counters that do not match the image rows")
+    void testImageCountBackfillFixesMismatchedCounters() {
+        // Arrange: counters left at 0, as when ddl-auto=update adds the columns to existing rows
+        Project stale = createAndSaveProject("Stale counters", LocalDate.now());
+        imageRepository.save(new Image(null, "/uploads/b1.jpg", ImageType.BEFORE, false, stale));
+        imageRepository.save(new Image(null, "/uploads/b2.jpg", ImageType.BEFORE, false, stale));
+        imageRepository.save(new Image(null, "/uploads/a1.jpg", ImageType.AFTER, true, stale));
+        Project counted = new Project();
+        counted.setTitle("Correct counters");
+        counted.countImage(ImageType.BEFORE);
+        counted.countImage(ImageType.AFTER);
+        projectRepository.save(counted);
+        imageRepository.save(new Image(null, "/uploads/b3.jpg", ImageType.BEFORE, false, counted));
+        imageRepository.save(new Image(null, "/uploads/a2.jpg", ImageType.AFTER, true, counted));
+        entityManager.flush();
+
+        // Act
+        new ImageCountBackfillRunner(dataSource).run(null);
+        entityManager.clear();
+
+        // Assert
+        Project backfilled = projectRepository.findById(stale.getId()).orElseThrow();
+        assertThat(backfilled.getBeforeImageCount()).isEqualTo(2);
+        assertThat(backfilled.getAfterImageCount()).isEqualTo(1);
+        Project untouched = projectRepository.findById(counted.getId()).orElseThrow();
+        assertThat(untouched.getBeforeImageCount()).isEqualTo(1);
+        assertThat(untouched.getAfterImageCount()).isEqualTo(1);
+    }
+
     private Project createAndSaveProject(String title, LocalDate date) {
         Project project = new Project();
         project.setTitle(title);
@@ -0,0 +1,126 @@
+package org.ek.portfoliobackend.security;
+
+import org.ek.portfoliobackend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JwtTokenService to verify issuing, signature and expiry checks, and revocation.
+ */
+class JwtTokenServiceTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-32-bytes";
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private TokenRevocationList revocationList;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList();
+        user = new User(7L, "Jens64", "jens@test.dk", "hash", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("validate - issued token gives user, role and expiry from its claims")
+    void validate_IssuedToken_ReturnsPrincipalFromClaims() {
+        // Arrange
+        JwtTokenService service = serviceAt(NOW);
+        String token = service.issue(user);
+
+        // Act
+        JwtPrincipal principal = service.validate(token);
+
+        // Assert
+        assertEquals(7L, principal.userId());
+        assertEquals("Jens64", principal.getName());
+        assertEquals("ROLE_ADMIN", principal.role());
+        assertEquals(NOW.plusSeconds(3600), principal.expiresAt());
+        assertNotNull(principal.tokenId());
+    }
+
+    @Test
+    @DisplayName("validate - token with changed claims is rejected")
+    void validate_TamperedPayload_ThrowsBadCredentials() {
+        // Arrange
+        JwtTokenService service = serviceAt(NOW);
+        String[] parts = service.issue(user).split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("ROLE_ADMIN", "ROLE_ROOT");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> service.validate(tampered));
+    }
+
+    @Test
+    @DisplayName("validate - token signed with another secret or with alg none is rejected")
+    void validate_ForeignOrUnsignedToken_ThrowsBadCredentials() {
+        // Arrange
+        JwtTokenService service = serviceAt(NOW);
+        JwtTokenService other = new JwtTokenService("another-secret-key-that-is-32-bytes-long", 3_600_000, 30,
+                JsonMapper.builder().build(), revocationList, Clock.fixed(NOW, ZoneOffset.UTC));
+        String[] parts = service.issue(user).split("\\.");
+        String none = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "." + parts[1] + ".";
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> service.validate(other.issue(user)));
+        assertThrows(BadCredentialsException.class, () -> service.validate(none));
+        assertThrows(BadCredentialsException.class, () -> service.validate("not-a-token"));
+    }
+
+    @Test
+    @DisplayName("validate - expired token is accepted within the clock skew and rejected after it")
+    void validate_ExpiredToken_HonoursClockSkew() {
+        // Arrange
+        String token = serviceAt(NOW).issue(user);
+        Instant expiry = NOW.plusSeconds(3600);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> serviceAt(expiry.plusSeconds(29)).validate(token));
+        assertThrows(BadCredentialsException.class, () -> serviceAt(expiry.plusSeconds(31)).validate(token));
+    }
+
+    @Test
+    @DisplayName("validate - revoked token is rejected")
+    void validate_RevokedToken_ThrowsBadCredentials() {
+        // Arrange
+        JwtTokenService service = serviceAt(NOW);
+        String token = service.issue(user);
+        String otherToken = service.issue(user);
+
+        // Act
+        service.revoke(service.validate(token));
+
+        // Assert
+        assertThrows(BadCredentialsException.class, () -> service.validate(token));
+        assertDoesNotThrow(() -> service.validate(otherToken));
+        assertEquals(1, revocationList.size());
+    }
+
+    @Test
+    @DisplayName("constructor - secret shorter than 32 bytes is refused")
+    void constructor_ShortSecret_ThrowsIllegalState() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new JwtTokenService("too-short", 3_600_000, 30,
+                JsonMapper.builder().build(), revocationList, Clock.systemUTC()));
+    }
+
+    private JwtTokenService serviceAt(Instant now) {
+        return new JwtTokenService(SECRET, 3_600_000, 30, JsonMapper.builder().build(), revocationList,
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
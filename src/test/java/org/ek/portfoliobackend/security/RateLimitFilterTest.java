@@ -0,0 +1,156 @@
+package org.ek.portfoliobackend.security;
+
+import tools.jackson.databind.ObjectMapper;
+import org.ek.portfoliobackend.controller.UserController;
+import org.ek.portfoliobackend.dto.request.CreateUserRequest;
+import org.ek.portfoliobackend.dto.response.UserPageResponse;
+import org.ek.portfoliobackend.dto.response.UserResponse;
+import org.ek.portfoliobackend.exception.custom.TooManyRequestsException;
+import org.ek.portfoliobackend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for RateLimitFilter in front of the controllers: write requests are limited per client, reads are not,
+ * and rejected requests never reach the DispatcherServlet.
+ */
+@WebMvcTest(UserController.class)
+@TestPropertySource(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.capacity=2",
+        "rate-limit.refill-per-second=0.01"
+})
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean(name = "multipartResolver")
+    private MultipartResolver multipartResolver;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("POST - third write within the burst gets 429 with Retry-After, other clients and GETs are not limited")
+    void createUser_AboveLimit_Returns429WithRetryAfter() throws Exception {
+        // Arrange
+        when(userService.createUser(any(CreateUserRequest.class)))
+                .thenReturn(new UserResponse(1L, "admin", "admin@test.dk", "ROLE_ADMIN"));
+        when(userService.getUsers(0, 50)).thenReturn(new UserPageResponse());
+
+        // Act & Assert
+        mockMvc.perform(createUser("10.0.0.1")).andExpect(status().isCreated());
+        mockMvc.perform(createUser("10.0.0.1")).andExpect(status().isCreated());
+        mockMvc.perform(createUser("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(jsonPath("$.status").value(429));
+
+        mockMvc.perform(createUser("10.0.0.2")).andExpect(status().isCreated());
+        mockMvc.perform(get("/api/users").with(request -> {
+            request.setRemoteAddr("10.0.0.1");
+            return request;
+        })).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("PATCH multipart - upload over the limit is rejected before the MultipartResolver reads the body")
+    void uploadImages_AboveLimit_NeverReachesMultipartResolver() throws Exception {
+        // Arrange
+        when(userService.createUser(any(CreateUserRequest.class)))
+                .thenReturn(new UserResponse(1L, "admin", "admin@test.dk", "ROLE_ADMIN"));
+        mockMvc.perform(createUser("10.0.0.3")).andExpect(status().isCreated());
+        mockMvc.perform(createUser("10.0.0.3")).andExpect(status().isCreated());
+        // The accepted requests did pass through the DispatcherServlet's multipart check
+        verify(multipartResolver, times(2)).isMultipart(any());
+        clearInvocations(multipartResolver);
+
+        // Act & Assert
+        mockMvc.perform(multipart(HttpMethod.PATCH, "/api/projects/1/images")
+                        .file(new MockMultipartFile("images", "before.jpg", "image/jpeg", new byte[1024]))
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.3");
+                            return request;
+                        }))
+                .andExpect(status().isTooManyRequests());
+        verifyNoInteractions(multipartResolver);
+    }
+
+    @Test
+    @DisplayName("doFilter - authenticated users are limited per user, not per IP")
+    void doFilter_WithAuthenticatedUsers_LimitsPerUser() throws Exception {
+        // Arrange
+        HandlerExceptionResolver exceptionResolver = mock(HandlerExceptionResolver.class);
+        RateLimitFilter filter = new RateLimitFilter(true, 1, 0.01, 5, 100, exceptionResolver);
+
+        // Act
+        MockFilterChain aliceFirst = filterAs(filter, "alice");
+        MockFilterChain aliceSecond = filterAs(filter, "alice");
+        MockFilterChain bob = filterAs(filter, "bob");
+
+        // Assert
+        assertNotNull(aliceFirst.getRequest());
+        assertNull(aliceSecond.getRequest());
+        assertNotNull(bob.getRequest());
+        verify(exceptionResolver).resolveException(any(), any(), isNull(), any(TooManyRequestsException.class));
+    }
+
+    private static MockFilterChain filterAs(RateLimitFilter filter, String username) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/projects/1");
+        request.setRemoteAddr("10.0.0.4");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private MockHttpServletRequestBuilder createUser(String remoteAddress) {
+        CreateUserRequest request = new CreateUserRequest("admin", "admin@test.dk", "password123", "ROLE_ADMIN");
+        return post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .with(servletRequest -> {
+                    servletRequest.setRemoteAddr(remoteAddress);
+                    return servletRequest;
+                });
+    }
+}
@@ -0,0 +1,91 @@
+package org.ek.portfoliobackend.security;
+
+import org.ek.portfoliobackend.dto.request.CreateUserRequest;
+import org.ek.portfoliobackend.model.User;
+import org.ek.portfoliobackend.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for SecurityConfig with the full filter chain: public reads, bearer tokens, roles and revocation.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Project reads are public, writes need a token")
+    void projects_WithoutToken_ReadsAllowedWritesRejected() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/projects")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/projects/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1]}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("User administration needs ROLE_ADMIN taken from the token")
+    void users_WithRoleFromToken_OnlyAdminAllowed() throws Exception {
+        // Arrange
+        String sales = jwtTokenService.issue(new User(100L, "sales", "sales@test.dk", "x", "ROLE_SALES"));
+        String admin = jwtTokenService.issue(new User(101L, "admin", "admin@test.dk", "x", "ROLE_ADMIN"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + sales)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + admin)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + admin + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Login issues a working token, and logout revokes it")
+    void login_ThenLogout_TokenStopsWorking() throws Exception {
+        // Arrange
+        userService.createUser(new CreateUserRequest("SecAdmin", "secadmin@test.dk", "Hansen2024", "ROLE_ADMIN"));
+
+        // Act
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"SecAdmin\",\"password\":\"Hansen2024\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode login = objectMapper.readTree(body);
+        String bearer = "Bearer " + login.path("token").asString();
+
+        // Assert
+        mockMvc.perform(get("/api/users").header("Authorization", bearer)).andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", bearer)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users").header("Authorization", bearer)).andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"SecAdmin\",\"password\":\"wrong\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,129 @@
+package org.ek.portfoliobackend.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucketRateLimiter to verify bursts, refill, eviction and the client limit.
+ */
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+
+    @Test
+    @DisplayName("tryAcquire - full bucket allows a burst of capacity, then reports the wait")
+    void tryAcquire_AfterBurst_ReturnsWaitUntilNextToken() {
+        // Arrange - 3 tokens, one token back every 500 ms
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 2, 100, clock::get);
+
+        // Act & Assert
+        assertEquals(0, limiter.tryAcquire("ip:1", 1));
+        assertEquals(0, limiter.tryAcquire("ip:1", 1));
+        assertEquals(0, limiter.tryAcquire("ip:1", 1));
+        assertEquals(SECOND / 2, limiter.tryAcquire("ip:1", 1));
+
+        // Other clients have their own bucket
+        assertEquals(0, limiter.tryAcquire("ip:2", 1));
+    }
+
+    @Test
+    @DisplayName("tryAcquire - tokens refill over time and a rejected request costs nothing")
+    void tryAcquire_AfterRefill_AllowsAgain() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 100, clock::get);
+        limiter.tryAcquire("ip:1", 2);
+        assertTrue(limiter.tryAcquire("ip:1", 1) > 0);
+
+        // Act
+        clock.addAndGet(SECOND);
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("ip:1", 1));
+        assertEquals(SECOND, limiter.tryAcquire("ip:1", 1));
+    }
+
+    @Test
+    @DisplayName("tryAcquire - expensive request needs several tokens")
+    void tryAcquire_WithCostAboveTokensLeft_IsRejected() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1, 100, clock::get);
+        limiter.tryAcquire("ip:1", 7);
+
+        // Act
+        long wait = limiter.tryAcquire("ip:1", 5);
+
+        // Assert - 3 tokens left, 2 more needed
+        assertEquals(2 * SECOND, wait);
+        assertEquals(0, limiter.tryAcquire("ip:1", 3));
+    }
+
+    @Test
+    @DisplayName("evictIdle - only buckets that are full again are removed")
+    void evictIdle_RemovesOnlyFullBuckets() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4, 1, 100, clock::get);
+        limiter.tryAcquire("ip:idle", 1);
+        clock.addAndGet(2 * SECOND);
+        limiter.tryAcquire("ip:busy", 4);
+
+        // Act
+        int evicted = limiter.evictIdle();
+
+        // Assert
+        assertEquals(1, evicted);
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("ip:busy", 1) > 0);
+    }
+
+    @Test
+    @DisplayName("tryAcquire - clients beyond max-clients share one bucket")
+    void tryAcquire_AboveMaxClients_SharesOverflowBucket() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 1, clock::get);
+        limiter.tryAcquire("ip:1", 1);
+
+        // Act
+        long first = limiter.tryAcquire("ip:2", 1);
+        long second = limiter.tryAcquire("ip:3", 1);
+        long third = limiter.tryAcquire("ip:4", 1);
+
+        // Assert
+        assertEquals(1, limiter.size());
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > 0);
+    }
+
+    @Test
+    @DisplayName("tryAcquire - concurrent requests never get more than the capacity")
+    void tryAcquire_Concurrently_AllowsExactlyCapacity() throws InterruptedException {
+        // Arrange - no refill during the test
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(50, 1, 100, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            executor.execute(() -> {
+                if (limiter.tryAcquire("ip:1", 1) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(50, allowed.get());
+    }
+}
@@ -1,12 +1,20 @@
 package org.ek.portfoliobackend.service;
 
+import org.ek.portfoliobackend.dto.request.CreateUserRequest;
+import org.ek.portfoliobackend.dto.request.UpdateUserRequest;
+import org.ek.portfoliobackend.dto.response.UserPageResponse;
+import org.ek.portfoliobackend.dto.response.UserResponse;
 import org.ek.portfoliobackend.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -24,4 +32,61 @@ public class UserIntegrationTest {
         assertThat(userService).isNotNull();
         assertThat(userRepository).isNotNull();
     }
+
+    @Test
+    void createUser_shouldRejectDuplicates_usingUniqueConstraints() {
+        // Arrange
+        userService.createUser(new CreateUserRequest("Unique1", "unique1@test.io", "Hansen2024", "ROLE_ADMIN"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> userService.createUser(
+                new CreateUserRequest("Unique1", "other@test.io", "Hansen2024", "ROLE_ADMIN")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Username already exists");
+        assertThatThrownBy(() -> userService.createUser(
+                new CreateUserRequest("Other1", "unique1@test.io", "Hansen2024", "ROLE_ADMIN")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email already exists");
+    }
+
+    @Test
+    void updateUser_shouldRejectUsernameOfAnotherUser() {
+        // Arrange
+        userService.createUser(new CreateUserRequest("Taken2", "taken2@test.io", "Hansen2024", "ROLE_ADMIN"));
+        UserResponse user = userService.createUser(
+                new CreateUserRequest("Free2", "free2@test.io", "Hansen2024", "ROLE_ADMIN"));
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setUsername("Taken2");
+
+        // Act & Assert
+        assertThatThrownBy(() -> userService.updateUser(user.getId(), request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Username already exists");
+    }
+
+    @Test
+    void getUsersAfter_shouldWalkAllUsersWithCursor_andExportShouldMatch() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            userService.createUser(new CreateUserRequest("Page" + i, "page" + i + "@test.io", "Hansen2024", "ROLE_SALES"));
+        }
+        long total = userRepository.count();
+
+        // Act
+        List<Long> walked = new ArrayList<>();
+        Long cursor = 0L;
+        do {
+            UserPageResponse page = userService.getUsersAfter(cursor, 2);
+            page.getContent().forEach(user -> walked.add(user.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> exported = new ArrayList<>();
+        userService.exportUsers(user -> exported.add(user.getId()));
+
+        // Assert
+        assertThat(walked).hasSize((int) total).isSorted();
+        assertThat(exported).isEqualTo(walked);
+        assertThat(userService.getUsers(0, 2).getTotalElements()).isEqualTo(total);
+    }
 }
@@ -0,0 +1,109 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.dto.request.LoginRequest;
+import org.ek.portfoliobackend.dto.response.LoginResponse;
+import org.ek.portfoliobackend.exception.custom.InvalidCredentialsException;
+import org.ek.portfoliobackend.model.User;
+import org.ek.portfoliobackend.repository.UserRepository;
+import org.ek.portfoliobackend.security.JwtTokenService;
+import org.ek.portfoliobackend.service.PasswordHashingService;
+import org.ek.portfoliobackend.service.PasswordHashingService.Verification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuthServiceImpl to verify login, hash upgrades and logout.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private JwtTokenService jwtTokenService;
+
+    private AuthServiceImpl authService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        authService = new AuthServiceImpl(userRepository, passwordHashingService, jwtTokenService);
+        user = new User(1L, "Jens64", "jens@test.dk", "storedHash", "ROLE_SALES");
+    }
+
+    @Test
+    @DisplayName("login - correct password issues a token without writing the user")
+    void login_WithCorrectPassword_IssuesToken() {
+        // Arrange
+        when(userRepository.findByUsername("Jens64")).thenReturn(Optional.of(user));
+        when(passwordHashingService.verify("Hansen2024", "storedHash")).thenReturn(new Verification(true, null));
+        when(jwtTokenService.issue(user)).thenReturn("signed.token.value");
+        when(jwtTokenService.getExpirationSeconds()).thenReturn(3600L);
+
+        // Act
+        LoginResponse response = authService.login(new LoginRequest("Jens64", "Hansen2024"));
+
+        // Assert
+        assertEquals("signed.token.value", response.getToken());
+        assertEquals("Bearer", response.getTokenType());
+        assertEquals(3600L, response.getExpiresInSeconds());
+        assertEquals("ROLE_SALES", response.getRole());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("login - hash with an outdated cost is replaced by the upgraded hash")
+    void login_WithOutdatedHash_SavesUpgradedHash() {
+        // Arrange
+        when(userRepository.findByUsername("Jens64")).thenReturn(Optional.of(user));
+        when(passwordHashingService.verify("Hansen2024", "storedHash")).thenReturn(new Verification(true, "newHash"));
+        when(jwtTokenService.issue(user)).thenReturn("signed.token.value");
+
+        // Act
+        authService.login(new LoginRequest("Jens64", "Hansen2024"));
+
+        // Assert
+        assertEquals("newHash", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    @DisplayName("login - wrong password throws InvalidCredentialsException")
+    void login_WithWrongPassword_ThrowsInvalidCredentials() {
+        // Arrange
+        when(userRepository.findByUsername("Jens64")).thenReturn(Optional.of(user));
+        when(passwordHashingService.verify("wrong", "storedHash")).thenReturn(new Verification(false, null));
+
+        // Act & Assert
+        assertThrows(InvalidCredentialsException.class, () -> authService.login(new LoginRequest("Jens64", "wrong")));
+        verify(jwtTokenService, never()).issue(any());
+    }
+
+    @Test
+    @DisplayName("login - unknown user still checks a hash and throws InvalidCredentialsException")
+    void login_WithUnknownUser_ThrowsInvalidCredentials() {
+        // Arrange
+        when(userRepository.findByUsername("Nobody")).thenReturn(Optional.empty());
+        when(passwordHashingService.verify(eq("Hansen2024"), anyString())).thenReturn(new Verification(false, null));
+
+        // Act & Assert
+        assertThrows(InvalidCredentialsException.class, () -> authService.login(new LoginRequest("Nobody", "Hansen2024")));
+        verify(passwordHashingService).verify(eq("Hansen2024"), anyString());
+    }
+}
@@ -0,0 +1,230 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.dto.request.CreateProjectFromUploadsRequest;
+import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
+import org.ek.portfoliobackend.dto.request.CreateUploadSessionRequest;
+import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
+import org.ek.portfoliobackend.dto.request.UploadedImageRequest;
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.dto.response.UploadSessionResponse;
+import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.ek.portfoliobackend.model.ImageType;
+import org.ek.portfoliobackend.service.ProjectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChunkedUploadServiceImpl to verify resumable chunk handling and finalize.
+ */
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ProjectService projectService;
+
+    @Captor
+    private ArgumentCaptor<List<ImageUploadRequest>> metadata;
+
+    private ChunkedUploadServiceImpl uploadService;
+
+    @BeforeEach
+    void setUp() {
+        uploadService = new ChunkedUploadServiceImpl(projectService, tempDir.toString(), 1024, 24);
+    }
+
+    @Test
+    @DisplayName("appendChunk - chunks are assembled and resend of a chunk is accepted")
+    void appendChunk_AssemblesChunksAndAcceptsResend() throws IOException {
+        // Arrange
+        UploadSessionResponse session = uploadService.createSession(new CreateUploadSessionRequest("before.jpg", 10));
+
+        // Act
+        uploadService.appendChunk(session.getUploadId(), 0, stream("01234"));
+        // Connection dropped, client re-sends the same chunk
+        uploadService.appendChunk(session.getUploadId(), 0, stream("01234"));
+        UploadSessionResponse result = uploadService.appendChunk(session.getUploadId(), 5, stream("56789"));
+
+        // Assert
+        assertEquals(10, result.getReceivedBytes());
+        assertTrue(result.isComplete());
+        assertEquals("0123456789", Files.readString(tempDir.resolve(session.getUploadId() + ".part")));
+    }
+
+    @Test
+    @DisplayName("appendChunk - a retry while the first request is still writing waits instead of failing")
+    void appendChunk_WithConcurrentRetry_WaitsForFirstWrite() throws Exception {
+        // Arrange
+        String uploadId = uploadService.createSession(new CreateUploadSessionRequest("before.jpg", 5)).getUploadId();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slowChunk = new FilterInputStream(stream("01234")) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return super.read(b, off, len);
+            }
+        };
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            // Act
+            Future<UploadSessionResponse> first = executor.submit(() -> uploadService.appendChunk(uploadId, 0, slowChunk));
+            writing.await();
+            Future<UploadSessionResponse> retry = executor.submit(() -> uploadService.appendChunk(uploadId, 0, stream("01234")));
+
+            // Assert - the retry blocks until the first write is done, then rewrites the same bytes
+            assertThrows(TimeoutException.class, () -> retry.get(200, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertEquals(5, first.get().getReceivedBytes());
+            assertTrue(retry.get().isComplete());
+        }
+        assertEquals("01234", Files.readString(tempDir.resolve(uploadId + ".part")));
+    }
+
+    @Test
+    @DisplayName("appendChunk - offset beyond received bytes is rejected")
+    void appendChunk_WithGap_ThrowsIllegalArgumentException() {
+        // Arrange
+        UploadSessionResponse session = uploadService.createSession(new CreateUploadSessionRequest("before.jpg", 10));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadService.appendChunk(session.getUploadId(), 3, stream("345")));
+        assertEquals(0, uploadService.getSession(session.getUploadId()).getReceivedBytes());
+    }
+
+    @Test
+    @DisplayName("appendChunk - chunk past declared size is rejected and discarded")
+    void appendChunk_PastDeclaredSize_ThrowsIllegalArgumentException() {
+        // Arrange
+        UploadSessionResponse session = uploadService.createSession(new CreateUploadSessionRequest("before.jpg", 4));
+        uploadService.appendChunk(session.getUploadId(), 0, stream("01"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadService.appendChunk(session.getUploadId(), 2, stream("23456")));
+        assertEquals(2, uploadService.getSession(session.getUploadId()).getReceivedBytes());
+    }
+
+    @Test
+    @DisplayName("createSession - file larger than max size is rejected")
+    void createSession_TooLarge_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadService.createSession(new CreateUploadSessionRequest("huge.jpg", 2048)));
+    }
+
+    @Test
+    @DisplayName("getSession - unknown or malformed id returns not found")
+    void getSession_UnknownId_ThrowsResourceNotFoundException() {
+        assertThrows(ResourceNotFoundException.class, () -> uploadService.getSession("../../etc/passwd"));
+        assertThrows(ResourceNotFoundException.class,
+                () -> uploadService.getSession("6f1c1d2e-0000-4000-8000-000000000000"));
+    }
+
+    @Test
+    @DisplayName("createProject - hands completed uploads to ProjectService and removes sessions")
+    void createProject_WithCompletedUploads_CreatesProject() throws IOException {
+        // Arrange
+        String before = completedUpload("before.jpg", "before");
+        String after = completedUpload("after.jpg", "after");
+        CreateProjectFromUploadsRequest request = new CreateProjectFromUploadsRequest(
+                new CreateProjectRequest(), List.of(image(before, ImageType.BEFORE), image(after, ImageType.AFTER)));
+
+        when(projectService.createProject(any(), anyList(), anyList())).thenAnswer(invocation -> {
+            List<MultipartFile> files = invocation.getArgument(1);
+            assertEquals("before.jpg", files.get(0).getOriginalFilename());
+            assertArrayEquals("after".getBytes(), files.get(1).getBytes());
+            return new ProjectResponse();
+        });
+
+        // Act
+        uploadService.createProject(request);
+
+        // Assert
+        verify(projectService).createProject(any(), anyList(), anyList());
+        assertFalse(Files.exists(tempDir.resolve(before + ".part")));
+        assertFalse(Files.exists(tempDir.resolve(after + ".session")));
+    }
+
+    @Test
+    @DisplayName("createProject - incomplete upload is rejected and kept for resume")
+    void createProject_WithIncompleteUpload_ThrowsIllegalArgumentException() {
+        // Arrange
+        UploadSessionResponse session = uploadService.createSession(new CreateUploadSessionRequest("before.jpg", 10));
+        uploadService.appendChunk(session.getUploadId(), 0, stream("012"));
+        CreateProjectFromUploadsRequest request = new CreateProjectFromUploadsRequest(
+                new CreateProjectRequest(), List.of(image(session.getUploadId(), ImageType.BEFORE)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> uploadService.createProject(request));
+        verify(projectService, never()).createProject(any(), anyList(), anyList());
+        assertEquals(3, uploadService.getSession(session.getUploadId()).getReceivedBytes());
+    }
+
+    @Test
+    @DisplayName("addImagesToProject - passes metadata in upload order")
+    void addImagesToProject_WithCompletedUploads_AddsImages() {
+        // Arrange
+        String upload = completedUpload("after.jpg", "after");
+        when(projectService.addImagesToProject(eq(5L), anyList(), anyList(), isNull())).thenReturn(new ProjectResponse());
+
+        // Act
+        uploadService.addImagesToProject(5L, List.of(image(upload, ImageType.AFTER)));
+
+        // Assert
+        verify(projectService).addImagesToProject(eq(5L), anyList(), metadata.capture(), isNull());
+        assertEquals(1, metadata.getValue().size());
+    }
+
+    private String completedUpload(String filename, String content) {
+        UploadSessionResponse session = uploadService.createSession(
+                new CreateUploadSessionRequest(filename, content.length()));
+        uploadService.appendChunk(session.getUploadId(), 0, stream(content));
+        return session.getUploadId();
+    }
+
+    private UploadedImageRequest image(String uploadId, ImageType imageType) {
+        UploadedImageRequest image = new UploadedImageRequest();
+        image.setUploadId(uploadId);
+        image.setImageType(imageType);
+        return image;
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes());
+    }
+}
@@ -0,0 +1,162 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.model.PendingFileDeletion;
+import org.ek.portfoliobackend.repository.PendingFileDeletionRepository;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FileCleanupServiceImpl to verify deferred deletion, batching and retry.
+ */
+@ExtendWith(MockitoExtension.class)
+class FileCleanupServiceImplTest {
+
+    @Mock
+    private PendingFileDeletionRepository pendingFileDeletionRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private TaskExecutor fileCleanupExecutor;
+
+    private FileCleanupServiceImpl fileCleanupService;
+
+    @BeforeEach
+    void setUp() {
+        fileCleanupService = new FileCleanupServiceImpl(pendingFileDeletionRepository, imageStorageService,
+                fileCleanupExecutor, 2, 3, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("scheduleDeletions - starts worker only after commit")
+    void scheduleDeletions_InTransaction_TriggersWorkerAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        fileCleanupService.scheduleDeletions(List.of("/uploads/a.jpg", "/uploads/b.jpg"));
+
+        // Assert - rows saved but no file touched before commit
+        verify(pendingFileDeletionRepository).saveAll(anyList());
+        verify(fileCleanupExecutor, never()).execute(any());
+        verifyNoInteractions(imageStorageService);
+
+        // Simulate commit
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(fileCleanupExecutor).execute(any());
+    }
+
+    @Test
+    @DisplayName("scheduleDeletions - ignores blank urls")
+    void scheduleDeletions_WithOnlyBlankUrls_DoesNothing() {
+        // Act
+        List<String> urls = new ArrayList<>();
+        urls.add(null);
+        urls.add(" ");
+        fileCleanupService.scheduleDeletions(urls);
+
+        // Assert
+        verifyNoInteractions(pendingFileDeletionRepository);
+        verifyNoInteractions(fileCleanupExecutor);
+    }
+
+    @Test
+    @DisplayName("processPendingDeletions - deletes files in batches and removes rows")
+    void processPendingDeletions_DeletesBatchesUntilEmpty() {
+        // Arrange
+        PendingFileDeletion first = pending(1L, "/uploads/1.jpg");
+        PendingFileDeletion second = pending(2L, "/uploads/2.jpg");
+        PendingFileDeletion third = pending(3L, "/uploads/3.jpg");
+
+        when(pendingFileDeletionRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        // Act
+        int deleted = fileCleanupService.processPendingDeletions();
+
+        // Assert
+        assertEquals(3, deleted);
+        verify(imageStorageService).delete("/uploads/1.jpg");
+        verify(imageStorageService).delete("/uploads/2.jpg");
+        verify(imageStorageService).delete("/uploads/3.jpg");
+        verify(pendingFileDeletionRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(pendingFileDeletionRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    @DisplayName("processPendingDeletions - failed delete is rescheduled with backoff")
+    void processPendingDeletions_WhenDeleteFails_ReschedulesRow() {
+        // Arrange
+        PendingFileDeletion failing = pending(1L, "/uploads/locked.jpg");
+        when(pendingFileDeletionRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(failing));
+        doThrow(new RuntimeException("disk busy")).when(imageStorageService).delete("/uploads/locked.jpg");
+
+        // Act
+        int deleted = fileCleanupService.processPendingDeletions();
+
+        // Assert
+        assertEquals(0, deleted);
+        assertEquals(1, failing.getAttempts());
+        assertEquals("disk busy", failing.getLastError());
+        assertTrue(failing.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        verify(pendingFileDeletionRepository).saveAll(List.of(failing));
+        verify(pendingFileDeletionRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("processPendingDeletions - gives up after max attempts")
+    void processPendingDeletions_AfterMaxAttempts_DropsRow() {
+        // Arrange
+        PendingFileDeletion failing = pending(1L, "/uploads/locked.jpg");
+        failing.setAttempts(2);
+        when(pendingFileDeletionRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(failing));
+        doThrow(new RuntimeException("disk busy")).when(imageStorageService).delete("/uploads/locked.jpg");
+
+        // Act
+        fileCleanupService.processPendingDeletions();
+
+        // Assert
+        ArgumentCaptor<List<Long>> idsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(pendingFileDeletionRepository).deleteAllByIdInBatch(idsCaptor.capture());
+        assertEquals(List.of(1L), idsCaptor.getValue());
+        verify(pendingFileDeletionRepository, never()).saveAll(anyList());
+    }
+
+    private PendingFileDeletion pending(Long id, String url) {
+        PendingFileDeletion pendingDeletion = new PendingFileDeletion(url, LocalDateTime.now().minusMinutes(1));
+        pendingDeletion.setId(id);
+        return pendingDeletion;
+    }
+}
@@ -0,0 +1,182 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FileStorageJournalImpl to verify replay after a crash, checkpoints and transaction outcomes.
+ */
+class FileStorageJournalImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageJournalImpl journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new FileStorageJournalImpl(tempDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("replay - intent without outcome is unresolved after a restart")
+    void replay_IntentWithoutOutcome_IsUnresolved() {
+        // Arrange
+        journal.logIntent("/uploads/a.jpg");
+        journal.logIntent("/uploads/b.jpg");
+        journal.commit(List.of("/uploads/a.jpg"));
+
+        // Act - open the journal again without closing it, as after a crash
+        FileStorageJournalImpl reopened = new FileStorageJournalImpl(tempDir.toString());
+
+        // Assert
+        assertEquals(List.of("/uploads/b.jpg"), reopened.unresolvedIntents());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("replay - aborted intent needs no recovery")
+    void replay_AbortedIntent_IsNotUnresolved() {
+        // Arrange
+        journal.logIntent("/uploads/a.jpg");
+        journal.abort(List.of("/uploads/a.jpg"));
+
+        // Act
+        FileStorageJournalImpl reopened = new FileStorageJournalImpl(tempDir.toString());
+
+        // Assert
+        assertTrue(reopened.unresolvedIntents().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("replay - torn or damaged last line is ignored")
+    void replay_WithTornTail_IgnoresDamagedRecord() throws IOException {
+        // Arrange
+        journal.logIntent("/uploads/a.jpg");
+        Path journalFile = tempDir.resolve(FileStorageJournalImpl.JOURNAL_FILE);
+        Files.writeString(journalFile, "C /uploads/a.jpg 0\nI /uploads/b.j", StandardOpenOption.APPEND);
+
+        // Act
+        FileStorageJournalImpl reopened = new FileStorageJournalImpl(tempDir.toString());
+        reopened.logIntent("/uploads/c.jpg");
+        reopened.close();
+        FileStorageJournalImpl reopenedAgain = new FileStorageJournalImpl(tempDir.toString());
+
+        // Assert - the commit with a bad checksum does not count, and new records are readable after the damage
+        assertEquals(List.of("/uploads/a.jpg", "/uploads/c.jpg"), reopenedAgain.unresolvedIntents());
+        reopenedAgain.close();
+    }
+
+    @Test
+    @DisplayName("checkpoint - journal only keeps intents without an outcome")
+    void checkpoint_RewritesJournalWithOpenIntents() throws IOException {
+        // Arrange
+        for (int i = 0; i < 100; i++) {
+            journal.logIntent("/uploads/" + i + ".jpg");
+        }
+        List<String> done = new ArrayList<>();
+        for (int i = 1; i < 100; i++) {
+            done.add("/uploads/" + i + ".jpg");
+        }
+        journal.commit(done);
+
+        // Act
+        journal.checkpoint();
+
+        // Assert
+        List<String> lines = Files.readAllLines(tempDir.resolve(FileStorageJournalImpl.JOURNAL_FILE), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("I /uploads/0.jpg "));
+    }
+
+    @Test
+    @DisplayName("commitAfterTransaction - rollback leaves the files unresolved")
+    void commitAfterTransaction_OnRollback_MarksUnresolved() {
+        // Arrange
+        journal.logIntent("/uploads/a.jpg");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        journal.commitAfterTransaction(List.of("/uploads/a.jpg"));
+        assertTrue(journal.unresolvedIntents().isEmpty());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        // Assert
+        assertEquals(List.of("/uploads/a.jpg"), journal.unresolvedIntents());
+    }
+
+    @Test
+    @DisplayName("commitAfterTransaction - commit completes the intent")
+    void commitAfterTransaction_OnCommit_CompletesIntent() {
+        // Arrange
+        journal.logIntent("/uploads/a.jpg");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        journal.commitAfterTransaction(List.of("/uploads/a.jpg"));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        FileStorageJournalImpl reopened = new FileStorageJournalImpl(tempDir.toString());
+
+        // Assert
+        assertTrue(journal.unresolvedIntents().isEmpty());
+        assertTrue(reopened.unresolvedIntents().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("logIntent - concurrent intents are all durable")
+    void logIntent_Concurrently_AllIntentsAreReplayed() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 200; i++) {
+                String url = "/uploads/" + i + ".jpg";
+                futures.add(executor.submit(() -> journal.logIntent(url)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        FileStorageJournalImpl reopened = new FileStorageJournalImpl(tempDir.toString());
+
+        // Assert
+        assertEquals(200, reopened.unresolvedIntents().size());
+        reopened.close();
+    }
+}
@@ -0,0 +1,229 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.dto.response.ProjectResponse;
+import org.ek.portfoliobackend.exception.custom.IdempotencyConflictException;
+import org.ek.portfoliobackend.model.IdempotencyRecord;
+import org.ek.portfoliobackend.repository.IdempotencyRecordRepository;
+import org.ek.portfoliobackend.security.JwtPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdempotencyServiceImpl to verify key reservation, response replay and conflicts.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    private static final String KEY = "3f0c6a1e-retry";
+    private static final String STORED_KEY = "anonymous:" + KEY;
+    private static final String OPERATION = "POST /api/projects";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository, JsonMapper.builder().build(), 24, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("execute - without key the action simply runs")
+    void execute_WithoutKey_RunsAction() {
+        ResponseEntity<ProjectResponse> response = execute(null, "hash");
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, calls.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    @DisplayName("execute - first request reserves the key and stores the response")
+    void execute_FirstRequest_StoresResponse() {
+        // Arrange
+        IdempotencyRecord reserved = new IdempotencyRecord(STORED_KEY, OPERATION, "hash", LocalDateTime.now(), LocalDateTime.now().plusHours(24));
+        when(idempotencyRecordRepository.findById(STORED_KEY)).thenReturn(Optional.empty(), Optional.of(reserved));
+
+        // Act
+        ResponseEntity<ProjectResponse> response = execute(KEY, "hash");
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(idempotencyRecordRepository).saveAndFlush(any(IdempotencyRecord.class));
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(stored.capture());
+        assertEquals(IdempotencyRecord.Status.COMPLETED, stored.getValue().getStatus());
+        assertEquals(201, stored.getValue().getResponseStatus());
+        assertTrue(stored.getValue().getResponseBody().contains("\"id\":7"));
+    }
+
+    @Test
+    @DisplayName("execute - retry with same content replays the stored response without running the action")
+    void execute_CompletedKey_ReplaysResponse() {
+        // Arrange
+        when(idempotencyRecordRepository.findById(STORED_KEY)).thenReturn(Optional.of(completed("hash")));
+
+        // Act
+        ResponseEntity<ProjectResponse> response = execute(KEY, "hash");
+
+        // Assert
+        assertEquals(0, calls.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(7L, response.getBody().getId());
+        assertEquals("true", response.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("execute - key reused for different content returns 422")
+    void execute_KeyWithDifferentContent_ThrowsMismatch() {
+        when(idempotencyRecordRepository.findById(STORED_KEY)).thenReturn(Optional.of(completed("hash")));
+
+        IdempotencyConflictException exception = assertThrows(IdempotencyConflictException.class,
+                () -> execute(KEY, "other-hash"));
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT, exception.getStatus());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("execute - concurrent request with the same key returns 409")
+    void execute_KeyInProgress_ThrowsConflict() {
+        // Arrange - the other request inserted the key between our lookup and insert
+        IdempotencyRecord inProgress = new IdempotencyRecord(STORED_KEY, OPERATION, "hash", LocalDateTime.now(), LocalDateTime.now().plusHours(24));
+        when(idempotencyRecordRepository.findById(STORED_KEY)).thenReturn(Optional.empty(), Optional.of(inProgress));
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act & Assert
+        IdempotencyConflictException exception = assertThrows(IdempotencyConflictException.class,
+                () -> execute(KEY, "hash"));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("execute - failing action releases the key so the client can retry")
+    void execute_ActionFails_DeletesKey() {
+        when(idempotencyRecordRepository.findById(STORED_KEY)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(KEY, OPERATION, () -> "hash",
+                ProjectResponse.class, () -> {
+                    throw new IllegalArgumentException("At least one AFTER image must be provided");
+                }));
+        verify(idempotencyRecordRepository).deleteById(STORED_KEY);
+    }
+
+    @Test
+    @DisplayName("execute - expired key is processed again")
+    void execute_ExpiredKey_RunsActionAgain() {
+        // Arrange
+        IdempotencyRecord expired = completed("hash");
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(idempotencyRecordRepository.findById(STORED_KEY)).thenReturn(Optional.of(expired), Optional.empty());
+
+        // Act
+        execute(KEY, "hash");
+
+        // Assert
+        assertEquals(1, calls.get());
+        verify(idempotencyRecordRepository).delete(expired);
+    }
+
+    @Test
+    @DisplayName("execute - same key from two users is stored separately")
+    void execute_SameKeyFromTwoUsers_ScopesKeyPerUser() {
+        // Arrange - the first user already completed a request with the key
+        when(idempotencyRecordRepository.findById("user-1:" + KEY)).thenReturn(Optional.of(completed("hash")));
+        when(idempotencyRecordRepository.findById("user-2:" + KEY)).thenReturn(Optional.empty());
+
+        // Act
+        authenticateAs(1L);
+        ResponseEntity<ProjectResponse> replayed = execute(KEY, "hash");
+        authenticateAs(2L);
+        ResponseEntity<ProjectResponse> processed = execute(KEY, "other-hash");
+
+        // Assert - the second user gets its own request processed, not the first user's response
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        assertNull(processed.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        assertEquals(1, calls.get());
+        ArgumentCaptor<IdempotencyRecord> reserved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).saveAndFlush(reserved.capture());
+        assertEquals("user-2:" + KEY, reserved.getValue().getIdempotencyKey());
+    }
+
+    @Test
+    @DisplayName("execute - key longer than 200 characters is rejected")
+    void execute_KeyTooLong_ThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> execute("k".repeat(201), "hash"));
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    @DisplayName("fingerprint - changes with file content and request parts")
+    void fingerprint_DependsOnContent() {
+        MockMultipartFile file = new MockMultipartFile("images", "a.jpg", "image/jpeg", new byte[]{1, 2, 3});
+        MockMultipartFile changed = new MockMultipartFile("images", "a.jpg", "image/jpeg", new byte[]{1, 2, 4});
+
+        String original = idempotencyService.fingerprint(List.of(file), "data");
+
+        assertEquals(original, idempotencyService.fingerprint(List.of(file), "data"));
+        assertNotEquals(original, idempotencyService.fingerprint(List.of(changed), "data"));
+        assertNotEquals(original, idempotencyService.fingerprint(List.of(file), "other"));
+        assertEquals(64, original.length());
+    }
+
+    private ResponseEntity<ProjectResponse> execute(String key, String hash) {
+        Supplier<ResponseEntity<ProjectResponse>> action = () -> {
+            calls.incrementAndGet();
+            ProjectResponse body = new ProjectResponse();
+            body.setId(7L);
+            return ResponseEntity.status(HttpStatus.CREATED).body(body);
+        };
+        return idempotencyService.execute(key, OPERATION, () -> hash, ProjectResponse.class, action);
+    }
+
+    private static void authenticateAs(Long userId) {
+        JwtPrincipal principal = new JwtPrincipal(userId, "user" + userId, "ROLE_ADMIN", "token-" + userId,
+                Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private IdempotencyRecord completed(String hash) {
+        IdempotencyRecord record = new IdempotencyRecord(STORED_KEY, OPERATION, hash, LocalDateTime.now(), LocalDateTime.now().plusHours(24));
+        record.setStatus(IdempotencyRecord.Status.COMPLETED);
+        record.setResponseStatus(201);
+        record.setResponseBody("{\"id\":7,\"title\":\"Fliserens\"}");
+        return record;
+    }
+}
@@ -0,0 +1,227 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.dto.response.ImageCacheStatsResponse;
+import org.ek.portfoliobackend.service.ImageServingService.ServedFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImageCacheServiceImpl to verify frequency based admission, eviction, invalidation and block reuse.
+ */
+class ImageCacheServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("get - file is cached after min-frequency requests and served from memory")
+    void get_AfterRepeatedRequests_ServesFromMemory() throws IOException {
+        // Arrange
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(1000, 1000, 2, 65536);
+        ServedFile file = file("a.jpg", "0123456789");
+
+        // Act
+        String first = read(cache, file, 0, 10);
+        String second = read(cache, file, 2, 4);
+        Files.delete(file.path());
+        List<ByteBuffer> third = new ArrayList<>();
+        cache.write(file, 0, 10, third::add);
+
+        // Assert
+        assertNull(first, "A single request should not be admitted");
+        assertEquals("2345", second);
+        assertEquals("0123456789", text(third.getFirst()));
+        assertTrue(third.getFirst().isReadOnly());
+
+        ImageCacheStatsResponse stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(14, stats.getBytesServedFromMemory());
+        assertEquals(1, stats.getEntries());
+        assertEquals(10, stats.getUsedBytes());
+        assertEquals(1.0 / 3, stats.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("get - a less popular file cannot evict a more popular one")
+    void get_WhenFull_KeepsMorePopularFile() throws IOException {
+        // Arrange - room for one file only
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(10, 10, 2, 65536);
+        ServedFile popular = file("popular.jpg", "0123456789");
+        ServedFile other = file("other.jpg", "abcdefghij");
+        for (int i = 0; i < 5; i++) {
+            read(cache, popular, 0, 10);
+        }
+
+        // Act
+        String rejected = read(cache, other, 0, 10);
+        rejected = rejected != null ? rejected : read(cache, other, 0, 10);
+
+        // Assert
+        assertNull(rejected);
+        assertNotNull(read(cache, popular, 0, 10));
+        assertEquals(0, cache.getStats().getEvictions());
+        assertTrue(cache.getStats().getRejections() > 0);
+    }
+
+    @Test
+    @DisplayName("get - a more popular file evicts the least recently used one")
+    void get_WhenFull_EvictsLessPopularFile() throws IOException {
+        // Arrange
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(10, 10, 2, 65536);
+        ServedFile old = file("old.jpg", "0123456789");
+        ServedFile popular = file("popular.jpg", "abcdefghij");
+        read(cache, old, 0, 10);
+        read(cache, old, 0, 10);
+
+        // Act
+        String result = null;
+        for (int i = 0; i < 4 && result == null; i++) {
+            result = read(cache, popular, 0, 10);
+        }
+
+        // Assert
+        assertEquals("abcdefghij", result);
+        assertEquals(1, cache.getStats().getEvictions());
+        assertEquals(1, cache.getStats().getEntries());
+    }
+
+    @Test
+    @DisplayName("invalidate - removes the file and frees its bytes")
+    void invalidate_RemovesEntry() throws IOException {
+        // Arrange
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(1000, 1000, 1, 65536);
+        ServedFile file = file("a.jpg", "0123456789");
+        assertNotNull(read(cache, file, 0, 10));
+
+        // Act
+        cache.invalidate(file.path());
+
+        // Assert
+        assertEquals(0, cache.getStats().getEntries());
+        assertEquals(0, cache.getStats().getUsedBytes());
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("get - changed file on disk is reloaded instead of served stale")
+    void get_WhenFileChanged_ReloadsFile() throws IOException {
+        // Arrange
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(1000, 1000, 1, 65536);
+        ServedFile original = file("a.jpg", "0123456789");
+        read(cache, original, 0, 10);
+
+        Files.writeString(original.path(), "changed");
+        ServedFile changed = new ServedFile(original.path(), 7, original.lastModified() + 1000,
+                "image/jpeg", "\"b\"", false);
+
+        // Act
+        String result = read(cache, changed, 0, 7);
+
+        // Assert
+        assertEquals("changed", result);
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("get - files above max-entry-bytes and a zero budget are never cached")
+    void get_WithLargeFileOrDisabledCache_ReturnsNull() throws IOException {
+        ServedFile file = file("a.jpg", "0123456789");
+
+        ImageCacheServiceImpl smallEntries = new ImageCacheServiceImpl(1000, 5, 1, 65536);
+        ImageCacheServiceImpl disabled = new ImageCacheServiceImpl(0, 1000, 1, 65536);
+
+        assertNull(read(smallEntries, file, 0, 10));
+        assertNull(read(disabled, file, 0, 10));
+        assertEquals(0, disabled.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("write - a file spanning several blocks is written block by block in order")
+    void write_WithFileOverSeveralBlocks_WritesRangeInOrder() throws IOException {
+        // Arrange - 4 byte blocks, so the file uses 3 blocks
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(12, 12, 1, 4);
+        ServedFile file = file("a.jpg", "0123456789");
+        List<ByteBuffer> parts = new ArrayList<>();
+
+        // Act
+        boolean served = cache.write(file, 2, 7, parts::add);
+
+        // Assert
+        assertTrue(served);
+        assertEquals(List.of("23", "4567", "8"), parts.stream().map(this::text).toList());
+    }
+
+    @Test
+    @DisplayName("write - evicted blocks are reused, so the arena never grows beyond max-bytes")
+    void write_UnderChurn_ReusesBlocksWithinBudget() throws IOException {
+        // Arrange - room for two 4 byte files
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(8, 8, 1, 4);
+
+        // Act & Assert - each new file is requested until it is popular enough to evict an older one,
+        // it then lives in the blocks of the evicted file and must never show the old bytes
+        for (int i = 0; i < 8; i++) {
+            ServedFile file = file(i + ".jpg", String.format("f%03d", i));
+            String served = null;
+            for (int attempt = 0; attempt < 15 && served == null; attempt++) {
+                served = read(cache, file, 0, 4);
+            }
+            assertEquals(String.format("f%03d", i), served);
+            assertTrue(cache.getStats().getUsedBytes() <= 8);
+        }
+        assertEquals(2, cache.getStats().getEntries());
+        assertEquals(6, cache.getStats().getEvictions());
+        assertNull(read(cache, file("big.jpg", "123456789"), 0, 9), "A file above max-bytes never fits");
+    }
+
+    @Test
+    @DisplayName("write - blocks of a file being sent are not reused until it is sent")
+    void write_WhenEntryRemovedWhileSending_KeepsBlocksUntilDone() throws IOException {
+        // Arrange - room for one file
+        ImageCacheServiceImpl cache = new ImageCacheServiceImpl(10, 10, 1, 10);
+        ServedFile sending = file("a.jpg", "0123456789");
+        ServedFile next = file("b.jpg", "abcdefghij");
+        read(cache, sending, 0, 10);
+
+        // Act - while the first file is written, it is invalidated and another file asks for its block
+        List<String> whileSending = new ArrayList<>();
+        cache.write(sending, 0, 10, bytes -> {
+            cache.invalidate(sending.path());
+            whileSending.add(String.valueOf(read(cache, next, 0, 10)));
+            whileSending.add(text(bytes));
+        });
+
+        // Assert
+        assertEquals(List.of("null", "0123456789"), whileSending);
+        assertEquals("abcdefghij", read(cache, next, 0, 10), "The block is free once the first file is sent");
+    }
+
+    private String read(ImageCacheServiceImpl cache, ServedFile file, long start, long length) throws IOException {
+        StringBuilder content = new StringBuilder();
+        boolean served = cache.write(file, start, length, bytes -> content.append(text(bytes)));
+        return served ? content.toString() : null;
+    }
+
+    private ServedFile file(String name, String content) throws IOException {
+        Path path = Files.writeString(tempDir.resolve(name), content);
+        return new ServedFile(path, Files.size(path), Files.getLastModifiedTime(path).toMillis(),
+                "image/jpeg", "\"a\"", true);
+    }
+
+    private String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,100 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.service.ImagePlaceholderService.Placeholder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImagePlaceholderServiceImpl to verify blurhash and dominant color.
+ */
+class ImagePlaceholderServiceImplTest {
+
+    private final ImagePlaceholderServiceImpl placeholderService = new ImagePlaceholderServiceImpl();
+
+    @Test
+    @DisplayName("compute - single color image has that color as average and dominant color")
+    void compute_SingleColorPng_EncodesColor() throws IOException {
+        // Arrange
+        BufferedImage image = new BufferedImage(120, 80, BufferedImage.TYPE_INT_RGB);
+        fill(image, Color.RED, 0, image.getWidth());
+
+        // Act
+        Placeholder placeholder = placeholderService.compute(file(image, "png"));
+
+        // Assert - size flag "L" (4 x 3) and pure red as average color (DC)
+        assertEquals(28, placeholder.blurhash().length());
+        assertEquals('L', placeholder.blurhash().charAt(0));
+        assertEquals("TI:j", placeholder.blurhash().substring(2, 6));
+        assertEquals("#ff0000", placeholder.dominantColor());
+    }
+
+    @Test
+    @DisplayName("compute - dominant color is the color of the largest area")
+    void compute_TwoColorJpeg_ReturnsLargestAreaColor() throws IOException {
+        // Arrange - 3/4 blue, 1/4 white
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        fill(image, new Color(0, 0, 255), 0, 300);
+        fill(image, Color.WHITE, 300, 400);
+
+        // Act
+        Placeholder placeholder = placeholderService.compute(file(image, "jpg"));
+
+        // Assert
+        assertEquals(28, placeholder.blurhash().length());
+        int blue = Integer.parseInt(placeholder.dominantColor().substring(5), 16);
+        int red = Integer.parseInt(placeholder.dominantColor().substring(1, 3), 16);
+        assertTrue(blue > 240 && red < 16, "dominant color should be blue but was " + placeholder.dominantColor());
+    }
+
+    @Test
+    @DisplayName("compute - format ImageIO cannot decode gives no placeholder")
+    void compute_UndecodableFormat_ReturnsNull() {
+        // Arrange - WebP header, accepted by the probe but not decodable with ImageIO
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8X".getBytes(StandardCharsets.ISO_8859_1);
+
+        // Act
+        Placeholder placeholder = placeholderService.compute(new MockMultipartFile("file", "a.webp", "image/webp", webp));
+
+        // Assert
+        assertNull(placeholder);
+    }
+
+    @Test
+    @DisplayName("decodeSample - longest side is never more than 64 pixels")
+    void decodeSample_JustUnderTwiceSampleSize_SubsamplesToSampleSize() throws IOException {
+        // Arrange - 127 pixels would be decoded in full if the step was rounded down
+        BufferedImage image = new BufferedImage(127, 40, BufferedImage.TYPE_INT_RGB);
+        fill(image, Color.GREEN, 0, image.getWidth());
+
+        // Act
+        BufferedImage sample = placeholderService.decodeSample(file(image, "png").getInputStream());
+
+        // Assert
+        assertEquals(64, sample.getWidth());
+        assertEquals(20, sample.getHeight());
+    }
+
+    private static void fill(BufferedImage image, Color color, int fromX, int toX) {
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(fromX, 0, toX - fromX, image.getHeight());
+        graphics.dispose();
+    }
+
+    private static MockMultipartFile file(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return new MockMultipartFile("file", "image." + format, "image/" + format, out.toByteArray());
+    }
+}
@@ -0,0 +1,212 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.service.ImageProbeService.ImageInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImageProbeServiceImpl to verify format detection and dimension parsing from headers.
+ */
+class ImageProbeServiceImplTest {
+
+    private final ImageProbeServiceImpl probeService = new ImageProbeServiceImpl(100_000_000, 4096);
+
+    @Test
+    @DisplayName("probe - JPEG dimensions are read from SOF after skipping APP segments")
+    void probe_Jpeg_ReturnsDimensions() {
+        // Arrange - APP1 segment before the frame header, as in camera files with EXIF
+        byte[] frame = jpeg(4032, 3024, new byte[0]);
+        byte[] withExif = concat(Arrays.copyOf(frame, 2), segment(0xE1, new byte[1000]),
+                Arrays.copyOfRange(frame, 2, frame.length));
+
+        // Act
+        ImageInfo info = probeService.probe(new ByteArrayInputStream(withExif));
+
+        // Assert
+        assertEquals(new ImageInfo("image/jpeg", ".jpg", 4032, 3024), info);
+    }
+
+    @Test
+    @DisplayName("probe - PNG dimensions are read from IHDR")
+    void probe_Png_ReturnsDimensions() {
+        ImageInfo info = probeService.probe(new ByteArrayInputStream(png(640, 480)));
+
+        assertEquals(new ImageInfo("image/png", ".png", 640, 480), info);
+    }
+
+    @Test
+    @DisplayName("probe - WebP lossy, lossless and extended headers")
+    void probe_Webp_ReturnsDimensions() {
+        // Arrange
+        byte[] lossy = webp("VP8 ", new byte[]{0, 0, 0, (byte) 0x9D, 0x01, 0x2A,
+                (byte) 0x20, 0x03, (byte) 0x58, 0x02}); // 800 x 600
+        int bits = (1024 - 1) | ((768 - 1) << 14);
+        byte[] lossless = webp("VP8L", new byte[]{0x2F,
+                (byte) bits, (byte) (bits >> 8), (byte) (bits >> 16), (byte) (bits >> 24)});
+        byte[] extended = webp("VP8X", new byte[]{0, 0, 0, 0,
+                (byte) 0x7F, 0x07, 0x00, // 1920 - 1
+                (byte) 0x37, 0x04, 0x00}); // 1080 - 1
+
+        // Act & Assert
+        assertEquals(new ImageInfo("image/webp", ".webp", 800, 600), probeService.probe(new ByteArrayInputStream(lossy)));
+        assertEquals(new ImageInfo("image/webp", ".webp", 1024, 768), probeService.probe(new ByteArrayInputStream(lossless)));
+        assertEquals(new ImageInfo("image/webp", ".webp", 1920, 1080), probeService.probe(new ByteArrayInputStream(extended)));
+    }
+
+    @Test
+    @DisplayName("probe - HEIC dimensions are the largest ispe property")
+    void probe_Heic_ReturnsPrimaryImageDimensions() throws IOException {
+        // Arrange - thumbnail property listed before the primary image
+        byte[] ipco = box("ipco", concat(ispe(320, 240), ispe(4032, 3024)));
+        byte[] meta = box("meta", concat(new byte[4], box("hdlr", new byte[20]), box("iprp", ipco)));
+        byte[] heic = concat(box("ftyp", ascii("heic" + "\0\0\0\0" + "mif1" + "heic")), meta, box("mdat", new byte[64]));
+
+        // Act
+        ImageInfo info = probeService.probe(new ByteArrayInputStream(heic));
+
+        // Assert
+        assertEquals(new ImageInfo("image/heic", ".heic", 4032, 3024), info);
+    }
+
+    @Test
+    @DisplayName("probe - AVIF is not accepted as HEIC")
+    void probe_Avif_ThrowsIllegalArgumentException() {
+        byte[] avif = box("ftyp", ascii("avif" + "\0\0\0\0" + "mif1" + "avif"));
+
+        assertThrows(IllegalArgumentException.class, () -> probeService.probe(new ByteArrayInputStream(avif)));
+    }
+
+    @Test
+    @DisplayName("probe - non-image content is rejected")
+    void probe_NonImage_ThrowsIllegalArgumentException() {
+        byte[] html = "<html><body>hello</body></html>".getBytes(StandardCharsets.UTF_8);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> probeService.probe(new ByteArrayInputStream(html)));
+        assertTrue(exception.getMessage().startsWith("Unsupported image format"));
+    }
+
+    @Test
+    @DisplayName("probe - decompression bomb is rejected from the header alone")
+    void probe_TooManyPixels_ThrowsIllegalArgumentException() {
+        // 60000 x 60000 = 3.6 gigapixels in a 24 byte header
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> probeService.probe(new ByteArrayInputStream(png(60000, 60000))));
+        assertTrue(exception.getMessage().contains("exceed the maximum"));
+    }
+
+    @Test
+    @DisplayName("probe - truncated header is rejected")
+    void probe_TruncatedHeader_ThrowsIllegalArgumentException() {
+        byte[] truncated = Arrays.copyOf(png(640, 480), 18);
+
+        assertThrows(IllegalArgumentException.class, () -> probeService.probe(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    @DisplayName("probe - reading stops at the header limit")
+    void probe_JpegWithoutFrameWithinLimit_StopsReading() {
+        // Arrange - endless APP segments, the probe must give up after max-header-bytes
+        AtomicInteger bytesRead = new AtomicInteger();
+        InputStream endless = new InputStream() {
+            private final byte[] pattern = concat(new byte[]{(byte) 0xFF, (byte) 0xD8}, segment(0xE0, new byte[100]));
+
+            @Override
+            public int read() {
+                int position = bytesRead.getAndIncrement();
+                if (position < 2) {
+                    return pattern[position] & 0xFF;
+                }
+                return pattern[2 + (position - 2) % (pattern.length - 2)] & 0xFF;
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> probeService.probe(endless));
+        assertTrue(bytesRead.get() < 4096 + 8192 + 1, "Probe should not read far past the header limit");
+    }
+
+    // ------------------------------------------------ TEST IMAGES ----------------------------------------------------
+
+    /**
+     * Minimal JPEG: SOI and a baseline SOF0 segment, followed by the payload.
+     */
+    static byte[] jpeg(int width, int height, byte[] payload) {
+        byte[] sof = {
+                (byte) 0xFF, (byte) 0xD8,
+                (byte) 0xFF, (byte) 0xC0, 0x00, 0x11, 0x08,
+                (byte) (height >> 8), (byte) height, (byte) (width >> 8), (byte) width,
+                0x03, 0x01, 0x22, 0x00, 0x02, 0x11, 0x01, 0x03, 0x11, 0x01
+        };
+        return concat(sof, payload);
+    }
+
+    /**
+     * Minimal PNG: signature and IHDR chunk.
+     */
+    static byte[] png(int width, int height) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+            out.writeInt(13);
+            out.writeBytes("IHDR");
+            out.writeInt(width);
+            out.writeInt(height);
+            out.write(new byte[]{8, 2, 0, 0, 0});
+            out.writeInt(0); // CRC, not checked
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] webp(String chunk, byte[] data) {
+        return concat(ascii("RIFF"), new byte[]{0, 0, 0, 0}, ascii("WEBP" + chunk),
+                concat(new byte[]{(byte) data.length, 0, 0, 0}, data));
+    }
+
+    private static byte[] segment(int marker, byte[] data) {
+        int length = data.length + 2;
+        return concat(new byte[]{(byte) 0xFF, (byte) marker, (byte) (length >> 8), (byte) length}, data,
+                new byte[0]);
+    }
+
+    private static byte[] ispe(int width, int height) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // version + flags
+        out.writeInt(width);
+        out.writeInt(height);
+        return box("ispe", bytes.toByteArray());
+    }
+
+    private static byte[] box(String type, byte[] content) {
+        int size = content.length + 8;
+        return concat(new byte[]{(byte) (size >> 24), (byte) (size >> 16), (byte) (size >> 8), (byte) size},
+                ascii(type), content);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            bytes.writeBytes(part);
+        }
+        return bytes.toByteArray();
+    }
+}
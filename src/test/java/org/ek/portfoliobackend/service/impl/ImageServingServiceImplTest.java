@@ -0,0 +1,110 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
+import org.ek.portfoliobackend.repository.ImageRepository;
+import org.ek.portfoliobackend.service.ImageServingService.ServedFile;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ImageServingServiceImpl to verify ETag and cache metadata for served files.
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageServingServiceImplTest {
+
+    private static final String FILENAME = "6f1c1d2e-0000-4000-8000-000000000000.jpg";
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    private ImageServingServiceImpl servingService;
+
+    @BeforeEach
+    void setUp() {
+        LocalFileStorageServiceImpl storageService = new LocalFileStorageServiceImpl(tempDir.toString(), false,
+                new ImageProbeServiceImpl(100_000_000, 262144), new ImageCacheServiceImpl(0, 0, 2, 65536), Executors.newVirtualThreadPerTaskExecutor(),
+                mock(StorageJournal.class));
+        servingService = new ImageServingServiceImpl(storageService, imageRepository, 100);
+    }
+
+    @Test
+    @DisplayName("find - stored hash gives a strong ETag and is cached")
+    void find_WithStoredHash_ReturnsStrongEtag() throws IOException {
+        // Arrange
+        Files.writeString(tempDir.resolve(FILENAME), "content");
+        when(imageRepository.findFileViewsByUrl(eq("/uploads/" + FILENAME), any(Pageable.class)))
+                .thenReturn(List.of(fileView(HASH, "image/jpeg")));
+
+        // Act
+        ServedFile first = servingService.find("/uploads/" + FILENAME);
+        ServedFile second = servingService.find("/uploads/" + FILENAME);
+
+        // Assert
+        assertEquals("\"" + HASH + "\"", first.etag());
+        assertEquals("image/jpeg", first.contentType());
+        assertEquals(7, first.size());
+        assertTrue(first.immutable());
+        assertEquals(first, second);
+        verify(imageRepository, times(1)).findFileViewsByUrl(any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("find - file without image row gets a weak ETag and is revalidated")
+    void find_WithoutImageRow_ReturnsWeakEtag() throws IOException {
+        // Arrange
+        Files.writeString(tempDir.resolve("dummy_photo.png"), "content");
+        when(imageRepository.findFileViewsByUrl(any(), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        ServedFile file = servingService.find("/uploads/dummy_photo.png");
+
+        // Assert
+        assertTrue(file.etag().startsWith("W/\""));
+        assertEquals("image/png", file.contentType());
+        assertFalse(file.immutable());
+    }
+
+    @Test
+    @DisplayName("find - missing file or path outside upload dir returns not found")
+    void find_MissingFile_ThrowsResourceNotFoundException() {
+        assertThrows(ResourceNotFoundException.class, () -> servingService.find("/uploads/" + FILENAME));
+        assertThrows(ResourceNotFoundException.class, () -> servingService.find("/uploads/../application.properties"));
+        verifyNoInteractions(imageRepository);
+    }
+
+    private ImageRepository.ImageFileView fileView(String contentHash, String contentType) {
+        return new ImageRepository.ImageFileView() {
+            @Override
+            public String getContentHash() {
+                return contentHash;
+            }
+
+            @Override
+            public String getContentType() {
+                return contentType;
+            }
+        };
+    }
+}
@@ -1,17 +1,38 @@
 package org.ek.portfoliobackend.service.impl;
 
+import org.ek.portfoliobackend.service.ImageCacheService;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.StorageJournal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for LocalFileStorageServiceImpl to verify file storage operations.
@@ -23,15 +44,22 @@ class LocalFileStorageServiceImplTest {
 
     private LocalFileStorageServiceImpl storageService;
 
+    private final ImageCacheService imageCacheService = mock(ImageCacheService.class);
+
+    private final ExecutorService storageIoExecutor = Executors.newFixedThreadPool(2);
+
+    private final StorageJournal storageJournal = mock(StorageJournal.class);
+
     @BeforeEach
     void setUp() {
         // Use temporary directory for tests
-        storageService = new LocalFileStorageServiceImpl(tempDir.toString());
+        storageService = new LocalFileStorageServiceImpl(tempDir.toString(), false, new ImageProbeServiceImpl(100_000_000, 262144), imageCacheService, storageIoExecutor, storageJournal);
     }
 
     @AfterEach
     void tearDown() {
         // Cleanup is automatic with @TempDir
+        storageIoExecutor.shutdownNow();
     }
 
     @Test
@@ -41,7 +69,7 @@ class LocalFileStorageServiceImplTest {
                 "test-image",
                 "test.jpg",
                 "image/jpeg",
-                "test image content".getBytes()
+                jpeg("test image content")
         );
 
         // Act
@@ -59,7 +87,26 @@ class LocalFileStorageServiceImplTest {
 
         // Verify file content
         byte[] storedContent = Files.readAllBytes(storedFile);
-        assertArrayEquals("test image content".getBytes(), storedContent);
+        assertArrayEquals(jpeg("test image content"), storedContent);
+    }
+
+    @Test
+    void store_WithValidFile_ShouldLogIntentBeforeFileExists() {
+        // Arrange
+        MultipartFile file = new MockMultipartFile("test-image", "test.jpg", "image/jpeg", jpeg("test image content"));
+        List<Boolean> existedAtIntent = new ArrayList<>();
+        doAnswer(invocation -> {
+            String intentUrl = invocation.getArgument(0);
+            existedAtIntent.add(Files.exists(tempDir.resolve(intentUrl.substring("/uploads/".length()))));
+            return null;
+        }).when(storageJournal).logIntent(anyString());
+
+        // Act
+        String url = storageService.store(file);
+
+        // Assert
+        verify(storageJournal).logIntent(url);
+        assertEquals(List.of(false), existedAtIntent);
     }
 
     @Test
@@ -88,7 +135,7 @@ class LocalFileStorageServiceImplTest {
                 "test",
                 "testfile",  // No extension
                 "application/octet-stream",
-                "test content".getBytes()
+                jpeg("test content")
         );
 
         // Act
@@ -105,37 +152,44 @@ class LocalFileStorageServiceImplTest {
     }
 
     @Test
-    void store_WithDifferentExtensions_ShouldPreserveExtension() throws IOException {
-        // Test multiple file types
-        String[] extensions = {".jpg", ".png", ".gif", ".pdf", ".txt"};
+    void store_ShouldUseExtensionOfDetectedFormat() {
+        // Arrange - PNG content uploaded with a misleading name
+        MultipartFile file = new MockMultipartFile(
+                "test",
+                "testfile.pdf",
+                "application/pdf",
+                ImageProbeServiceImplTest.png(640, 480)
+        );
 
-        for (String extension : extensions) {
-            // Arrange
-            MultipartFile file = new MockMultipartFile(
-                    "test",
-                    "testfile" + extension,
-                    "application/octet-stream",
-                    "test content".getBytes()
-            );
+        // Act
+        String url = storageService.store(file);
 
-            // Act
-            String url = storageService.store(file);
+        // Assert
+        assertTrue(url.endsWith(".png"), "URL should use the detected format, not the original name");
+    }
 
-            // Assert
-            assertTrue(url.endsWith(extension),
-                    "URL should preserve extension " + extension);
+    @Test
+    void store_WithNonImageContent_ShouldThrowWithoutWritingFile() throws IOException {
+        // Arrange
+        MultipartFile file = new MockMultipartFile(
+                "test",
+                "fake.jpg",
+                "image/jpeg",
+                "<html>not an image</html>".getBytes()
+        );
 
-            // Cleanup for next iteration
-            String filename = url.substring(url.lastIndexOf("/") + 1);
-            Files.deleteIfExists(tempDir.resolve(filename));
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> storageService.store(file));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Nothing should be written to the upload directory");
         }
     }
 
     @Test
     void store_MultipleFiles_ShouldGenerateUniqueFilenames() throws IOException {
         // Arrange
-        MultipartFile file1 = new MockMultipartFile("file1", "test.jpg", "image/jpeg", "content1".getBytes());
-        MultipartFile file2 = new MockMultipartFile("file2", "test.jpg", "image/jpeg", "content2".getBytes());
+        MultipartFile file1 = new MockMultipartFile("file1", "test.jpg", "image/jpeg", jpeg("content1"));
+        MultipartFile file2 = new MockMultipartFile("file2", "test.jpg", "image/jpeg", jpeg("content2"));
 
         // Act
         String url1 = storageService.store(file1);
@@ -154,7 +208,7 @@ class LocalFileStorageServiceImplTest {
     @Test
     void delete_WithExistingFile_ShouldDeleteSuccessfully() throws IOException {
         // Arrange - first store a file
-        MultipartFile file = new MockMultipartFile("test", "test.jpg", "image/jpeg", "test content".getBytes());
+        MultipartFile file = new MockMultipartFile("test", "test.jpg", "image/jpeg", jpeg("test content"));
         String url = storageService.store(file);
 
         String filename = url.substring(url.lastIndexOf("/") + 1);
@@ -166,6 +220,68 @@ class LocalFileStorageServiceImplTest {
 
         // Assert
         assertFalse(Files.exists(storedFile), "File should be deleted");
+        verify(imageCacheService).invalidate(storedFile.toAbsolutePath().normalize());
+    }
+
+    @Test
+    void storeFile_ShouldReturnSha256OfStoredContent() throws Exception {
+        // Arrange
+        byte[] content = jpeg("hashed content");
+        MultipartFile file = new MockMultipartFile("test", "test.jpg", "image/jpeg", content);
+
+        // Act
+        ImageStorageService.StoredFile stored = storageService.storeFile(file);
+
+        // Assert
+        String expected = java.util.HexFormat.of().formatHex(
+                java.security.MessageDigest.getInstance("SHA-256").digest(content));
+        assertEquals(expected, stored.contentHash());
+        assertTrue(stored.url().startsWith("/uploads/"));
+    }
+
+    @Test
+    void store_WithShardedLayout_ShouldStoreInHashedSubDirectories() throws IOException {
+        // Arrange
+        LocalFileStorageServiceImpl shardedService =
+                new LocalFileStorageServiceImpl(tempDir.toString(), true, new ImageProbeServiceImpl(100_000_000, 262144), new ImageCacheServiceImpl(0, 0, 2, 65536), storageIoExecutor, storageJournal);
+        MultipartFile file = new MockMultipartFile("test", "test.jpg", "image/jpeg", jpeg("test content"));
+
+        // Act
+        String url = shardedService.store(file);
+
+        // Assert - /uploads/xx/yy/uuid.jpg where xx/yy is derived from the filename
+        String filename = url.substring(url.lastIndexOf("/") + 1);
+        assertEquals("/uploads/" + LocalFileStorageServiceImpl.shardDirectory(filename) + "/" + filename, url);
+        assertTrue(url.matches("/uploads/[0-9a-f]{2}/[0-9a-f]{2}/[^/]+\\.jpg"));
+        assertTrue(Files.exists(shardedService.resolve(url)));
+
+        // Act - Delete
+        shardedService.delete(url);
+
+        // Assert
+        assertFalse(Files.exists(shardedService.resolve(url)));
+    }
+
+    @Test
+    void resolve_FlatUrlOfMigratedFile_ShouldReturnShardedPath() throws IOException {
+        // Arrange - a file that has been moved from the flat layout into its shard directory
+        String filename = "3b2c1d1e-8f7a-4c2b-9d1e-0a1b2c3d4e5f.jpg";
+        Path sharded = tempDir.resolve(LocalFileStorageServiceImpl.shardDirectory(filename)).resolve(filename);
+        Files.createDirectories(sharded.getParent());
+        Files.write(sharded, jpeg("migrated"));
+
+        // Act
+        Path resolved = storageService.resolve("/uploads/" + filename);
+        storageService.delete("/uploads/" + filename);
+
+        // Assert
+        assertEquals(sharded, resolved);
+        assertFalse(Files.exists(sharded));
+    }
+
+    @Test
+    void resolve_WithPathTraversal_ShouldThrowSecurityException() {
+        assertThrows(SecurityException.class, () -> storageService.resolve("/uploads/../secret.txt"));
     }
 
     @Test
@@ -203,7 +319,7 @@ class LocalFileStorageServiceImplTest {
         assertFalse(Files.exists(newDir), "Directory should not exist initially");
 
         // Act
-        LocalFileStorageServiceImpl newService = new LocalFileStorageServiceImpl(newDir.toString());
+        LocalFileStorageServiceImpl newService = new LocalFileStorageServiceImpl(newDir.toString(), false, new ImageProbeServiceImpl(100_000_000, 262144), new ImageCacheServiceImpl(0, 0, 2, 65536), storageIoExecutor, storageJournal);
 
         // Assert
         assertTrue(Files.exists(newDir), "Directory should be created");
@@ -217,6 +333,8 @@ class LocalFileStorageServiceImplTest {
         for (int i = 0; i < largeContent.length; i++) {
             largeContent[i] = (byte) (i % 256);
         }
+        byte[] header = jpeg("");
+        System.arraycopy(header, 0, largeContent, 0, header.length);
 
         MultipartFile largeFile = new MockMultipartFile(
                 "large",
@@ -246,7 +364,7 @@ class LocalFileStorageServiceImplTest {
                 "test",
                 "test file with spaces & special (chars).jpg",
                 "image/jpeg",
-                "test content".getBytes()
+                jpeg("test content")
         );
 
         // Act
@@ -275,7 +393,7 @@ class LocalFileStorageServiceImplTest {
                     "file" + i,
                     "test" + i + ".jpg",
                     "image/jpeg",
-                    ("content" + i).getBytes()
+                    jpeg("content" + i)
             );
             urls[i] = storageService.store(file);
         }
@@ -300,7 +418,7 @@ class LocalFileStorageServiceImplTest {
                 "lifecycle-test",
                 "lifecycle.jpg",
                 "image/jpeg",
-                "lifecycle content".getBytes()
+                jpeg("lifecycle content")
         );
 
         // Act - Store
@@ -310,7 +428,7 @@ class LocalFileStorageServiceImplTest {
 
         // Assert - File exists after store
         assertTrue(Files.exists(storedFile));
-        assertEquals("lifecycle content", new String(Files.readAllBytes(storedFile)));
+        assertArrayEquals(jpeg("lifecycle content"), Files.readAllBytes(storedFile));
 
         // Act - Delete
         storageService.delete(url);
@@ -318,4 +436,117 @@ class LocalFileStorageServiceImplTest {
         // Assert - File removed after delete
         assertFalse(Files.exists(storedFile));
     }
-}
\ No newline at end of file
+
+    @Test
+    void storeFileAsync_WithSeveralLargeFiles_ShouldStoreAllWithHashes() throws Exception {
+        // Arrange - larger than one 64 KB copy buffer, so each file takes several writes
+        List<byte[]> contents = new ArrayList<>();
+        List<CompletableFuture<ImageStorageService.StoredFile>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            byte[] content = jpeg(String.valueOf(i).repeat(200_000));
+            contents.add(content);
+            futures.add(storageService.storeFileAsync(new MockMultipartFile("file" + i, "test.jpg", "image/jpeg", content)));
+        }
+
+        // Act & Assert
+        for (int i = 0; i < futures.size(); i++) {
+            ImageStorageService.StoredFile stored = futures.get(i).get(10, TimeUnit.SECONDS);
+            Path storedFile = tempDir.resolve(stored.url().substring("/uploads/".length()));
+
+            assertArrayEquals(contents.get(i), Files.readAllBytes(storedFile));
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contents.get(i))),
+                    stored.contentHash());
+        }
+    }
+
+    @Test
+    void storeFileAsync_WithNonImage_ShouldFailWithoutWritingFile() throws IOException {
+        // Arrange
+        MultipartFile file = new MockMultipartFile("test", "test.jpg", "image/jpeg", "not an image".getBytes());
+
+        // Act
+        CompletableFuture<ImageStorageService.StoredFile> future = storageService.storeFileAsync(file);
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "No file should be written");
+        }
+    }
+
+    @Test
+    void storeFile_WhenCopyFails_ShouldRemovePartialFileAndAbortIntent() throws IOException {
+        // Arrange
+        MultipartFile file = failingUpload();
+
+        // Act
+        assertThrows(RuntimeException.class, () -> storageService.storeFile(file));
+
+        // Assert
+        ArgumentCaptor<String> intent = ArgumentCaptor.forClass(String.class);
+        verify(storageJournal).logIntent(intent.capture());
+        verify(storageJournal).abort(List.of(intent.getValue()));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "The partial file should be removed");
+        }
+    }
+
+    @Test
+    void storeFileAsync_WhenCopyFails_ShouldRemovePartialFileAndAbortIntent() throws IOException {
+        // Arrange
+        MultipartFile file = failingUpload();
+
+        // Act
+        CompletableFuture<ImageStorageService.StoredFile> future = storageService.storeFileAsync(file);
+
+        // Assert
+        assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        ArgumentCaptor<String> intent = ArgumentCaptor.forClass(String.class);
+        verify(storageJournal).logIntent(intent.capture());
+        verify(storageJournal).abort(List.of(intent.getValue()));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "The partial file should be removed");
+        }
+    }
+
+    @Test
+    void deleteAsync_ShouldDeleteFileAndInvalidateCache() throws Exception {
+        // Arrange
+        String url = storageService.store(new MockMultipartFile("test", "test.jpg", "image/jpeg", jpeg("to delete")));
+        Path storedFile = tempDir.resolve(url.substring("/uploads/".length()));
+
+        // Act
+        storageService.deleteAsync(url).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(Files.exists(storedFile));
+        verify(imageCacheService).invalidate(storedFile.toAbsolutePath().normalize());
+    }
+
+    // Upload whose header can be probed, but whose copy fails after 64 KB, like a client that disconnects
+    private static MultipartFile failingUpload() throws IOException {
+        byte[] content = jpeg("x".repeat(200_000));
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.isEmpty()).thenReturn(false);
+        when(file.getOriginalFilename()).thenReturn("test.jpg");
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(content), new InputStream() {
+            private final InputStream delegate = new ByteArrayInputStream(content, 0, 64 * 1024);
+
+            @Override
+            public int read() throws IOException {
+                int b = delegate.read();
+                if (b < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return b;
+            }
+        });
+        return file;
+    }
+
+    // Minimal JPEG header (SOI + SOF0) followed by the given payload
+    private static byte[] jpeg(String payload) {
+        return ImageProbeServiceImplTest.jpeg(100, 50, payload.getBytes());
+    }
+}
@@ -0,0 +1,136 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.dto.response.OrphanCleanupReport;
+import org.ek.portfoliobackend.repository.ImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OrphanFileServiceImpl to verify quarantine and purge of unreferenced files.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrphanFileServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    private Path uploadDir;
+    private Path quarantineDir;
+    private OrphanFileServiceImpl orphanFileService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploadDir = Files.createDirectories(tempDir.resolve("uploads"));
+        quarantineDir = tempDir.resolve("quarantine");
+        orphanFileService = new OrphanFileServiceImpl(imageRepository, uploadDir.toString(),
+                quarantineDir.toString(), true, 24, 168, 0, 100);
+    }
+
+    @Test
+    @DisplayName("collectOrphans - quarantines old unreferenced files only")
+    void collectOrphans_QuarantinesOldUnreferencedFiles() throws IOException {
+        // Arrange
+        String referencedName = UUID.randomUUID() + ".jpg";
+        String orphanName = UUID.randomUUID() + ".jpg";
+        String freshOrphanName = UUID.randomUUID() + ".png";
+
+        Path referenced = createFile(uploadDir.resolve(referencedName), Duration.ofDays(3));
+        Path orphan = createFile(uploadDir.resolve(orphanName), Duration.ofDays(3));
+        Path freshOrphan = createFile(uploadDir.resolve(freshOrphanName), Duration.ZERO);
+        Path handPlaced = createFile(uploadDir.resolve("dummy_photo.png"), Duration.ofDays(30));
+
+        when(imageRepository.findUrlsAfterId(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(urlView(1L, "/uploads/" + referencedName)));
+
+        // Act
+        OrphanCleanupReport report = orphanFileService.collectOrphans();
+
+        // Assert
+        assertEquals(3, report.getFilesScanned());
+        assertEquals(1, report.getFilesQuarantined());
+        assertTrue(Files.exists(referenced));
+        assertTrue(Files.exists(freshOrphan));
+        assertTrue(Files.exists(handPlaced));
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(quarantineDir.resolve(orphanName)));
+    }
+
+    @Test
+    @DisplayName("collectOrphans - purges expired quarantine and reports reclaimed bytes")
+    void collectOrphans_PurgesExpiredQuarantine() throws IOException {
+        // Arrange
+        Files.createDirectories(quarantineDir);
+        Path expired = createFile(quarantineDir.resolve(UUID.randomUUID() + ".jpg"), Duration.ofDays(8));
+        Path recent = createFile(quarantineDir.resolve(UUID.randomUUID() + ".jpg"), Duration.ofDays(1));
+        long expiredSize = Files.size(expired);
+
+        when(imageRepository.findUrlsAfterId(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        OrphanCleanupReport report = orphanFileService.collectOrphans();
+
+        // Assert
+        assertEquals(1, report.getFilesPurged());
+        assertEquals(expiredSize, report.getBytesReclaimed());
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(recent));
+    }
+
+    @Test
+    @DisplayName("ReferencedFiles - lookup by generated filename")
+    void referencedFiles_ContainsOnlyAddedNames() {
+        // Arrange
+        OrphanFileServiceImpl.ReferencedFiles referencedFiles = new OrphanFileServiceImpl.ReferencedFiles();
+        String name = UUID.randomUUID() + ".jpg";
+        referencedFiles.add(name);
+        referencedFiles.add("https://example.com/before1.jpg");
+        referencedFiles.seal();
+
+        // Act & Assert
+        assertTrue(referencedFiles.contains(name));
+        assertFalse(referencedFiles.contains(UUID.randomUUID() + ".jpg"));
+    }
+
+    private Path createFile(Path path, Duration age) throws IOException {
+        Files.write(path, "image content".getBytes());
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(age)));
+        return path;
+    }
+
+    private ImageRepository.ImageUrlView urlView(Long id, String url) {
+        return new ImageRepository.ImageUrlView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUrl() {
+                return url;
+            }
+        };
+    }
+}
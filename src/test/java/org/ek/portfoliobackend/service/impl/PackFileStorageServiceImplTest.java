@@ -0,0 +1,222 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.service.ImageStorageService.StoredContent;
+import org.ek.portfoliobackend.service.ImageStorageService.StoredFile;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for PackFileStorageServiceImpl to verify appends, tombstones, recovery and compaction.
+ */
+class PackFileStorageServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PackFileStorageServiceImpl storageService;
+
+    private final StorageJournal storageJournal = mock(StorageJournal.class);
+
+    @BeforeEach
+    void setUp() {
+        storageService = open(1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageService.close();
+    }
+
+    @Test
+    @DisplayName("storeFile - image is appended and read back from the mapped segment")
+    void storeFile_ThenLocate_ReturnsSameBytes() throws Exception {
+        // Arrange
+        byte[] content = image("first");
+
+        // Act
+        StoredFile stored = storageService.storeFile(new MockMultipartFile("file", "photo.png", "image/png", content));
+        StoredContent located = storageService.locate(stored.url());
+
+        // Assert
+        assertTrue(stored.url().matches("/uploads/pack/[0-9a-f-]{36}\\.jpg"), stored.url());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), stored.contentHash());
+        assertEquals(content.length, located.size());
+        assertArrayEquals(content, bytes(located.content()));
+        assertTrue(located.content().isReadOnly());
+        assertEquals(1, storageService.segmentFiles().size());
+    }
+
+    @Test
+    @DisplayName("storeFile - non-image content is rejected before anything is written")
+    void storeFile_WithNonImage_ThrowsIllegalArgumentException() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "fake.jpg", "image/jpeg",
+                "<html></html>".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> storageService.storeFile(file));
+        assertEquals(0, Files.size(storageService.segmentFiles().get(0)));
+    }
+
+    @Test
+    @DisplayName("delete - tombstone hides the image, also after a restart")
+    void delete_ThenReopen_ImageStaysDeleted() {
+        // Arrange
+        String deleted = storageService.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", image("a")));
+        String kept = storageService.store(new MockMultipartFile("file", "b.jpg", "image/jpeg", image("b")));
+
+        // Act
+        storageService.delete(deleted);
+        storageService.delete(deleted);
+        storageService.close();
+        storageService = open(1024 * 1024);
+
+        // Assert
+        assertNull(storageService.locate(deleted));
+        assertArrayEquals(image("b"), bytes(storageService.locate(kept).content()));
+        assertEquals(1, storageService.size());
+    }
+
+    @Test
+    @DisplayName("recovery - a partially written record at the end is cut off")
+    void reopen_WithTornTail_TruncatesSegment() throws IOException {
+        // Arrange
+        String url = storageService.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", image("a")));
+        Path segment = storageService.segmentFiles().get(0);
+        long validSize = Files.size(segment);
+        storageService.close();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x50, 0x41, 0x4B, 0x31, 1, 2, 3}));
+        }
+
+        // Act
+        storageService = open(1024 * 1024);
+        String next = storageService.store(new MockMultipartFile("file", "b.jpg", "image/jpeg", image("b")));
+
+        // Assert
+        assertNotNull(storageService.locate(url));
+        assertArrayEquals(image("b"), bytes(storageService.locate(next).content()));
+        assertTrue(Files.size(segment) >= validSize);
+        assertEquals(2, storageService.size());
+    }
+
+    @Test
+    @DisplayName("compact - live images move to the active segment and mostly deleted segments are removed")
+    void compact_RewritesSegmentsBelowThreshold() throws IOException {
+        // Arrange - tiny segments so every image starts a new one
+        storageService.close();
+        storageService = open(1);
+        String first = storageService.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", image("a")));
+        String second = storageService.store(new MockMultipartFile("file", "b.jpg", "image/jpeg", image("b")));
+        String third = storageService.store(new MockMultipartFile("file", "c.jpg", "image/jpeg", image("c")));
+        storageService.delete(second);
+        Path secondSegment = storageService.segmentFiles().get(1);
+        long lastModified = storageService.locate(first).lastModified();
+
+        // Act
+        int compacted = storageService.compact();
+
+        // Assert - the segment of the deleted image is gone, the others were full and are kept
+        assertEquals(1, compacted);
+        assertFalse(Files.exists(secondSegment));
+        assertNull(storageService.locate(second));
+        assertArrayEquals(image("a"), bytes(storageService.locate(first).content()));
+        assertArrayEquals(image("c"), bytes(storageService.locate(third).content()));
+        assertEquals(lastModified, storageService.locate(first).lastModified());
+
+        // And the result survives a restart
+        storageService.close();
+        storageService = open(1);
+        assertNull(storageService.locate(second));
+        assertEquals(2, storageService.size());
+    }
+
+    @Test
+    @DisplayName("locate - new images in the active segment are read without mapping it again")
+    void locate_AfterEachAppend_ReusesActiveMapping() {
+        // Act
+        for (int i = 0; i < 20; i++) {
+            String url = storageService.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", image("image " + i)));
+            assertArrayEquals(image("image " + i), bytes(storageService.locate(url).content()));
+        }
+
+        // Assert - the first 1 MB window covers all of them
+        assertEquals(1, storageService.mappings());
+    }
+
+    @Test
+    @DisplayName("close - the space the active segment was mapped ahead with is cut off")
+    void close_AfterMappingActiveSegment_TruncatesToLastRecord() throws IOException {
+        // Arrange
+        String url = storageService.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", image("a")));
+        storageService.locate(url);
+        Path segment = storageService.segmentFiles().get(0);
+        assertEquals(PackFileStorageServiceImpl.MIN_WINDOW_BYTES, Files.size(segment));
+
+        // Act
+        storageService.close();
+
+        // Assert
+        assertEquals(PackFileStorageServiceImpl.HEADER_BYTES + image("a").length, Files.size(segment));
+        storageService = open(1024 * 1024);
+        assertArrayEquals(image("a"), bytes(storageService.locate(url).content()));
+    }
+
+    @Test
+    @DisplayName("recovery - mapped-ahead zeros of a segment that was not closed are dropped")
+    void reopen_WithoutClose_DropsMappedAheadSpace() throws IOException {
+        // Arrange - the first instance is never closed, as after a crash
+        PackFileStorageServiceImpl crashed = storageService;
+        String url = crashed.store(new MockMultipartFile("file", "a.jpg", "image/jpeg", image("a")));
+        crashed.locate(url);
+        Path segment = crashed.segmentFiles().get(0);
+
+        // Act
+        storageService = open(1024 * 1024);
+
+        // Assert
+        assertEquals(PackFileStorageServiceImpl.HEADER_BYTES + image("a").length, Files.size(segment));
+        assertArrayEquals(image("a"), bytes(storageService.locate(url).content()));
+        assertEquals(1, storageService.size());
+    }
+
+    @Test
+    @DisplayName("locate - unknown, malformed and foreign URLs return null")
+    void locate_WithUnknownUrl_ReturnsNull() {
+        assertNull(storageService.locate("/uploads/pack/6f1c1d2e-0000-4000-8000-000000000000.jpg"));
+        assertNull(storageService.locate("/uploads/../etc/passwd"));
+        assertNull(storageService.locate(null));
+        assertDoesNotThrow(() -> storageService.delete("/uploads/dummy_photo.png"));
+    }
+
+    private PackFileStorageServiceImpl open(long segmentBytes) {
+        return new PackFileStorageServiceImpl(tempDir.toString(), segmentBytes, 0.5,
+                new ImageProbeServiceImpl(100_000_000, 262144), storageJournal);
+    }
+
+    private static byte[] image(String payload) {
+        return ImageProbeServiceImplTest.jpeg(8, 8, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
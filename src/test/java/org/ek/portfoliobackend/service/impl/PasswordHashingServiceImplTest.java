@@ -0,0 +1,80 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.exception.custom.ServiceUnavailableException;
+import org.ek.portfoliobackend.service.PasswordHashingService.Verification;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PasswordHashingServiceImpl to verify hashing, verification and upgrading of old hashes.
+ */
+class PasswordHashingServiceImplTest {
+
+    private static final Executor SAME_THREAD = Runnable::run;
+
+    @Test
+    @DisplayName("hash - produces a BCrypt hash with the configured cost that verifies")
+    void hash_WithConfiguredCost_VerifiesWithoutUpgrade() {
+        // Arrange
+        PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(5, SAME_THREAD);
+
+        // Act
+        String hash = service.hash("Hansen2024");
+        Verification verification = service.verify("Hansen2024", hash);
+
+        // Assert
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(verification.matches());
+        assertNull(verification.upgradedHash());
+    }
+
+    @Test
+    @DisplayName("verify - wrong password does not match")
+    void verify_WithWrongPassword_DoesNotMatch() {
+        // Arrange
+        PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(4, SAME_THREAD);
+        String hash = service.hash("Hansen2024");
+
+        // Act
+        Verification verification = service.verify("wrong", hash);
+
+        // Assert
+        assertFalse(verification.matches());
+        assertNull(verification.upgradedHash());
+    }
+
+    @Test
+    @DisplayName("verify - hash made with a lower cost is re-hashed with the current cost")
+    void verify_WithLowerCostHash_ReturnsUpgradedHash() {
+        // Arrange
+        String oldHash = new PasswordHashingServiceImpl(4, SAME_THREAD).hash("Hansen2024");
+        PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(5, SAME_THREAD);
+
+        // Act
+        Verification verification = service.verify("Hansen2024", oldHash);
+
+        // Assert
+        assertTrue(verification.matches());
+        assertNotNull(verification.upgradedHash());
+        assertTrue(verification.upgradedHash().startsWith("$2a$05$"));
+        assertTrue(service.verify("Hansen2024", verification.upgradedHash()).matches());
+    }
+
+    @Test
+    @DisplayName("hash - full hashing pool fails fast with ServiceUnavailableException")
+    void hash_WhenPoolRejects_ThrowsServiceUnavailable() {
+        // Arrange
+        Executor full = task -> {
+            throw new RejectedExecutionException("queue full");
+        };
+        PasswordHashingServiceImpl service = new PasswordHashingServiceImpl(4, full);
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> service.hash("Hansen2024"));
+    }
+}
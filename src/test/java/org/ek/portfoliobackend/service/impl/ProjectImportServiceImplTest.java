@@ -0,0 +1,291 @@
+package org.ek.portfoliobackend.service.impl;
+
+import jakarta.validation.Validation;
+import org.ek.portfoliobackend.dto.response.BulkImportResponse;
+import org.ek.portfoliobackend.dto.response.BulkImportRowResult;
+import org.ek.portfoliobackend.mapper.ProjectMapper;
+import org.ek.portfoliobackend.model.Image;
+import org.ek.portfoliobackend.model.Project;
+import org.ek.portfoliobackend.repository.ProjectRepository;
+import org.ek.portfoliobackend.service.FileCleanupService;
+import org.ek.portfoliobackend.service.ImagePlaceholderService;
+import org.ek.portfoliobackend.service.ImageProbeService;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProjectImportServiceImpl to verify archive parsing, validation and batched persistence.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectImportServiceImplTest {
+
+    private static final ImageProbeService.ImageInfo JPEG_INFO =
+            new ImageProbeService.ImageInfo("image/jpeg", ".jpg", 800, 600);
+
+    private static final String VALID_PROJECT = "{\"title\":\"Fliserens\",\"description\":\"Rensning af terrasse\","
+            + "\"executionDate\":\"2025-03-04\",\"serviceCategory\":\"PAVING_CLEANING\",\"customerType\":\"PRIVATE_CUSTOMER\"}";
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Mock
+    private ImageProbeService imageProbeService;
+
+    @Mock
+    private ImagePlaceholderService imagePlaceholderService;
+
+    @Mock
+    private FileCleanupService fileCleanupService;
+
+    @Mock
+    private StorageJournal storageJournal;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProjectImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProjectImportServiceImpl(projectRepository, imageStorageService, imageProbeService,
+                imagePlaceholderService, fileCleanupService, storageJournal,
+                new ProjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                JsonMapper.builder().build(), new SimpleAsyncTaskExecutor(), transactionManager, 2, 1024);
+    }
+
+    @Test
+    @DisplayName("importArchive - creates valid lines and reports invalid ones")
+    void importArchive_WithMixedLines_ReportsPerLine() throws IOException {
+        // Arrange
+        String manifest = line("before.jpg", "BEFORE", "after.jpg", "AFTER") + "\n"
+                + line("before2.jpg", "BEFORE", "before3.jpg", "BEFORE") + "\n"
+                + "{not json}\n"
+                + line("missing.jpg", "BEFORE", "other.jpg", "AFTER") + "\n";
+        byte[] archive = zip(manifest, "before.jpg", "after.jpg", "before2.jpg", "before3.jpg", "unused.jpg");
+
+        when(imageProbeService.probe(any(MultipartFile.class))).thenReturn(JPEG_INFO);
+        when(imageStorageService.storeFile(any(MultipartFile.class)))
+                .thenAnswer(invocation -> stored("/uploads/" + invocation.getArgument(0, MultipartFile.class).getOriginalFilename()));
+        mockSaveAllAssigningIds();
+
+        // Act
+        BulkImportResponse response = importService.importArchive(new ByteArrayInputStream(archive));
+
+        // Assert
+        assertEquals(4, response.getTotal());
+        assertEquals(1, response.getCreated());
+        assertEquals(3, response.getFailed());
+
+        List<BulkImportRowResult> rows = response.getRows();
+        assertEquals(BulkImportRowResult.Status.CREATED, rows.get(0).getStatus());
+        assertNotNull(rows.get(0).getProjectId());
+        assertEquals("At least one AFTER image must be provided", rows.get(1).getMessage());
+        assertTrue(rows.get(2).getMessage().startsWith("Invalid manifest line"));
+        assertEquals("Image 'missing.jpg' was not found in the archive", rows.get(3).getMessage());
+
+        // The files no created project uses are handed to cleanup
+        ArgumentCaptor<Collection<String>> unused = ArgumentCaptor.forClass(Collection.class);
+        verify(fileCleanupService).scheduleDeletions(unused.capture());
+        assertEquals(Set.of("/uploads/before2.jpg", "/uploads/before3.jpg", "/uploads/unused.jpg"),
+                Set.copyOf(unused.getValue()));
+    }
+
+    @Test
+    @DisplayName("importArchive - persists in batches of the configured size")
+    void importArchive_PersistsInBatches() throws IOException {
+        // Arrange
+        String manifest = line("b1.jpg", "BEFORE", "a1.jpg", "AFTER") + "\n"
+                + line("b2.jpg", "BEFORE", "a2.jpg", "AFTER") + "\n"
+                + line("b3.jpg", "BEFORE", "a3.jpg", "AFTER") + "\n";
+        byte[] archive = zip(manifest, "b1.jpg", "a1.jpg", "b2.jpg", "a2.jpg", "b3.jpg", "a3.jpg");
+
+        when(imageProbeService.probe(any(MultipartFile.class))).thenReturn(JPEG_INFO);
+        when(imageStorageService.storeFile(any(MultipartFile.class)))
+                .thenAnswer(invocation -> stored("/uploads/" + invocation.getArgument(0, MultipartFile.class).getOriginalFilename()));
+        mockSaveAllAssigningIds();
+
+        // Act
+        BulkImportResponse response = importService.importArchive(new ByteArrayInputStream(archive));
+
+        // Assert - batch size 2 gives two transactions for three lines
+        assertEquals(3, response.getCreated());
+        ArgumentCaptor<List<Project>> saved = ArgumentCaptor.forClass(List.class);
+        verify(projectRepository, times(2)).saveAll(saved.capture());
+        Image image = saved.getValue().get(0).getImages().get(0);
+        assertEquals(800, image.getWidth());
+        assertEquals("hash-of-" + image.getUrl(), image.getContentHash());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("importArchive - failing batch is retried line by line")
+    void importArchive_WhenBatchFails_RetriesLineByLine() throws IOException {
+        // Arrange
+        String manifest = line("b1.jpg", "BEFORE", "a1.jpg", "AFTER") + "\n"
+                + line("b2.jpg", "BEFORE", "a2.jpg", "AFTER") + "\n";
+        byte[] archive = zip(manifest, "b1.jpg", "a1.jpg", "b2.jpg", "a2.jpg");
+
+        when(imageProbeService.probe(any(MultipartFile.class))).thenReturn(JPEG_INFO);
+        when(imageStorageService.storeFile(any(MultipartFile.class)))
+                .thenAnswer(invocation -> stored("/uploads/" + invocation.getArgument(0, MultipartFile.class).getOriginalFilename()));
+        when(projectRepository.saveAll(anyList()))
+                .thenThrow(new RuntimeException("constraint violation"))
+                .thenAnswer(invocation -> assignIds(invocation.getArgument(0)))
+                .thenThrow(new RuntimeException("constraint violation"));
+
+        // Act
+        BulkImportResponse response = importService.importArchive(new ByteArrayInputStream(archive));
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals(BulkImportRowResult.Status.CREATED, response.getRows().get(0).getStatus());
+        assertEquals(BulkImportRowResult.Status.FAILED, response.getRows().get(1).getStatus());
+    }
+
+    @Test
+    @DisplayName("importArchive - archive without manifest is rejected")
+    void importArchive_WithoutManifest_ThrowsIllegalArgumentException() throws IOException {
+        // Arrange
+        byte[] archive = zip(null, "before.jpg");
+        when(imageProbeService.probe(any(MultipartFile.class))).thenReturn(JPEG_INFO);
+        when(imageStorageService.storeFile(any(MultipartFile.class))).thenReturn(stored("/uploads/before.jpg"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importArchive(new ByteArrayInputStream(archive)));
+        verify(fileCleanupService).scheduleDeletions(any());
+        verify(projectRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("importArchive - duplicate file name rejects the lines using it and cleans up the stored file")
+    void importArchive_WithDuplicateFileName_RejectsLinesAndCleansUp() throws IOException {
+        // Arrange - ZipOutputStream refuses duplicate names, so the second name is renamed afterwards
+        String manifest = line("before.jpg", "BEFORE", "after.jpg", "AFTER") + "\n";
+        byte[] archive = rename(zip(manifest, "before.jpg", "after.jpg", "beforX.jpg"), "beforX.jpg", "before.jpg");
+
+        when(imageProbeService.probe(any(MultipartFile.class))).thenReturn(JPEG_INFO);
+        when(imageStorageService.storeFile(any(MultipartFile.class)))
+                .thenAnswer(invocation -> stored("/uploads/" + invocation.getArgument(0, MultipartFile.class).getOriginalFilename()));
+
+        // Act
+        BulkImportResponse response = importService.importArchive(new ByteArrayInputStream(archive));
+
+        // Assert - only the first entry was stored, and it is cleaned up and committed in the journal
+        assertEquals(0, response.getCreated());
+        assertEquals("Image 'before.jpg' could not be stored: Archive contains more than one file named 'before.jpg'",
+                response.getRows().get(0).getMessage());
+        verify(imageStorageService, times(2)).storeFile(any(MultipartFile.class));
+
+        ArgumentCaptor<Collection<String>> unused = ArgumentCaptor.forClass(Collection.class);
+        verify(fileCleanupService).scheduleDeletions(unused.capture());
+        assertTrue(unused.getValue().contains("/uploads/before.jpg"));
+        ArgumentCaptor<Collection<String>> committed = ArgumentCaptor.forClass(Collection.class);
+        verify(storageJournal).commit(committed.capture());
+        assertTrue(committed.getValue().contains("/uploads/before.jpg"));
+        verify(projectRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("importArchive - a file referenced twice, in one line or across lines, rejects the later use")
+    void importArchive_WithFileReferencedTwice_RejectsLaterUse() throws IOException {
+        // Arrange - line 1 uses a.jpg as both BEFORE and AFTER, line 3 reuses the files of line 2
+        String manifest = String.join("\n",
+                line("a.jpg", "BEFORE", "a.jpg", "AFTER"),
+                line("b.jpg", "BEFORE", "c.jpg", "AFTER"),
+                line("b.jpg", "BEFORE", "d.jpg", "AFTER")) + "\n";
+        byte[] archive = zip(manifest, "a.jpg", "b.jpg", "c.jpg", "d.jpg");
+
+        when(imageProbeService.probe(any(MultipartFile.class))).thenReturn(JPEG_INFO);
+        when(imageStorageService.storeFile(any(MultipartFile.class)))
+                .thenAnswer(invocation -> stored("/uploads/" + invocation.getArgument(0, MultipartFile.class).getOriginalFilename()));
+        mockSaveAllAssigningIds();
+
+        // Act
+        BulkImportResponse response = importService.importArchive(new ByteArrayInputStream(archive));
+
+        // Assert - only line 2 is created, and the files no project uses are cleaned up
+        assertEquals(1, response.getCreated());
+        assertEquals("Image 'a.jpg' is used more than once in this line", response.getRows().get(0).getMessage());
+        assertEquals(BulkImportRowResult.Status.CREATED, response.getRows().get(1).getStatus());
+        assertEquals("Image 'b.jpg' is already used by another line", response.getRows().get(2).getMessage());
+
+        ArgumentCaptor<Collection<String>> unused = ArgumentCaptor.forClass(Collection.class);
+        verify(fileCleanupService).scheduleDeletions(unused.capture());
+        assertEquals(Set.of("/uploads/a.jpg", "/uploads/d.jpg"), Set.copyOf(unused.getValue()));
+    }
+
+    private ImageStorageService.StoredFile stored(String url) {
+        return new ImageStorageService.StoredFile(url, "hash-of-" + url);
+    }
+
+    private void mockSaveAllAssigningIds() {
+        when(projectRepository.saveAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+    }
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private List<Project> assignIds(List<Project> projects) {
+        projects.forEach(project -> project.setId(ids.incrementAndGet()));
+        return projects;
+    }
+
+    private String line(String firstFile, String firstType, String secondFile, String secondType) {
+        return "{\"project\":" + VALID_PROJECT + ",\"images\":["
+                + "{\"file\":\"" + firstFile + "\",\"imageType\":\"" + firstType + "\"},"
+                + "{\"file\":\"" + secondFile + "\",\"imageType\":\"" + secondType + "\",\"isFeatured\":true}]}";
+    }
+
+    // Replaces an entry name of the same length in the local header and central directory
+    private byte[] rename(byte[] archive, String from, String to) {
+        String content = new String(archive, StandardCharsets.ISO_8859_1);
+        return content.replace(from, to).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private byte[] zip(String manifest, String... imageNames) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String imageName : imageNames) {
+                zip.putNextEntry(new ZipEntry(imageName));
+                zip.write(("content of " + imageName).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            if (manifest != null) {
+                zip.putNextEntry(new ZipEntry(ProjectImportServiceImpl.MANIFEST_NAME));
+                zip.write(manifest.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,18 +1,25 @@
 package org.ek.portfoliobackend.service.impl;
 
+import org.ek.portfoliobackend.dto.request.BulkDeleteRequest;
 import org.ek.portfoliobackend.dto.request.CreateProjectRequest;
 import org.ek.portfoliobackend.dto.request.ImageUploadRequest;
 import org.ek.portfoliobackend.dto.request.UpdateImageRequest;
 import org.ek.portfoliobackend.dto.request.UpdateProjectRequest;
+import org.ek.portfoliobackend.dto.response.BulkDeleteResponse;
 import org.ek.portfoliobackend.dto.response.ImageResponse;
 import org.ek.portfoliobackend.dto.response.ProjectResponse;
 import org.ek.portfoliobackend.mapper.ProjectMapper;
 import org.ek.portfoliobackend.model.*;
 import org.ek.portfoliobackend.repository.ImageRepository;
 import org.ek.portfoliobackend.repository.ProjectRepository;
+import org.ek.portfoliobackend.service.FileCleanupService;
+import org.ek.portfoliobackend.service.ImagePlaceholderService;
+import org.ek.portfoliobackend.service.ImageProbeService;
 import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.exception.custom.PreconditionFailedException;
 import org.ek.portfoliobackend.exception.custom.ResourceNotFoundException;
 import org.ek.portfoliobackend.service.ProjectService;
+import org.ek.portfoliobackend.service.StorageJournal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,6 +28,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -29,6 +37,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
@@ -57,6 +66,18 @@ class ProjectServiceImplTest {
     @Mock
     private ProjectMapper projectMapper;
 
+    @Mock
+    private FileCleanupService fileCleanupService;
+
+    @Mock
+    private ImageProbeService imageProbeService;
+
+    @Mock
+    private StorageJournal storageJournal;
+
+    @Mock
+    private ImagePlaceholderService imagePlaceholderService;
+
     private ProjectServiceImpl projectService;
 
     // Test data for new createProject tests
@@ -74,7 +95,8 @@ class ProjectServiceImplTest {
     @BeforeEach
     void setUp() {
         projectService = new ProjectServiceImpl(projectRepository, imageRepository,
-                imageStorageService, projectMapper);
+                imageStorageService, projectMapper, fileCleanupService, imageProbeService, storageJournal,
+                imagePlaceholderService);
 
         // Setup test data for new createProject tests
         setupTestData();
@@ -153,9 +175,9 @@ class ProjectServiceImplTest {
         // Arrange
         when(projectMapper.toProjectEntity(validRequest)).thenReturn(mockProject);
         when(projectRepository.save(any(Project.class))).thenReturn(mockProject);
-        when(imageStorageService.store(any(MultipartFile.class)))
-                .thenReturn("http://storage.com/before.jpg")
-                .thenReturn("http://storage.com/after.jpg");
+        when(imageStorageService.storeFileAsync(any(MultipartFile.class)))
+                .thenReturn(storedAsync("http://storage.com/before.jpg"))
+                .thenReturn(storedAsync("http://storage.com/after.jpg"));
 
         Image beforeImage = new Image();
         beforeImage.setId(1L);
@@ -187,9 +209,67 @@ class ProjectServiceImplTest {
         assertEquals("Test Project", result.getTitle());
         verify(projectMapper).toProjectEntity(validRequest);
         verify(projectRepository).save(any(Project.class));
-        verify(imageStorageService, times(2)).store(any(MultipartFile.class));
+        verify(imageStorageService, times(2)).storeFileAsync(any(MultipartFile.class));
         verify(imageRepository, times(2)).save(any(Image.class));
         verify(projectMapper).toResponse(any(Project.class));
+        verify(storageJournal).commitAfterTransaction(List.of("http://storage.com/before.jpg", "http://storage.com/after.jpg"));
+    }
+
+    @Test
+    void createProject_WithNonImageFile_ShouldThrowBeforeSavingAnything() {
+        // Arrange
+        when(imageProbeService.probe(any(MultipartFile.class)))
+                .thenThrow(new IllegalArgumentException("Unsupported image format, only JPEG, PNG, WebP and HEIC are allowed"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> projectService.createProject(validRequest, validImages, validMetadata));
+
+        verify(projectRepository, never()).save(any());
+        verify(imageStorageService, never()).storeFileAsync(any());
+    }
+
+    @Test
+    void createProject_WithProbedImages_ShouldApplyImageInfo() {
+        // Arrange
+        ImageProbeService.ImageInfo info = new ImageProbeService.ImageInfo("image/jpeg", ".jpg", 1920, 1080);
+        Image image = new Image();
+
+        when(imageProbeService.probe(any(MultipartFile.class))).thenReturn(info);
+        when(projectMapper.toProjectEntity(validRequest)).thenReturn(mockProject);
+        when(projectRepository.save(any(Project.class))).thenReturn(mockProject);
+        when(imageStorageService.storeFileAsync(any(MultipartFile.class))).thenReturn(storedAsync("/uploads/a.jpg"));
+        when(projectMapper.toImage(anyString(), any(ImageType.class), anyBoolean(), any(Project.class))).thenReturn(image);
+        when(imageRepository.save(any(Image.class))).thenReturn(image);
+        when(projectMapper.toResponse(any(Project.class))).thenReturn(mockProjectResponse);
+
+        // Act
+        projectService.createProject(validRequest, validImages, validMetadata);
+
+        // Assert
+        verify(projectMapper, times(2)).applyImageInfo(image, info);
+    }
+
+    @Test
+    void createProject_WithDecodableImages_ShouldApplyPlaceholders() {
+        // Arrange
+        ImagePlaceholderService.Placeholder placeholder = new ImagePlaceholderService.Placeholder("L00000fQfQfQ", "#ff0000");
+        Image image = new Image();
+
+        when(imagePlaceholderService.compute(any(MultipartFile.class))).thenReturn(placeholder);
+        when(projectMapper.toProjectEntity(validRequest)).thenReturn(mockProject);
+        when(projectRepository.save(any(Project.class))).thenReturn(mockProject);
+        when(imageStorageService.storeFileAsync(any(MultipartFile.class))).thenReturn(storedAsync("/uploads/a.jpg"));
+        when(projectMapper.toImage(anyString(), any(ImageType.class), anyBoolean(), any(Project.class))).thenReturn(image);
+        when(imageRepository.save(any(Image.class))).thenReturn(image);
+        when(projectMapper.toResponse(any(Project.class))).thenReturn(mockProjectResponse);
+
+        // Act
+        projectService.createProject(validRequest, validImages, validMetadata);
+
+        // Assert
+        verify(imagePlaceholderService, times(2)).compute(any(MultipartFile.class));
+        verify(projectMapper, times(2)).applyPlaceholder(image, placeholder);
     }
 
     @Test
@@ -283,25 +363,20 @@ class ProjectServiceImplTest {
         // Arrange
         when(projectMapper.toProjectEntity(validRequest)).thenReturn(mockProject);
         when(projectRepository.save(any(Project.class))).thenReturn(mockProject);
-        when(imageStorageService.store(any(MultipartFile.class)))
-                .thenReturn("http://storage.com/before.jpg")
-                .thenThrow(new RuntimeException("Storage failure"));
-
-        Image beforeImage = new Image();
-        beforeImage.setId(1L);
-        beforeImage.setUrl("http://storage.com/before.jpg");
-        beforeImage.setImageType(ImageType.BEFORE);
-
-        when(projectMapper.toImage(anyString(), eq(ImageType.BEFORE), eq(false), any(Project.class)))
-                .thenReturn(beforeImage);
-        when(imageRepository.save(any(Image.class))).thenReturn(beforeImage);
+        when(imageStorageService.storeFileAsync(any(MultipartFile.class)))
+                .thenReturn(storedAsync("http://storage.com/before.jpg"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Storage failure")));
+        when(imageStorageService.deleteAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> projectService.createProject(validRequest, validImages, validMetadata));
 
-        assertTrue(exception.getMessage().contains("Failed to store images"));
-        verify(imageStorageService).delete("http://storage.com/before.jpg");
+        assertEquals("Failed to store images: Storage failure", exception.getMessage());
+        verify(imageStorageService).deleteAsync("http://storage.com/before.jpg");
+        verify(storageJournal).abort(List.of("http://storage.com/before.jpg"));
+        verify(storageJournal, never()).commitAfterTransaction(any());
+        verify(imageRepository, never()).save(any());
     }
 
     @Test
@@ -333,8 +408,8 @@ class ProjectServiceImplTest {
 
         when(projectMapper.toProjectEntity(validRequest)).thenReturn(mockProject);
         when(projectRepository.save(any(Project.class))).thenReturn(mockProject);
-        when(imageStorageService.store(any(MultipartFile.class)))
-                .thenReturn("url1", "url2", "url3", "url4");
+        when(imageStorageService.storeFileAsync(any(MultipartFile.class)))
+                .thenReturn(storedAsync("url1"), storedAsync("url2"), storedAsync("url3"), storedAsync("url4"));
         when(projectMapper.toImage(anyString(), any(ImageType.class), anyBoolean(), any(Project.class)))
                 .thenReturn(new Image());
         when(imageRepository.save(any(Image.class))).thenReturn(new Image());
@@ -345,7 +420,7 @@ class ProjectServiceImplTest {
 
         // Assert
         assertNotNull(result);
-        verify(imageStorageService, times(4)).store(any(MultipartFile.class));
+        verify(imageStorageService, times(4)).storeFileAsync(any(MultipartFile.class));
         verify(imageRepository, times(4)).save(any(Image.class));
     }
 
@@ -486,7 +561,8 @@ TDD test for old update image method
         projectService.deleteProject(1L);
 
         // Then
-        verify(imageStorageService).delete("/uploads/old.jpg");
+        verify(fileCleanupService).scheduleDeletions(List.of("/uploads/old.jpg"));
+        verify(imageStorageService, never()).delete(anyString());
         verify(projectRepository).delete(mockProject);
     }
 
@@ -500,7 +576,7 @@ TDD test for old update image method
                 projectService.deleteProject(1L)
         );
 
-        verify(imageStorageService, never()).delete(anyString());
+        verify(fileCleanupService, never()).scheduleDeletions(any());
         verify(projectRepository, never()).delete(any());
     }
 
@@ -601,7 +677,7 @@ TDD test for old update image method
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
-                () -> projectService.updateProject(999L, request),
+                () -> projectService.updateProject(999L, request, null),
                 "Expected ResourceNotFoundException when project not found");
 
         verify(projectRepository).findById(999L);
@@ -610,6 +686,47 @@ TDD test for old update image method
     }
 
 
+    @Test
+    @DisplayName("updateProject - saves with a version check and marks the project as modified")
+    void updateProject_WithMatchingVersion_SavesAndFlushes() {
+        // Arrange
+        Project project = new Project();
+        project.setId(1L);
+        project.setVersion(3L);
+
+        UpdateProjectRequest request = new UpdateProjectRequest();
+        request.setTitle("new title");
+
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+        when(projectMapper.toResponse(project)).thenReturn(new ProjectResponse());
+
+        // Act
+        projectService.updateProject(1L, request, 3L);
+
+        // Assert
+        verify(projectMapper).updateProjectEntity(request, project);
+        verify(projectRepository).saveAndFlush(project);
+        assertNotNull(project.getLastModified());
+    }
+
+    @Test
+    @DisplayName("updateProject - stale If-Match version throws PreconditionFailedException")
+    void updateProject_WithStaleVersion_ThrowsPreconditionFailedException() {
+        // Arrange
+        Project project = new Project();
+        project.setId(1L);
+        project.setVersion(4L);
+
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+
+        // Act & Assert
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class,
+                () -> projectService.updateProject(1L, new UpdateProjectRequest(), 3L));
+        assertEquals("Project med id 1 er ændret (version 4, forventet 3)", exception.getMessage());
+        verify(projectMapper, never()).updateProjectEntity(any(), any());
+        verify(projectRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     @DisplayName("getProjectById - success")
     void getProjectById_WithValidId_ReturnsProjectResponse() {
@@ -896,17 +1013,18 @@ TDD test for old update image method
         );
 
         when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
-        when(imageStorageService.store(any())).thenReturn("/uploads/img.jpg");
+        when(imageStorageService.storeFileAsync(any())).thenReturn(storedAsync("/uploads/img.jpg"));
         when(projectMapper.toImage(anyString(), any(), anyBoolean(), any())).thenReturn(new Image());
         when(imageRepository.save(any())).thenReturn(new Image());
         when(projectMapper.toResponse(any())).thenReturn(new ProjectResponse());
 
         // Act
-        ProjectResponse result = projectService.addImagesToProject(1L, images, metadata);
+        ProjectResponse result = projectService.addImagesToProject(1L, images, metadata, null);
 
         // Assert
         assertNotNull(result);
         verify(imageRepository).save(any());
+        verify(projectRepository).changeImageCounts(1L, 1, 0);
     }
 
     @Test
@@ -925,7 +1043,62 @@ TDD test for old update image method
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
-                () -> projectService.addImagesToProject(999L, images, metadata));
+                () -> projectService.addImagesToProject(999L, images, metadata, null));
+    }
+
+    @Test
+    @DisplayName("addImagesToProject - stale If-Match version stores no files")
+    void addImagesToProject_WithStaleVersion_ThrowsPreconditionFailedException() {
+        // Arrange
+        Project project = new Project();
+        project.setId(1L);
+        project.setVersion(7L);
+
+        List<MultipartFile> images = List.of(
+                new MockMultipartFile("img", "img.jpg", "image/jpeg", "content".getBytes())
+        );
+        List<ImageUploadRequest> metadata = List.of(
+                new ImageUploadRequest(ImageType.BEFORE, false)
+        );
+
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class,
+                () -> projectService.addImagesToProject(1L, images, metadata, 6L));
+        verify(imageStorageService, never()).storeFileAsync(any());
+    }
+
+    @Test
+    @DisplayName("addImagesToProject - concurrent edit at flush is rethrown and stored files are removed")
+    void addImagesToProject_WhenVersionChangedBeforeFlush_RethrowsConflict() {
+        // Arrange
+        Project project = new Project();
+        project.setId(1L);
+        project.setImages(new ArrayList<>());
+
+        Image savedImage = new Image();
+        savedImage.setUrl("/uploads/img.jpg");
+
+        List<MultipartFile> images = List.of(
+                new MockMultipartFile("img", "img.jpg", "image/jpeg", "content".getBytes())
+        );
+        List<ImageUploadRequest> metadata = List.of(
+                new ImageUploadRequest(ImageType.BEFORE, false)
+        );
+
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+        when(imageStorageService.storeFileAsync(any())).thenReturn(storedAsync("/uploads/img.jpg"));
+        when(projectMapper.toImage(anyString(), any(), anyBoolean(), any())).thenReturn(new Image());
+        when(imageRepository.save(any())).thenReturn(savedImage);
+        when(projectRepository.saveAndFlush(project))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Project.class, 1L));
+        when(imageStorageService.deleteAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> projectService.addImagesToProject(1L, images, metadata, null));
+        verify(imageStorageService).deleteAsync("/uploads/img.jpg");
     }
 
     @Test
@@ -949,7 +1122,7 @@ TDD test for old update image method
         when(projectMapper.toResponse(any())).thenReturn(new ProjectResponse());
 
         // Act
-        ProjectResponse result = projectService.updateImageMetadata(1L, 1L, request);
+        ProjectResponse result = projectService.updateImageMetadata(1L, 1L, request, null);
 
         // Assert
         assertNotNull(result);
@@ -957,6 +1130,32 @@ TDD test for old update image method
         verify(imageRepository).save(image);
     }
 
+    @Test
+    @DisplayName("updateImageMetadata - retag of the last BEFORE image is refused")
+    void updateImageMetadata_RetagLastBeforeImage_ThrowsIllegalArgumentException() {
+        // Arrange
+        Project project = new Project();
+        project.setId(1L);
+
+        Image image = new Image();
+        image.setId(1L);
+        image.setImageType(ImageType.BEFORE);
+        image.setProject(project);
+
+        UpdateImageRequest request = new UpdateImageRequest();
+        request.setImageType(ImageType.AFTER);
+
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+        when(imageRepository.findById(1L)).thenReturn(Optional.of(image));
+        when(projectRepository.changeImageCounts(1L, -1, 1)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> projectService.updateImageMetadata(1L, 1L, request, null));
+        verify(projectMapper, never()).updateImageEntity(any(), any());
+        assertEquals(ImageType.BEFORE, image.getImageType());
+    }
+
     @Test
     @DisplayName("updateImageMetadata - Image Not Found")
     void updateImageMetadata_ImageNotFound() {
@@ -971,7 +1170,7 @@ TDD test for old update image method
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
-                () -> projectService.updateImageMetadata(1L, 999L, request));
+                () -> projectService.updateImageMetadata(1L, 999L, request, null));
     }
 
     @Test
@@ -1007,6 +1206,7 @@ TDD test for old update image method
 
         when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
         when(imageRepository.findById(2L)).thenReturn(Optional.of(beforeImage2));
+        when(projectRepository.changeImageCounts(1L, -1, 0)).thenReturn(1);
         when(projectMapper.toResponse(project)).thenReturn(new ProjectResponse());
 
         // Act
@@ -1014,10 +1214,36 @@ TDD test for old update image method
 
         // Assert
         assertNotNull(result);
-        verify(imageStorageService).delete("/uploads/before2.jpg");
+        verify(fileCleanupService).scheduleDeletion("/uploads/before2.jpg");
+        verify(imageStorageService, never()).delete(anyString());
         verify(imageRepository).delete(beforeImage2);
     }
 
+    @Test
+    @DisplayName("deleteImageFromProject - last AFTER image is refused by the conditional counter update")
+    void deleteImageFromProject_LastAfterImage_ThrowsIllegalArgumentException() {
+        // Arrange
+        Project project = new Project();
+        project.setId(1L);
+
+        Image afterImage = new Image();
+        afterImage.setId(3L);
+        afterImage.setImageType(ImageType.AFTER);
+        afterImage.setUrl("/uploads/after.jpg");
+        afterImage.setProject(project);
+
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+        when(imageRepository.findById(3L)).thenReturn(Optional.of(afterImage));
+        when(projectRepository.changeImageCounts(1L, 0, -1)).thenReturn(0);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> projectService.deleteImageFromProject(1L, 3L));
+        assertEquals("Cannot delete the last AFTER image of the project", exception.getMessage());
+        verify(fileCleanupService, never()).scheduleDeletion(anyString());
+        verify(imageRepository, never()).delete(any());
+    }
+
     @Test
     @DisplayName("deleteImageFromProject - Image Not Found")
     void deleteImageFromProject_ImageNotFound() {
@@ -1059,7 +1285,6 @@ TDD test for old update image method
         project.setImages(images);
 
         when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
-        doNothing().when(imageStorageService).delete(anyString());
         doNothing().when(imageRepository).deleteAll(anyList());
         doNothing().when(projectRepository).delete(any(Project.class));
 
@@ -1068,8 +1293,8 @@ TDD test for old update image method
 
         // Assert
         verify(projectRepository).findById(1L);
-        verify(imageStorageService).delete("/uploads/image1.jpg");
-        verify(imageStorageService).delete("/uploads/image2.jpg");
+        verify(fileCleanupService).scheduleDeletions(List.of("/uploads/image1.jpg", "/uploads/image2.jpg"));
+        verify(imageStorageService, never()).delete(anyString());
         verify(imageRepository).deleteAll(images);
     }
 
@@ -1084,8 +1309,72 @@ TDD test for old update image method
                 () -> projectService.deleteProject(999L));
 
         verify(projectRepository).findById(999L);
-        verify(imageStorageService, never()).delete(anyString());
+        verify(fileCleanupService, never()).scheduleDeletions(any());
         verify(imageRepository, never()).deleteAll(anyList());
         verify(projectRepository, never()).delete(any(Project.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("deleteProjects - By ids uses set-based deletes and schedules file cleanup")
+    void deleteProjects_WithIds_DeletesInBulk() {
+        // Arrange
+        BulkDeleteRequest request = new BulkDeleteRequest(List.of(1L, 2L, 2L), null, null, null);
+        when(imageRepository.findUrlsByProjectIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of("/uploads/a.jpg", "/uploads/b.jpg", "/uploads/c.jpg"));
+        when(imageRepository.deleteByProjectIdIn(List.of(1L, 2L))).thenReturn(3);
+        when(projectRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+
+        // Act
+        BulkDeleteResponse result = projectService.deleteProjects(request);
+
+        // Assert
+        assertEquals(2, result.getProjectsDeleted());
+        assertEquals(3, result.getImagesDeleted());
+        verify(fileCleanupService).scheduleDeletions(List.of("/uploads/a.jpg", "/uploads/b.jpg", "/uploads/c.jpg"));
+        verify(imageStorageService, never()).delete(anyString());
+        verify(projectRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("deleteProjects - By filter resolves ids and deletes in chunks")
+    void deleteProjects_WithFilter_DeletesInChunks() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            ids.add(id);
+        }
+        LocalDate before = LocalDate.of(2024, 1, 1);
+        BulkDeleteRequest request = new BulkDeleteRequest(null, WorkType.ROOF_CLEANING, null, before);
+        when(projectRepository.findIdsByFilters(WorkType.ROOF_CLEANING, null, before)).thenReturn(ids);
+        when(imageRepository.findUrlsByProjectIdIn(anyList())).thenReturn(List.of());
+        when(imageRepository.deleteByProjectIdIn(anyList())).thenReturn(0);
+        when(projectRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> invocation.getArgument(0, List.class).size());
+
+        // Act
+        BulkDeleteResponse result = projectService.deleteProjects(request);
+
+        // Assert - 1200 ids are split into IN lists of at most 500
+        assertEquals(1200, result.getProjectsDeleted());
+        verify(projectRepository, times(3)).deleteByIdIn(anyList());
+        verify(imageRepository, times(3)).deleteByProjectIdIn(anyList());
+    }
+
+    @Test
+    @DisplayName("deleteProjects - Empty request is rejected")
+    void deleteProjects_WithoutIdsOrFilter_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> projectService.deleteProjects(new BulkDeleteRequest()));
+
+        verify(projectRepository, never()).deleteByIdIn(anyList());
+        verify(imageRepository, never()).deleteByProjectIdIn(anyList());
+    }
+
+    private CompletableFuture<ImageStorageService.StoredFile> storedAsync(String url) {
+        return CompletableFuture.completedFuture(stored(url));
+    }
+
+    private ImageStorageService.StoredFile stored(String url) {
+        return new ImageStorageService.StoredFile(url, "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+    }
+}
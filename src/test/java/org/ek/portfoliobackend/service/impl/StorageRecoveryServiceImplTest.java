@@ -0,0 +1,76 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.repository.ImageRepository;
+import org.ek.portfoliobackend.service.ImageStorageService;
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StorageRecoveryServiceImpl to verify how unresolved intents are reconciled.
+ */
+@ExtendWith(MockitoExtension.class)
+class StorageRecoveryServiceImplTest {
+
+    @Mock
+    private StorageJournal storageJournal;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    private StorageRecoveryServiceImpl recoveryService;
+
+    @BeforeEach
+    void setUp() {
+        recoveryService = new StorageRecoveryServiceImpl(storageJournal, imageRepository, imageStorageService);
+    }
+
+    @Test
+    @DisplayName("reconcile - referenced file is kept, unreferenced file is deleted")
+    void reconcile_WithReferencedAndUnreferencedFiles_DeletesOnlyUnreferenced() {
+        // Arrange
+        when(storageJournal.unresolvedIntents()).thenReturn(List.of("/uploads/used.jpg", "/uploads/orphan.jpg"));
+        when(imageRepository.existsByUrl("/uploads/used.jpg")).thenReturn(true);
+        when(imageRepository.existsByUrl("/uploads/orphan.jpg")).thenReturn(false);
+
+        // Act
+        int removed = recoveryService.reconcile();
+
+        // Assert
+        assertEquals(1, removed);
+        verify(imageStorageService).delete("/uploads/orphan.jpg");
+        verify(imageStorageService, never()).delete("/uploads/used.jpg");
+        verify(storageJournal).commit(List.of("/uploads/used.jpg"));
+        verify(storageJournal).abort(List.of("/uploads/orphan.jpg"));
+        verify(storageJournal).checkpoint();
+    }
+
+    @Test
+    @DisplayName("reconcile - failed delete stays unresolved for the next run")
+    void reconcile_WhenDeleteFails_DoesNotAbortIntent() {
+        // Arrange
+        when(storageJournal.unresolvedIntents()).thenReturn(List.of("/uploads/orphan.jpg"));
+        when(imageRepository.existsByUrl("/uploads/orphan.jpg")).thenReturn(false);
+        doThrow(new RuntimeException("disk error")).when(imageStorageService).delete("/uploads/orphan.jpg");
+
+        // Act
+        int removed = recoveryService.reconcile();
+
+        // Assert
+        assertEquals(0, removed);
+        verify(storageJournal).abort(List.of());
+        verify(storageJournal).commit(List.of());
+    }
+}
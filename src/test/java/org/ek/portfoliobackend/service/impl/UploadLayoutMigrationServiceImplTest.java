@@ -0,0 +1,76 @@
+package org.ek.portfoliobackend.service.impl;
+
+import org.ek.portfoliobackend.service.StorageJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for UploadLayoutMigrationServiceImpl to verify that flat files are moved into the sharded layout.
+ */
+class UploadLayoutMigrationServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalFileStorageServiceImpl storageService;
+    private UploadLayoutMigrationServiceImpl migrationService;
+
+    @BeforeEach
+    void setUp() {
+        storageService = new LocalFileStorageServiceImpl(tempDir.toString(), true,
+                new ImageProbeServiceImpl(100_000_000, 262144), new ImageCacheServiceImpl(0, 0, 2, 65536), Executors.newVirtualThreadPerTaskExecutor(),
+                mock(StorageJournal.class));
+        // Batch size 2 so the test runs through several batches
+        migrationService = new UploadLayoutMigrationServiceImpl(storageService, 2, 0);
+    }
+
+    @Test
+    @DisplayName("migrateToShardedLayout - moves flat files in batches and keeps flat URLs working")
+    void migrateToShardedLayout_MovesFlatFiles() throws IOException {
+        // Arrange
+        String[] names = new String[5];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = UUID.randomUUID() + ".jpg";
+            Files.writeString(tempDir.resolve(names[i]), "content " + i);
+        }
+        Files.writeString(tempDir.resolve(".gitkeep"), "");
+
+        // Act
+        int moved = migrationService.migrateToShardedLayout();
+
+        // Assert
+        assertEquals(5, moved);
+        for (int i = 0; i < names.length; i++) {
+            Path sharded = tempDir.resolve(LocalFileStorageServiceImpl.shardDirectory(names[i])).resolve(names[i]);
+            assertFalse(Files.exists(tempDir.resolve(names[i])));
+            assertEquals("content " + i, Files.readString(sharded));
+            assertEquals(sharded, storageService.resolve("/uploads/" + names[i]));
+        }
+        assertTrue(Files.exists(tempDir.resolve(".gitkeep")), "Hidden files are left alone");
+    }
+
+    @Test
+    @DisplayName("migrateToShardedLayout - already sharded files are not touched")
+    void migrateToShardedLayout_WithNothingToMove_ReturnsZero() throws IOException {
+        // Arrange
+        String name = UUID.randomUUID() + ".jpg";
+        Path sharded = tempDir.resolve(LocalFileStorageServiceImpl.shardDirectory(name)).resolve(name);
+        Files.createDirectories(sharded.getParent());
+        Files.writeString(sharded, "content");
+
+        // Act & Assert
+        assertEquals(0, migrationService.migrateToShardedLayout());
+        assertTrue(Files.exists(sharded));
+    }
+}
@@ -2,23 +2,33 @@ package org.ek.portfoliobackend.service.impl;
 
 import org.ek.portfoliobackend.dto.request.CreateUserRequest;
 import org.ek.portfoliobackend.dto.request.UpdateUserRequest;
+import org.ek.portfoliobackend.dto.response.UserPageResponse;
 import org.ek.portfoliobackend.dto.response.UserResponse;
 import org.ek.portfoliobackend.model.User;
 import org.ek.portfoliobackend.repository.UserRepository;
+import org.ek.portfoliobackend.repository.UserRepository.UserSummaryView;
+import org.ek.portfoliobackend.service.PasswordHashingService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-
-import java.util.Arrays;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,13 +37,14 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
     private UserServiceImpl userService;
-    private BCryptPasswordEncoder passwordEncoder;
 
     @BeforeEach
     void setUp() {
-        userService = new UserServiceImpl(userRepository);
-        passwordEncoder = new BCryptPasswordEncoder();
+        userService = new UserServiceImpl(userRepository, passwordHashingService);
     }
 
     // Create User
@@ -52,9 +63,8 @@ public class UserServiceImplTest {
         savedUser.setPassword("hashedPassword");
         savedUser.setRole("ROLE_ADMIN");
 
-        when(userRepository.existsByUsername(request.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(request.getEmail())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(passwordHashingService.hash("Hansen2024")).thenReturn("hashedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
 
         // Act
         UserResponse response = userService.createUser(request);
@@ -64,7 +74,9 @@ public class UserServiceImplTest {
         assertThat(response.getUsername()).isEqualTo("Jens64");
         assertThat(response.getEmail()).isEqualTo("admin@test.io");
         assertThat(response.getRole()).isEqualTo("ROLE_ADMIN");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(argThat(user -> "hashedPassword".equals(user.getPassword())));
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
     }
 
     // Create User - Username exists
@@ -76,14 +88,15 @@ public class UserServiceImplTest {
                 "Hansen2024", "ROLE_ADMIN"
         );
 
-        when(userRepository.existsByUsername(request.getUsername())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT)); // rejected by the unique constraint
 
         // Act & Assert
         assertThatThrownBy(() -> userService.createUser(request)) //by running this method
                 .isInstanceOf(IllegalArgumentException.class) // expect this exception
                 .hasMessage("Username already exists"); // with this message
 
-        verify(userRepository, never()).save(any(User.class)); // ensure save is never called
+        verify(userRepository, never()).existsByUsername(any()); // constraint name is enough, no extra query
     }
 
     // Create User - Email exists
@@ -95,6 +108,8 @@ public class UserServiceImplTest {
                 "Hansen2024", "ROLE_ADMIN"
         );
 
+        // unknown constraint name (generated by an older schema), so the service asks which value exists
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation("UK_r43af9ap4edm43mmtq01oddj6"));
         when(userRepository.existsByUsername(request.getUsername())).thenReturn(false);
         when(userRepository.existsByEmail(request.getEmail())).thenReturn(true);
 
@@ -102,8 +117,6 @@ public class UserServiceImplTest {
         assertThatThrownBy(() -> userService.createUser(request)) //by running this method
                 .isInstanceOf(IllegalArgumentException.class) // expect this exception
                 .hasMessage("Email already exists"); // with this message
-
-        verify(userRepository, never()).save(any(User.class)); // ensure save is never called
     }
 
     // Get User by ID
@@ -139,31 +152,76 @@ public class UserServiceImplTest {
                 .hasMessage("User not found with id: 1"); // with this message
     }
 
-    // Get All Users
+    // Get Users - page with totals
     @Test
-    void getAllUsers_shouldReturnListOfUsers() {
+    void getUsers_shouldReturnPageOfSummaries() {
         // Arrange
-        User user1 = new User();
-        user1.setId(1L);
-        user1.setUsername("Jens64");
-        user1.setEmail("email@admin.io");
-        user1.setRole("ROLE_ADMIN");
+        Page<UserSummaryView> page = new PageImpl<>(
+                List.of(summary(1L, "Jens64", "ROLE_ADMIN"), summary(2L, "Anna88", "ROLE_SALES")),
+                PageRequest.of(0, 2, Sort.by("id")), 5);
+
+        when(userRepository.findSummaries(PageRequest.of(0, 2, Sort.by("id")))).thenReturn(page);
 
-        User user2 = new User();
-        user2.setId(2L);
-        user2.setUsername("Anna88");
-        user2.setEmail("annas@email.dk");
-        user2.setRole("ROLE_SALES");
+        // Act
+        UserPageResponse response = userService.getUsers(0, 2);
+
+        // Assert
+        assertThat(response.getContent()).extracting(UserResponse::getUsername).containsExactly("Jens64", "Anna88");
+        assertThat(response.getTotalElements()).isEqualTo(5);
+        assertThat(response.getTotalPages()).isEqualTo(3);
+        verify(userRepository, never()).findAll(); // full entities (with password hashes) are never loaded
+    }
+
+    // Get Users - cursor
+    @Test
+    void getUsersAfter_shouldReturnNextCursor_whenMoreUsersExist() {
+        // Arrange
+        when(userRepository.findSummariesAfterId(10L, PageRequest.of(0, 3))).thenReturn(List.of(
+                summary(11L, "a", "ROLE_SALES"), summary(12L, "b", "ROLE_SALES"), summary(13L, "c", "ROLE_SALES")));
+
+        // Act
+        UserPageResponse response = userService.getUsersAfter(10L, 2);
+
+        // Assert
+        assertThat(response.getContent()).extracting(UserResponse::getId).containsExactly(11L, 12L);
+        assertThat(response.getNextCursor()).isEqualTo(12L);
+        assertThat(response.getTotalElements()).isNull();
+    }
+
+    // Get Users - cursor, last page
+    @Test
+    void getUsersAfter_shouldReturnNoCursor_onLastPage() {
+        // Arrange
+        when(userRepository.findSummariesAfterId(12L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(summary(13L, "c", "ROLE_SALES")));
+
+        // Act
+        UserPageResponse response = userService.getUsersAfter(12L, 2);
+
+        // Assert
+        assertThat(response.getContent()).hasSize(1);
+        assertThat(response.getNextCursor()).isNull();
+    }
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+    // Export Users
+    @Test
+    void exportUsers_shouldPassEveryUserInIdOrder() {
+        // Arrange
+        List<UserSummaryView> firstBatch = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            firstBatch.add(summary(id, "user" + id, "ROLE_SALES"));
+        }
+        when(userRepository.findSummariesAfterId(0L, PageRequest.of(0, 500))).thenReturn(firstBatch);
+        when(userRepository.findSummariesAfterId(500L, PageRequest.of(0, 500)))
+                .thenReturn(List.of(summary(501L, "user501", "ROLE_SALES")));
+        List<Long> exported = new ArrayList<>();
 
         // Act
-        List<UserResponse> responses = userService.getAllUsers();
+        userService.exportUsers(user -> exported.add(user.getId()));
 
         // Assert
-        assertThat(responses).hasSize(2);
-        assertThat(responses.get(0).getUsername()).isEqualTo("Jens64");
-        assertThat(responses.get(1).getUsername()).isEqualTo("Anna88");
+        assertThat(exported).hasSize(501);
+        assertThat(exported.get(500)).isEqualTo(501L);
     }
 
     // Update User
@@ -181,15 +239,37 @@ public class UserServiceImplTest {
         request.setUsername("NewName");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.existsByUsername("NewName")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(existingUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(existingUser);
 
         // Act
         UserResponse response = userService.updateUser(1L, request);
 
         // Assert
         assertThat(response.getUsername()).isEqualTo("NewName");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByUsername(any());
+    }
+
+    // Update User - Email taken by another user
+    @Test
+    void updateUser_shouldThrowException_whenEmailTakenByAnotherUser() {
+        // Arrange
+        User existingUser = new User();
+        existingUser.setId(1L);
+        existingUser.setUsername("OldName");
+        existingUser.setEmail("old@email.io");
+        existingUser.setRole("ROLE_ADMIN");
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setEmail("taken@email.io");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation(User.EMAIL_CONSTRAINT));
+
+        // Act & Assert
+        assertThatThrownBy(() -> userService.updateUser(1L, request)) //by running this method
+                .isInstanceOf(IllegalArgumentException.class) // expect this exception
+                .hasMessage("Email already exists"); // with this message
     }
 
     // Update User - Not found
@@ -233,4 +313,31 @@ public class UserServiceImplTest {
 
         verify(userRepository, never()).deleteById(1L);
     }
+
+    // What Spring throws when the INSERT or UPDATE violates a unique constraint
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry"), constraintName));
+    }
+
+    // A row of the listing projection, as the repository returns it
+    private static UserSummaryView summary(Long id, String username, String role) {
+        return new UserSummaryView() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public String getEmail() {
+                return username + "@test.dk";
+            }
+
+            public String getRole() {
+                return role;
+            }
+        };
+    }
 }